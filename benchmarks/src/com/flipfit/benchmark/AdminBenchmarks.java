@@ -0,0 +1,43 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.bean.GymBooking;
+import com.flipfit.bean.GymCenter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The admin's listings: every booking at once, one page of bookings and the centers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AdminBenchmarks {
+
+    @Benchmark
+    public List<GymBooking> viewBookings(FlipfitState state) {
+        return state.adminBusiness.viewBookings();
+    }
+
+    @Benchmark
+    public List<GymBooking> viewBookingsPage(FlipfitState state) {
+        return state.adminBusiness.viewBookings(ThreadLocalRandom.current().nextInt(state.database.bookings), 20);
+    }
+
+    @Benchmark
+    public List<GymCenter> viewCenter(FlipfitState state) {
+        return state.adminBusiness.viewCenter();
+    }
+}
@@ -0,0 +1,70 @@
+package com.flipfit.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares two JMH result files written with -rf json and reports every benchmark whose score got worse
+ * by more than the allowed percentage: a lower throughput, or a higher time per operation in the
+ * average, sample and single-shot modes.
+ *
+ * Usage:
+ *   java com.flipfit.benchmark.BenchmarkComparison results.json baseline.json [max-regression-percent, default 10]
+ * The process exits with status 1 if any benchmark regressed.
+ */
+public final class BenchmarkComparison {
+
+    // Benchmark name, mode and the score of its primary metric, which JMH writes before any secondary metric
+    private static final Pattern RESULT = Pattern.compile(
+            "\"benchmark\"\\s*:\\s*\"([^\"]+)\".*?\"mode\"\\s*:\\s*\"([^\"]+)\".*?\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([0-9.eE+-]+)",
+            Pattern.DOTALL);
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BenchmarkComparison results.json baseline.json [max-regression-percent]");
+            System.exit(2);
+        }
+        double maxRegressionPercent = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Double> results = read(Paths.get(args[0]));
+        Map<String, Double> baseline = read(Paths.get(args[1]));
+
+        boolean regressed = false;
+        System.out.println("# Comparison of " + args[0] + " with " + args[1]);
+        for (Map.Entry<String, Double> result : results.entrySet()) {
+            String name = result.getKey();
+            double score = result.getValue();
+            Double before = baseline.get(name);
+            if (before == null || before == 0) {
+                System.out.printf("%-70s %14.3f  (no baseline)%n", name, score);
+                continue;
+            }
+            double change = (score - before) / before * 100;
+            // Throughput should go up; every other mode measures time per operation, which should go down
+            boolean bad = name.endsWith("[thrpt]") ? change < -maxRegressionPercent : change > maxRegressionPercent;
+            regressed |= bad;
+            System.out.printf("%-70s %14.3f  baseline %14.3f  %+6.1f%%%s%n", name, score, before, change, bad ? "  REGRESSION" : "");
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // Reads the primary scores of a JMH JSON file, keyed by "benchmark [mode]"
+    static Map<String, Double> read(Path file) throws IOException {
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Map<String, Double> scores = new LinkedHashMap<>();
+        Matcher matcher = RESULT.matcher(json);
+        while (matcher.find()) {
+            scores.put(matcher.group(1) + " [" + matcher.group(2) + "]", Double.parseDouble(matcher.group(3)));
+        }
+        return scores;
+    }
+}
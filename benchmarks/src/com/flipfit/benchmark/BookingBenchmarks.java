@@ -0,0 +1,78 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.bean.GymBooking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Booking a seat, moving a booking between two slots and listing a customer's bookings.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class BookingBenchmarks {
+
+    /**
+     * The booking one thread moves back and forth between slots 1 and 2, half of the threads in the
+     * opposite direction, so every move contends for the same two seat rows.
+     */
+    @State(Scope.Thread)
+    public static class MovingBooking {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        int customerId;
+        int bookingId;
+        int slotId;
+        Date date;
+
+        @Setup(Level.Trial)
+        public void book(FlipfitState state) {
+            int thread = THREADS.getAndIncrement();
+            customerId = 1 + thread;
+            slotId = 1 + thread % 2;
+            date = java.sql.Date.valueOf(state.today.plusYears(4));  // A date no other benchmark touches
+            bookingId = state.customerBusiness.createBooking(customerId, slotId, 1, date);
+        }
+    }
+
+    @Benchmark
+    public int createBooking(FlipfitState state) {
+        int slotId = state.randomSlot();
+        return state.customerBusiness.createBooking(state.randomCustomer(), slotId, state.database.centerOf(slotId),
+                state.randomFutureDate());
+    }
+
+    @Benchmark
+    public int modifyBooking(FlipfitState state, MovingBooking booking) {
+        int target = 3 - booking.slotId;
+        if (state.customerBusiness.modifyBooking(booking.customerId, booking.bookingId, target, 1, booking.date) != booking.bookingId) {
+            throw new IllegalStateException("booking was not moved");
+        }
+        booking.slotId = target;
+        return target;
+    }
+
+    @Benchmark
+    public List<GymBooking> viewBookings(FlipfitState state) {
+        return state.customerBusiness.viewBookings(state.randomCustomer());
+    }
+}
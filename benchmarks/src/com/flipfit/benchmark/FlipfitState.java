@@ -0,0 +1,75 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.business.GymAdminBusiness;
+import com.flipfit.business.GymCenterBusiness;
+import com.flipfit.business.GymCustomerBusiness;
+import com.flipfit.business.GymOwnerBusiness;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.business.GymUserBusiness;
+import com.flipfit.dao.GymCustomerDAO;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.utils.DBConnection;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The seeded embedded database and the registry's services, shared by all threads of a benchmark.
+ * Every fork is a fresh JVM and so gets a fresh database; volumes come from the flipfit.bench.* properties
+ * (see SeededDatabase), e.g. -jvmArgsAppend -Dflipfit.bench.customers=20000.
+ */
+@State(Scope.Benchmark)
+public class FlipfitState {
+
+    SeededDatabase database;
+    GymCenterBusiness centerBusiness;
+    GymCustomerBusiness customerBusiness;
+    GymUserBusiness userBusiness;
+    GymAdminBusiness adminBusiness;
+    GymOwnerBusiness ownerBusiness;
+    GymCustomerDAO customerDAO;
+    LocalDate today;
+    int totalSlots;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        database = SeededDatabase.get();
+        GymServiceRegistry registry = GymServiceRegistry.getInstance();
+        centerBusiness = registry.getCenterBusiness();
+        customerBusiness = registry.getCustomerBusiness();
+        userBusiness = registry.getUserBusiness();
+        adminBusiness = registry.getAdminBusiness();
+        ownerBusiness = registry.getOwnerBusiness();
+        customerDAO = registry.getCustomerDAO();
+        today = LocalDate.now();
+        totalSlots = database.centers * database.slotsPerCenter;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println("# Login stats: " + userBusiness.loginStats());
+        System.out.println("# Payments: " + GymServiceRegistry.getInstance().getPaymentProcessor());
+        System.out.println("# Pool: " + DBConnection.pool());
+    }
+
+    // A random seeded slot
+    int randomSlot() {
+        return 1 + ThreadLocalRandom.current().nextInt(totalSlots);
+    }
+
+    // A random seeded customer
+    int randomCustomer() {
+        return 1 + ThreadLocalRandom.current().nextInt(database.customers);
+    }
+
+    // A random date of the coming year, so slots rarely sell out during a run
+    Date randomFutureDate() {
+        return java.sql.Date.valueOf(today.plusDays(1 + ThreadLocalRandom.current().nextInt(365)));
+    }
+}
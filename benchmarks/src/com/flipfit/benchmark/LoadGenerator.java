@@ -0,0 +1,266 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.Application.FlipfitServer;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.Json;
+import com.flipfit.utils.LatencyHistogram;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the HTTP API with many concurrent user sessions to show how many people one node can serve.
+ * Every session logs in as a seeded customer and then, until the run ends, browses the slots of a
+ * random center, books a seat and lists its bookings, with a short think time between requests.
+ * The sessions log in spread evenly over the ramp-up time, as users arriving, and all run until the end.
+ *
+ * By default an in-process server is started on the seeded embedded database; pass --url to load an
+ * already running server instead (its database must hold the benchmark customers).
+ *
+ * Usage:
+ *   java com.flipfit.benchmark.LoadGenerator [--sessions 2000] [--duration-s 30] [--think-ms 50] [--ramp-s 0]
+ *        [--url http://localhost:8080]
+ */
+public final class LoadGenerator {
+
+    static {
+        // The server closes surplus idle keep-alive connections; let the client retry a POST that was sent on one
+        // of them, as it already does for a GET, instead of reporting the closed connection as a failed request.
+        // Read once when the HTTP client is first used, so it must be set before.
+        if (System.getProperty("jdk.httpclient.enableAllMethodRetry") == null) {
+            System.setProperty("jdk.httpclient.enableAllMethodRetry", "true");
+        }
+    }
+
+    private final URI base;
+    private final HttpClient client;
+    private final int sessions;
+    private final long durationMillis;
+    private final long thinkMillis;
+    private final long rampMillis;
+    private final SeededDatabase seeder;
+
+    // Results
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger loggedIn = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    LoadGenerator(URI base, int sessions, long durationMillis, long thinkMillis, long rampMillis, SeededDatabase seeder) {
+        this.base = base;
+        this.sessions = sessions;
+        this.durationMillis = durationMillis;
+        this.thinkMillis = thinkMillis;
+        this.rampMillis = rampMillis;
+        this.seeder = seeder;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int sessions = Integer.parseInt(options.getOrDefault("sessions", "2000"));
+        long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("duration-s", "30")));
+        long thinkMillis = Long.parseLong(options.getOrDefault("think-ms", "50"));
+        long rampMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("ramp-s", "0")));
+
+        SeededDatabase seeder;
+        FlipfitServer server = null;
+        URI base;
+        if (options.containsKey("url")) {
+            seeder = SeededDatabase.volumes();
+            base = URI.create(options.get("url"));
+        } else {
+            seeder = SeededDatabase.get();  // Same default as the benchmarks: a throwaway embedded database
+            server = new FlipfitServer(new InetSocketAddress("127.0.0.1", 0), 4096, GymServiceRegistry.getInstance());
+            server.start();
+            base = URI.create("http://127.0.0.1:" + server.getPort());
+        }
+
+        LoadGenerator generator = new LoadGenerator(base, sessions, durationMillis, thinkMillis, rampMillis, seeder);
+        try {
+            generator.run();
+        } finally {
+            if (server != null) {
+                System.out.println("# Server sessions: " + server.getSessionCount());
+                System.out.println("# Pool: " + DBConnection.pool());
+                server.stop(0);
+            }
+        }
+        System.exit(generator.errors.sum() > 0 ? 1 : 0);
+    }
+
+    // Starts the sessions over the ramp-up time, lets them run until the configured time is over and prints the results
+    void run() throws Exception {
+        System.out.println("# Load: " + sessions + " sessions for " + durationMillis / 1000 + " s against " + base);
+        ExecutorService executor = FlipfitServer.newRequestExecutor();  // Platform threads on the Java 17 toolchain
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Future<?>> running = new ArrayList<>();
+        for (int s = 0; s < sessions; s++) {
+            int customerId = 1 + s % seeder.customers;
+            long delayMillis = rampMillis * s / sessions;
+            running.add(executor.submit(() -> {
+                start.await();
+                Thread.sleep(delayMillis);
+                session(customerId, deadline[0]);
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        deadline[0] = begin + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        start.countDown();
+        for (Future<?> session : running) {
+            try {
+                session.get();
+            } catch (Exception e) {
+                fail("session " + e.getCause());
+            }
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        System.out.printf("# Sessions logged in: %d of %d, peak concurrent requests: %d%n", loggedIn.get(), sessions, peakInFlight.get());
+        System.out.printf("# Requests: %d in %.1f s = %.1f req/s, errors=%d%n", requests.sum(), seconds, requests.sum() / seconds, errors.sum());
+        System.out.println("# Latency: " + latency);
+        System.out.println("# Status codes: " + statuses);
+        if (!failures.isEmpty()) {
+            System.out.println("# Failures: " + failures);
+        }
+    }
+
+    // One user: log in, then browse, book and list bookings until the deadline
+    private void session(int customerId, long deadline) throws InterruptedException {
+        Map<String, String> login = call("POST", "/api/login", null,
+                "{\"email\":\"" + SeededDatabase.email(customerId) + "\",\"password\":\"" + SeededDatabase.PASSWORD
+                        + "\",\"role\":\"gymcustomer\"}");
+        if (login == null || !login.containsKey("token")) {
+            fail("login");
+            return;
+        }
+        loggedIn.incrementAndGet();
+        String token = login.get("token");
+
+        LocalDate today = LocalDate.now();
+        while (System.nanoTime() < deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int slotId = 1 + random.nextInt(seeder.centers * seeder.slotsPerCenter);
+            int centerId = 1 + (slotId - 1) / seeder.slotsPerCenter;
+            LocalDate date = today.plusDays(1 + random.nextInt(365));
+
+            call("GET", "/api/centers/" + centerId + "/slots?date=" + date, token, null);
+            think(deadline);
+            call("POST", "/api/bookings", token,
+                    "{\"centerId\":" + centerId + ",\"slotId\":" + slotId + ",\"date\":\"" + date + "\"}");
+            think(deadline);
+            call("GET", "/api/bookings", token, null);
+            think(deadline);
+        }
+        call("POST", "/api/logout", token, null);
+    }
+
+    // Getter for the number of failed requests and sessions
+    long getErrors() {
+        return errors.sum();
+    }
+
+    // Getter for the failure reasons with their counts
+    Map<String, LongAdder> getFailures() {
+        return failures;
+    }
+
+    // Getter for the number of answered requests
+    long getRequests() {
+        return requests.sum();
+    }
+
+    // Getter for the number of responses with a status code
+    long getStatusCount(int status) {
+        LongAdder count = statuses.get(status);
+        return count == null ? 0 : count.sum();
+    }
+
+    // Getter for the number of sessions that logged in
+    int getLoggedIn() {
+        return loggedIn.get();
+    }
+
+    // Getter for the highest number of requests in flight at once
+    int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    private void fail(String reason) {
+        errors.increment();
+        failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    // Pauses like a user reading the last answer, but not beyond the end of the run
+    private void think(long deadline) throws InterruptedException {
+        if (thinkMillis > 0) {
+            long pause = ThreadLocalRandom.current().nextLong(thinkMillis / 2, thinkMillis * 3 / 2 + 1);
+            Thread.sleep(Math.max(0, Math.min(pause, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+        }
+    }
+
+    /**
+     * Sends one request and records its latency and status.
+     * 409 (slot sold out) is an expected business answer; other 4xx/5xx responses and I/O failures count as errors.
+     * @return the fields of a JSON object response, or null if the request failed or the response is not an object
+     */
+    private Map<String, String> call(String method, String path, String token, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve(path)).timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            latency.record(System.nanoTime() - start);
+            requests.increment();
+            statuses.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+            if (response.statusCode() >= 400 && response.statusCode() != 409) {
+                fail(method + " " + path.replaceAll("[0-9?].*", "") + " -> " + response.statusCode());
+                return null;
+            }
+            return response.body().startsWith("{") ? Json.parseObject(response.body()) : null;
+        } catch (Exception e) {
+            fail(e.getClass().getSimpleName());
+            return null;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.testing.SeededDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every role works at the same time against the shared services of the registry: one thread per role,
+ * reported together as the mixedRoles group and per role in the secondary metrics.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MixedRolesBenchmark {
+
+    // Customer browses a center's slots and books one
+    @Benchmark
+    @Group("mixedRoles")
+    @GroupThreads(1)
+    public int customerBooks(FlipfitState state, Blackhole blackhole) {
+        int slotId = state.randomSlot();
+        int centerId = state.database.centerOf(slotId);
+        blackhole.consume(state.centerBusiness.viewSlots(centerId, java.sql.Date.valueOf(state.today.plusDays(1))));
+        return state.customerBusiness.createBooking(state.randomCustomer(), slotId, centerId, state.randomFutureDate());
+    }
+
+    // Customer signs in
+    @Benchmark
+    @Group("mixedRoles")
+    @GroupThreads(1)
+    public int customerLogsIn(FlipfitState state) {
+        int customerId = state.randomCustomer();
+        if (state.userBusiness.login(SeededDatabase.email(customerId), SeededDatabase.PASSWORD, "gymcustomer") != customerId) {
+            throw new IllegalStateException("login failed");
+        }
+        return customerId;
+    }
+
+    // Admin pages through bookings and centers
+    @Benchmark
+    @Group("mixedRoles")
+    @GroupThreads(1)
+    public void adminBrowses(FlipfitState state, Blackhole blackhole) {
+        blackhole.consume(state.adminBusiness.viewBookings(ThreadLocalRandom.current().nextInt(state.database.bookings), 20));
+        blackhole.consume(state.adminBusiness.viewCenter());
+    }
+
+    // Owner asks for a new center
+    @Benchmark
+    @Group("mixedRoles")
+    @GroupThreads(1)
+    public boolean ownerRegistersCenter(FlipfitState state) {
+        return state.ownerBusiness.registerCenter(1 + ThreadLocalRandom.current().nextInt(state.database.centers),
+                "Bench Center", "Bench Location", 4);
+    }
+}
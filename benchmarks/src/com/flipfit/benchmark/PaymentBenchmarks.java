@@ -0,0 +1,45 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.bean.GymPayment;
+import com.flipfit.exceptions.DataEntryFailedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One payment per call: the plain DAO path against the batching pipeline with fresh idempotency keys.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PaymentBenchmarks {
+
+    private static final AtomicLong KEYS = new AtomicLong();
+
+    @Benchmark
+    public int makepayment(FlipfitState state) throws DataEntryFailedException {
+        return state.customerDAO.makepayment(new GymPayment(1 + ThreadLocalRandom.current().nextInt(state.database.bookings), "card"));
+    }
+
+    @Benchmark
+    public int submit(FlipfitState state) {
+        int bookingId = 1 + ThreadLocalRandom.current().nextInt(state.database.bookings);
+        int paymentId = state.customerBusiness.makepayment(bookingId, "card", "bench-" + KEYS.incrementAndGet() + "-" + System.nanoTime());
+        if (paymentId <= 0) {
+            throw new IllegalStateException("payment failed");
+        }
+        return paymentId;
+    }
+}
@@ -0,0 +1,85 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.bean.GymSlotAvailability;
+import com.flipfit.bean.GymSlots;
+import com.flipfit.dao.GymSlotSearchIndex;
+import com.flipfit.testing.SeededDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot listings: one center's slots for a day, and a customer looking for a morning slot in one area over
+ * the next week, once with one listing per center and day and once by paging through the slot search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SlotBenchmarks {
+
+    private static final LocalTime FROM_TIME = LocalTime.of(6, 0);
+    private static final LocalTime TO_TIME = LocalTime.of(9, 0);
+
+    private String location;
+    private List<Integer> centerIds;
+    private Date tomorrow;
+    private Date lastDate;
+
+    @Setup(Level.Trial)
+    public void setUp(FlipfitState state) {
+        location = SeededDatabase.location(2);
+        centerIds = state.database.centersAt(location);
+        tomorrow = java.sql.Date.valueOf(state.today.plusDays(1));
+        lastDate = java.sql.Date.valueOf(state.today.plusDays(7));
+    }
+
+    @Benchmark
+    public List<GymSlots> viewSlots(FlipfitState state) {
+        return state.centerBusiness.viewSlots(1 + ThreadLocalRandom.current().nextInt(state.database.centers), tomorrow);
+    }
+
+    @Benchmark
+    public void viewSlotsPerCenterAndDay(FlipfitState state, Blackhole blackhole) {
+        for (int day = 1; day <= 7; day++) {
+            Date date = java.sql.Date.valueOf(state.today.plusDays(day));
+            for (int centerId : centerIds) {
+                for (GymSlots slot : state.centerBusiness.viewSlots(centerId, date)) {
+                    if (!slot.getStartTime().isBefore(FROM_TIME) && !slot.getStartTime().isAfter(TO_TIME)) {
+                        blackhole.consume(slot.getSlotId());
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void searchSlots(FlipfitState state, Blackhole blackhole) {
+        String after = null;
+        List<GymSlotAvailability> page;
+        do {
+            page = state.centerBusiness.searchSlots(location, FROM_TIME, TO_TIME, tomorrow, lastDate, after, 50);
+            blackhole.consume(page);
+            after = page.isEmpty() ? null : GymSlotSearchIndex.cursorOf(page.get(page.size() - 1));
+        } while (page.size() == 50);
+    }
+}
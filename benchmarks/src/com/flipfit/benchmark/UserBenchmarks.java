@@ -0,0 +1,60 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.bean.GymCustomer;
+import com.flipfit.testing.SeededDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Customer logins and the customer listings: the full list, one page by ID, one page by name and a stream.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class UserBenchmarks {
+
+    @Benchmark
+    public int login(FlipfitState state) {
+        int customerId = state.randomCustomer();
+        if (state.userBusiness.login(SeededDatabase.email(customerId), SeededDatabase.PASSWORD, "gymcustomer") != customerId) {
+            throw new IllegalStateException("login failed");
+        }
+        return customerId;
+    }
+
+    @Benchmark
+    public List<GymCustomer> viewAllCustomers(FlipfitState state) {
+        return state.userBusiness.viewAllCustomers();
+    }
+
+    @Benchmark
+    public List<GymCustomer> viewCustomersPage(FlipfitState state) {
+        return state.userBusiness.viewCustomers(null, null, ThreadLocalRandom.current().nextInt(state.database.customers), 20);
+    }
+
+    @Benchmark
+    public List<GymCustomer> viewCustomersByName(FlipfitState state) {
+        return state.userBusiness.viewCustomers("Customer " + (1 + ThreadLocalRandom.current().nextInt(9)), null, 0, 20);
+    }
+
+    @Benchmark
+    public long streamCustomers(FlipfitState state) {
+        try (Stream<GymCustomer> customers = state.userBusiness.streamCustomers(null, "flipfit.test")) {
+            return customers.count();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.flipfit.benchmark;
+
+import com.flipfit.Application.FlipfitServer;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadGeneratorTest {
+
+    private static final int SESSIONS = 2_000;
+
+    /**
+     * Runs thousands of concurrent user sessions against one in-process server and verifies that every
+     * session logged in and got an answer to every request, that the sessions really overlapped, that the
+     * server logged them all out again and that no slot was oversold on the way.
+     * The build runs on Java 17, so the server and the sessions use platform threads, not virtual ones.
+     */
+    @Test
+    void oneNodeServesThousandsOfSessions() throws Exception {
+        SeededDatabase database = SeededDatabase.get();
+        FlipfitServer server = new FlipfitServer(new InetSocketAddress("127.0.0.1", 0), 4096, GymServiceRegistry.getInstance());
+        server.start();
+        LoadGenerator generator;
+        try {
+            generator = new LoadGenerator(URI.create("http://127.0.0.1:" + server.getPort()), SESSIONS, 25_000, 10_000, 10_000, database);
+            generator.run();
+            assertEquals(0, server.getSessionCount(), "sessions left open after logout");
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(0, generator.getErrors(), "failed requests " + generator.getFailures());
+        assertEquals(SESSIONS, generator.getLoggedIn(), "sessions logged in");
+        assertTrue(generator.getRequests() >= 3L * SESSIONS, "only " + generator.getRequests() + " requests answered");
+        assertTrue(generator.getStatusCount(200) > 0, "no request succeeded");
+        assertTrue(generator.getPeakInFlight() >= 100, "only " + generator.getPeakInFlight() + " requests were ever in flight at once");
+        assertEquals(0, SeededDatabase.queryInt("SELECT COUNT(*) FROM AvailableSeats a WHERE a.Date > ? AND (a.NumSeats < 0 OR a.NumSeats + "
+                + "(SELECT COUNT(*) FROM CustomerBooking b WHERE b.slotId = a.slotId AND b.Date = a.Date) <> ?)",
+                java.sql.Date.valueOf(LocalDate.now()), database.seatsPerSlot), "slots whose seats and bookings do not add up");
+    }
+}
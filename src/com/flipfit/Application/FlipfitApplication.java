@@ -1,74 +1,15 @@
 package com.flipfit.Application;
 
-<<<<<<< HEAD
 import com.flipfit.business.*;
 import com.flipfit.exceptions.DBConnectionException;
 import com.flipfit.exceptions.InvalidCredentialsException;
-=======
-import com.flipfit.exception.DBconnectionException;
-import com.flipfit.utils.DBConnection;
-
-import java.sql.Connection;
-import java.sql.SQLException;
-
-public class FlipfitApplication
-{
-       public static void login()
-         {
-              java.util.Scanner in = new java.util.Scanner(System.in);
-                System.out.println("Enter the User Name :---");
-                in = new java.util.Scanner(System.in);
-                 String name=in.nextLine();
-                System.out.println("Enter the Password :----");
-                in = new java.util.Scanner(System.in);
-                String pwd=in.nextLine();
-                System.out.println("Enter the ROLE: (GymCustomer/GymOwner/GymAdmin)");
-                in = new java.util.Scanner(System.in);
-                String role=in.nextLine().toLowerCase();
->>>>>>> 01950559380923ee0553e2dda53c2355c1df21fd
 
 import java.sql.Connection;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
-<<<<<<< HEAD
 public class FlipfitApplication {
     public static void login() {
-=======
-              }
-
-         }
-         public static void registration(int choice)
-         {
-             if(choice==2)
-             {
-                 GymCustomerFlipfitmenu customer=new GymCustomerFlipfitmenu();
-                 customer.register();
-             }
-             if(choice==3)
-             {
-                 GymOwnerFlipfitmenu own=new GymOwnerFlipfitmenu();
-                 own.register();
-             }
-         }
-         public static void updatepwd()
-         {
-             System.out.println("Enter the New Password :---");
-             java.util.Scanner in = new java.util.Scanner(System.in);
-             String pwd=in.nextLine();
-             System.out.println("Password Updated Successfully : "+ pwd);
-
-         }
-     public static void main(String agrs[]) throws SQLException, DBconnectionException {
-
-           Connection conn = null;
-           conn = DBConnection.connect();
-
-    int choice;
-     while(true)
-     {
-         System.out.println("Welcome to FlipFit Application");
->>>>>>> 01950559380923ee0553e2dda53c2355c1df21fd
         java.util.Scanner in = new java.util.Scanner(System.in);
         System.out.println("Enter the Email Address :---");
         in = new java.util.Scanner(System.in);
@@ -79,7 +20,7 @@ public class FlipfitApplication {
         System.out.println("Enter the ROLE: (GymCustomer/GymOwner/GymAdmin)");
         in = new java.util.Scanner(System.in);
         String role = in.nextLine().toLowerCase();
-        GymUserBusiness userBusiness = new GymUserBusinessImpl();
+        GymUserBusiness userBusiness = GymServiceRegistry.getInstance().getUserBusiness();
         if (role.equals("gymadmin")) {
             int adminId = userBusiness.login(email, pwd, role);
             if (adminId != -1) {
@@ -125,7 +66,7 @@ public class FlipfitApplication {
         System.out.println("Enter Your Role :---");
         String role = in.nextLine().toLowerCase();
         if (role.equals("gymadmin")) {
-            GymAdminBusiness adminBusiness = new GymAdminBusinessImpl();
+            GymAdminBusiness adminBusiness = GymServiceRegistry.getInstance().getAdminBusiness();
             if(!adminBusiness.updatepwd(email, pwd, role)){
                 System.out.println("Update Failed, Check Your Credentials Again !!");
             } else {
@@ -133,7 +74,7 @@ public class FlipfitApplication {
             }
         }
         else if (role.equals("gymcustomer")) {
-            GymCustomerBusiness customerBusiness = new GymCustomerBusinessImpl();
+            GymCustomerBusiness customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
             if(!customerBusiness.updatepwd(email, pwd, role)){
                 System.out.println("Update Failed, Check Your Credentials Again !!");
             } else {
@@ -141,7 +82,7 @@ public class FlipfitApplication {
             }
         }
         else if (role.equals("gymowner")) {
-            GymOwnerBusiness ownerBusiness = new GymOwnerBusinessImpl();
+            GymOwnerBusiness ownerBusiness = GymServiceRegistry.getInstance().getOwnerBusiness();
             if(!ownerBusiness.updatepwd(email, pwd, role)){
                 System.out.println("Update Failed, Check Your Credentials Again !!");
             } else {
@@ -152,7 +93,12 @@ public class FlipfitApplication {
         }
     }
 
-    public static void main(String agrs[]) {
+    public static void main(String agrs[]) throws java.io.IOException {
+        if (agrs.length > 0 && agrs[0].equals("--server")) {
+            // Serve the HTTP/JSON API instead of the console menus
+            FlipfitServer.main(java.util.Arrays.copyOfRange(agrs, 1, agrs.length));
+            return;
+        }
 
 
         int choice;
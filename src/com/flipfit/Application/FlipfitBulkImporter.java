@@ -0,0 +1,401 @@
+package com.flipfit.Application;
+
+import com.flipfit.bean.GymCustomer;
+import com.flipfit.bean.GymSlots;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.dao.GymCustomerDAO;
+import com.flipfit.dao.GymOwnerDAO;
+import com.flipfit.utils.Json;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Command line import of customers or slots from CSV or JSONL files, used when a partner chain is onboarded.
+ * The file is read line by line and every line is validated and converted on the reading thread;
+ * valid records are grouped into batches that worker threads write through the DAOs with JDBC batches.
+ * The batch queue is bounded, so memory use does not depend on the size of the file.
+ * If a batch fails it is retried row by row so that only the offending rows are rejected.
+ * Rejected rows are written to a report with their line number and reason.
+ *
+ * Usage:
+ *   java com.flipfit.Application.FlipfitBulkImporter --type customers|slots --file data.csv|data.jsonl
+ *        [--batch-size 500] [--threads 4] [--rejects rejects.txt]
+ *
+ * Customer columns: name, email, phone, address, password
+ * Slot columns:     centerId, startTime, endTime, seats, cost   (times as HH:mm)
+ * CSV files must start with a header row; JSONL files hold one flat JSON object per line.
+ */
+public class FlipfitBulkImporter {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;  // Rows written per JDBC batch
+    private static final int DEFAULT_THREADS = 4;  // Parallel writer threads
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;  // How often progress is printed
+
+    // Converts a parsed record into a bean and writes batches of beans
+    private interface RecordType<T> {
+        // Validates a record and converts it; throws IllegalArgumentException with the reason if it is invalid
+        T parse(Map<String, String> record);
+
+        // Writes a batch in one transaction and returns the number of rows written
+        int write(List<T> batch) throws Exception;
+    }
+
+    // A validated row together with where it came from, so it can be reported if the write fails
+    private static final class Row<T> {
+        final long lineNumber;
+        final String raw;
+        final T value;
+
+        Row(long lineNumber, String raw, T value) {
+            this.lineNumber = lineNumber;
+            this.raw = raw;
+            this.value = value;
+        }
+    }
+
+    // Marks the end of the input for the workers
+    private static final List<Row<?>> END_OF_INPUT = new ArrayList<>();
+
+    private final int batchSize;
+    private final int threads;
+    private final BufferedWriter rejects;
+
+    // Counters shared by the reader, the workers and the progress printer
+    private final LongAdder readRows = new LongAdder();
+    private final LongAdder importedRows = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+
+    private FlipfitBulkImporter(int batchSize, int threads, BufferedWriter rejects) {
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.rejects = rejects;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String type = options.get("type");
+        String file = options.get("file");
+        if (type == null || file == null) {
+            System.out.println("Usage: FlipfitBulkImporter --type customers|slots --file <path.csv|path.jsonl> "
+                    + "[--batch-size " + DEFAULT_BATCH_SIZE + "] [--threads " + DEFAULT_THREADS + "] [--rejects <path>]");
+            return;
+        }
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", String.valueOf(DEFAULT_BATCH_SIZE)));
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(DEFAULT_THREADS)));
+        Path rejectsPath = Paths.get(options.getOrDefault("rejects", file + ".rejects.txt"));
+
+        RecordType<?> recordType;
+        if (type.equals("customers")) {
+            recordType = new CustomerRecords(GymServiceRegistry.getInstance().getCustomerDAO());
+        } else if (type.equals("slots")) {
+            recordType = new SlotRecords(GymServiceRegistry.getInstance().getOwnerDAO());
+        } else {
+            System.out.println("Invalid type, expected customers or slots: " + type);
+            return;
+        }
+
+        try (BufferedWriter rejects = Files.newBufferedWriter(rejectsPath, StandardCharsets.UTF_8)) {
+            FlipfitBulkImporter importer = new FlipfitBulkImporter(batchSize, threads, rejects);
+            importer.run(Paths.get(file), recordType);
+        }
+        System.out.println("Rejected rows written to " + rejectsPath);
+    }
+
+    /**
+     * Imports every line of the file.
+     * @param file a .csv file with a header row, or a .jsonl file
+     * @param recordType converts and writes the records
+     * @throws IOException if the file cannot be read
+     * @throws InterruptedException if the import is interrupted
+     */
+    private <T> void run(Path file, RecordType<T> recordType) throws IOException, InterruptedException {
+        boolean jsonLines = file.toString().toLowerCase().endsWith(".jsonl") || file.toString().toLowerCase().endsWith(".json");
+        BlockingQueue<List<Row<?>>> queue = new ArrayBlockingQueue<>(threads * 2);  // Bounds memory to a few batches per worker
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> drain(queue, recordType), "flipfit-import-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+
+        long start = System.nanoTime();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-import-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        progress.scheduleAtFixedRate(() -> printProgress(start), PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] header = null;
+            List<Row<?>> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (!jsonLines && header == null) {
+                    header = parseCsvLine(line).toArray(new String[0]);  // First CSV line names the columns
+                    continue;
+                }
+                readRows.increment();
+                try {
+                    Map<String, String> record = jsonLines ? Json.parseObject(line) : toRecord(header, parseCsvLine(line));
+                    batch.add(new Row<>(lineNumber, line, recordType.parse(record)));
+                } catch (IllegalArgumentException e) {
+                    reject(lineNumber, line, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    queue.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                queue.put(batch);
+            }
+        } finally {
+            for (int i = 0; i < threads; i++) {
+                queue.put(END_OF_INPUT);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            progress.shutdownNow();
+        }
+        printProgress(start);
+        System.out.println("Import finished");
+    }
+
+    // Worker loop: writes batches until the end marker arrives
+    @SuppressWarnings("unchecked")
+    private <T> void drain(BlockingQueue<List<Row<?>>> queue, RecordType<T> recordType) {
+        try {
+            List<Row<?>> batch;
+            while ((batch = queue.take()) != END_OF_INPUT) {
+                List<Row<T>> rows = new ArrayList<>(batch.size());
+                for (Row<?> row : batch) {
+                    rows.add((Row<T>) row);
+                }
+                writeBatch(rows, recordType);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes a batch in one go; if that fails, every row is retried on its own to isolate the bad ones
+    private <T> void writeBatch(List<Row<T>> rows, RecordType<T> recordType) {
+        List<T> values = new ArrayList<>(rows.size());
+        for (Row<T> row : rows) {
+            values.add(row.value);
+        }
+        try {
+            if (recordType.write(values) == rows.size()) {
+                importedRows.add(rows.size());
+                return;
+            }
+        } catch (Exception e) {
+            // Fall through to row-by-row retry
+        }
+
+        if (rows.size() == 1) {
+            Row<T> row = rows.get(0);
+            reject(row.lineNumber, row.raw, "write failed");
+            return;
+        }
+        for (Row<T> row : rows) {
+            List<T> single = new ArrayList<>(1);
+            single.add(row.value);
+            try {
+                if (recordType.write(single) == 1) {
+                    importedRows.increment();
+                } else {
+                    reject(row.lineNumber, row.raw, "write failed");
+                }
+            } catch (Exception e) {
+                reject(row.lineNumber, row.raw, e.getMessage());
+            }
+        }
+    }
+
+    // Appends a rejected row to the report
+    private void reject(long lineNumber, String raw, String reason) {
+        rejectedRows.increment();
+        synchronized (rejects) {
+            try {
+                rejects.write(lineNumber + "\t" + reason + "\t" + raw);
+                rejects.newLine();
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+    }
+
+    // Prints rows read, imported and rejected together with the import rate
+    private void printProgress(long start) {
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 0.001);
+        long imported = importedRows.sum();
+        System.out.printf("read=%d imported=%d rejected=%d elapsed=%.1fs rate=%.0f rows/s%n",
+                readRows.sum(), imported, rejectedRows.sum(), seconds, imported / seconds);
+    }
+
+    // Customers: name, email, phone, address, password
+    private static final class CustomerRecords implements RecordType<GymCustomer> {
+        private final GymCustomerDAO customerDAO;
+
+        CustomerRecords(GymCustomerDAO customerDAO) {
+            this.customerDAO = customerDAO;
+        }
+
+        @Override
+        public GymCustomer parse(Map<String, String> record) {
+            String email = required(record, "email");
+            if (!email.matches("[^@\\s]+@[^@\\s]+\\.[^@\\s]+")) {
+                throw new IllegalArgumentException("invalid email: " + email);
+            }
+            String phone = required(record, "phone");
+            if (!phone.matches("\\+?[0-9]{7,15}")) {
+                throw new IllegalArgumentException("invalid phone: " + phone);
+            }
+            String address = record.get("address") == null ? "" : record.get("address").trim();
+            return new GymCustomer(required(record, "name"), address, email, phone, required(record, "password"));
+        }
+
+        @Override
+        public int write(List<GymCustomer> batch) throws Exception {
+            return customerDAO.createProfiles(batch);
+        }
+    }
+
+    // Slots: centerId, startTime, endTime, seats, cost
+    private static final class SlotRecords implements RecordType<GymSlots> {
+        private final GymOwnerDAO ownerDAO;
+
+        SlotRecords(GymOwnerDAO ownerDAO) {
+            this.ownerDAO = ownerDAO;
+        }
+
+        @Override
+        public GymSlots parse(Map<String, String> record) {
+            int centerId = positiveInt(record, "centerId");
+            LocalTime startTime = time(record, "startTime");
+            LocalTime endTime = time(record, "endTime");
+            if (!endTime.isAfter(startTime)) {
+                throw new IllegalArgumentException("endTime must be after startTime");
+            }
+            return new GymSlots(centerId, startTime, endTime, positiveInt(record, "seats"), positiveInt(record, "cost"));
+        }
+
+        @Override
+        public int write(List<GymSlots> batch) throws Exception {
+            return ownerDAO.addSlots(batch);
+        }
+    }
+
+    // Returns a non-empty field or rejects the record
+    private static String required(Map<String, String> record, String field) {
+        String value = record.get(field);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("missing " + field);
+        }
+        return value.trim();
+    }
+
+    // Returns a positive integer field or rejects the record
+    private static int positiveInt(Map<String, String> record, String field) {
+        try {
+            int value = Integer.parseInt(required(record, field));
+            if (value <= 0) {
+                throw new IllegalArgumentException(field + " must be positive");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + field + ": " + record.get(field));
+        }
+    }
+
+    // Returns a time field or rejects the record
+    private static LocalTime time(Map<String, String> record, String field) {
+        try {
+            return LocalTime.parse(required(record, field));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid " + field + ": " + record.get(field));
+        }
+    }
+
+    // Pairs CSV values with the header names
+    private static Map<String, String> toRecord(String[] header, List<String> values) {
+        if (values.size() != header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " columns but found " + values.size());
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            record.put(header[i].trim(), values.get(i));
+        }
+        return record;
+    }
+
+    // Splits one CSV line, honouring double-quoted fields with "" as an escaped quote
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    // Reads --name value pairs
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].startsWith("--")) {
+                options.put(args[i].substring(2), args[i + 1]);
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,153 @@
+package com.flipfit.Application;
+
+import com.flipfit.bean.GymBookingEvent;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.dao.GymOutboxDAO;
+import com.flipfit.dao.GymSlotDAO;
+import com.flipfit.utils.EventLog;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Command line replay of the booking event log, used to audit oversells and to rebuild seat counts after a bug.
+ * Every event of the log is read in order; the seat changes are summed per (slot, date) and the remaining
+ * seats each slot would have are compared with AvailableSeats. With --repair the stored counts that do not
+ * match are overwritten with the replayed ones.
+ *
+ * The replayed count of a slot is its capacity plus the seat changes in the log, so it is only right for
+ * dates whose bookings are all in the log; bookings made before the log existed show up as mismatches.
+ * Run the replay once the relay has caught up (the outbox is empty), otherwise the newest bookings are
+ * missing from the log as well.
+ *
+ * Usage:
+ *   java com.flipfit.Application.FlipfitEventReplay [--dir events] [--repair]
+ */
+public class FlipfitEventReplay {
+
+    private static final int READ_BATCH = 1000;  // Events read from the log at a time
+
+    // Seat changes of one slot on one date
+    private static final class SeatTally {
+        int delta;  // Sum of the seat changes so far
+        int lowest;  // Lowest running sum, i.e. the most seats ever taken at once
+    }
+
+    private final Map<String, Integer> eventsByType = new TreeMap<>();
+    private final Map<LocalDate, Map<Integer, SeatTally>> seats = new TreeMap<>();
+    private long lastSequence;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i].replaceFirst("^--", "");
+            if (name.equals("repair")) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            }
+        }
+        String dir = options.getOrDefault("dir", System.getProperty("flipfit.events.dir", "events"));
+        boolean repair = options.containsKey("repair");
+
+        GymServiceRegistry services = GymServiceRegistry.getInstance();
+        GymOutboxDAO outboxDAO = services.getOutboxDAO();
+        if (!outboxDAO.fetchPending(1).isEmpty()) {
+            System.out.println("Warning: the outbox still holds events that are not in the log yet");
+        }
+
+        FlipfitEventReplay replay = new FlipfitEventReplay();
+        try (EventLog log = EventLog.openReadOnly(Paths.get(dir))) {
+            replay.replay(log);
+        }
+        int mismatches = replay.check(services.getSlotDAO(), repair);
+        System.out.println(mismatches == 0 ? "All seat counts match the event log"
+                : mismatches + " seat counts differ from the event log" + (repair ? " and were repaired" : ""));
+    }
+
+    /**
+     * Reads the whole log.
+     * @param log the log to read
+     */
+    public void replay(EventLog log) {
+        EventLog.Reader reader = log.reader(1);
+        for (List<GymBookingEvent> events = reader.poll(READ_BATCH); !events.isEmpty(); events = reader.poll(READ_BATCH)) {
+            apply(events);
+        }
+        System.out.println("Replayed " + lastSequence + " events: " + eventsByType);
+    }
+
+    /**
+     * Adds events to the replayed state; the events must come in sequence order.
+     * @param events the next events of the log
+     */
+    public void apply(List<GymBookingEvent> events) {
+        for (GymBookingEvent event : events) {
+            eventsByType.merge(event.getType(), 1, Integer::sum);
+            lastSequence = Math.max(lastSequence, event.getSequence());
+            if (event.getSeatDelta() == 0 || event.getDate() == null) {
+                continue;
+            }
+            SeatTally tally = seats.computeIfAbsent(toLocalDate(event), d -> new HashMap<>())
+                    .computeIfAbsent(event.getSlotId(), s -> new SeatTally());
+            tally.delta += event.getSeatDelta();
+            tally.lowest = Math.min(tally.lowest, tally.delta);
+        }
+    }
+
+    /**
+     * Compares the replayed seat counts with the stored ones and reports oversells and mismatches.
+     * @param slotDAO the DAO to read (and repair) the stored counts with
+     * @param repair whether to overwrite the stored counts that differ
+     * @return the number of (slot, date) pairs whose stored count differs from the replayed one
+     */
+    public int check(GymSlotDAO slotDAO, boolean repair) {
+        int mismatches = 0;
+        for (Map.Entry<LocalDate, Map<Integer, SeatTally>> day : seats.entrySet()) {
+            java.sql.Date date = java.sql.Date.valueOf(day.getKey());
+            List<Integer> slotIds = new ArrayList<>(day.getValue().keySet());
+            Map<Integer, Integer> capacities = slotDAO.getCapacities(slotIds);
+            Map<Integer, Integer> stored = slotDAO.getNumAvailableSeats(slotIds, date);
+
+            for (Map.Entry<Integer, SeatTally> entry : day.getValue().entrySet()) {
+                int slotId = entry.getKey();
+                SeatTally tally = entry.getValue();
+                Integer capacity = capacities.get(slotId);
+                if (capacity == null) {
+                    System.out.println("Slot " + slotId + " on " + date + " no longer exists");
+                    continue;
+                }
+                if (capacity + tally.lowest < 0) {
+                    System.out.println("Oversold: slot " + slotId + " on " + date + " had " + (-tally.lowest)
+                            + " seats taken of " + capacity);
+                }
+                int replayed = Math.max(0, capacity + tally.delta);
+                Integer current = stored.get(slotId);
+                if (current == null || current != replayed) {
+                    mismatches++;
+                    System.out.println("Slot " + slotId + " on " + date + ": stored " + current + ", replayed " + replayed);
+                    if (repair && !slotDAO.setNumAvailableSeats(slotId, date, replayed)) {
+                        System.out.println("Could not repair slot " + slotId + " on " + date);
+                    }
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    // Sequence of the last replayed event
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    // The log stores dates as java.sql.Date
+    private static LocalDate toLocalDate(GymBookingEvent event) {
+        return new java.sql.Date(event.getDate().getTime()).toLocalDate();
+    }
+}
@@ -0,0 +1,878 @@
+package com.flipfit.Application;
+
+import com.flipfit.bean.GymBooking;
+import com.flipfit.bean.GymCenter;
+import com.flipfit.bean.GymCustomer;
+import com.flipfit.bean.GymOwner;
+import com.flipfit.bean.GymOwnerRequest;
+import com.flipfit.bean.GymSlotAvailability;
+import com.flipfit.bean.GymSlots;
+import com.flipfit.business.GymAdminBusiness;
+import com.flipfit.business.GymCenterBusiness;
+import com.flipfit.business.GymCustomerBusiness;
+import com.flipfit.business.GymEventRelay;
+import com.flipfit.business.GymOwnerBusiness;
+import com.flipfit.business.GymPaymentProcessor;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.business.GymUserBusiness;
+import com.flipfit.dao.GymCenterCache;
+import com.flipfit.dao.GymSlotCatalog;
+import com.flipfit.dao.GymSlotSearchIndex;
+import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.Json;
+import com.flipfit.utils.MetricsRegistry;
+import com.flipfit.utils.NotificationDispatcher;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP/JSON front end of FlipFit, built on the JDK's built-in HTTP server.
+ * The build targets Java 17, so requests run on a cached pool of daemon platform threads; a JVM of Java 21
+ * or later picks one virtual thread per request instead, but no build or test runs on one. The startup line
+ * and GET /api/stats report which model is in use. The handlers only call the shared, thread-safe business
+ * services of the {@link GymServiceRegistry}.
+ *
+ * Usage:
+ *   java com.flipfit.Application.FlipfitServer [--port 8080] [--backlog 1024]
+ *
+ * A session starts with POST /api/login and is identified by the returned token, which is sent back as
+ * "Authorization: Bearer &lt;token&gt;". Sessions idle for 30 minutes are dropped. Owners and customers can
+ * only act on their own centers, slots, bookings and waitlist entries; anything else is answered with 403.
+ * Request and response bodies are flat JSON objects (responses may
+ * also be arrays); dates use yyyy-MM-dd and times HH:mm.
+ *
+ *   POST   /api/login                          {email, password, role}           -> {token, userId, role}
+ *   POST   /api/logout
+ *   POST   /api/password                       {currentPassword, password}               (any role)
+ *   POST   /api/customers                      {name, address, email, phone, password}
+ *   PUT    /api/customers/me                   {name, address, phone}                    (customer)
+ *   POST   /api/owners                         {name, email, phone, address, password}
+ *   PUT    /api/owners/me                      {name, phone, address}                    (owner)
+ *   GET    /api/centers/{id}/slots?date=                                                  (any role)
+ *   GET    /api/slots?location=&amp;from=&amp;to=&amp;fromDate=&amp;toDate=&amp;after=&amp;size=  -> {slots, next}        (any role)
+ *   GET    /api/bookings                       own bookings (customer), ?after=&amp;size= page (admin)
+ *   POST   /api/bookings                       {centerId, slotId, date}                  (customer)
+ *   PUT    /api/bookings/{id}                  {centerId, slotId, date}  (move it)       (customer)
+ *   DELETE /api/bookings/{id}                                                            (customer)
+ *   POST   /api/bookings/{id}/payment          {mode, idempotencyKey}                    (customer)
+ *   POST   /api/waitlist                       {centerId, slotId, date}                  (customer)
+ *   GET    /api/waitlist/{id}                                                            (customer)
+ *   POST   /api/centers                        {centerName, location, slots}             (owner)
+ *   DELETE /api/centers/{id}                                                             (owner)
+ *   POST   /api/centers/{id}/slots             {startTime, endTime, totalSeats, cost}    (owner)
+ *   DELETE /api/centers/{id}/slots/{startTime}                                           (owner)
+ *   DELETE /api/centers/{id}/bookings?date=    cancel the center's bookings that day     (owner)
+ *   DELETE /api/slots/{id}/bookings?date=      cancel the slot's bookings that day       (owner)
+ *   GET    /api/centers                                                                  (admin)
+ *   GET    /api/requests                                                                 (admin)
+ *   POST   /api/requests/{id}                  {status}                                  (admin)
+ *   POST   /api/payments/settlement            {bookingIds, mode, idempotencyKey}        (admin)
+ *   GET    /api/customers, /api/owners      ?name=&amp;domain=&amp;after=&amp;size= page           (admin)
+ *   GET    /api/stats                                                                    (admin)
+ *   GET    /metrics                            Prometheus text format, no session        (local only)
+ *
+ * Payments take an optional idempotency key, either as the "Idempotency-Key" header or in the body.
+ * Retrying a payment with the same key returns the original paymentId instead of charging again.
+ * A settlement pays a comma separated list of bookings at once (for example "1,2,3") and returns the
+ * paymentId of each of them.
+ *
+ * GET /api/customers and /api/owners return one page ordered by ID; pass the last ID as after for the next
+ * page. name filters by name prefix and domain by email domain (e.g. gmail.com).
+ *
+ * GET /api/slots searches the free slots of all centers at a location (any location if omitted) starting
+ * between from and to (default the whole day) on fromDate to toDate (default fromDate). Results are ordered
+ * by date and start time; "next" is the cursor to pass as after for the following page, null on the last page.
+ */
+public class FlipfitServer {
+
+    // Roles as stored in the Registration table
+    static final String CUSTOMER = "gymcustomer";
+    static final String OWNER = "gymowner";
+    static final String ADMIN = "gymadmin";
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_BACKLOG = 1024;  // Pending connections the OS queues while all are busy
+    private static final long SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long SESSION_SWEEP_SECONDS = 60;  // How often idle sessions are dropped
+    private static final boolean METRICS_REMOTE = Boolean.getBoolean("flipfit.metrics.remote");  // Serve /metrics to other hosts too
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService sessionSweeper;
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    private final GymUserBusiness userBusiness;
+    private final GymCustomerBusiness customerBusiness;
+    private final GymOwnerBusiness ownerBusiness;
+    private final GymAdminBusiness adminBusiness;
+    private final GymCenterBusiness centerBusiness;
+    private final GymPaymentProcessor paymentProcessor;
+    private final NotificationDispatcher notificationDispatcher;
+    private final GymEventRelay eventRelay;
+
+    /**
+     * Creates a server on the given address; call {@link #start()} to accept requests.
+     * @param address the address to listen on; port 0 picks a free port
+     * @param backlog the maximum number of queued incoming connections
+     * @param services the services the handlers call
+     * @throws IOException if the address cannot be bound
+     */
+    public FlipfitServer(InetSocketAddress address, int backlog, GymServiceRegistry services) throws IOException {
+        this.userBusiness = services.getUserBusiness();
+        this.customerBusiness = services.getCustomerBusiness();
+        this.ownerBusiness = services.getOwnerBusiness();
+        this.adminBusiness = services.getAdminBusiness();
+        this.centerBusiness = services.getCenterBusiness();
+        this.paymentProcessor = services.getPaymentProcessor();
+        this.notificationDispatcher = services.getNotificationDispatcher();
+        this.eventRelay = services.getEventRelay();
+
+        registerRoutes();
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(address, backlog);
+        this.server.createContext("/api/", this::dispatch);
+        this.server.createContext("/metrics", this::metrics);
+        this.server.setExecutor(executor);
+        // Sessions that are never used again would otherwise stay in memory forever
+        this.sessionSweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+        int backlog = Integer.parseInt(options.getOrDefault("backlog", String.valueOf(DEFAULT_BACKLOG)));
+
+        DBConnection.pool();  // Fail fast if the database cannot be reached
+        FlipfitServer server = new FlipfitServer(new InetSocketAddress(port), backlog, GymServiceRegistry.getInstance());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "flipfit-server-shutdown"));
+        server.start();
+        System.out.println("FlipFit API listening on port " + server.getPort() + " (" + server.threadModel() + ")");
+    }
+
+    // Starts accepting requests
+    public void start() {
+        sessionSweeper.scheduleWithFixedDelay(() -> sweepSessions(System.currentTimeMillis()), SESSION_SWEEP_SECONDS, SESSION_SWEEP_SECONDS, TimeUnit.SECONDS);
+        server.start();
+    }
+
+    // Stops accepting requests and waits up to the given number of seconds for running exchanges
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        sessionSweeper.shutdown();
+    }
+
+    // Getter for the port the server listens on
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Getter for the number of open sessions
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    // Drops every session that has been idle for longer than SESSION_IDLE_MILLIS at the given time
+    void sweepSessions(long now) {
+        long idleSince = now - SESSION_IDLE_MILLIS;
+        sessions.values().removeIf(session -> session.lastSeen < idleSince);
+    }
+
+    // Describes the threads requests run on
+    String threadModel() {
+        return executor.getClass().getSimpleName().contains("ThreadPerTask") ? "virtual threads" : "platform threads";
+    }
+
+    /**
+     * Creates the executor of the request handlers: a cached pool of daemon platform threads, which is what
+     * the Java 17 toolchain of the build runs. Only on a Java 21+ JVM does the reflective lookup find one
+     * virtual thread per request.
+     */
+    public static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "flipfit-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ---------------------------------------------------------------- routes
+
+    private void registerRoutes() {
+        // Sessions and registration
+        route("POST", "/api/login", null, this::login);
+        route("POST", "/api/logout", null, this::logout);
+        route("POST", "/api/password", "", this::updatePassword);
+        route("POST", "/api/customers", null, this::registerCustomer);
+        route("POST", "/api/owners", null, this::registerOwner);
+
+        // Customers
+        route("PUT", "/api/customers/me", CUSTOMER, this::editCustomer);
+        route("GET", "/api/centers/{id}/slots", "", this::viewSlots);
+        route("GET", "/api/slots", "", this::searchSlots);
+        route("GET", "/api/bookings", "", this::viewBookings);
+        route("POST", "/api/bookings", CUSTOMER, this::createBooking);
+        route("PUT", "/api/bookings/{id}", CUSTOMER, this::modifyBooking);
+        route("DELETE", "/api/bookings/{id}", CUSTOMER, this::cancelBooking);
+        route("POST", "/api/bookings/{id}/payment", CUSTOMER, this::makePayment);
+        route("POST", "/api/waitlist", CUSTOMER, this::joinWaitlist);
+        route("GET", "/api/waitlist/{id}", CUSTOMER, this::waitlistPosition);
+
+        // Owners
+        route("PUT", "/api/owners/me", OWNER, this::editOwner);
+        route("POST", "/api/centers", OWNER, this::registerCenter);
+        route("DELETE", "/api/centers/{id}", OWNER, this::deleteCenter);
+        route("POST", "/api/centers/{id}/slots", OWNER, this::addSlot);
+        route("DELETE", "/api/centers/{id}/slots/{startTime}", OWNER, this::deleteSlot);
+        route("DELETE", "/api/centers/{id}/bookings", OWNER, this::closeCenter);
+        route("DELETE", "/api/slots/{id}/bookings", OWNER, this::cancelSlotBookings);
+
+        // Admins
+        route("GET", "/api/centers", ADMIN, request -> adminBusiness.viewCenter().stream().map(FlipfitServer::center).toArray());
+        route("GET", "/api/requests", ADMIN, request -> adminBusiness.pendingRequests().stream().map(FlipfitServer::ownerRequest).toArray());
+        route("POST", "/api/requests/{id}", ADMIN, this::decideRequest);
+        route("POST", "/api/payments/settlement", ADMIN, this::settlePayments);
+        route("GET", "/api/customers", ADMIN, request -> userBusiness.viewCustomers(request.query.get("name"), request.query.get("domain"),
+                request.after(), request.pageSize()).stream().map(FlipfitServer::customer).toArray());
+        route("GET", "/api/owners", ADMIN, request -> userBusiness.viewGymOwners(request.query.get("name"), request.query.get("domain"),
+                request.after(), request.pageSize()).stream().map(FlipfitServer::owner).toArray());
+        route("GET", "/api/stats", ADMIN, this::stats);
+    }
+
+    /**
+     * Registers a handler.
+     * @param role null for public routes, "" for any signed-in user, otherwise the role the session must have
+     */
+    private void route(String method, String path, String role, Handler handler) {
+        routes.add(new Route(method, path, role, handler));
+    }
+
+    private Object login(Request request) {
+        String email = request.required("email");
+        String role = request.required("role").toLowerCase();
+        int userId = userBusiness.login(email, request.required("password"), role);
+        if (userId <= 0) {
+            throw new HttpError(401, "Login Failed, Check your Credentials Again !!");
+        }
+        String token = newToken();
+        sessions.put(token, new Session(userId, role, email));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("token", token);
+        body.put("userId", userId);
+        body.put("role", role);
+        return body;
+    }
+
+    private Object logout(Request request) {
+        String token = request.token();
+        return result(token != null && sessions.remove(token) != null);
+    }
+
+    // Changes the password of the signed-in user, who has to confirm the current one first
+    private Object updatePassword(Request request) {
+        Session session = request.session;
+        String email = request.optional("email");
+        if (email != null && !email.equalsIgnoreCase(session.email)) {
+            throw new HttpError(403, "You can only change your own password");
+        }
+        if (userBusiness.login(session.email, request.required("currentPassword"), session.role) != session.userId) {
+            throw new HttpError(403, "Current password is wrong");
+        }
+        String password = request.required("password");
+        String role = session.role;
+        email = session.email;
+        boolean updated;
+        if (role.equals(ADMIN)) {
+            updated = adminBusiness.updatepwd(email, password, role);
+        } else if (role.equals(CUSTOMER)) {
+            updated = customerBusiness.updatepwd(email, password, role);
+        } else if (role.equals(OWNER)) {
+            updated = ownerBusiness.updatepwd(email, password, role);
+        } else {
+            throw new HttpError(400, "Invalid role: " + role);
+        }
+        check(updated, "Update Failed, Check Your Credentials Again !!");
+        // Sign out the user's other sessions; they were opened with the old password
+        sessions.values().removeIf(other -> other != session && other.userId == session.userId && other.role.equals(session.role));
+        return result(true);
+    }
+
+    private Object registerCustomer(Request request) {
+        GymCustomer customer = new GymCustomer(request.required("name"), request.optional("address"),
+                request.required("email"), request.optional("phone"), request.required("password"));
+        check(customerBusiness.createProfile(customer), "Customer could not be registered");
+        return Collections.singletonMap("customerId", customer.getCustomerId());
+    }
+
+    // Email and password are left alone; the password only changes through /api/password
+    private Object editCustomer(Request request) {
+        GymCustomer customer = new GymCustomer(request.session.userId, request.required("name"), request.optional("address"),
+                null, request.optional("phone"), null);
+        return check(customerBusiness.editProfile(customer), "Profile could not be updated");
+    }
+
+    private Object registerOwner(Request request) {
+        GymOwner owner = new GymOwner(request.required("name"), request.required("email"), request.optional("phone"),
+                request.optional("address"), request.required("password"));
+        check(ownerBusiness.createProfile(owner), "Owner could not be registered");
+        return Collections.singletonMap("ownerId", owner.getOwnerId());
+    }
+
+    private Object editOwner(Request request) {
+        GymOwner owner = new GymOwner(request.session.userId, request.required("name"), null, request.optional("phone"),
+                request.optional("address"), null);
+        return check(ownerBusiness.editProfile(owner), "Profile could not be updated");
+    }
+
+    private Object viewSlots(Request request) {
+        return centerBusiness.viewSlots(request.intParam("id"), request.date("date")).stream().map(FlipfitServer::slot).toArray();
+    }
+
+    private Object searchSlots(Request request) {
+        String from = request.optional("from");
+        String to = request.optional("to");
+        String toDate = request.optional("toDate");
+        Date fromDate = request.date("fromDate");
+        int size = request.pageSize();
+        List<GymSlotAvailability> slots = centerBusiness.searchSlots(request.optional("location"),
+                from != null ? LocalTime.parse(from) : LocalTime.MIN, to != null ? LocalTime.parse(to) : LocalTime.MAX,
+                fromDate, toDate != null ? java.sql.Date.valueOf(toDate) : fromDate, request.optional("after"), size);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("slots", slots.stream().map(FlipfitServer::availability).toArray());
+        body.put("next", !slots.isEmpty() && slots.size() == size ? GymSlotSearchIndex.cursorOf(slots.get(size - 1)) : null);
+        return body;
+    }
+
+    private Object viewBookings(Request request) {
+        List<GymBooking> bookings;
+        if (request.session.role.equals(CUSTOMER)) {
+            bookings = customerBusiness.viewBookings(request.session.userId);
+        } else if (request.session.role.equals(ADMIN)) {
+            bookings = adminBusiness.viewBookings(request.after(), request.pageSize());
+        } else {
+            throw new HttpError(403, "Not allowed for role " + request.session.role);
+        }
+        return bookings.stream().map(FlipfitServer::booking).toArray();
+    }
+
+    private Object createBooking(Request request) {
+        int bookingId = customerBusiness.createBooking(request.session.userId, request.requiredInt("slotId"),
+                request.requiredInt("centerId"), request.date("date"));
+        if (bookingId <= 0) {
+            throw new HttpError(409, "No Seats Available for the slot on that date");
+        }
+        return Collections.singletonMap("bookingId", bookingId);
+    }
+
+    private Object modifyBooking(Request request) {
+        int bookingId = customerBusiness.modifyBooking(request.session.userId, request.intParam("id"), request.requiredInt("slotId"),
+                request.requiredInt("centerId"), request.date("date"));
+        if (bookingId <= 0) {
+            throw new HttpError(409, "Booking could not be moved, it is kept as it was");
+        }
+        return Collections.singletonMap("bookingId", bookingId);
+    }
+
+    private Object cancelBooking(Request request) {
+        return check(customerBusiness.cancelBooking(request.session.userId, request.intParam("id")), "Booking could not be cancelled");
+    }
+
+    private Object makePayment(Request request) {
+        if (!customerBusiness.ownsBooking(request.session.userId, request.intParam("id"))) {
+            throw new HttpError(403, "Not your booking");
+        }
+        String key = request.idempotencyKey();
+        // Keys are scoped to the customer, so two customers can never see each other's payment
+        int paymentId = customerBusiness.makepayment(request.intParam("id"), request.required("mode"),
+                key == null ? null : request.session.userId + ":" + key);
+        if (paymentId <= 0) {
+            throw new HttpError(409, "Payment could not be processed");
+        }
+        return Collections.singletonMap("paymentId", paymentId);
+    }
+
+    private Object settlePayments(Request request) {
+        List<Integer> bookingIds = new ArrayList<>();
+        for (String bookingId : request.required("bookingIds").split(",")) {
+            if (!bookingId.trim().isEmpty()) {
+                bookingIds.add(Integer.parseInt(bookingId.trim()));
+            }
+        }
+        if (bookingIds.isEmpty()) {
+            throw new HttpError(400, "bookingIds must list at least one booking");
+        }
+        String key = request.idempotencyKey();
+        List<Integer> paymentIds = customerBusiness.settlePayments(bookingIds, request.required("mode"),
+                key == null ? null : "settlement:" + key);
+        Map<String, Object> payments = new LinkedHashMap<>();  // paymentId (or -1) by bookingId
+        int failed = 0;
+        for (int i = 0; i < bookingIds.size(); i++) {
+            payments.put(String.valueOf(bookingIds.get(i)), paymentIds.get(i));
+            failed += paymentIds.get(i) <= 0 ? 1 : 0;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("paymentIds", payments);
+        body.put("failed", failed);
+        return body;
+    }
+
+    private Object joinWaitlist(Request request) {
+        int waitlistId = customerBusiness.joinWaitlist(request.session.userId, request.requiredInt("slotId"),
+                request.requiredInt("centerId"), request.date("date"));
+        if (waitlistId <= 0) {
+            throw new HttpError(409, "Could not join the waitlist");
+        }
+        return Collections.singletonMap("waitlistId", waitlistId);
+    }
+
+    private Object waitlistPosition(Request request) {
+        if (!customerBusiness.ownsWaitlistEntry(request.session.userId, request.intParam("id"))) {
+            throw new HttpError(403, "Not your waitlist entry");
+        }
+        return Collections.singletonMap("position", customerBusiness.waitlistPosition(request.intParam("id")));
+    }
+
+    private Object registerCenter(Request request) {
+        return check(ownerBusiness.registerCenter(request.session.userId, request.required("centerName"),
+                request.required("location"), request.requiredInt("slots")), "Center could not be registered");
+    }
+
+    private Object deleteCenter(Request request) {
+        requireOwnCenter(request);
+        return check(ownerBusiness.deleteCenter(request.intParam("id")), "Center could not be deleted");
+    }
+
+    private Object addSlot(Request request) {
+        requireOwnCenter(request);
+        GymSlots slot = new GymSlots(request.intParam("id"), LocalTime.parse(request.required("startTime")),
+                LocalTime.parse(request.required("endTime")), request.requiredInt("totalSeats"), request.requiredInt("cost"));
+        return check(ownerBusiness.addnewSlot(slot.getCenterId(), slot), "Slot could not be added");
+    }
+
+    private Object deleteSlot(Request request) {
+        requireOwnCenter(request);
+        return check(ownerBusiness.deleteSlot(request.intParam("id"), LocalTime.parse(request.params.get("startTime"))),
+                "Slot could not be deleted");
+    }
+
+    private Object closeCenter(Request request) {
+        requireOwnCenter(request);
+        return cancelled(ownerBusiness.closeCenter(request.session.userId, request.intParam("id"), request.date("date")));
+    }
+
+    private Object cancelSlotBookings(Request request) {
+        if (!ownerBusiness.ownsSlot(request.session.userId, request.intParam("id"))) {
+            throw new HttpError(403, "Not your slot");
+        }
+        return cancelled(ownerBusiness.cancelAll(request.session.userId, request.intParam("id"), request.date("date")));
+    }
+
+    // Rejects the request unless the center of the path is one of the signed-in owner's
+    private void requireOwnCenter(Request request) {
+        if (!ownerBusiness.ownsCenter(request.session.userId, request.intParam("id"))) {
+            throw new HttpError(403, "Not your center");
+        }
+    }
+
+    // Answers a bulk cancellation with the number of cancelled bookings
+    private static Object cancelled(int count) {
+        if (count < 0) {
+            throw new HttpError(409, "Bookings could not be cancelled");
+        }
+        return Collections.singletonMap("cancelled", count);
+    }
+
+    private Object decideRequest(Request request) {
+        String status = request.required("status").toLowerCase();
+        if (!status.equals("approved") && !status.equals("rejected")) {
+            throw new HttpError(400, "status must be approved or rejected");
+        }
+        adminBusiness.approveOwnerRegistration(request.intParam("id"), status);
+        return result(true);
+    }
+
+    private Object stats(Request request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sessions", sessions.size());
+        body.put("threads", threadModel());
+        body.put("login", userBusiness.loginStats());
+        body.put("pool", DBConnection.pool().toString());
+        body.put("slowQueries", DBConnection.pool().getStatementTimer() == null ? 0 : DBConnection.pool().getStatementTimer().getLoggedCount());
+        body.put("centers", GymCenterCache.getInstance().toString());
+        body.put("slots", GymSlotCatalog.getInstance().toString());
+        body.put("payments", paymentProcessor.toString());
+        body.put("notifications", notificationDispatcher.toString());
+        body.put("events", String.valueOf(eventRelay));
+        return body;
+    }
+
+    // ---------------------------------------------------------------- JSON views of the beans
+
+    private static Map<String, Object> slot(GymSlots slot) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("slotId", slot.getSlotId());
+        view.put("centerId", slot.getCenterId());
+        view.put("startTime", slot.getStartTime());
+        view.put("endTime", slot.getEndTime());
+        // Slot listings carry the seats left for the date in the cost field and the price in totalSeats
+        view.put("availableSeats", slot.getCost());
+        view.put("cost", slot.getTotalSeats());
+        return view;
+    }
+
+    private static Map<String, Object> availability(GymSlotAvailability slot) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("slotId", slot.getSlotId());
+        view.put("centerId", slot.getCenterId());
+        view.put("centerName", slot.getCenterName());
+        view.put("location", slot.getCenterLocation());
+        view.put("date", slot.getDate());
+        view.put("startTime", slot.getStartTime());
+        view.put("endTime", slot.getEndTime());
+        view.put("availableSeats", slot.getAvailableSeats());
+        view.put("cost", slot.getCost());
+        return view;
+    }
+
+    private static Map<String, Object> booking(GymBooking booking) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("bookingId", booking.getBookingId());
+        view.put("centerName", booking.getCenterName());
+        view.put("centerLocation", booking.getCenterLocation());
+        view.put("startTime", booking.getStartTime());
+        view.put("endTime", booking.getEndTime());
+        view.put("date", booking.getBookingDate());
+        return view;
+    }
+
+    private static Map<String, Object> center(GymCenter center) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("centerId", center.getCenterId());
+        view.put("ownerId", center.getOwnerId());
+        view.put("centerName", center.getGymName());
+        view.put("location", center.getGymLocation());
+        view.put("numOfSlots", center.getNumOfSlots());
+        return view;
+    }
+
+    private static Map<String, Object> ownerRequest(GymOwnerRequest ownerRequest) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("requestId", ownerRequest.getRequestId());
+        view.put("ownerId", ownerRequest.getOwnerId());
+        view.put("status", ownerRequest.getStatus());
+        view.put("centerName", ownerRequest.getCenterName());
+        view.put("location", ownerRequest.getCenterLocation());
+        view.put("numOfSlots", ownerRequest.getNumOfSlots());
+        return view;
+    }
+
+    private static Map<String, Object> customer(GymCustomer customer) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("customerId", customer.getCustomerId());
+        view.put("name", customer.getCustomerName());
+        view.put("email", customer.getCustomerEmailAddress());
+        view.put("address", customer.getCustomerAddress());
+        view.put("phone", customer.getCustomerPhone());
+        return view;
+    }
+
+    private static Map<String, Object> owner(GymOwner owner) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("ownerId", owner.getOwnerId());
+        view.put("name", owner.getOwnerName());
+        view.put("email", owner.getOwnerEmailAddress());
+        view.put("address", owner.getOwnerAddress());
+        view.put("phone", owner.getOwnerPhone());
+        return view;
+    }
+
+    private static Map<String, Object> result(boolean success) {
+        return Collections.<String, Object>singletonMap("success", success);
+    }
+
+    // Maps a failed business call to 409 Conflict
+    private static Map<String, Object> check(boolean success, String message) {
+        if (!success) {
+            throw new HttpError(409, message);
+        }
+        return result(true);
+    }
+
+    // ---------------------------------------------------------------- plumbing
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        int status = 200;
+        Object body;
+        try {
+            body = handle(exchange);
+        } catch (HttpError e) {
+            status = e.status;
+            body = Collections.singletonMap("error", e.getMessage());
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            status = 400;
+            body = Collections.singletonMap("error", String.valueOf(e.getMessage()));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            status = 500;
+            body = Collections.singletonMap("error", "Internal error");
+        }
+
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Serves the metrics in the Prometheus text format; only to local scrapers unless flipfit.metrics.remote is set
+    private void metrics(HttpExchange exchange) throws IOException {
+        int status = 200;
+        String text;
+        if (!METRICS_REMOTE && !exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
+            status = 403;
+            text = "Metrics are only served to local scrapers\n";
+        } else {
+            text = MetricsRegistry.getInstance().scrape();
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Object handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            Matcher matcher = route.pattern.matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            pathMatched = true;
+            if (!route.method.equals(method)) {
+                continue;
+            }
+
+            Request request = new Request(exchange);
+            for (int i = 0; i < route.paramNames.size(); i++) {
+                request.params.put(route.paramNames.get(i), URLDecoder.decode(matcher.group(i + 1), StandardCharsets.UTF_8));
+            }
+            if (route.role != null) {
+                request.session = authenticate(request.token());
+                if (!route.role.isEmpty() && !route.role.equals(request.session.role)) {
+                    throw new HttpError(403, "Not allowed for role " + request.session.role);
+                }
+            }
+            request.readBody();
+            return route.handler.handle(request);
+        }
+        throw new HttpError(pathMatched ? 405 : 404, pathMatched ? "Method not allowed" : "Not found");
+    }
+
+    // Looks up the session of a token, dropping it once it has been idle for too long
+    private Session authenticate(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (session != null && now - session.lastSeen > SESSION_IDLE_MILLIS) {
+            sessions.remove(token);
+            session = null;
+        }
+        if (session == null) {
+            throw new HttpError(401, "Please log in");
+        }
+        session.lastSeen = now;
+        return session;
+    }
+
+    // Creates an unguessable session token
+    private String newToken() {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // One request handler
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Request request);
+    }
+
+    // A method and path template such as /api/bookings/{id}, and its handler
+    private static final class Route {
+        final String method;
+        final Pattern pattern;
+        final List<String> paramNames = new ArrayList<>();
+        final String role;
+        final Handler handler;
+
+        Route(String method, String path, String role, Handler handler) {
+            this.method = method;
+            this.role = role;
+            this.handler = handler;
+            Matcher names = Pattern.compile("\\{(\\w+)}").matcher(path);
+            while (names.find()) {
+                paramNames.add(names.group(1));
+            }
+            this.pattern = Pattern.compile(path.replaceAll("\\{\\w+}", "([^/]+)"));
+        }
+    }
+
+    // A signed-in user
+    private static final class Session {
+        final int userId;
+        final String role;
+        final String email;
+        volatile long lastSeen = System.currentTimeMillis();
+
+        Session(int userId, String role, String email) {
+            this.userId = userId;
+            this.role = role;
+            this.email = email;
+        }
+    }
+
+    // The parsed parts of one exchange
+    private static final class Request {
+        final HttpExchange exchange;
+        final Map<String, String> params = new HashMap<>();
+        final Map<String, String> query = new HashMap<>();
+        Map<String, String> body = Collections.emptyMap();
+        Session session;
+
+        Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String pair : rawQuery.split("&")) {
+                    int eq = pair.indexOf('=');
+                    if (eq > 0) {
+                        query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                                URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+
+        void readBody() throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+                if (!text.isEmpty()) {
+                    body = Json.parseObject(text);
+                }
+            }
+        }
+
+        // The bearer token of the Authorization header, or null
+        String token() {
+            String header = exchange.getRequestHeaders().getFirst("Authorization");
+            return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+        }
+
+        // A field of the body, falling back to the query string
+        String optional(String name) {
+            String value = body.get(name);
+            return value != null ? value : query.get(name);
+        }
+
+        String required(String name) {
+            String value = optional(name);
+            if (value == null || value.isEmpty()) {
+                throw new HttpError(400, "Missing field: " + name);
+            }
+            return value;
+        }
+
+        int requiredInt(String name) {
+            return Integer.parseInt(required(name));
+        }
+
+        // The idempotency key of the "Idempotency-Key" header or the body, or null
+        String idempotencyKey() {
+            String header = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            String key = header != null ? header.trim() : optional("idempotencyKey");
+            if (key != null && (key.isEmpty() || key.length() > 40)) {
+                throw new HttpError(400, "idempotencyKey must be 1 to 40 characters");
+            }
+            return key;
+        }
+
+        int intParam(String name) {
+            return Integer.parseInt(params.get(name));
+        }
+
+        // The keyset cursor of a paged listing: the last ID of the previous page, 0 for the first page
+        int after() {
+            return Integer.parseInt(query.getOrDefault("after", "0"));
+        }
+
+        // The page size of a paged listing, 50 unless given and never more than 500
+        int pageSize() {
+            int size = Integer.parseInt(query.getOrDefault("size", "50"));
+            if (size < 1) {
+                throw new HttpError(400, "size must be at least 1");
+            }
+            return Math.min(500, size);
+        }
+
+        Date date(String name) {
+            return java.sql.Date.valueOf(required(name));
+        }
+    }
+
+    // Ends a request with the given HTTP status
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
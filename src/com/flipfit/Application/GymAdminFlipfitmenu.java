@@ -5,17 +5,20 @@ import com.flipfit.bean.GymCustomer;
 import com.flipfit.bean.GymOwner;
 import com.flipfit.bean.GymOwnerRequest;
 import com.flipfit.business.GymAdminBusiness;
-import com.flipfit.business.GymAdminBusinessImpl;
 import com.flipfit.business.GymUserBusiness;
-import com.flipfit.business.GymUserBusinessImpl;
+import com.flipfit.business.GymServiceRegistry;
 
 import java.util.*;
 
 public class GymAdminFlipfitmenu {
     // Create instances of business services for admin and user functionalities
-    GymAdminBusiness service = new GymAdminBusinessImpl();
-    GymUserBusiness userService = new GymUserBusinessImpl();
+    GymAdminBusiness service = GymServiceRegistry.getInstance().getAdminBusiness();
+    GymUserBusiness userService = GymServiceRegistry.getInstance().getUserBusiness();
     int currentAdminId = 0;
+    // Number of bookings shown per page
+    private static final int BOOKINGS_PAGE_SIZE = 20;
+    // Number of customers or owners shown per page
+    private static final int USERS_PAGE_SIZE = 20;
 
     // Method to show the Gym Admin menu and handle user interaction
     public void gymadminmenu(int adminId) {
@@ -29,8 +32,8 @@ public class GymAdminFlipfitmenu {
             // Display the admin menu with options
             System.out.println("------------------------------------------------------------------------------------------------");
             System.out.println("1. View All Bookings");
-            System.out.println("2. View All Customers");
-            System.out.println("3. View All Owners");
+            System.out.println("2. View Customers");
+            System.out.println("3. View Owners");
             System.out.println("4. See Pending Requests");
             System.out.println("5. Approve Requests");
             System.out.println("6. Exit");
@@ -38,58 +41,84 @@ public class GymAdminFlipfitmenu {
             // Get user choice for the menu
             int choice = in.nextInt();
 
-            // Option 1: View all bookings
+            // Option 1: View all bookings, one page at a time
             if (choice == 1) {
-                List<GymBooking> list = service.viewBookings();  // Call the service to get all bookings
-                if (list.isEmpty()) {
-                    continue; // If no bookings, continue to the next iteration
-                } else {
+                int lastBookingId = 0;  // Keyset cursor: the last booking ID shown so far
+                while (true) {
+                    List<GymBooking> list = service.viewBookings(lastBookingId, BOOKINGS_PAGE_SIZE);  // Call the service to get the next page
+                    if (list.isEmpty()) {
+                        break; // No more bookings to show
+                    }
                     // Print header for bookings list
                     System.out.println("------------------------------------------------------------------------------------------------");
                     System.out.printf("%-15s %-25s %-20s %-10s %-10s%n", "BookingId" ,  "CenterName ","StartTime","EndTime","Date");
-                    // Iterate through the bookings and display details
+                    // Iterate through the bookings of the page and display details
                     for (GymBooking booking : list) {
                         System.out.printf("%-15s %-25s %-20s %-10s %-10s%n",
                                 booking.getBookingId() , booking.getCenterName(),
                                 booking.getStartTime().toString(), booking.getEndTime().toString(),
                                 booking.getBookingDate());
                     }
+                    lastBookingId = list.get(list.size() - 1).getBookingId();
+                    if (list.size() < BOOKINGS_PAGE_SIZE) {
+                        break; // This was the last page
+                    }
+                    System.out.println("Enter n for the next page, any other key to go back");
+                    if (!in.next().equalsIgnoreCase("n")) {
+                        break;
+                    }
                 }
 
             }
-            // Option 2: View all customers
+            // Option 2: View customers, one page at a time
             else if (choice == 2) {
-                List<GymCustomer> list = userService.viewAllCustomers();  // Get all customers
-                if (list.isEmpty()) {
-                    continue; // If no customers, continue to the next iteration
-                } else {
+                String namePrefix = filter(in, "name prefix");
+                String emailDomain = filter(in, "email domain");
+                int lastCustomerId = 0;  // Keyset cursor: the last customer ID shown so far
+                while (true) {
+                    List<GymCustomer> list = userService.viewCustomers(namePrefix, emailDomain, lastCustomerId, USERS_PAGE_SIZE);
+                    if (list.isEmpty()) {
+                        break; // No more customers to show
+                    }
                     // Print header for customer list
                     System.out.println("------------------------------------------------------------------------------------------------");
                     System.out.printf("%-15s %-25s %-20s %-10s %-10s%n","CustomerId", "CustomerName", "CustomerEmail", "CustomerAddress", "CustomerPhone");
-                    // Iterate through the customers and display details
+                    // Iterate through the customers of the page and display details
                     for (GymCustomer customer : list) {
                         System.out.printf("%-15s %-25s %-20s %-10s %-10s%n",
                                 customer.getCustomerId(), customer.getCustomerName(),
                                 customer.getCustomerEmailAddress(), customer.getCustomerAddress(),
                                 customer.getCustomerPhone());
                     }
+                    lastCustomerId = list.get(list.size() - 1).getCustomerId();
+                    if (list.size() < USERS_PAGE_SIZE || !nextPage(in)) {
+                        break; // Last page, or the admin went back
+                    }
                 }
             }
-            // Option 3: View all gym owners
+            // Option 3: View gym owners, one page at a time
             else if (choice == 3) {
-                List<GymOwner> list = userService.viewAllGymOwners();  // Get all gym owners
-                if (list.isEmpty()) {
-                    continue; // If no owners, continue to the next iteration
-                } else {
+                String namePrefix = filter(in, "name prefix");
+                String emailDomain = filter(in, "email domain");
+                int lastOwnerId = 0;  // Keyset cursor: the last owner ID shown so far
+                while (true) {
+                    List<GymOwner> list = userService.viewGymOwners(namePrefix, emailDomain, lastOwnerId, USERS_PAGE_SIZE);
+                    if (list.isEmpty()) {
+                        break; // No more owners to show
+                    }
                     // Print header for owners list
                     System.out.println("------------------------------------------------------------------------------------------------");
                     System.out.printf("%-15s %-25s %-20s %-10s %-10s%n","OwnerId", "OwnerName", "OwnerEmail", "OwnerAddress", "OwnerPhone");
-                    // Iterate through the owners and display details
+                    // Iterate through the owners of the page and display details
                     for (GymOwner owner : list) {
                         System.out.printf("%-15s %-25s %-20s %-10s %-10s%n",
                                 owner.getOwnerId(), owner.getOwnerName(), owner.getOwnerEmailAddress(),
                                 owner.getOwnerAddress(), owner.getOwnerPhone());
                     }
+                    lastOwnerId = list.get(list.size() - 1).getOwnerId();
+                    if (list.size() < USERS_PAGE_SIZE || !nextPage(in)) {
+                        break; // Last page, or the admin went back
+                    }
                 }
             }
             // Option 4: See pending requests for gym owner registration
@@ -130,4 +159,17 @@ public class GymAdminFlipfitmenu {
             }
         }
     }
+
+    // Reads an optional listing filter; "-" means no filter
+    private static String filter(Scanner in, String name) {
+        System.out.println("Filter by " + name + " (- for none)");
+        String value = in.next();
+        return value.equals("-") ? null : value;
+    }
+
+    // Asks whether to show the next page
+    private static boolean nextPage(Scanner in) {
+        System.out.println("Enter n for the next page, any other key to go back");
+        return in.next().equalsIgnoreCase("n");
+    }
 }
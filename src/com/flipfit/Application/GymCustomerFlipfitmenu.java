@@ -3,6 +3,7 @@ package com.flipfit.Application;
 import com.flipfit.bean.GymBooking;
 import com.flipfit.bean.GymCenter;
 import com.flipfit.bean.GymCustomer;
+import com.flipfit.bean.GymSlotAvailability;
 import com.flipfit.bean.GymSlots;
 
 import java.text.ParseException;
@@ -14,13 +15,16 @@ import java.util.List;
 import java.util.Scanner;
 
 import com.flipfit.business.*;
+import com.flipfit.dao.GymSlotSearchIndex;
 
 public class GymCustomerFlipfitmenu {
     // Instance variables for current customer and business services
     int currentcustId;
-    GymCustomerBusiness service = new GymCustomerBusinessImpl();
-    GymCenterBusiness centerBusiness = new GymCenterBusinessImpl();
-    GymAdminBusiness ser = new GymAdminBusinessImpl();
+    GymCustomerBusiness service = GymServiceRegistry.getInstance().getCustomerBusiness();
+    GymCenterBusiness centerBusiness = GymServiceRegistry.getInstance().getCenterBusiness();
+    GymAdminBusiness ser = GymServiceRegistry.getInstance().getAdminBusiness();
+
+    private static final int SEARCH_PAGE_SIZE = 10;  // Slots shown per page of a search
 
     // Method for registering a new Gym Customer
     public void register() {
@@ -65,7 +69,10 @@ public class GymCustomerFlipfitmenu {
             System.out.println("2. View GymCenter/Book a Slot");
             System.out.println("3. Cancel Booking");
             System.out.println("4. Edit Profile");
-            System.out.println("5. Exit");
+            System.out.println("5. Check Waitlist Position");
+            System.out.println("6. Modify Booking");
+            System.out.println("7. Search Slots");
+            System.out.println("8. Exit");
 
             // Get the user's choice
             int choice = in.nextInt();
@@ -125,16 +132,19 @@ public class GymCustomerFlipfitmenu {
                     System.out.println("select a slot Id for booking");
                     int slotId = in.nextInt();
                     int bookingId = service.createBooking(currentcustId, slotId, centerId, date);  // Create the booking
-                    System.out.println("------------------------------------------------------------------------------------------------");
-                    System.out.println("Type Payment Option as one of below without spaces:");
-                    System.out.println("1. CreditCard");
-                    System.out.println("2. DebitCard");
-                    System.out.println("3. UPI");
-                    System.out.println("4. Netbanking");
-                    in = new java.util.Scanner(System.in);
-                    String mode = in.nextLine().toLowerCase();  // Get the payment mode
-                    int paymentId = service.makepayment(bookingId, mode);  // Process the payment
-                    System.out.println("PaymentId = " + paymentId + "|| BookingId = " + bookingId);
+                    if (bookingId == -1) {
+                        // The slot could not be booked; offer a place on its waitlist instead
+                        System.out.println("Slot is full. Join the waitlist for this slot? (y/n)");
+                        if (in.next().equalsIgnoreCase("y")) {
+                            int waitlistId = service.joinWaitlist(currentcustId, slotId, centerId, date);
+                            if (waitlistId != -1) {
+                                System.out.println("WaitlistId = " + waitlistId + " || Position = " + service.waitlistPosition(waitlistId));
+                                System.out.println("You will be booked automatically when a seat frees up");
+                            }
+                        }
+                        continue;
+                    }
+                    payForBooking(bookingId);
                 } catch (ParseException e) {
                     e.printStackTrace();
                 }
@@ -171,10 +181,128 @@ public class GymCustomerFlipfitmenu {
                     System.out.println("Profile Edited Successfully");
                 }
             }
-            else if (choice == 5)
+            else if (choice == 5) {
+                // Option 5: Check the position of a waitlist entry
+                in = new Scanner(System.in);
+                System.out.println("Enter the waitlist Id");
+                int waitlistId = in.nextInt();
+                int position = service.waitlistPosition(waitlistId);
+                if (position > 0) {
+                    System.out.println("Position in waitlist: " + position);
+                } else if (position == 0) {
+                    System.out.println("This waitlist entry is no longer waiting, check My Bookings");
+                }
+            }
+            else if (choice == 6) {
+                // Option 6: Move a booking to another slot and/or date
+                in = new Scanner(System.in);
+                System.out.println("Enter the booking Id to be modified");
+                int bookingId = in.nextInt();
+                System.out.println("Enter the new date (dd/mm/yyyy): ");
+                String dateStr = in.next();
+                System.out.println("Enter the centre ID of the new slot");
+                int centerId = in.nextInt();
+                System.out.println("Enter the new slot Id");
+                int slotId = in.nextInt();
+                try {
+                    Date date = new SimpleDateFormat("dd/MM/yyyy").parse(dateStr);
+                    if (service.modifyBooking(currentcustId, bookingId, slotId, centerId, date) != -1) {
+                        System.out.println("Booking Modified Successfully");
+                    } else {
+                        System.out.println("Booking could not be modified, your old booking is kept");
+                    }
+                } catch (ParseException e) {
+                    e.printStackTrace();
+                }
+            }
+            else if (choice == 7) {
+                // Option 7: Search the free slots of all centers at a location and book one
+                searchSlots();
+            }
+            else if (choice == 8)
                 break;  // Exit the menu loop
             else
                 System.out.println("Invalid choice Try Again");  // Handle invalid menu choice
         }
     }
+
+    // Searches free slots across centers page by page and books the one the customer picks
+    private void searchSlots() {
+        Scanner in = new Scanner(System.in);
+        System.out.println("Enter the location (leave empty for all locations)");
+        String location = in.nextLine();
+        System.out.println("Enter the earliest start time (HH:mm)");
+        LocalTime fromTime = LocalTime.parse(in.nextLine().trim());
+        System.out.println("Enter the latest start time (HH:mm)");
+        LocalTime toTime = LocalTime.parse(in.nextLine().trim());
+        System.out.println("Enter the first date (dd/mm/yyyy)");
+        String fromStr = in.nextLine().trim();
+        System.out.println("Enter the last date (dd/mm/yyyy)");
+        String toStr = in.nextLine().trim();
+        Date fromDate;
+        Date toDate;
+        try {
+            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+            fromDate = sdf.parse(fromStr);
+            toDate = sdf.parse(toStr);
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        String after = null;  // Cursor of the last slot shown
+        while (true) {
+            List<GymSlotAvailability> page = centerBusiness.searchSlots(location, fromTime, toTime, fromDate, toDate, after, SEARCH_PAGE_SIZE);
+            if (page.isEmpty()) {
+                System.out.println("No more slots found");
+                return;
+            }
+            // Display the page in tabular format
+            System.out.println("------------------------------------------------------------------------------------------------");
+            System.out.printf("%-10s %-20s %-20s %-12s %-10s %-10s %-10s %-10s%n","SlotId","CenterName","CenterLocation","Date","StartTime","EndTime","Seats","Cost");
+            for (GymSlotAvailability slot : page) {
+                System.out.printf("%-10s %-20s %-20s %-12s %-10s %-10s %-10s %-10s%n",slot.getSlotId(),slot.getCenterName(),
+                        slot.getCenterLocation(), slot.getDate(), slot.getStartTime(), slot.getEndTime(), slot.getAvailableSeats(), slot.getCost());
+            }
+            boolean lastPage = page.size() < SEARCH_PAGE_SIZE;
+            System.out.println(lastPage ? "Enter a slot Id to book it, or q to go back"
+                    : "Enter a slot Id to book it, n for the next page, or q to go back");
+            String answer = in.nextLine().trim();
+            if (answer.equalsIgnoreCase("n") && !lastPage) {
+                after = GymSlotSearchIndex.cursorOf(page.get(page.size() - 1));
+                continue;
+            }
+            if (answer.equalsIgnoreCase("q") || answer.equalsIgnoreCase("n")) {
+                return;
+            }
+            int slotId = Integer.parseInt(answer);
+            for (GymSlotAvailability slot : page) {
+                if (slot.getSlotId() == slotId) {
+                    // Book the slot on the date it was listed for
+                    int bookingId = service.createBooking(currentcustId, slotId, slot.getCenterId(), slot.getDate());
+                    if (bookingId == -1) {
+                        System.out.println("Slot could not be booked, it may have filled up meanwhile");
+                    } else {
+                        payForBooking(bookingId);
+                    }
+                    return;
+                }
+            }
+            System.out.println("Slot " + slotId + " is not on this page");
+        }
+    }
+
+    // Asks for the payment mode and pays for a new booking
+    private void payForBooking(int bookingId) {
+        System.out.println("------------------------------------------------------------------------------------------------");
+        System.out.println("Type Payment Option as one of below without spaces:");
+        System.out.println("1. CreditCard");
+        System.out.println("2. DebitCard");
+        System.out.println("3. UPI");
+        System.out.println("4. Netbanking");
+        Scanner in = new java.util.Scanner(System.in);
+        String mode = in.nextLine().toLowerCase();  // Get the payment mode
+        int paymentId = service.makepayment(bookingId, mode);  // Process the payment
+        System.out.println("PaymentId = " + paymentId + "|| BookingId = " + bookingId);
+    }
 }
@@ -1,18 +1,21 @@
 package com.flipfit.Application;
 
 import com.flipfit.bean.GymOwner;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Date;
 import java.util.Scanner;
 
 import com.flipfit.bean.GymSlots;
 import com.flipfit.business.GymOwnerBusiness;
-import com.flipfit.business.GymOwnerBusinessImpl;
+import com.flipfit.business.GymServiceRegistry;
 
 public class GymOwnerFlipfitmenu {
     int currentownerId = 0;
-    GymOwnerBusiness service = new GymOwnerBusinessImpl();
+    GymOwnerBusiness service = GymServiceRegistry.getInstance().getOwnerBusiness();
 
     public void gymownermenu(int ownerId) {
         currentownerId = ownerId;
@@ -29,7 +32,8 @@ public class GymOwnerFlipfitmenu {
             System.out.println("3. Delete Slot");
             System.out.println("4. Delete Center");
             System.out.println("5. Edit Profile");
-            System.out.println("6. Exit");
+            System.out.println("6. Cancel All Bookings of a Slot or Center for a Day");
+            System.out.println("7. Exit");
             int choice = in.nextInt();
             if (choice == 1) {
                 Scanner scanner = new Scanner(System.in);
@@ -106,7 +110,31 @@ public class GymOwnerFlipfitmenu {
                     System.out.println("Profile Edited Successfully");
                 }
             }
-            else if (choice == 6)
+            else if (choice == 6) {
+                Scanner scanner = new Scanner(System.in);
+                System.out.println("Cancelling bookings...");
+                System.out.println("------------------------------------------------------------------------------------------------");
+                System.out.println("Enter the date (dd/mm/yyyy):");
+                String dateStr = scanner.next();
+                System.out.println("Enter a SlotId to close one slot, or 0 to close the whole center:");
+                int slotId = scanner.nextInt();
+                try {
+                    Date date = new SimpleDateFormat("dd/MM/yyyy").parse(dateStr);
+                    int cancelled;
+                    if (slotId > 0) {
+                        cancelled = service.cancelAll(currentownerId, slotId, date);
+                    } else {
+                        System.out.println("Enter your CenterId:");
+                        cancelled = service.closeCenter(currentownerId, scanner.nextInt(), date);
+                    }
+                    if (cancelled >= 0) {
+                        System.out.println(cancelled + " Bookings Cancelled Successfully");
+                    }
+                } catch (ParseException e) {
+                    e.printStackTrace();
+                }
+            }
+            else if (choice == 7)
                 break;
             else
                 System.out.println("Invalid choice");
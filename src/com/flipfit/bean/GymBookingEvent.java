@@ -0,0 +1,136 @@
+package com.flipfit.bean;
+
+import java.util.Date;
+
+public class GymBookingEvent {
+    // Properties of the GymBookingEvent class with their respective getters and setters
+
+    // ID of the event in the outbox table; events are relayed in increasing order of this ID
+    private long eventId;
+    // Position of the event in the event log, 0 until it has been appended
+    private long sequence;
+    // Kind of event (booking-created, booking-cancelled, ...)
+    private String type;
+    // ID of the booking, payment or owner request the event is about
+    private int aggregateId;
+    // Slot whose seats the event changes, 0 if it changes no seats
+    private int slotId;
+    // Date whose seats the event changes, null if it changes no seats
+    private Date date;
+    // Change of the slot's remaining seats on the date (-1 booked, +1 released, 0 none)
+    private int seatDelta;
+    // Further details as comma separated name=value pairs
+    private String detail;
+    // Time the event happened, in epoch milliseconds
+    private long createdAt;
+
+    // Getter method for eventId
+    public long getEventId() {
+        return eventId;  // Return the eventId
+    }
+
+    // Setter method for eventId
+    public void setEventId(long eventId) {
+        this.eventId = eventId;  // Set the eventId
+    }
+
+    // Getter method for sequence
+    public long getSequence() {
+        return sequence;  // Return the log sequence
+    }
+
+    // Setter method for sequence
+    public void setSequence(long sequence) {
+        this.sequence = sequence;  // Set the log sequence
+    }
+
+    // Getter method for type
+    public String getType() {
+        return type;  // Return the type
+    }
+
+    // Setter method for type
+    public void setType(String type) {
+        this.type = type;  // Set the type
+    }
+
+    // Getter method for aggregateId
+    public int getAggregateId() {
+        return aggregateId;  // Return the aggregateId
+    }
+
+    // Setter method for aggregateId
+    public void setAggregateId(int aggregateId) {
+        this.aggregateId = aggregateId;  // Set the aggregateId
+    }
+
+    // Getter method for slotId
+    public int getSlotId() {
+        return slotId;  // Return the slotId
+    }
+
+    // Setter method for slotId
+    public void setSlotId(int slotId) {
+        this.slotId = slotId;  // Set the slotId
+    }
+
+    // Getter method for date
+    public Date getDate() {
+        return date;  // Return the date
+    }
+
+    // Setter method for date
+    public void setDate(Date date) {
+        this.date = date;  // Set the date
+    }
+
+    // Getter method for seatDelta
+    public int getSeatDelta() {
+        return seatDelta;  // Return the seat change
+    }
+
+    // Setter method for seatDelta
+    public void setSeatDelta(int seatDelta) {
+        this.seatDelta = seatDelta;  // Set the seat change
+    }
+
+    // Getter method for detail
+    public String getDetail() {
+        return detail;  // Return the details
+    }
+
+    // Setter method for detail
+    public void setDetail(String detail) {
+        this.detail = detail;  // Set the details
+    }
+
+    // Getter method for createdAt
+    public long getCreatedAt() {
+        return createdAt;  // Return the event time
+    }
+
+    // Setter method for createdAt
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;  // Set the event time
+    }
+
+    // Default constructor, used when an event is read back
+    public GymBookingEvent() {
+    }
+
+    // Constructor to initialize a new GymBookingEvent that changes the seats of a slot on a date
+    public GymBookingEvent(String type, int aggregateId, int slotId, Date date, int seatDelta, String detail) {
+        this.type = type;  // Set the type
+        this.aggregateId = aggregateId;  // Set the aggregateId
+        this.slotId = slotId;  // Set the slotId
+        this.date = date;  // Set the date
+        this.seatDelta = seatDelta;  // Set the seat change
+        this.detail = detail;  // Set the details
+        this.createdAt = System.currentTimeMillis();  // Stamp the event time
+    }
+
+    // Constructor to initialize a new GymBookingEvent that changes no seats
+    public GymBookingEvent(String type, int aggregateId, String detail) {
+        this(type, aggregateId, 0, null, 0, detail);
+    }
+}
@@ -1,7 +1,75 @@
 package com.flipfit.bean;
 
 public class GymNotification {
+    // Properties of the GymNotification class with their respective getters and setters
+
+    // Booking the notification is about, 0 if it is not about a booking
     private int bookingId;
+    // Kind of event (booking, cancellation, payment, waitlist-promotion, owner-approval)
     private String type;
+    // Text sent to the recipient
     private String msg;
+    // User ID of the recipient, 0 if unknown
+    private int userId;
+    // Time the event happened, in epoch milliseconds
+    private long createdAt;
+
+    // Getter method for bookingId
+    public int getBookingId() {
+        return bookingId;  // Return the bookingId
+    }
+
+    // Setter method for bookingId
+    public void setBookingId(int bookingId) {
+        this.bookingId = bookingId;  // Set the bookingId
+    }
+
+    // Getter method for type
+    public String getType() {
+        return type;  // Return the type
+    }
+
+    // Setter method for type
+    public void setType(String type) {
+        this.type = type;  // Set the type
+    }
+
+    // Getter method for msg
+    public String getMsg() {
+        return msg;  // Return the message
+    }
+
+    // Setter method for msg
+    public void setMsg(String msg) {
+        this.msg = msg;  // Set the message
+    }
+
+    // Getter method for userId
+    public int getUserId() {
+        return userId;  // Return the recipient's userId
+    }
+
+    // Setter method for userId
+    public void setUserId(int userId) {
+        this.userId = userId;  // Set the recipient's userId
+    }
+
+    // Getter method for createdAt
+    public long getCreatedAt() {
+        return createdAt;  // Return the event time
+    }
+
+    // Setter method for createdAt
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;  // Set the event time
+    }
+
+    // Constructor to initialize GymNotification with recipient, booking, type and message
+    public GymNotification(int userId, int bookingId, String type, String msg) {
+        this.userId = userId;  // Set the recipient's userId
+        this.bookingId = bookingId;  // Set the bookingId
+        this.type = type;  // Set the type
+        this.msg = msg;  // Set the message
+        this.createdAt = System.currentTimeMillis();  // Stamp the event time
+    }
 }
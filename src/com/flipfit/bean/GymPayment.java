@@ -11,6 +11,20 @@ public class GymPayment {
     private String mode;
     // Amount paid for the booking
     private int amount;
+    // Client supplied key that makes retries of the same payment safe (may be null)
+    private String idempotencyKey;
+    // Customer who owns the booking, set when the payment is written
+    private int customerID;
+
+    // Getter method for paymentID
+    public int getPaymentID() {
+        return paymentID;  // Return the paymentID
+    }
+
+    // Setter method for paymentID
+    public void setPaymentID(int paymentID) {
+        this.paymentID = paymentID;  // Set the paymentID
+    }
 
     // Getter method for bookingID
     public int getBookingID() {
@@ -42,9 +56,35 @@ public class GymPayment {
         this.amount = amount;  // Set the amount paid
     }
 
+    // Getter method for idempotencyKey
+    public String getIdempotencyKey() {
+        return idempotencyKey;  // Return the idempotency key
+    }
+
+    // Setter method for idempotencyKey
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;  // Set the idempotency key
+    }
+
+    // Getter method for customerID
+    public int getCustomerID() {
+        return customerID;  // Return the customerID
+    }
+
+    // Setter method for customerID
+    public void setCustomerID(int customerID) {
+        this.customerID = customerID;  // Set the customerID
+    }
+
     // Constructor to initialize GymPayment with bookingID and mode
     public GymPayment(int bookingID, String mode) {
         this.bookingID = bookingID;  // Set the bookingID
         this.mode = mode;  // Set the payment mode
     }
+
+    // Constructor to initialize GymPayment with bookingID, mode and idempotency key
+    public GymPayment(int bookingID, String mode, String idempotencyKey) {
+        this(bookingID, mode);
+        this.idempotencyKey = idempotencyKey;  // Set the idempotency key
+    }
 }
@@ -0,0 +1,135 @@
+package com.flipfit.bean;
+
+import java.time.LocalTime;
+import java.util.Date;
+
+public class GymSlotAvailability {
+    // Properties of the GymSlotAvailability class with their respective getters and setters
+
+    // ID of the slot
+    private int slotId;
+    // ID of the gym center of the slot
+    private int centerId;
+    // Name of the gym center
+    private String centerName;
+    // Location of the gym center
+    private String centerLocation;
+    // Date the seats are available on
+    private Date date;
+    // Start time of the slot
+    private LocalTime startTime;
+    // End time of the slot
+    private LocalTime endTime;
+    // Cost of the slot for the customer
+    private int cost;
+    // Seats still available on the date
+    private int availableSeats;
+
+    // Default constructor
+    public GymSlotAvailability() {
+    }
+
+    // Constructor to initialize every field of the search result
+    public GymSlotAvailability(int slotId, int centerId, String centerName, String centerLocation, Date date,
+                               LocalTime startTime, LocalTime endTime, int cost, int availableSeats) {
+        this.slotId = slotId;
+        this.centerId = centerId;
+        this.centerName = centerName;
+        this.centerLocation = centerLocation;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.cost = cost;
+        this.availableSeats = availableSeats;
+    }
+
+    // Getter method for slotId
+    public int getSlotId() {
+        return slotId;  // Return the slotId
+    }
+
+    // Setter method for slotId
+    public void setSlotId(int slotId) {
+        this.slotId = slotId;  // Set the slotId
+    }
+
+    // Getter method for centerId
+    public int getCenterId() {
+        return centerId;  // Return the centerId
+    }
+
+    // Setter method for centerId
+    public void setCenterId(int centerId) {
+        this.centerId = centerId;  // Set the centerId
+    }
+
+    // Getter method for centerName
+    public String getCenterName() {
+        return centerName;  // Return the centerName
+    }
+
+    // Setter method for centerName
+    public void setCenterName(String centerName) {
+        this.centerName = centerName;  // Set the centerName
+    }
+
+    // Getter method for centerLocation
+    public String getCenterLocation() {
+        return centerLocation;  // Return the centerLocation
+    }
+
+    // Setter method for centerLocation
+    public void setCenterLocation(String centerLocation) {
+        this.centerLocation = centerLocation;  // Set the centerLocation
+    }
+
+    // Getter method for date
+    public Date getDate() {
+        return date;  // Return the date
+    }
+
+    // Setter method for date
+    public void setDate(Date date) {
+        this.date = date;  // Set the date
+    }
+
+    // Getter method for startTime
+    public LocalTime getStartTime() {
+        return startTime;  // Return the startTime
+    }
+
+    // Setter method for startTime
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;  // Set the startTime
+    }
+
+    // Getter method for endTime
+    public LocalTime getEndTime() {
+        return endTime;  // Return the endTime
+    }
+
+    // Setter method for endTime
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;  // Set the endTime
+    }
+
+    // Getter method for cost
+    public int getCost() {
+        return cost;  // Return the cost
+    }
+
+    // Setter method for cost
+    public void setCost(int cost) {
+        this.cost = cost;  // Set the cost
+    }
+
+    // Getter method for availableSeats
+    public int getAvailableSeats() {
+        return availableSeats;  // Return the availableSeats
+    }
+
+    // Setter method for availableSeats
+    public void setAvailableSeats(int availableSeats) {
+        this.availableSeats = availableSeats;  // Set the availableSeats
+    }
+}
@@ -0,0 +1,103 @@
+package com.flipfit.bean;
+
+import java.util.Date;
+
+public class GymWaitlistEntry {
+    // Properties of the GymWaitlistEntry class with their respective getters and setters
+
+    // Unique waitlist ID; entries of one slot and date are served in increasing ID order
+    private int waitlistId;
+    // ID of the waiting customer
+    private int customerId;
+    // ID of the gym center of the slot
+    private int centerId;
+    // ID of the slot the customer is waiting for
+    private int slotId;
+    // Date the customer wants to book
+    private Date date;
+    // Status of the entry (waiting, promoted, cancelled)
+    private String status;
+    // Booking created when the entry was promoted, 0 while waiting
+    private int bookingId;
+
+    // Getter method for waitlistId
+    public int getWaitlistId() {
+        return waitlistId;  // Return the waitlistId
+    }
+
+    // Setter method for waitlistId
+    public void setWaitlistId(int waitlistId) {
+        this.waitlistId = waitlistId;  // Set the waitlistId
+    }
+
+    // Getter method for customerId
+    public int getCustomerId() {
+        return customerId;  // Return the customerId
+    }
+
+    // Setter method for customerId
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;  // Set the customerId
+    }
+
+    // Getter method for centerId
+    public int getCenterId() {
+        return centerId;  // Return the centerId
+    }
+
+    // Setter method for centerId
+    public void setCenterId(int centerId) {
+        this.centerId = centerId;  // Set the centerId
+    }
+
+    // Getter method for slotId
+    public int getSlotId() {
+        return slotId;  // Return the slotId
+    }
+
+    // Setter method for slotId
+    public void setSlotId(int slotId) {
+        this.slotId = slotId;  // Set the slotId
+    }
+
+    // Getter method for date
+    public Date getDate() {
+        return date;  // Return the date
+    }
+
+    // Setter method for date
+    public void setDate(Date date) {
+        this.date = date;  // Set the date
+    }
+
+    // Getter method for status
+    public String getStatus() {
+        return status;  // Return the status
+    }
+
+    // Setter method for status
+    public void setStatus(String status) {
+        this.status = status;  // Set the status
+    }
+
+    // Getter method for bookingId
+    public int getBookingId() {
+        return bookingId;  // Return the bookingId
+    }
+
+    // Setter method for bookingId
+    public void setBookingId(int bookingId) {
+        this.bookingId = bookingId;  // Set the bookingId
+    }
+
+    // Constructor to initialize GymWaitlistEntry with all its details
+    public GymWaitlistEntry(int waitlistId, int customerId, int centerId, int slotId, Date date, String status, int bookingId) {
+        this.waitlistId = waitlistId;  // Set the waitlistId
+        this.customerId = customerId;  // Set the customerId
+        this.centerId = centerId;  // Set the centerId
+        this.slotId = slotId;  // Set the slotId
+        this.date = date;  // Set the date
+        this.status = status;  // Set the status
+        this.bookingId = bookingId;  // Set the bookingId
+    }
+}
@@ -3,12 +3,22 @@ package com.flipfit.business;
 import com.flipfit.bean.*;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 public interface GymAdminBusiness {
     // Method to retrieve all the gym bookings
     // Returns a list of GymBooking objects
     public List<GymBooking> viewBookings();
 
+    // Method to retrieve one page of gym bookings, ordered by booking ID
+    // Takes the last booking ID of the previous page (0 for the first page) and the page size
+    // Returns the bookings of the page, or an empty list once all bookings have been read
+    public List<GymBooking> viewBookings(int afterBookingId, int pageSize);
+
+    // Method to stream all gym bookings without loading them into memory
+    // The returned stream holds a database connection and must be closed by the caller
+    public Stream<GymBooking> streamBookings();
+
     // Method to approve a gym owner's registration
     // Takes requestId to identify the registration request and statuss to approve or reject the request
     // No return value
@@ -2,20 +2,30 @@ package com.flipfit.business;
 
 import com.flipfit.bean.*;
 import com.flipfit.dao.GymAdminDAO;
-import com.flipfit.dao.GymAdminDAOImpl;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceNotFoundException;
 import com.flipfit.exceptions.StatusUpdatedException;
+import com.flipfit.utils.NotificationDispatcher;
 
-import java.util.Scanner;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class GymAdminBusinessImpl implements GymAdminBusiness {
-    // Scanner instance for user input
-    Scanner scanner = new Scanner(System.in);
-
     // DAO instance to interact with the database layer
-    GymAdminDAO adminDAO = new GymAdminDAOImpl();
+    private final GymAdminDAO adminDAO;
+    // Tells owners about the decision on their requests, off the request thread
+    private final NotificationDispatcher notifications;
+
+    // Uses the shared DAO and dispatcher of the service registry
+    public GymAdminBusinessImpl() {
+        this(GymServiceRegistry.getInstance().getAdminDAO(), GymServiceRegistry.getInstance().getNotificationDispatcher());
+    }
+
+    // Constructor injection, e.g. for an alternative DAO implementation
+    public GymAdminBusinessImpl(GymAdminDAO adminDAO, NotificationDispatcher notifications) {
+        this.adminDAO = adminDAO;
+        this.notifications = notifications;
+    }
 
     /**
      * Fetches all gym bookings from the database.
@@ -33,6 +43,26 @@ public class GymAdminBusinessImpl implements GymAdminBusiness {
         return new ArrayList<>();
     }
 
+    /**
+     * Fetches one page of gym bookings, ordered by booking ID.
+     * @param afterBookingId the last booking ID of the previous page, or 0 for the first page.
+     * @param pageSize the maximum number of bookings to return.
+     * @return a list of GymBooking objects, empty once all bookings have been read.
+     */
+    public List<GymBooking> viewBookings(int afterBookingId, int pageSize) {
+        // Fetch the requested page from the DAO
+        return adminDAO.viewBookings(afterBookingId, pageSize);
+    }
+
+    /**
+     * Streams all gym bookings from the database without loading them into memory.
+     * @return a stream of GymBooking objects that must be closed by the caller.
+     */
+    public Stream<GymBooking> streamBookings() {
+        // Open the booking stream through the DAO
+        return adminDAO.streamBookings();
+    }
+
     /**
      * Approves a gym owner's registration request.
      * @param requestId the ID of the registration request.
@@ -41,7 +71,12 @@ public class GymAdminBusinessImpl implements GymAdminBusiness {
     public void approveOwnerRegistration(int requestId, String statuss) {
         try {
             // Call DAO method to approve the request
-            adminDAO.approveOwnerRegistration(requestId, statuss);
+            GymOwnerRequest request = adminDAO.approveOwnerRegistration(requestId, statuss);
+            if (request != null) {
+                // Queue the owner's notification; delivery happens on the dispatcher's threads
+                notifications.publish(request.getOwnerId(), 0, NotificationDispatcher.OWNER_APPROVAL,
+                        "Your request " + requestId + " for center " + request.getCenterName() + " was " + statuss);
+            }
         } catch (StatusUpdatedException e) {
             // Handle exception if status cannot be updated
             System.out.println(e);
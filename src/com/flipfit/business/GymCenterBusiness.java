@@ -1,9 +1,12 @@
 package com.flipfit.business;
 
+import com.flipfit.bean.GymSlotAvailability;
 import com.flipfit.bean.GymSlots;
 
+import java.time.LocalTime;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public interface GymCenterBusiness {
 
@@ -11,4 +14,16 @@ public interface GymCenterBusiness {
     // Parameters: centerId (ID of the gym center), date (the date for which slots are requested)
     // Returns a list of GymSlots objects representing the available slots for the center on the given date
     public List<GymSlots> viewSlots(int centerId, Date date);
+
+    // Method to retrieve available gym slots of several centers on a specific date in one call
+    // Parameters: centerIds (IDs of the gym centers), date (the date for which slots are requested)
+    // Returns the slots of every center, keyed by centerId, with the seats still available on that date
+    public Map<Integer, List<GymSlots>> viewSlots(List<Integer> centerIds, Date date);
+
+    // Method to search the slots with free seats of all centers at a location in a time-of-day window over a date range
+    // Parameters: location (blank for every location), fromTime/toTime (start time window), fromDate/toDate (inclusive),
+    // after (cursor of the previous page's last result, or null), pageSize (maximum number of results)
+    // Returns one page of available slots ordered by date, start time and slotId
+    public List<GymSlotAvailability> searchSlots(String location, LocalTime fromTime, LocalTime toTime, Date fromDate, Date toDate,
+                                                 String after, int pageSize);
 }
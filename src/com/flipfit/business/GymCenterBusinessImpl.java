@@ -1,18 +1,30 @@
 package com.flipfit.business;
 
+import com.flipfit.bean.GymSlotAvailability;
 import com.flipfit.bean.GymSlots;
 import com.flipfit.dao.GymCenterDAO;
-import com.flipfit.dao.GymCenterDAOImpl;
 import com.flipfit.exceptions.ResourceNotFoundException;
 
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GymCenterBusinessImpl implements GymCenterBusiness {
 
-    // Create an instance of GymCenterDAO to interact with the data access layer
-    GymCenterDAO gymCenterDAO = new GymCenterDAOImpl();
+    // GymCenterDAO to interact with the data access layer
+    private final GymCenterDAO gymCenterDAO;
+
+    // Uses the shared DAO of the service registry
+    public GymCenterBusinessImpl() {
+        this(GymServiceRegistry.getInstance().getCenterDAO());
+    }
+
+    public GymCenterBusinessImpl(GymCenterDAO gymCenterDAO) {
+        this.gymCenterDAO = gymCenterDAO;
+    }
 
     /**
      * Views the available slots for a specific gym center on a specific date.
@@ -33,4 +45,46 @@ public class GymCenterBusinessImpl implements GymCenterBusiness {
         // Return an empty list if an exception occurs
         return new ArrayList();
     }
+
+    /**
+     * Views the available slots of several gym centers on a specific date.
+     * All slots and their remaining seats are fetched together instead of one query per center.
+     * @param centerIds - the IDs of the gym centers whose slots are to be viewed
+     * @param date - the date for which the slots are being retrieved
+     * @return the slots of every center keyed by centerId, or an empty map if no slots are found
+     */
+    @Override
+    public Map<Integer, List<GymSlots>> viewSlots(List<Integer> centerIds, Date date) {
+        try {
+            // Fetching the slots of all requested centers in one call
+            return gymCenterDAO.viewSlots(centerIds, date);
+        } catch (ResourceNotFoundException e) {
+            // Catching the exception if no slots are found for the given centers and date
+            System.out.println(e);
+        }
+        // Return an empty map if an exception occurs
+        return new HashMap<>();
+    }
+
+    /**
+     * Searches the slots with free seats of all gym centers at a location within a time-of-day window and a date range.
+     * The slots come from the in-memory search index instead of one query per center and day.
+     * @param location - the location of the gym centers, or blank for every location
+     * @param fromTime - the earliest start time, inclusive
+     * @param toTime - the latest start time, inclusive
+     * @param fromDate - the first date to search
+     * @param toDate - the last date to search, inclusive
+     * @param after - the cursor of the previous page's last result, or null for the first page
+     * @param pageSize - the maximum number of results
+     * @return one page of available slots ordered by date, start time and slotId
+     */
+    @Override
+    public List<GymSlotAvailability> searchSlots(String location, LocalTime fromTime, LocalTime toTime, Date fromDate, Date toDate,
+                                                 String after, int pageSize) {
+        // Rejecting an empty window before touching the index
+        if (fromTime.isAfter(toTime) || fromDate.after(toDate)) {
+            return new ArrayList<>();
+        }
+        return gymCenterDAO.searchSlots(location, fromTime, toTime, fromDate, toDate, after, pageSize);
+    }
 }
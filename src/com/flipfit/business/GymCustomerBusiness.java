@@ -18,6 +18,15 @@ public interface GymCustomerBusiness {
      */
     public boolean createProfile(GymCustomer customer);
 
+    /**
+     * Create many customer profiles at once, e.g. for corporate-membership onboarding.
+     * Either all profiles are created or none is.
+     *
+     * @param customers The customers to register; their generated IDs are set on success.
+     * @return the number of profiles created (0 if the batch was rejected).
+     */
+    public int createProfiles(List<GymCustomer> customers);
+
     /**
      * Edit an existing customer profile.
      *
@@ -37,6 +46,44 @@ public interface GymCustomerBusiness {
      */
     public int createBooking(int customerId, int slotid, int centerId, Date date);
 
+    /**
+     * Put a customer on the waitlist of a sold-out slot.
+     * The customer is booked automatically, in joining order, when a seat of the slot is cancelled.
+     *
+     * @param customerId The ID of the waiting customer.
+     * @param slotid The ID of the sold-out slot.
+     * @param centerId The ID of the gym center.
+     * @param date The date of the booking.
+     * @return The waitlist ID, or -1 if the customer could not be added.
+     */
+    public int joinWaitlist(int customerId, int slotid, int centerId, Date date);
+
+    /**
+     * Get the queue position of a waitlist entry.
+     *
+     * @param waitlistId The ID of the waitlist entry.
+     * @return The 1-based position while waiting, 0 once promoted or cancelled, -1 if unknown.
+     */
+    public int waitlistPosition(int waitlistId);
+
+    /**
+     * Check whether a waitlist entry belongs to a customer.
+     *
+     * @param customerId The ID of the customer.
+     * @param waitlistId The ID of the waitlist entry.
+     * @return true if the entry exists and is the customer's.
+     */
+    public boolean ownsWaitlistEntry(int customerId, int waitlistId);
+
+    /**
+     * Check whether a booking belongs to a customer.
+     *
+     * @param customerId The ID of the customer.
+     * @param bookingId The ID of the booking.
+     * @return true if the booking exists and is the customer's.
+     */
+    public boolean ownsBooking(int customerId, int bookingId);
+
     /**
      * View a list of bookings made by a customer.
      *
@@ -54,6 +101,19 @@ public interface GymCustomerBusiness {
      */
     public boolean cancelBooking(int customerId, int bookingId);
 
+    /**
+     * Move a booking to another slot and/or date.
+     * The seat is transferred in one transaction: if the new slot is sold out the customer keeps the old seat.
+     *
+     * @param customerId The ID of the customer who owns the booking.
+     * @param bookingId The ID of the booking being moved.
+     * @param slotid The ID of the new slot.
+     * @param centerId The ID of the gym center of the new slot.
+     * @param date The new date.
+     * @return The booking ID if the booking was moved, -1 otherwise.
+     */
+    public int modifyBooking(int customerId, int bookingId, int slotid, int centerId, Date date);
+
     /**
      * Make a payment for a booking.
      *
@@ -63,6 +123,26 @@ public interface GymCustomerBusiness {
      */
     public int makepayment(int bookingId, String mode);
 
+    /**
+     * Make a payment for a booking; retries with the same idempotency key return the original payment.
+     *
+     * @param bookingId The ID of the booking for which the payment is being made.
+     * @param mode The mode of payment (e.g., credit card, PayPal).
+     * @param idempotencyKey The client supplied key of this payment, or null.
+     * @return The payment ID if the payment is successful, otherwise -1.
+     */
+    public int makepayment(int bookingId, String mode, String idempotencyKey);
+
+    /**
+     * Settle the payments of many bookings at once (corporate accounts).
+     *
+     * @param bookingIds The IDs of the bookings to be paid.
+     * @param mode The mode of payment.
+     * @param idempotencyKey The client supplied key of the settlement, or null.
+     * @return The payment ID of every booking, in order; -1 for bookings that could not be paid.
+     */
+    public List<Integer> settlePayments(List<Integer> bookingIds, String mode, String idempotencyKey);
+
     /**
      * Update the password of a customer.
      *
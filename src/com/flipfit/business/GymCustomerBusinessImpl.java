@@ -4,20 +4,35 @@ import com.flipfit.bean.GymBooking;
 import com.flipfit.bean.GymCustomer;
 import com.flipfit.bean.GymPayment;
 import com.flipfit.dao.GymCustomerDAO;
-import com.flipfit.dao.GymCustomerDAOImpl;
 import com.flipfit.exceptions.DataEntryFailedException;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceNotFoundException;
 import com.flipfit.exceptions.UnauthorisedAccessException;
+import com.flipfit.utils.NotificationDispatcher;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Scanner;
 
 public class GymCustomerBusinessImpl implements GymCustomerBusiness {
-    Scanner scanner = new Scanner(System.in);
-    GymCustomerDAO custDAO = new GymCustomerDAOImpl();
+    // DAO instance to interact with the database
+    private final GymCustomerDAO custDAO;
+    // Batching payment pipeline shared by all customers
+    private final GymPaymentProcessor paymentProcessor;
+    // Sends booking and cancellation notifications off the request thread (payment receipts come from the pipeline)
+    private final NotificationDispatcher notifications;
+
+    // Uses the shared DAO, payment pipeline and dispatcher of the service registry
+    public GymCustomerBusinessImpl() {
+        this(GymServiceRegistry.getInstance().getCustomerDAO(), GymServiceRegistry.getInstance().getPaymentProcessor(),
+                GymServiceRegistry.getInstance().getNotificationDispatcher());
+    }
+
+    public GymCustomerBusinessImpl(GymCustomerDAO custDAO, GymPaymentProcessor paymentProcessor, NotificationDispatcher notifications) {
+        this.custDAO = custDAO;
+        this.paymentProcessor = paymentProcessor;
+        this.notifications = notifications;
+    }
 
     /**
      * Creates a new profile for a gym customer.
@@ -35,6 +50,21 @@ public class GymCustomerBusinessImpl implements GymCustomerBusiness {
         return false;  // Return false if creation fails
     }
 
+    /**
+     * Creates many gym customer profiles in one transaction.
+     * @param customers - the GymCustomer objects to be created
+     * @return the number of profiles created, 0 if the batch was rejected
+     */
+    @Override
+    public int createProfiles(List<GymCustomer> customers) {
+        try {
+            return custDAO.createProfiles(customers);  // Create all customer profiles
+        } catch (InvalidCredentialsException | DataEntryFailedException e) {
+            System.out.println(e);
+        }
+        return 0;  // Return 0 if the batch was rejected
+    }
+
     /**
      * Edits the profile of an existing gym customer.
      * This method allows customers to update their profile information.
@@ -63,13 +93,68 @@ public class GymCustomerBusinessImpl implements GymCustomerBusiness {
     @Override
     public int createBooking(int customerId, int slotid, int centerId, Date date) {
         try {
-            return custDAO.createBooking(customerId, slotid, centerId, date);  // Create a booking
+            int bookingId = custDAO.createBooking(customerId, slotid, centerId, date);  // Create a booking
+            if (bookingId > 0) {
+                notifications.publish(customerId, bookingId, NotificationDispatcher.BOOKING,
+                        "Booking " + bookingId + " confirmed for slot " + slotid + " at center " + centerId + " on " + new java.sql.Date(date.getTime()));
+            }
+            return bookingId;
         } catch (ResourceNotFoundException e) {
             System.out.println(e);
         }
         return -1;  // Return -1 if the booking creation fails
     }
 
+    /**
+     * Puts the customer on the waitlist of a sold-out slot.
+     * @param customerId - the ID of the waiting customer
+     * @param slotid - the ID of the sold-out slot
+     * @param centerId - the ID of the gym center of the slot
+     * @param date - the date of the booking
+     * @return the waitlist ID if successful, otherwise -1
+     */
+    @Override
+    public int joinWaitlist(int customerId, int slotid, int centerId, Date date) {
+        return custDAO.joinWaitlist(customerId, slotid, centerId, date);  // Join the slot's waitlist
+    }
+
+    /**
+     * Gets the queue position of a waitlist entry.
+     * @param waitlistId - the ID of the waitlist entry
+     * @return the 1-based position while waiting, 0 once promoted or cancelled, -1 if there is no such entry
+     */
+    @Override
+    public int waitlistPosition(int waitlistId) {
+        try {
+            return custDAO.waitlistPosition(waitlistId);  // Look up the queue position
+        } catch (ResourceNotFoundException e) {
+            System.out.println(e);
+        }
+        return -1;  // Return -1 if the entry does not exist
+    }
+
+    /**
+     * Checks whether a waitlist entry belongs to the customer.
+     * @param customerId - the ID of the customer
+     * @param waitlistId - the ID of the waitlist entry
+     * @return true if the entry exists and is the customer's, otherwise false
+     */
+    @Override
+    public boolean ownsWaitlistEntry(int customerId, int waitlistId) {
+        return custDAO.ownsWaitlistEntry(customerId, waitlistId);
+    }
+
+    /**
+     * Checks whether a booking belongs to the customer.
+     * @param customerId - the ID of the customer
+     * @param bookingId - the ID of the booking
+     * @return true if the booking exists and is the customer's, otherwise false
+     */
+    @Override
+    public boolean ownsBooking(int customerId, int bookingId) {
+        return custDAO.ownsBooking(customerId, bookingId);
+    }
+
     /**
      * Views all bookings made by a specific customer.
      * This method retrieves and returns all bookings associated with the customer.
@@ -96,13 +181,42 @@ public class GymCustomerBusinessImpl implements GymCustomerBusiness {
     @Override
     public boolean cancelBooking(int customerId, int bookingId) {
         try {
-            return custDAO.cancelBooking(customerId, bookingId);  // Cancel a booking for a customer
+            boolean cancelled = custDAO.cancelBooking(customerId, bookingId);  // Cancel a booking for a customer
+            if (cancelled) {
+                notifications.publish(customerId, bookingId, NotificationDispatcher.CANCELLATION, "Booking " + bookingId + " was cancelled");
+            }
+            return cancelled;
         } catch (InvalidCredentialsException | UnauthorisedAccessException e) {
             System.out.println(e);
         }
         return false;  // Return false if the cancellation fails
     }
 
+    /**
+     * Moves an existing booking of the customer to another slot and/or date.
+     * The old seat is only given up once the new one has been taken, so the customer never loses both.
+     * @param customerId - the ID of the customer who owns the booking
+     * @param bookingId - the ID of the booking to be moved
+     * @param slotid - the ID of the new slot
+     * @param centerId - the ID of the gym center of the new slot
+     * @param date - the new date of the booking
+     * @return the booking ID if successful, otherwise -1
+     */
+    @Override
+    public int modifyBooking(int customerId, int bookingId, int slotid, int centerId, Date date) {
+        try {
+            int movedId = custDAO.modifyBooking(bookingId, customerId, centerId, slotid, date);  // Transfer the seat
+            if (movedId > 0) {
+                notifications.publish(customerId, bookingId, NotificationDispatcher.BOOKING,
+                        "Booking " + bookingId + " moved to slot " + slotid + " at center " + centerId + " on " + new java.sql.Date(date.getTime()));
+            }
+            return movedId;
+        } catch (ResourceNotFoundException | UnauthorisedAccessException e) {
+            System.out.println(e);
+        }
+        return -1;  // Return -1 if the booking could not be moved
+    }
+
     /**
      * Processes the payment for a booking.
      * This method handles the payment for the specified booking using the given payment mode.
@@ -112,13 +226,39 @@ public class GymCustomerBusinessImpl implements GymCustomerBusiness {
      */
     @Override
     public int makepayment(int bookingId, String mode) {
-        GymPayment gymPayment = new GymPayment(bookingId, mode);
-        try {
-            return custDAO.makepayment(gymPayment);  // Process payment for a booking
-        } catch (DataEntryFailedException e) {
-            System.out.println(e);
+        return makepayment(bookingId, mode, null);
+    }
+
+    /**
+     * Processes the payment for a booking through the batching payment pipeline.
+     * A retry with the same idempotency key returns the payment ID of the original payment without
+     * charging again.
+     * @param bookingId - the ID of the booking for which the payment is being made
+     * @param mode - the mode of payment (e.g., Credit Card, Debit Card, etc.)
+     * @param idempotencyKey - the client supplied key of this payment, or null
+     * @return the payment ID if successful, otherwise -1
+     */
+    @Override
+    public int makepayment(int bookingId, String mode, String idempotencyKey) {
+        return paymentProcessor.submit(new GymPayment(bookingId, mode, idempotencyKey));  // Queue the payment and wait for its batch
+    }
+
+    /**
+     * Settles the payments of many bookings at once, as done for corporate accounts.
+     * Every booking gets the idempotency key "<idempotencyKey>:<bookingId>", so a settlement that is
+     * submitted again only writes the payments that are still missing.
+     * @param bookingIds - the IDs of the bookings to be paid
+     * @param mode - the mode of payment
+     * @param idempotencyKey - the client supplied key of the settlement, or null
+     * @return the payment ID of every booking, in order; -1 for bookings that could not be paid
+     */
+    @Override
+    public List<Integer> settlePayments(List<Integer> bookingIds, String mode, String idempotencyKey) {
+        List<GymPayment> payments = new ArrayList<>(bookingIds.size());
+        for (int bookingId : bookingIds) {
+            payments.add(new GymPayment(bookingId, mode, idempotencyKey == null ? null : idempotencyKey + ":" + bookingId));
         }
-        return -1;  // Return -1 if payment processing fails
+        return paymentProcessor.settle(payments);  // Written in batches on this thread
     }
 
     /**
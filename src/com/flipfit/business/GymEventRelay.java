@@ -0,0 +1,174 @@
+package com.flipfit.business;
+
+import com.flipfit.bean.GymBookingEvent;
+import com.flipfit.dao.GymOutboxDAO;
+import com.flipfit.utils.EventLog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves committed events from the outbox table to the event log.
+ * A single background thread reads the oldest outbox rows, appends them to the log, forces the log to
+ * disk and only then deletes the rows, so an event is never lost. If the process stops between the
+ * append and the delete, the rows are read again after a restart; their event IDs are then found among
+ * the newest events of the log and the rows are deleted without being appended twice.
+ *
+ * Only the relay polls the outbox; everyone else who needs the events tails the log, either with
+ * {@link EventLog#reader(long)} or with a consumer thread started by {@link #subscribe}. Run one relay per database.
+ */
+public class GymEventRelay {
+
+    private static final int BATCH_SIZE = 500;  // Outbox rows moved per round
+
+    private final GymOutboxDAO outboxDAO;
+    private final EventLog log;
+    private final long pollMillis;
+    private final Set<Long> appendedEventIds = new HashSet<>();  // In the log but perhaps still in the outbox
+    private final ScheduledExecutorService executor;
+
+    // Relay statistics
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public GymEventRelay(GymOutboxDAO outboxDAO, EventLog log, long pollMillis) {
+        this.outboxDAO = outboxDAO;
+        this.log = log;
+        this.pollMillis = pollMillis;
+
+        // The newest events of the log may still be in the outbox if the last run stopped before deleting them
+        EventLog.Reader reader = log.reader(Math.max(1, log.getLastSequence() - BATCH_SIZE * 4L));
+        for (List<GymBookingEvent> events = reader.poll(BATCH_SIZE); !events.isEmpty(); events = reader.poll(BATCH_SIZE)) {
+            for (GymBookingEvent event : events) {
+                appendedEventIds.add(event.getEventId());
+            }
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-event-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts relaying in the background
+    public void start() {
+        executor.scheduleWithFixedDelay(this::relayAll, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops the background relay after a last round, so events committed so far reach the log
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        relayAll();
+        log.force();
+    }
+
+    /**
+     * Moves everything that is in the outbox right now to the log.
+     * @return the number of events appended
+     */
+    public synchronized int relayAll() {
+        int appended = 0;
+        try {
+            while (true) {
+                List<GymBookingEvent> events = outboxDAO.fetchPending(BATCH_SIZE);
+                if (events.isEmpty()) {
+                    break;
+                }
+                appended += relay(events);
+                if (events.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            System.out.println("Event relay failed: " + e);
+        }
+        return appended;
+    }
+
+    // Appends one round of outbox rows, forces the log and deletes the rows
+    private int relay(List<GymBookingEvent> events) throws IOException {
+        List<GymBookingEvent> fresh = new ArrayList<>(events.size());
+        List<Long> eventIds = new ArrayList<>(events.size());
+        for (GymBookingEvent event : events) {
+            eventIds.add(event.getEventId());
+            if (!appendedEventIds.contains(event.getEventId())) {
+                fresh.add(event);
+            }
+        }
+        try {
+            log.append(fresh);
+        } finally {
+            for (GymBookingEvent event : fresh) {
+                if (event.getSequence() > 0) {
+                    appendedEventIds.add(event.getEventId());  // Never append it again, even if the rest failed
+                }
+            }
+        }
+        log.force();
+        rounds.increment();
+        relayed.add(fresh.size());
+        if (!outboxDAO.delete(eventIds)) {
+            throw new IOException("Relayed outbox rows could not be deleted");  // Retried next round without appending again
+        }
+        appendedEventIds.removeAll(eventIds);
+        return fresh.size();
+    }
+
+    /**
+     * Starts a background thread that hands every event appended to the log, from the given sequence on,
+     * to a consumer in batches. The thread sleeps until the relay appends, so consumers never poll the tables.
+     * @param name the name of the consumer, used for its thread
+     * @param fromSequence the first event to hand over; 1 replays the whole log first
+     * @param consumer receives the events in sequence order
+     * @return the consumer thread; interrupt it to stop consuming
+     */
+    public Thread subscribe(String name, long fromSequence, Consumer<List<GymBookingEvent>> consumer) {
+        EventLog.Reader reader = log.reader(fromSequence);
+        Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    List<GymBookingEvent> events = reader.poll(BATCH_SIZE);
+                    if (events.isEmpty()) {
+                        log.awaitAppend(reader.getNextSequence() - 1, 1000);
+                    } else {
+                        consumer.accept(events);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    e.printStackTrace();  // Keep the consumer alive; the failed batch is not handed over again
+                }
+            }
+        }, "flipfit-event-consumer-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // The log the relay appends to
+    public EventLog getLog() {
+        return log;
+    }
+
+    @Override
+    public String toString() {
+        return "GymEventRelay{relayed=" + relayed.sum() + ", rounds=" + rounds.sum() + ", failures=" + failures.sum()
+                + ", lastSequence=" + log.getLastSequence() + "}";
+    }
+}
@@ -5,6 +5,8 @@ import com.flipfit.bean.GymOwner;
 import com.flipfit.bean.GymSlots;
 
 import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
 
 public interface GymOwnerBusiness {
 
@@ -20,6 +22,11 @@ public interface GymOwnerBusiness {
     // @param slot - the GymSlots object containing details of the new slot (start time, end time, cost)
     public boolean addnewSlot(int centerId, GymSlots slot);
 
+    // Adds many slots at once (each slot carries its own center ID); either all are added or none
+    // @param slots - the GymSlots objects to be added
+    // @return the number of slots added, 0 if the batch was rejected
+    public int addnewSlots(List<GymSlots> slots);
+
     // Deletes an existing slot from a gym center based on start time
     // @param centerId - the ID of the gym center
     // @param startTime - the start time of the slot to be deleted
@@ -29,6 +36,30 @@ public interface GymOwnerBusiness {
     // @param centerId - the ID of the gym center to be deleted
     public boolean deleteCenter(int centerId);
 
+    // Cancels every booking of one of the owner's slots on a date, e.g. when the slot is closed that day
+    // @param ownerId - the ID of the gym owner
+    // @param slotId - the ID of the slot
+    // @param date - the date whose bookings are cancelled
+    // @return the number of bookings cancelled, -1 if the slot is not the owner's or the cancellation failed
+    public int cancelAll(int ownerId, int slotId, Date date);
+
+    // Cancels every booking of one of the owner's centers on a date, when the center closes for the day
+    // @param ownerId - the ID of the gym owner
+    // @param centerId - the ID of the gym center
+    // @param date - the date whose bookings are cancelled
+    // @return the number of bookings cancelled, -1 if the center is not the owner's or the cancellation failed
+    public int closeCenter(int ownerId, int centerId, Date date);
+
+    // Checks whether a gym center belongs to the owner
+    // @param ownerId - the ID of the gym owner
+    // @param centerId - the ID of the gym center
+    public boolean ownsCenter(int ownerId, int centerId);
+
+    // Checks whether a slot belongs to one of the owner's gym centers
+    // @param ownerId - the ID of the gym owner
+    // @param slotId - the ID of the slot
+    public boolean ownsSlot(int ownerId, int slotId);
+
     // Allows the gym owner to edit their profile details
     // @param owner - the GymOwner object containing the updated profile information
     public boolean editProfile(GymOwner owner);
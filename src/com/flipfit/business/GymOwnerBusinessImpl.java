@@ -3,23 +3,34 @@ package com.flipfit.business;
 import com.flipfit.bean.GymCenter;
 import com.flipfit.bean.GymOwner;
 import com.flipfit.bean.GymSlots;
-import com.flipfit.dao.GymAdminDAO;
-import com.flipfit.dao.GymAdminDAOImpl;
+import com.flipfit.dao.GymCustomerDAO;
 import com.flipfit.dao.GymOwnerDAO;
-import com.flipfit.dao.GymOwnerDAOImpl;
 import com.flipfit.exceptions.DataEntryFailedException;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceAlreadyExistsException;
+import com.flipfit.exceptions.UnauthorisedAccessException;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Scanner;
+import java.util.Date;
+import java.util.List;
 
 public class GymOwnerBusinessImpl implements GymOwnerBusiness {
 
-    // Create an instance of Scanner for input, and GymOwnerDAO for database interaction
-    Scanner scanner = new Scanner(System.in);
-    GymOwnerDAO ownerDAO = new GymOwnerDAOImpl();
+    // GymOwnerDAO for database interaction
+    private final GymOwnerDAO ownerDAO;
+    // Cancels the bookings of closed slots and centers
+    private final GymCustomerDAO customerDAO;
+
+    // Uses the shared DAOs of the service registry
+    public GymOwnerBusinessImpl() {
+        this(GymServiceRegistry.getInstance().getOwnerDAO(), GymServiceRegistry.getInstance().getCustomerDAO());
+    }
+
+    public GymOwnerBusinessImpl(GymOwnerDAO ownerDAO, GymCustomerDAO customerDAO) {
+        this.ownerDAO = ownerDAO;
+        this.customerDAO = customerDAO;
+    }
 
     /**
      * Registers a new gym center for the specified owner.
@@ -50,7 +61,7 @@ public class GymOwnerBusinessImpl implements GymOwnerBusiness {
     @Override
     public boolean addnewSlot(int centerId, GymSlots slot) {
         try {
-            ownerDAO.addSlots(centerId, slot);
+            return ownerDAO.addSlots(centerId, slot);
         } catch (ResourceAlreadyExistsException e) {
             System.out.println(e);
         } catch (DataEntryFailedException e) {
@@ -59,6 +70,23 @@ public class GymOwnerBusinessImpl implements GymOwnerBusiness {
         return false;
     }
 
+    /**
+     * Adds many slots in one transaction, e.g. when a partner chain is onboarded.
+     * @param slots - the GymSlots objects to be added, each with its center ID set
+     * @return the number of slots added, 0 if the batch was rejected
+     */
+    @Override
+    public int addnewSlots(List<GymSlots> slots) {
+        try {
+            return ownerDAO.addSlots(slots);
+        } catch (ResourceAlreadyExistsException e) {
+            System.out.println(e);
+        } catch (DataEntryFailedException e) {
+            System.out.println(e);
+        }
+        return 0;
+    }
+
     /**
      * Deletes an existing slot from a gym center based on start time.
      * If the slot with the given start time exists, it will be removed.
@@ -92,6 +120,69 @@ public class GymOwnerBusinessImpl implements GymOwnerBusiness {
         return false;
     }
 
+    /**
+     * Cancels every booking of a slot on a date after checking that the slot is the owner's.
+     * The bookings are cancelled as one set, their seats are given back and the customers are notified.
+     * @param ownerId - the ID of the gym owner
+     * @param slotId - the ID of the slot
+     * @param date - the date whose bookings are cancelled
+     * @return the number of bookings cancelled, otherwise -1
+     */
+    @Override
+    public int cancelAll(int ownerId, int slotId, Date date) {
+        try {
+            if (!ownerDAO.ownsSlot(ownerId, slotId)) {
+                throw new UnauthorisedAccessException("UnAutherised Access!");
+            }
+            return customerDAO.cancelAll(slotId, date);
+        } catch (UnauthorisedAccessException e) {
+            System.out.println(e);
+        }
+        return -1;
+    }
+
+    /**
+     * Cancels every booking of all slots of a center on a date after checking that the center is the owner's.
+     * @param ownerId - the ID of the gym owner
+     * @param centerId - the ID of the gym center
+     * @param date - the date on which the center is closed
+     * @return the number of bookings cancelled, otherwise -1
+     */
+    @Override
+    public int closeCenter(int ownerId, int centerId, Date date) {
+        try {
+            if (!ownerDAO.ownsCenter(ownerId, centerId)) {
+                throw new UnauthorisedAccessException("UnAutherised Access!");
+            }
+            return customerDAO.cancelAllAtCenter(centerId, date);
+        } catch (UnauthorisedAccessException e) {
+            System.out.println(e);
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a gym center belongs to the owner.
+     * @param ownerId - the ID of the gym owner
+     * @param centerId - the ID of the gym center
+     * @return true if the center exists and is the owner's, otherwise false
+     */
+    @Override
+    public boolean ownsCenter(int ownerId, int centerId) {
+        return ownerDAO.ownsCenter(ownerId, centerId);
+    }
+
+    /**
+     * Checks whether a slot belongs to one of the owner's gym centers.
+     * @param ownerId - the ID of the gym owner
+     * @param slotId - the ID of the slot
+     * @return true if the slot exists and its center is the owner's, otherwise false
+     */
+    @Override
+    public boolean ownsSlot(int ownerId, int slotId) {
+        return ownerDAO.ownsSlot(ownerId, slotId);
+    }
+
     /**
      * Allows the gym owner to edit their profile details.
      * The profile information such as name, email, and other details are updated.
@@ -0,0 +1,263 @@
+package com.flipfit.business;
+
+import com.flipfit.bean.GymPayment;
+import com.flipfit.dao.GymPaymentDAO;
+import com.flipfit.utils.NotificationDispatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Payment pipeline shared by every customer.
+ * Payments are put on a bounded queue and a single writer thread stores them in micro-batches: it takes
+ * whatever is queued (optionally lingering a moment for more) and writes up to one batch with one
+ * transaction (see {@link GymPaymentDAO#savePayments(List)}). While one batch is being written the next
+ * one fills up, so the batches grow with the load without delaying a lone payment. A full queue rejects
+ * the payment instead of letting callers pile up.
+ *
+ * Payments may carry an idempotency key. The futures of recently submitted keys are remembered, so a
+ * client that retries a payment gets the original payment ID without another database write; older
+ * keys are still answered by the unique key in the database. A key that is reused for another booking is
+ * rejected with -1 instead of being answered with the payment of the first booking.
+ * Every newly written payment queues a receipt for its customer; retries do not send another one.
+ */
+public class GymPaymentProcessor {
+
+    private static final int BATCH_SIZE = Integer.getInteger("flipfit.payment.batch.size", 64);  // Payments written per transaction
+    private static final int QUEUE_CAPACITY = Integer.getInteger("flipfit.payment.queue.capacity", 4096);  // Payments waiting for the writer
+    private static final long LINGER_MILLIS = Long.getLong("flipfit.payment.linger.ms", 0);  // Extra time the writer waits to fill a batch
+    private static final int KEY_CACHE_SIZE = Integer.getInteger("flipfit.payment.keys.size", 10_000);  // Recent idempotency keys kept in memory
+    private static final long SUBMIT_TIMEOUT_MILLIS = 30_000;  // Longest a caller waits for its payment
+
+    // A payment waiting for the writer
+    private static final class Pending {
+        private final GymPayment payment;
+        private final CompletableFuture<Integer> result;
+
+        Pending(GymPayment payment, CompletableFuture<Integer> result) {
+            this.payment = payment;
+            this.result = result;
+        }
+    }
+
+    private final GymPaymentDAO paymentDAO;
+    private final NotificationDispatcher notifications;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<Pending> queue;
+    private final LinkedHashMap<String, Pending> recentKeys;  // Access ordered, the eldest key is dropped first
+
+    // Pipeline statistics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    public GymPaymentProcessor(GymPaymentDAO paymentDAO, NotificationDispatcher notifications) {
+        this(paymentDAO, notifications, BATCH_SIZE, QUEUE_CAPACITY, LINGER_MILLIS, KEY_CACHE_SIZE);
+    }
+
+    public GymPaymentProcessor(GymPaymentDAO paymentDAO, NotificationDispatcher notifications, int batchSize, int queueCapacity,
+                               long lingerMillis, int keyCacheSize) {
+        this.paymentDAO = paymentDAO;
+        this.notifications = notifications;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.recentKeys = new LinkedHashMap<String, Pending>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Pending> eldest) {
+                return size() > keyCacheSize;
+            }
+        };
+
+        // Background thread that writes the queued payments
+        Thread writer = new Thread(this::writeLoop, "flipfit-payment-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Submits one payment and waits until it is stored.
+     * @param payment the payment; its booking ID and mode are required, the idempotency key is optional.
+     * @return the payment ID, or -1 if the booking does not exist, the queue is full or the write failed.
+     */
+    public int submit(GymPayment payment) {
+        try {
+            return submitAsync(payment).get(SUBMIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.out.println(e);
+        }
+        return -1;
+    }
+
+    /**
+     * Submits one payment without waiting for it.
+     * A payment whose idempotency key was submitted recently gets the future of the original payment.
+     * @param payment the payment to store.
+     * @return the future payment ID; -1 if the booking does not exist, the queue is full or the write failed.
+     */
+    public CompletableFuture<Integer> submitAsync(GymPayment payment) {
+        submitted.increment();
+        Pending pending = new Pending(payment, new CompletableFuture<>());
+        if (payment.getIdempotencyKey() != null) {
+            Pending original;
+            synchronized (recentKeys) {
+                original = recentKeys.putIfAbsent(payment.getIdempotencyKey(), pending);
+            }
+            if (original != null) {
+                return retryOf(original, payment);
+            }
+        }
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            complete(pending, -1);  // Shed load instead of queueing without bound
+        }
+        return pending.result;
+    }
+
+    /**
+     * Settles the payments of many bookings at once, as done for corporate accounts.
+     * The payments are written on the calling thread in batches, so a large settlement does not hold up
+     * the queue of individual payments. Keys that were submitted recently are answered without a write.
+     * @param payments the payments to store.
+     * @return the payment ID of every payment, in order; -1 for payments that could not be stored.
+     */
+    public List<Integer> settle(List<GymPayment> payments) {
+        List<CompletableFuture<Integer>> results = new ArrayList<>(payments.size());
+        List<Pending> batch = new ArrayList<>(batchSize);
+        for (GymPayment payment : payments) {
+            submitted.increment();
+            Pending pending = new Pending(payment, new CompletableFuture<>());
+            Pending original = null;
+            if (payment.getIdempotencyKey() != null) {
+                synchronized (recentKeys) {
+                    original = recentKeys.putIfAbsent(payment.getIdempotencyKey(), pending);
+                }
+            }
+            if (original != null) {
+                results.add(retryOf(original, payment));
+                continue;
+            }
+            results.add(pending.result);
+            batch.add(pending);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+
+        List<Integer> paymentIds = new ArrayList<>(results.size());
+        for (CompletableFuture<Integer> result : results) {
+            try {
+                paymentIds.add(result.get(SUBMIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                paymentIds.add(-1);
+            } catch (ExecutionException | TimeoutException e) {
+                System.out.println(e);
+                paymentIds.add(-1);
+            }
+        }
+        return paymentIds;
+    }
+
+    // Takes the queued payments in batches of up to batchSize, lingering briefly to fill each batch
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - batch.size());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (lingerNanos > 0 && batch.size() < batchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();  // Keep the writer alive; write() has already answered the batch
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Stores one batch with one transaction and completes the futures of its payments
+    private void write(List<Pending> batch) {
+        List<GymPayment> payments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            payments.add(pending.payment);
+        }
+        try {
+            written.add(paymentDAO.savePayments(payments));
+            batches.increment();
+            for (GymPayment payment : payments) {
+                if (payment.getCustomerID() > 0 && payment.getPaymentID() > 0) {  // Written by this batch
+                    notifications.publish(payment.getCustomerID(), payment.getBookingID(), NotificationDispatcher.PAYMENT,
+                            "Payment " + payment.getPaymentID() + " of " + payment.getAmount() + " received for booking "
+                                    + payment.getBookingID() + " by " + payment.getMode());
+                }
+            }
+        } finally {
+            for (Pending pending : batch) {
+                complete(pending, pending.payment.getPaymentID() == 0 ? -1 : pending.payment.getPaymentID());
+            }
+        }
+    }
+
+    // Answers a payment whose key was submitted recently: a retry of the same booking gets the original
+    // payment, any other payment under the key is rejected
+    private CompletableFuture<Integer> retryOf(Pending original, GymPayment payment) {
+        if (original.payment.getBookingID() != payment.getBookingID()) {
+            mismatches.increment();
+            return CompletableFuture.completedFuture(-1);
+        }
+        duplicates.increment();
+        return original.result;
+    }
+
+    // Completes a payment; a failed payment forgets its key so that a retry is written again
+    private void complete(Pending pending, int paymentId) {
+        if (paymentId == -1 && pending.payment.getIdempotencyKey() != null) {
+            synchronized (recentKeys) {
+                recentKeys.remove(pending.payment.getIdempotencyKey(), pending);
+            }
+        }
+        pending.result.complete(paymentId);
+    }
+
+    // Number of payments waiting for the writer
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public String toString() {
+        return "GymPaymentProcessor{submitted=" + submitted.sum() + ", duplicates=" + duplicates.sum() + ", mismatches=" + mismatches.sum()
+                + ", rejected=" + rejected.sum() + ", batches=" + batches.sum() + ", written=" + written.sum()
+                + ", queued=" + queue.size() + "}";
+    }
+}
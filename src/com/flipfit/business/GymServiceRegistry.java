@@ -0,0 +1,252 @@
+package com.flipfit.business;
+
+import com.flipfit.dao.GymAdminDAO;
+import com.flipfit.dao.GymAdminDAOImpl;
+import com.flipfit.dao.GymCenterDAO;
+import com.flipfit.dao.GymCenterCache;
+import com.flipfit.dao.GymCenterDAOImpl;
+import com.flipfit.dao.GymCustomerDAO;
+import com.flipfit.dao.GymCustomerDAOImpl;
+import com.flipfit.dao.GymOutboxDAO;
+import com.flipfit.dao.GymOutboxDAOImpl;
+import com.flipfit.dao.GymOwnerDAO;
+import com.flipfit.dao.GymOwnerDAOImpl;
+import com.flipfit.dao.GymPaymentDAO;
+import com.flipfit.dao.GymPaymentDAOImpl;
+import com.flipfit.dao.GymSeatInventoryCache;
+import com.flipfit.dao.GymSeatReservationDAO;
+import com.flipfit.dao.GymSeatReservationDAOImpl;
+import com.flipfit.dao.GymSlotDAO;
+import com.flipfit.dao.GymSlotCatalog;
+import com.flipfit.dao.GymSlotDAOImpl;
+import com.flipfit.dao.GymSlotSearchIndex;
+import com.flipfit.dao.GymUserDAO;
+import com.flipfit.dao.GymUserDAOImpl;
+import com.flipfit.dao.GymWaitlistDAO;
+import com.flipfit.dao.GymWaitlistDAOImpl;
+import com.flipfit.utils.EventLog;
+import com.flipfit.utils.MetricsRegistry;
+import com.flipfit.utils.NotificationDispatcher;
+import com.flipfit.utils.TimedProxy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Wires the DAOs and business services of the application exactly once.
+ * The DAOs are stateless (every call borrows its own pooled connection and statements) and the business
+ * services only hold references to them, so the single shared instances can serve any number of
+ * threads at the same time. Menus, importers and servers look their services up here instead of
+ * creating their own.
+ *
+ * The registry also starts the reconciliation of the in-memory seat inventory with the database, and the
+ * relay that moves booking events from the outbox to the event log in the directory given by
+ * flipfit.events.dir. If the log cannot be opened the events stay in the outbox
+ * table until a relay runs again.
+ *
+ * Every DAO and business service is wrapped in a {@link TimedProxy}, so the duration of each call is
+ * recorded in the {@link MetricsRegistry} (switched off with -Dflipfit.metrics.enabled=false). With
+ * flipfit.metrics.log.seconds the metrics are also written to standard output periodically.
+ */
+public final class GymServiceRegistry {
+
+    // Holder idiom: the registry is built on first use, once
+    private static final class Holder {
+        private static final GymServiceRegistry INSTANCE = new GymServiceRegistry();
+    }
+
+    private static final String EVENTS_DIR = System.getProperty("flipfit.events.dir", "events");  // Directory of the event log
+    private static final int EVENTS_SEGMENT_BYTES = Integer.getInteger("flipfit.events.segment.bytes", 64 << 20);  // Size of a log segment
+    private static final long EVENTS_POLL_MILLIS = Long.getLong("flipfit.events.poll.ms", 50);  // Pause between relay rounds
+    private static final boolean METRICS_ENABLED = !"false".equals(System.getProperty("flipfit.metrics.enabled"));  // Time every service call
+    private static final long METRICS_LOG_SECONDS = Long.getLong("flipfit.metrics.log.seconds", 0);  // Period of the metrics log, 0 for none
+
+    // Layers of the timed services, used in the metric names
+    private static final String DAO = "dao";
+    private static final String BUSINESS = "business";
+
+    // Asynchronous notifications shared by the DAOs and services
+    private final NotificationDispatcher notificationDispatcher;
+
+    // Data access layer
+    private final GymUserDAO userDAO;
+    private final GymAdminDAO adminDAO;
+    private final GymOwnerDAO ownerDAO;
+    private final GymCenterDAO centerDAO;
+    private final GymSlotDAO slotDAO;
+    private final GymSeatReservationDAO seatReservationDAO;
+    private final GymWaitlistDAO waitlistDAO;
+    private final GymCustomerDAO customerDAO;
+    private final GymPaymentDAO paymentDAO;
+    private final GymOutboxDAO outboxDAO;
+
+    // Seats left per slot and date, shared by the slot reads and the booking writes
+    private final GymSeatInventoryCache seatInventory;
+
+    // Moves booking events from the outbox to the event log; null if the log could not be opened
+    private final GymEventRelay eventRelay;
+
+    // Business layer
+    private final GymUserBusiness userBusiness;
+    private final GymAdminBusiness adminBusiness;
+    private final GymOwnerBusiness ownerBusiness;
+    private final GymCenterBusiness centerBusiness;
+    private final GymSlotsBusiness slotsBusiness;
+    private final GymPaymentProcessor paymentProcessor;
+    private final GymCustomerBusiness customerBusiness;
+
+    private GymServiceRegistry() {
+        notificationDispatcher = NotificationDispatcher.getInstance();
+
+        outboxDAO = timed(GymOutboxDAO.class, new GymOutboxDAOImpl(), DAO);
+        userDAO = timed(GymUserDAO.class, new GymUserDAOImpl(), DAO);
+        adminDAO = timed(GymAdminDAO.class, new GymAdminDAOImpl(outboxDAO, GymCenterCache.getInstance()), DAO);
+        seatInventory = new GymSeatInventoryCache(new GymSlotDAOImpl());
+        slotDAO = timed(GymSlotDAO.class, new GymSlotDAOImpl(seatInventory), DAO);
+        centerDAO = timed(GymCenterDAO.class, new GymCenterDAOImpl(GymSlotSearchIndex.getInstance(), GymSlotCatalog.getInstance(), slotDAO), DAO);
+        seatReservationDAO = timed(GymSeatReservationDAO.class, new GymSeatReservationDAOImpl(), DAO);
+        waitlistDAO = timed(GymWaitlistDAO.class, new GymWaitlistDAOImpl(), DAO);
+        customerDAO = timed(GymCustomerDAO.class, new GymCustomerDAOImpl(seatReservationDAO, waitlistDAO, seatInventory,
+                notificationDispatcher, outboxDAO, GymCenterCache.getInstance(), GymSlotCatalog.getInstance()), DAO);
+        ownerDAO = timed(GymOwnerDAO.class, new GymOwnerDAOImpl(customerDAO), DAO);
+        paymentDAO = timed(GymPaymentDAO.class, new GymPaymentDAOImpl(outboxDAO), DAO);
+        seatInventory.start();
+        eventRelay = startEventRelay(outboxDAO);
+
+        userBusiness = timed(GymUserBusiness.class, new GymUserBusinessImpl(userDAO), BUSINESS);
+        adminBusiness = timed(GymAdminBusiness.class, new GymAdminBusinessImpl(adminDAO, notificationDispatcher), BUSINESS);
+        ownerBusiness = timed(GymOwnerBusiness.class, new GymOwnerBusinessImpl(ownerDAO, customerDAO), BUSINESS);
+        centerBusiness = timed(GymCenterBusiness.class, new GymCenterBusinessImpl(centerDAO), BUSINESS);
+        slotsBusiness = timed(GymSlotsBusiness.class, new GymSlotsBusinessImpl(slotDAO), BUSINESS);
+        paymentProcessor = new GymPaymentProcessor(paymentDAO, notificationDispatcher);
+        customerBusiness = timed(GymCustomerBusiness.class, new GymCustomerBusinessImpl(customerDAO, paymentProcessor, notificationDispatcher),
+                BUSINESS);
+
+        registerGauges();
+        MetricsRegistry.getInstance().startLogging(METRICS_LOG_SECONDS);
+    }
+
+    // Times every call of a service unless metrics are switched off
+    private static <T> T timed(Class<T> type, T service, String layer) {
+        return METRICS_ENABLED ? TimedProxy.wrap(type, service, layer) : service;
+    }
+
+    // Exports the state of the background queues; the values are only read when the metrics are exported (the pool exports its own)
+    private void registerGauges() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.register("flipfit_notifications_queued", "gauge", "Notifications waiting to be delivered", notificationDispatcher::getQueueSize);
+        metrics.register("flipfit_payments_queued", "gauge", "Payments waiting for the next batch", paymentProcessor::getQueueSize);
+        GymCenterCache centers = GymCenterCache.getInstance();
+        metrics.register("flipfit_center_cache_hits_total", "counter", "Center reads served from memory", centers::getHits);
+        metrics.register("flipfit_center_cache_misses_total", "counter", "Center reads that went to the database", centers::getMisses);
+        metrics.register("flipfit_center_cache_invalidations_total", "counter", "Center cache invalidations, local and from other nodes",
+                centers::getInvalidations);
+        GymSlotCatalog slots = GymSlotCatalog.getInstance();
+        metrics.register("flipfit_slot_catalog_hits_total", "counter", "Slot lookups served from memory", slots::getHits);
+        metrics.register("flipfit_slot_catalog_misses_total", "counter", "Slot lookups that went to the database", slots::getMisses);
+        metrics.register("flipfit_slot_catalog_size", "gauge", "Slots in the slot catalog", slots::size);
+        if (eventRelay != null) {
+            metrics.register("flipfit_events_last_sequence", "counter", "Sequence of the newest event in the log",
+                    () -> eventRelay.getLog().getLastSequence());
+        }
+    }
+
+    // Opens the event log and starts relaying the outbox to it
+    private static GymEventRelay startEventRelay(GymOutboxDAO outboxDAO) {
+        try {
+            GymEventRelay relay = new GymEventRelay(outboxDAO, EventLog.open(Paths.get(EVENTS_DIR), EVENTS_SEGMENT_BYTES),
+                    EVENTS_POLL_MILLIS);
+            relay.start();
+            return relay;
+        } catch (IOException e) {
+            System.out.println("Event log " + EVENTS_DIR + " is not available: " + e);
+            return null;
+        }
+    }
+
+    // Returns the application-wide registry
+    public static GymServiceRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public NotificationDispatcher getNotificationDispatcher() {
+        return notificationDispatcher;
+    }
+
+    public GymUserDAO getUserDAO() {
+        return userDAO;
+    }
+
+    public GymAdminDAO getAdminDAO() {
+        return adminDAO;
+    }
+
+    public GymOwnerDAO getOwnerDAO() {
+        return ownerDAO;
+    }
+
+    public GymCenterDAO getCenterDAO() {
+        return centerDAO;
+    }
+
+    public GymSlotDAO getSlotDAO() {
+        return slotDAO;
+    }
+
+    public GymSeatReservationDAO getSeatReservationDAO() {
+        return seatReservationDAO;
+    }
+
+    public GymWaitlistDAO getWaitlistDAO() {
+        return waitlistDAO;
+    }
+
+    public GymCustomerDAO getCustomerDAO() {
+        return customerDAO;
+    }
+
+    public GymPaymentDAO getPaymentDAO() {
+        return paymentDAO;
+    }
+
+    public GymOutboxDAO getOutboxDAO() {
+        return outboxDAO;
+    }
+
+    public GymSeatInventoryCache getSeatInventory() {
+        return seatInventory;
+    }
+
+    // The relay of the booking events, null if the event log could not be opened
+    public GymEventRelay getEventRelay() {
+        return eventRelay;
+    }
+
+    public GymUserBusiness getUserBusiness() {
+        return userBusiness;
+    }
+
+    public GymAdminBusiness getAdminBusiness() {
+        return adminBusiness;
+    }
+
+    public GymOwnerBusiness getOwnerBusiness() {
+        return ownerBusiness;
+    }
+
+    public GymCenterBusiness getCenterBusiness() {
+        return centerBusiness;
+    }
+
+    public GymSlotsBusiness getSlotsBusiness() {
+        return slotsBusiness;
+    }
+
+    public GymPaymentProcessor getPaymentProcessor() {
+        return paymentProcessor;
+    }
+
+    public GymCustomerBusiness getCustomerBusiness() {
+        return customerBusiness;
+    }
+}
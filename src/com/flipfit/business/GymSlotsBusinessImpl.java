@@ -1,14 +1,22 @@
 package com.flipfit.business;
 
 import com.flipfit.dao.GymSlotDAO;
-import com.flipfit.dao.GymSlotDAOImpl;
 
 import java.util.Date;
 
 public class GymSlotsBusinessImpl implements GymSlotsBusiness {
 
-    // Creating an instance of the GymSlotDAO to interact with the data layer
-    GymSlotDAO gymSlotDAO = new GymSlotDAOImpl();
+    // GymSlotDAO to interact with the data layer
+    private final GymSlotDAO gymSlotDAO;
+
+    // Uses the shared DAO of the service registry
+    public GymSlotsBusinessImpl() {
+        this(GymServiceRegistry.getInstance().getSlotDAO());
+    }
+
+    public GymSlotsBusinessImpl(GymSlotDAO gymSlotDAO) {
+        this.gymSlotDAO = gymSlotDAO;
+    }
 
     // Method to get the number of available seats for a specific slot and date
     @Override
@@ -5,6 +5,7 @@ import com.flipfit.bean.GymCustomer;
 import com.flipfit.bean.GymOwner;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface GymUserBusiness {
 
@@ -14,6 +15,24 @@ public interface GymUserBusiness {
     // Method to view a list of all gym owners in the system
     public List<GymOwner> viewAllGymOwners();
 
+    // Method to view one page of customers ordered by customer ID
+    // Parameters: namePrefix (start of the name), emailDomain (e.g. gmail.com), both null or blank for no filter,
+    // afterCustomerId (last customer ID of the previous page, 0 for the first page), pageSize (maximum number of customers)
+    // Returns the customers of the page, empty once there are no more
+    public List<GymCustomer> viewCustomers(String namePrefix, String emailDomain, int afterCustomerId, int pageSize);
+
+    // Method to stream all customers matching the filters without loading them into memory; the stream must be closed
+    public Stream<GymCustomer> streamCustomers(String namePrefix, String emailDomain);
+
+    // Method to view one page of gym owners ordered by owner ID, with the same filters as viewCustomers
+    public List<GymOwner> viewGymOwners(String namePrefix, String emailDomain, int afterOwnerId, int pageSize);
+
+    // Method to stream all gym owners matching the filters without loading them into memory; the stream must be closed
+    public Stream<GymOwner> streamGymOwners(String namePrefix, String emailDomain);
+
     // Method to handle user login; returns an integer representing the user role (e.g., 1 for admin, 2 for customer, etc.)
     public int login(String email, String password, String role);
+
+    // Method to report login cache hits/misses and login latency (including p99)
+    public String loginStats();
 }
@@ -4,18 +4,27 @@ import com.flipfit.bean.GymAdmin;
 import com.flipfit.bean.GymCustomer;
 import com.flipfit.bean.GymOwner;
 import com.flipfit.dao.GymUserDAO;
-import com.flipfit.dao.GymUserDAOImpl;
 import com.flipfit.exceptions.DBConnectionException;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceNotFoundException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class GymUserBusinessImpl implements GymUserBusiness {
 
     // DAO instance to interact with the database
-    GymUserDAO gymUserDAO = new GymUserDAOImpl();
+    private final GymUserDAO gymUserDAO;
+
+    // Uses the shared DAO of the service registry
+    public GymUserBusinessImpl() {
+        this(GymServiceRegistry.getInstance().getUserDAO());
+    }
+
+    public GymUserBusinessImpl(GymUserDAO gymUserDAO) {
+        this.gymUserDAO = gymUserDAO;
+    }
 
     /**
      * Retrieves a list of all customers by calling the DAO.
@@ -53,6 +62,54 @@ public class GymUserBusinessImpl implements GymUserBusiness {
         return new ArrayList();
     }
 
+    /**
+     * Retrieves one page of customers, optionally filtered by name prefix and email domain.
+     * @param namePrefix start of the customer name, or null/blank for any name
+     * @param emailDomain domain of the email address, or null/blank for any domain
+     * @param afterCustomerId the last customer ID of the previous page, or 0 for the first page
+     * @param pageSize the maximum number of customers to return
+     * @return the customers of the page, empty once there are no more customers
+     */
+    @Override
+    public List<GymCustomer> viewCustomers(String namePrefix, String emailDomain, int afterCustomerId, int pageSize) {
+        return gymUserDAO.viewCustomers(namePrefix, emailDomain, afterCustomerId, pageSize);
+    }
+
+    /**
+     * Streams all customers matching the filters; the caller must close the stream.
+     * @param namePrefix start of the customer name, or null/blank for any name
+     * @param emailDomain domain of the email address, or null/blank for any domain
+     * @return the customers in customer ID order
+     */
+    @Override
+    public Stream<GymCustomer> streamCustomers(String namePrefix, String emailDomain) {
+        return gymUserDAO.streamCustomers(namePrefix, emailDomain);
+    }
+
+    /**
+     * Retrieves one page of gym owners, optionally filtered by name prefix and email domain.
+     * @param namePrefix start of the owner name, or null/blank for any name
+     * @param emailDomain domain of the email address, or null/blank for any domain
+     * @param afterOwnerId the last owner ID of the previous page, or 0 for the first page
+     * @param pageSize the maximum number of owners to return
+     * @return the owners of the page, empty once there are no more owners
+     */
+    @Override
+    public List<GymOwner> viewGymOwners(String namePrefix, String emailDomain, int afterOwnerId, int pageSize) {
+        return gymUserDAO.viewGymOwners(namePrefix, emailDomain, afterOwnerId, pageSize);
+    }
+
+    /**
+     * Streams all gym owners matching the filters; the caller must close the stream.
+     * @param namePrefix start of the owner name, or null/blank for any name
+     * @param emailDomain domain of the email address, or null/blank for any domain
+     * @return the owners in owner ID order
+     */
+    @Override
+    public Stream<GymOwner> streamGymOwners(String namePrefix, String emailDomain) {
+        return gymUserDAO.streamGymOwners(namePrefix, emailDomain);
+    }
+
     /**
      * Validates user login credentials by calling the DAO.
      * If the credentials are invalid or there is a database connection error, it returns -1.
@@ -76,4 +133,13 @@ public class GymUserBusinessImpl implements GymUserBusiness {
         // Returning -1 if login fails
         return -1;
     }
+
+    /**
+     * Reports the login cache hit/miss counters and the login latency percentiles.
+     * @return a one-line summary of the login statistics.
+     */
+    @Override
+    public String loginStats() {
+        return gymUserDAO.loginStats();
+    }
 }
@@ -6,6 +6,7 @@ import com.flipfit.exceptions.ResourceNotFoundException;
 import com.flipfit.exceptions.StatusUpdatedException;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 public interface GymAdminDAO {
 
@@ -17,15 +18,33 @@ public interface GymAdminDAO {
          */
         public List<GymBooking> viewBookings() throws ResourceNotFoundException;
 
+        /**
+         * Method to retrieve one page of bookings, ordered by booking ID (keyset pagination).
+         *
+         * @param afterBookingId Only bookings with a larger ID are returned; pass 0 for the first page.
+         * @param pageSize The maximum number of bookings in the page.
+         * @return List of GymBooking objects, empty once the last page has been read.
+         */
+        public List<GymBooking> viewBookings(int afterBookingId, int pageSize);
+
+        /**
+         * Method to stream all bookings in booking ID order without loading them into memory.
+         * The stream holds a database connection and must be closed by the caller.
+         *
+         * @return Stream of GymBooking objects.
+         */
+        public Stream<GymBooking> streamBookings();
+
         /**
          * Method to approve or reject a gym owner registration request.
          *
          * @param requestId The ID of the registration request.
          * @param status The status of the registration (approved/rejected).
+         * @return the decided request, or null if it could not be stored.
          * @throws StatusUpdatedException if the status could not be updated.
          * @throws ResourceNotFoundException if the registration request is not found.
          */
-        public void approveOwnerRegistration(int requestId, String status) throws StatusUpdatedException, ResourceNotFoundException;
+        public GymOwnerRequest approveOwnerRegistration(int requestId, String status) throws StatusUpdatedException, ResourceNotFoundException;
 
         /**
          * Method to retrieve all pending owner registration requests.
@@ -5,60 +5,98 @@ import com.flipfit.exceptions.DBConnectionException;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceNotFoundException;
 import com.flipfit.exceptions.StatusUpdatedException;
+import com.flipfit.utils.CredentialCache;
 import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.PasswordHasher;
+import com.flipfit.utils.ResultSetStream;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.ResultSet;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class GymAdminDAOImpl implements GymAdminDAO {
-    private Connection conn = null;
-    private PreparedStatement statement = null;
-    private PreparedStatement stmt = null;
+
+    // Owner registration requests
+    private static final String REQUEST_COLUMNS = "SELECT RequestId, OwnerId, Status, CenterName, CenterLocation, NumOfSlots FROM OwnerRequest ";
+    private static final String REQUEST_BY_ID_SQL = REQUEST_COLUMNS + "WHERE RequestId = ?";
+    private static final String LOCK_REQUEST_SQL = REQUEST_BY_ID_SQL + " FOR UPDATE";
+    private static final String REQUESTS_BY_STATUS_SQL = REQUEST_COLUMNS + "WHERE Status = ?";
+    private static final String UPDATE_REQUEST_STATUS_SQL = "UPDATE OwnerRequest SET Status = ? WHERE RequestId = ?";
+    private static final String INSERT_CENTER_SQL = "INSERT INTO GymCenters (OwnerId, CenterName, Location, NumOfSlots) VALUES (?, ?, ?, ?)";
+    // Password updates
+    private static final String USER_ID_SQL = "SELECT UserId FROM Registration WHERE EmailAddress = ? AND Role = ?";
+    private static final String UPDATE_REGISTRATION_PASSWORD_SQL = "UPDATE Registration SET Password = ? WHERE UserId = ?";
+    private static final String UPDATE_ADMIN_PASSWORD_SQL = "UPDATE AdminInfo SET Password = ? WHERE AdminId = ?";
+
+    // Bookings joined with their gym center and slot, so every row is complete without follow-up queries
+    private static final String BOOKINGS_SQL =
+            "SELECT b.BookingId, c.CenterName, c.Location, s.StartTime, s.EndTime, b.Date "
+            + "FROM CustomerBooking b "
+            + "JOIN GymCenters c ON c.centerId = b.centerId "
+            + "JOIN Slots s ON s.slotsId = b.slotId ";
+    private static final String BOOKINGS_PAGE_SQL = BOOKINGS_SQL + "WHERE b.BookingId > ? ORDER BY b.BookingId LIMIT ?";
+    private static final String BOOKINGS_ALL_SQL = BOOKINGS_SQL + "ORDER BY b.BookingId";
+
+    // Records the owner request decisions in the same transaction as the decision
+    private final GymOutboxDAO outboxDAO;
+    // Serves the centers; invalidated when an approval adds one
+    private final GymCenterCache centerCache;
+
+    public GymAdminDAOImpl() {
+        this(new GymOutboxDAOImpl(), GymCenterCache.getInstance());
+    }
+
+    public GymAdminDAOImpl(GymOutboxDAO outboxDAO, GymCenterCache centerCache) {
+        this.outboxDAO = outboxDAO;
+        this.centerCache = centerCache;
+    }
 
     /**
-     * This method retrieves all gym bookings from the CustomerBooking table and
-     * fetches the associated gym center and slot information.
-     * It returns a list of GymBooking objects containing the booking details.
+     * This method retrieves all gym bookings from the CustomerBooking table together with
+     * the associated gym center and slot information.
+     * Prefer {@link #viewBookings(int, int)} or {@link #streamBookings()} for large tables.
      *
      * @return List<GymBooking> a list of gym bookings
      * @throws ResourceNotFoundException if no bookings are found
      */
     @Override
     public List<GymBooking> viewBookings() throws ResourceNotFoundException {
+        List<GymBooking> bookings;
+        try (Stream<GymBooking> stream = streamBookings()) {
+            bookings = stream.collect(Collectors.toList());
+        }
+
+        if(bookings.isEmpty()){
+            throw new ResourceNotFoundException("Bookings not found");
+        }
+        return bookings;
+    }
+
+    /**
+     * This method retrieves one page of bookings using keyset pagination on BookingId,
+     * so every page costs one indexed range scan no matter how deep the admin pages.
+     *
+     * @param afterBookingId the last booking ID of the previous page, or 0 for the first page
+     * @param pageSize the maximum number of bookings to return
+     * @return List<GymBooking> the bookings of the page, empty once there are no more bookings
+     */
+    @Override
+    public List<GymBooking> viewBookings(int afterBookingId, int pageSize) {
         List<GymBooking> bookings = new ArrayList<>();
-        try {
-            // We get all bookings from the CustomerBooking table
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("select * from CustomerBooking");
-            ResultSet resultSet = statement.executeQuery();
-
-            // For every booking, we fetch the associated gym center and slot information
-            while (resultSet.next()) {
-                statement = conn.prepareStatement("select * from GymCenters where centerId = ?");
-                statement.setInt(1, resultSet.getInt(3));
-                ResultSet resultSet1 = statement.executeQuery();
-                resultSet1.next();
-                String CenterName = resultSet1.getString(3);
-                String CenterLoc = resultSet1.getString(4);
-
-                statement = conn.prepareStatement("select * from Slots where slotsId = ?");
-                statement.setInt(1, resultSet.getInt(4));
-                resultSet1 = statement.executeQuery();
-                resultSet1.next();
-                LocalTime startTime = resultSet1.getTime(3).toLocalTime();
-                LocalTime endTime = resultSet1.getTime(4).toLocalTime();
-
-                // Store the booking details in the list
-                bookings.add(new GymBooking(resultSet.getInt(2), CenterName, CenterLoc, startTime, endTime, resultSet.getDate(5)));
-            }
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(BOOKINGS_PAGE_SQL)) {
+            statement.setInt(1, afterBookingId);
+            statement.setInt(2, pageSize);
 
-            if(bookings.isEmpty()){
-                throw new ResourceNotFoundException("Bookings not found");
+            // Store the booking details of the page in the list
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    bookings.add(mapBooking(resultSet));
+                }
             }
         } catch (SQLException se) {
             se.printStackTrace();
@@ -68,63 +106,112 @@ public class GymAdminDAOImpl implements GymAdminDAO {
         return bookings;
     }
 
+    /**
+     * This method streams every booking with a single joined query.
+     * Rows are fetched from the server in chunks and mapped lazily, so memory use stays flat.
+     * The stream keeps its connection until it is closed.
+     *
+     * @return Stream<GymBooking> the bookings in booking ID order, or an empty stream if the query fails
+     */
+    @Override
+    public Stream<GymBooking> streamBookings() {
+        try {
+            Connection conn = DBConnection.connect();
+            PreparedStatement statement;
+            try {
+                statement = conn.prepareStatement(BOOKINGS_ALL_SQL);
+            } catch (SQLException se) {
+                conn.close();
+                throw se;
+            }
+            return ResultSetStream.of(conn, statement, GymAdminDAOImpl::mapBooking);
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return Stream.empty();
+    }
+
+    // Maps one row of the bookings query to a GymBooking
+    private static GymBooking mapBooking(ResultSet resultSet) throws SQLException {
+        return new GymBooking(
+                resultSet.getInt("BookingId"),
+                resultSet.getString("CenterName"),
+                resultSet.getString("Location"),
+                resultSet.getTime("StartTime").toLocalTime(),
+                resultSet.getTime("EndTime").toLocalTime(),
+                resultSet.getDate("Date"));
+    }
+
     /**
      * This method approves or rejects an owner's registration request based on
      * the provided request ID and status. If the request is approved, the gym center
-     * details are inserted into the GymCenters table.
+     * details are inserted into the GymCenters table. The request row is locked, and the decision, the new
+     * center and the decision's outbox event are committed together.
      *
      * @param requestId the ID of the registration request
      * @param statuss the status to set (approved or rejected)
+     * @return the decided request, or null if it could not be stored
      * @throws StatusUpdatedException if the status is already updated
      * @throws ResourceNotFoundException if the registration request does not exist
      */
     @Override
-    public void approveOwnerRegistration(int requestId, String statuss) throws StatusUpdatedException, ResourceNotFoundException {
-        try {
-            conn = DBConnection.connect();
+    public GymOwnerRequest approveOwnerRegistration(int requestId, String statuss) throws StatusUpdatedException, ResourceNotFoundException {
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+            GymOwnerRequest request;
 
-            // Check if the registration request exists
-            statement = conn.prepareStatement("Select * from OwnerRequest where RequestId=?");
-            statement.setInt(1, requestId);
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                String status = resultSet.getString(3);
-
-                // Check if the status is already updated
-                if (!status.equals("pending")) {
-                    throw new StatusUpdatedException("The request has already been approved/rejected");
+            // Check if the registration request exists, locking it against a concurrent decision
+            try (PreparedStatement statement = conn.prepareStatement(LOCK_REQUEST_SQL)) {
+                statement.setInt(1, requestId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        conn.rollback();
+                        throw new ResourceNotFoundException("Such Request Does Not Exist");
+                    }
+                    request = mapRequest(resultSet);
                 }
+            }
 
-                // Update the status of the request
-                int ownerId = resultSet.getInt(2);
-                String centerName = resultSet.getString(4);
-                String location = resultSet.getString(5);
-                int NumOfSlots = resultSet.getInt(6);
+            // Check if the status is already updated
+            if (!request.getStatus().equals("pending")) {
+                conn.rollback();
+                throw new StatusUpdatedException("The request has already been approved/rejected");
+            }
 
-                // Update the status in the OwnerRequest table
-                statement = conn.prepareStatement("Update OwnerRequest set status=? where RequestId=?");
+            // Update the status in the OwnerRequest table
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_REQUEST_STATUS_SQL)) {
                 statement.setString(1, statuss);
                 statement.setInt(2, requestId);
                 statement.executeUpdate();
+            }
 
-                // If approved, add center to GymCenters table
-                if (statuss.equals("approved")) {
-                    statement = conn.prepareStatement("insert into GymCenters(`OwnerId`,`CenterName`,`Location`,`NumOfSlots`) values (?,?,?,?)");
-                    statement.setInt(1, ownerId);
-                    statement.setString(2, centerName);
-                    statement.setString(3, location);
-                    statement.setInt(4, NumOfSlots);
+            // If approved, add center to GymCenters table
+            if (statuss.equals("approved")) {
+                try (PreparedStatement statement = conn.prepareStatement(INSERT_CENTER_SQL)) {
+                    statement.setInt(1, request.getOwnerId());
+                    statement.setString(2, request.getCenterName());
+                    statement.setString(3, request.getCenterLocation());
+                    statement.setInt(4, request.getNumOfSlots());
                     statement.executeUpdate();
                 }
-            } else {
-                throw new ResourceNotFoundException("Such Request Does Not Exist");
+                centerCache.bumpVersion(conn);  // Other nodes drop their cached centers once this commits
+            }
+            outboxDAO.append(conn, new GymBookingEvent(GymOutboxDAO.OWNER_REQUEST_DECIDED, requestId,
+                    "status=" + statuss + ",owner=" + request.getOwnerId()));
+            conn.commit();
+            if (statuss.equals("approved")) {
+                centerCache.invalidateAll();  // The list of all centers now misses the new one
             }
+            request.setStatus(statuss);
+            return request;
         } catch (SQLException se) {
             se.printStackTrace();
         } catch (DBConnectionException e) {
             System.out.println(e);
         }
+        return null;
     }
 
     /**
@@ -137,57 +224,52 @@ public class GymAdminDAOImpl implements GymAdminDAO {
     @Override
     public List<GymOwnerRequest> pendingRequests() throws ResourceNotFoundException {
         List<GymOwnerRequest> requests = new ArrayList<>();
-        try {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(REQUESTS_BY_STATUS_SQL)) {
             // Get all pending owner registration requests
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("Select * from OwnerRequest where Status=?");
             statement.setString(1, "pending");
-            ResultSet rs = statement.executeQuery();
-
-            while (rs.next()) {
-                // Store all the pending requests in the list
-                requests.add(new GymOwnerRequest(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getInt(6)));
-            }
-
-            if(requests.isEmpty()){
-                throw new ResourceNotFoundException("No Pending Requests Available");
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    // Store all the pending requests in the list
+                    requests.add(mapRequest(rs));
+                }
             }
         } catch (SQLException se) {
             se.printStackTrace();
         } catch (DBConnectionException e) {
             System.out.println(e);
         }
+
+        if(requests.isEmpty()){
+            throw new ResourceNotFoundException("No Pending Requests Available");
+        }
         return requests;
     }
 
+    // Maps one OwnerRequest row to a GymOwnerRequest
+    private static GymOwnerRequest mapRequest(ResultSet rs) throws SQLException {
+        return new GymOwnerRequest(
+                rs.getInt("RequestId"),
+                rs.getInt("OwnerId"),
+                rs.getString("Status"),
+                rs.getString("CenterName"),
+                rs.getString("CenterLocation"),
+                rs.getInt("NumOfSlots"));
+    }
+
     /**
-     * This method retrieves all gym centers from the GymCenters table.
-     * It returns a list of GymCenter objects containing the center details.
+     * This method retrieves all gym centers. They are read from the GymCenters table once and
+     * then served from the center cache until a center is added or deleted.
      *
      * @return List<GymCenter> a list of gym centers
      * @throws ResourceNotFoundException if no gym centers are found
      */
     @Override
     public List<GymCenter> viewCenter() throws ResourceNotFoundException {
-        List<GymCenter> centers = new ArrayList<>();
-        try {
-            // Get all gym centers
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("Select * from GymCenters");
-            ResultSet rs = statement.executeQuery();
-
-            while (rs.next()) {
-                // Store the gym center information in a list
-                centers.add(new GymCenter(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4), rs.getInt(5)));
-            }
+        List<GymCenter> centers = centerCache.getAll();
 
-            if(centers.isEmpty()){
-                throw new ResourceNotFoundException("No Gym Centers Available");
-            }
-        } catch (SQLException se) {
-            se.printStackTrace();
-        } catch (DBConnectionException e) {
-            System.out.println(e);
+        if(centers.isEmpty()){
+            throw new ResourceNotFoundException("No Gym Centers Available");
         }
         return centers;
     }
@@ -205,31 +287,37 @@ public class GymAdminDAOImpl implements GymAdminDAO {
      */
     @Override
     public boolean updatepwd(String email, String password, String role) throws InvalidCredentialsException {
-        try {
+        String passwordHash = PasswordHasher.hash(password);  // Only the salted hash is stored
+        try (Connection conn = DBConnection.connect()) {
+            int id;
+
             // Check if the user exists with the provided email and role
-            conn = DBConnection.connect();
-            stmt = conn.prepareStatement("Select * from Registration where EmailAddress=? and role=?");
-            stmt.setString(1, email);
-            stmt.setString(2, role);
-            ResultSet resultSet = stmt.executeQuery();
-
-            if (!resultSet.next()) {
-                throw new InvalidCredentialsException("You are not registered for this role yet!!");
-            } else {
-                // Update the password in the Registration table
-                int id = resultSet.getInt(1);
-                statement = conn.prepareStatement("update Registration set Password=? where UserId=?");
-                statement.setString(1, password);
+            try (PreparedStatement statement = conn.prepareStatement(USER_ID_SQL)) {
+                statement.setString(1, email);
+                statement.setString(2, role);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new InvalidCredentialsException("You are not registered for this role yet!!");
+                    }
+                    id = resultSet.getInt("UserId");
+                }
+            }
+
+            // Update the password in the Registration table
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_REGISTRATION_PASSWORD_SQL)) {
+                statement.setString(1, passwordHash);
                 statement.setInt(2, id);
                 statement.executeUpdate();
+            }
 
-                // Also update the password in the AdminInfo table for admins
-                statement = conn.prepareStatement("update AdminInfo set Password=? where AdminId=?");
-                statement.setString(1, password);
+            // Also update the password in the AdminInfo table for admins
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_ADMIN_PASSWORD_SQL)) {
+                statement.setString(1, passwordHash);
                 statement.setInt(2, id);
                 statement.executeUpdate();
-                return true;
             }
+            CredentialCache.getInstance().invalidate(email, role);  // The cached hash is stale now
+            return true;
         } catch (SQLException se) {
             se.printStackTrace();
         } catch (DBConnectionException e) {
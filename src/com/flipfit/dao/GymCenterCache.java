@@ -0,0 +1,290 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymCenter;
+import com.flipfit.exceptions.DBConnectionException;
+import com.flipfit.utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of gym center metadata: name, location, owner and number of slots.
+ * Centers change only when an owner request is approved or a center is deleted, so they are read from the
+ * database once and then served from memory. A read of a cached center is a single map lookup.
+ *
+ * Both write paths bump the "GymCenters" version in the cache_version table in the same transaction as the
+ * change and invalidate this node's cache after the commit. Every node polls the version in the background
+ * and drops its cache when the version moved, so a change made on another node is visible here within
+ * the check interval. At most MAX_ENTRIES centers are cached; beyond that an arbitrary entry is evicted.
+ */
+public class GymCenterCache {
+
+    private static final int MAX_ENTRIES = Integer.getInteger("flipfit.center.cache.size", 10_000);  // Upper bound on cached centers
+    private static final long CHECK_SECONDS = Long.getLong("flipfit.center.cache.check.seconds", 5);  // How often the version is polled
+
+    private static final String VERSION_NAME = "GymCenters";  // Row of cache_version stamped by the center write paths
+    private static final String CENTER_COLUMNS = "SELECT centerId, OwnerId, CenterName, Location, NumOfSlots FROM GymCenters";
+    private static final String CENTER_SQL = CENTER_COLUMNS + " WHERE centerId = ?";
+    private static final String ALL_CENTERS_SQL = CENTER_COLUMNS + " ORDER BY centerId";
+    private static final String VERSION_SQL = "SELECT Version FROM cache_version WHERE Name = ?";
+    private static final String BUMP_VERSION_SQL = "UPDATE cache_version SET Version = Version + 1 WHERE Name = ?";
+
+    private static final GymCenterCache INSTANCE = new GymCenterCache(CHECK_SECONDS);
+
+    private final ConcurrentHashMap<Integer, GymCenter> centers = new ConcurrentHashMap<>();
+    private volatile List<GymCenter> allCenters;  // Every center in centerId order, null until loaded or after an invalidation
+    private final AtomicLong generation = new AtomicLong();  // Moves on every invalidation; loads that started before are dropped
+    // Version of cache_version last seen, -1 before the first check or load; a load reads it before the rows
+    private final AtomicLong version = new AtomicLong(-1);
+
+    // Cache statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // Checks the version every checkSeconds, or only when checkVersion() is called if it is 0
+    GymCenterCache(long checkSeconds) {
+        if (checkSeconds <= 0) {
+            return;
+        }
+        // Background thread that picks up center changes made by other nodes
+        ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-center-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkVersion, checkSeconds, checkSeconds, TimeUnit.SECONDS);
+    }
+
+    // Returns the shared cache
+    public static GymCenterCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a center, reading it from the database on a miss.
+     * @param centerId The ID of the gym center.
+     * @return a copy of the center, or null if it does not exist.
+     */
+    public GymCenter get(int centerId) {
+        GymCenter center = centers.get(centerId);
+        if (center != null) {
+            hits.increment();
+            return copy(center);
+        }
+        misses.increment();
+        long loadedIn = generation.get();
+        center = load(centerId);
+        if (center != null) {
+            store(center, loadedIn);
+        }
+        return center == null ? null : copy(center);
+    }
+
+    /**
+     * Returns every center in centerId order, reading them from the database once.
+     * @return copies of all centers, empty if there are none.
+     */
+    public List<GymCenter> getAll() {
+        List<GymCenter> all = allCenters;
+        if (all != null) {
+            hits.increment();
+            return copies(all);
+        }
+        misses.increment();
+        long loadedIn = generation.get();
+        all = loadAll();
+        if (all == null) {
+            return new ArrayList<>();  // The database could not be read; try again next time
+        }
+        if (all.size() <= MAX_ENTRIES) {
+            for (GymCenter center : all) {
+                store(center, loadedIn);
+            }
+            allCenters = Collections.unmodifiableList(all);
+            if (generation.get() != loadedIn) {
+                allCenters = null;  // Invalidated while loading; the list may be stale
+            }
+        }
+        return copies(all);
+    }
+
+    /**
+     * Bumps the center version inside the caller's transaction, so other nodes drop their caches once it commits.
+     * @param conn The connection of the transaction that changes GymCenters.
+     * @throws SQLException if the version cannot be updated.
+     */
+    public void bumpVersion(Connection conn) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(BUMP_VERSION_SQL)) {
+            statement.setString(1, VERSION_NAME);
+            statement.executeUpdate();
+        }
+    }
+
+    // Drops one center and the list of all centers; called after the change has committed
+    public void invalidate(int centerId) {
+        generation.incrementAndGet();
+        allCenters = null;
+        centers.remove(centerId);
+        invalidations.increment();
+    }
+
+    // Drops every cached center
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        allCenters = null;
+        centers.clear();
+        invalidations.increment();
+    }
+
+    /**
+     * Reads the center version and drops the cache if another node changed the centers since the last check,
+     * or since the first load if nothing was checked before.
+     * Runs periodically in the background; call it to pick up such changes right away.
+     */
+    public void checkVersion() {
+        try (Connection conn = DBConnection.connect()) {
+            long current = readVersion(conn);
+            long seen = version.getAndSet(current);
+            if (seen != -1 && seen != current) {
+                invalidateAll();
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+    }
+
+    // Getter for the number of reads served from memory
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // Getter for the number of reads that went to the database
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Getter for the number of centers dropped because the cache was full
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Getter for the number of invalidations, local and from other nodes
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    // Getter for the number of cached centers
+    public int size() {
+        return centers.size();
+    }
+
+    // Caches a loaded center unless the cache was invalidated since the load started
+    private void store(GymCenter center, long loadedIn) {
+        centers.put(center.getCenterId(), center);
+        if (generation.get() != loadedIn) {
+            centers.remove(center.getCenterId(), center);  // May predate the invalidation
+            return;
+        }
+        Iterator<Integer> eldest = centers.keySet().iterator();
+        while (centers.size() > MAX_ENTRIES && eldest.hasNext()) {
+            Integer centerId = eldest.next();
+            if (centerId != center.getCenterId() && centers.remove(centerId) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    // Reads one center from the database
+    private GymCenter load(int centerId) {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(CENTER_SQL)) {
+            seenBeforeLoad(conn);
+            statement.setInt(1, centerId);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? mapCenter(rs) : null;
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return null;
+    }
+
+    // Reads every center from the database, or returns null if it cannot be read
+    private List<GymCenter> loadAll() {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(ALL_CENTERS_SQL)) {
+            seenBeforeLoad(conn);
+            List<GymCenter> all = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    all.add(mapCenter(rs));
+                }
+            }
+            return all;
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return null;
+    }
+
+    // Takes the version read before the first load as seen, so a change between that load and the first check is not missed
+    private void seenBeforeLoad(Connection conn) throws SQLException {
+        if (version.get() == -1) {
+            version.compareAndSet(-1, readVersion(conn));
+        }
+    }
+
+    private static long readVersion(Connection conn) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(VERSION_SQL)) {
+            statement.setString(1, VERSION_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong("Version") : 0;
+            }
+        }
+    }
+
+    private static GymCenter mapCenter(ResultSet rs) throws SQLException {
+        return new GymCenter(rs.getInt("centerId"), rs.getInt("OwnerId"), rs.getString("CenterName"),
+                rs.getString("Location"), rs.getInt("NumOfSlots"));
+    }
+
+    // GymCenter has setters, so callers get copies and cannot change the cached entries
+    private static GymCenter copy(GymCenter center) {
+        return new GymCenter(center.getCenterId(), center.getOwnerId(), center.getGymName(), center.getGymLocation(),
+                center.getNumOfSlots());
+    }
+
+    private static List<GymCenter> copies(List<GymCenter> centers) {
+        List<GymCenter> copies = new ArrayList<>(centers.size());
+        for (GymCenter center : centers) {
+            copies.add(copy(center));
+        }
+        return copies;
+    }
+
+    @Override
+    public String toString() {
+        return "GymCenterCache{size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + ", invalidations=" + getInvalidations() + "}";
+    }
+}
@@ -1,10 +1,13 @@
 package com.flipfit.dao;
 
+import com.flipfit.bean.GymSlotAvailability;
 import com.flipfit.bean.GymSlots;
 import com.flipfit.exceptions.ResourceNotFoundException;
 
+import java.time.LocalTime;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public interface GymCenterDAO {
 
@@ -17,4 +20,31 @@ public interface GymCenterDAO {
      * @throws ResourceNotFoundException - thrown if no slots are available for the provided date or center.
      */
     public List<GymSlots> viewSlots(int centerId, Date date) throws ResourceNotFoundException;
+
+    /**
+     * This method retrieves the available slots of several gym centers on a given date at once.
+     *
+     * @param centerIds - the IDs of the gym centers for which slots are to be retrieved.
+     * @param date - the date for which available slots are to be fetched.
+     * @return Map<Integer, List<GymSlots>> - the slots of every center that has any, keyed by centerId.
+     * @throws ResourceNotFoundException - thrown if none of the centers has any slots.
+     */
+    public Map<Integer, List<GymSlots>> viewSlots(List<Integer> centerIds, Date date) throws ResourceNotFoundException;
+
+    /**
+     * This method searches the slots with free seats of all gym centers at a location, within a time-of-day window
+     * and a date range, and returns one page of them ordered by date, start time and slotId.
+     *
+     * @param location - the location of the gym centers, matched regardless of case; null or blank for every location.
+     * @param fromTime - the earliest start time of a slot, inclusive.
+     * @param toTime - the latest start time of a slot, inclusive.
+     * @param fromDate - the first date to search.
+     * @param toDate - the last date to search, inclusive; at most flipfit.search.max.days days after fromDate are searched.
+     * @param after - the cursor of the last result of the previous page (see GymSlotSearchIndex.cursorOf), or null for the first page.
+     * @param pageSize - the maximum number of results.
+     * @return List<GymSlotAvailability> - the next page of results; fewer than pageSize results means there are no more.
+     * @throws IllegalArgumentException - thrown if the cursor is malformed.
+     */
+    public List<GymSlotAvailability> searchSlots(String location, LocalTime fromTime, LocalTime toTime, Date fromDate, Date toDate,
+                                                 String after, int pageSize);
 }
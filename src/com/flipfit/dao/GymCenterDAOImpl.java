@@ -1,29 +1,41 @@
 package com.flipfit.dao;
 
+import com.flipfit.bean.GymSlotAvailability;
 import com.flipfit.bean.GymSlots;
-import com.flipfit.business.GymSlotsBusiness;
-import com.flipfit.business.GymSlotsBusinessImpl;
-import com.flipfit.exceptions.DBConnectionException;
 import com.flipfit.exceptions.ResourceNotFoundException;
-import com.flipfit.utils.DBConnection;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 public class GymCenterDAOImpl implements GymCenterDAO {
 
-    private Connection conn = null;
-    private PreparedStatement statement = null;
+    private static final int MAX_SEARCH_DAYS = Integer.getInteger("flipfit.search.max.days", 31);  // Longest date range of one search
+    private static final int SEATS_BATCH = 500;  // Slots whose seats are read with one query while searching
+
+    private final GymSlotSearchIndex searchIndex;
+    private final GymSlotCatalog slotCatalog;
+    private final GymSlotDAO slotDAO;
+
+    public GymCenterDAOImpl() {
+        this(GymSlotSearchIndex.getInstance(), GymSlotCatalog.getInstance(), new GymSlotDAOImpl());
+    }
+
+    public GymCenterDAOImpl(GymSlotSearchIndex searchIndex, GymSlotCatalog slotCatalog, GymSlotDAO slotDAO) {
+        this.searchIndex = searchIndex;
+        this.slotCatalog = slotCatalog;
+        this.slotDAO = slotDAO;
+    }
 
     /**
      * This method retrieves all available slots for a given gym center on a specific date.
-     * It queries the Slots table for the centerId and calculates the available seats for each slot
-     * by invoking the GymSlotsBusiness logic.
+     * The slots come from the slot catalog and their remaining seats for the date from the seat inventory.
      *
      * @param centerId the ID of the gym center
      * @param date the date for which the available slots are required
@@ -32,49 +44,149 @@ public class GymCenterDAOImpl implements GymCenterDAO {
      */
     @Override
     public List<GymSlots> viewSlots(int centerId, Date date) throws ResourceNotFoundException {
-        // Create a list to store the available slots for the given gym center on the specified date
-        List<GymSlots> slots = new ArrayList<>();
-
-        try {
-            // Establish a database connection
-            conn = DBConnection.connect();
-
-            // Query to retrieve all slots for the given centerId
-            statement = conn.prepareStatement("SELECT * from Slots where centerId = ?");
-            statement.setInt(1, centerId); // Set the centerId parameter
-            ResultSet resultSet = statement.executeQuery(); // Execute the query
-
-            int NumSeatsAvailable = 0;
-
-            // Iterate over the result set to populate the slot details
-            while (resultSet.next()) {
-                // Retrieve slot ID and calculate available seats for each slot on the given date
-                int slotID = resultSet.getInt(1);
-                GymSlotsBusiness slotsBusiness = new GymSlotsBusinessImpl();
-                NumSeatsAvailable = slotsBusiness.getNumAvailableSeats(slotID, date, resultSet.getInt(5));
-
-                // Add the slot information (including available seats) to the list
-                slots.add(new GymSlots(
-                        resultSet.getInt(2), // centerId
-                        slotID, // slotId
-                        resultSet.getTime(3).toLocalTime(), // startTime
-                        resultSet.getTime(4).toLocalTime(), // endTime
-                        resultSet.getInt(6), // totalSeats
-                        NumSeatsAvailable // availableSeats
-                ));
-            }
+        List<GymSlots> slots = viewSlots(Collections.singletonList(centerId), date).get(centerId);
 
-            // If no slots are found, throw an exception
-            if (slots.isEmpty()) {
-                throw new ResourceNotFoundException("No slots found for center");
-            }
-        } catch (SQLException se) {
-            se.printStackTrace(); // Handle SQL exceptions
-        } catch (DBConnectionException e) {
-            System.out.println(e); // Handle database connection exceptions
+        // If no slots are found, throw an exception
+        if (slots == null || slots.isEmpty()) {
+            throw new ResourceNotFoundException("No slots found for center");
         }
 
         // Return the list of available slots
         return slots;
     }
+
+    /**
+     * This method retrieves the slots of several gym centers on a specific date, including the number of
+     * seats still available on that date. The slots come from the in-memory slot catalog and the seats from
+     * the seat inventory, so the database is only read for counts that are not in memory yet.
+     *
+     * @param centerIds the IDs of the gym centers
+     * @param date the date for which the available slots are required
+     * @return Map<Integer, List<GymSlots>> the slots of every center, keyed by centerId and ordered by start time
+     * @throws ResourceNotFoundException if no slots are found for any of the centers
+     */
+    @Override
+    public Map<Integer, List<GymSlots>> viewSlots(List<Integer> centerIds, Date date) throws ResourceNotFoundException {
+        // Create a map to store the available slots of every gym center on the specified date
+        Map<Integer, List<GymSlots>> slotsByCenter = new LinkedHashMap<>();
+        if (centerIds.isEmpty()) {
+            throw new ResourceNotFoundException("No slots found for center");
+        }
+
+        // The slots of every center, ordered by centerId like the listing
+        List<GymSlotCatalog.Slot> slots = new ArrayList<>();
+        for (int centerId : new TreeSet<>(centerIds)) {
+            slots.addAll(slotCatalog.ofCenter(centerId));
+        }
+        List<Integer> slotIds = new ArrayList<>(slots.size());
+        for (GymSlotCatalog.Slot slot : slots) {
+            slotIds.add(slot.slotId);
+        }
+        Map<Integer, Integer> seats = slotDAO.getNumAvailableSeats(slotIds, date);
+
+        for (GymSlotCatalog.Slot slot : slots) {
+            Integer availableSeats = seats.get(slot.slotId);
+            if (availableSeats == null) {
+                continue;  // Deleted since the catalog was read
+            }
+            slotsByCenter.computeIfAbsent(slot.centerId, id -> new ArrayList<>()).add(new GymSlots(
+                    slot.centerId, // centerId
+                    slot.slotId, // slotId
+                    slot.startTime(), // startTime
+                    slot.endTime(), // endTime
+                    slot.cost, // totalSeats
+                    availableSeats // availableSeats
+            ));
+        }
+
+        // If no slots are found, throw an exception
+        if (slotsByCenter.isEmpty()) {
+            throw new ResourceNotFoundException("No slots found for center");
+        }
+
+        // Return the available slots of every center
+        return slotsByCenter;
+    }
+
+    /**
+     * This method searches the slots with free seats of all gym centers at a location within a time-of-day window
+     * and a date range. The matching slots come from the in-memory search index, so no query per center is needed;
+     * the seats are then read per day for a batch of slots at a time (mostly from the seat inventory) until the page is full.
+     *
+     * @param location the location of the gym centers; null or blank for every location
+     * @param fromTime the earliest start time, inclusive
+     * @param toTime the latest start time, inclusive
+     * @param fromDate the first date to search
+     * @param toDate the last date to search, inclusive
+     * @param after the cursor of the last result of the previous page, or null for the first page
+     * @param pageSize the maximum number of results
+     * @return List<GymSlotAvailability> the next page of results ordered by date, start time and slotId
+     */
+    @Override
+    public List<GymSlotAvailability> searchSlots(String location, LocalTime fromTime, LocalTime toTime, Date fromDate, Date toDate,
+                                                 String after, int pageSize) {
+        List<GymSlotAvailability> page = new ArrayList<>();
+        LocalDate firstDate = new java.sql.Date(fromDate.getTime()).toLocalDate();
+        LocalDate lastDate = new java.sql.Date(toDate.getTime()).toLocalDate();
+        if (lastDate.isAfter(firstDate.plusDays(MAX_SEARCH_DAYS - 1))) {
+            lastDate = firstDate.plusDays(MAX_SEARCH_DAYS - 1);  // Cap the range, a search should not scan months of seats
+        }
+
+        // The cursor is "date,startTime,slotId" of the last result already returned
+        LocalDate afterDate = null;
+        LocalTime afterTime = null;
+        int afterSlotId = 0;
+        if (after != null && !after.isEmpty()) {
+            String[] parts = after.split(",");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid search cursor: " + after);
+            }
+            afterDate = LocalDate.parse(parts[0]);
+            afterTime = LocalTime.parse(parts[1]);
+            afterSlotId = Integer.parseInt(parts[2]);
+        }
+
+        List<GymSlotSearchIndex.Entry> candidates = searchIndex.find(location, fromTime, toTime);
+        if (candidates.isEmpty() || pageSize <= 0) {
+            return page;
+        }
+
+        LocalDate date = afterDate != null && afterDate.isAfter(firstDate) ? afterDate : firstDate;
+        for (; !date.isAfter(lastDate) && page.size() < pageSize; date = date.plusDays(1)) {
+            int start = 0;
+            if (date.equals(afterDate)) {
+                // Skip the slots of the cursor's day that were on earlier pages
+                while (start < candidates.size() && !isAfter(candidates.get(start), afterTime, afterSlotId)) {
+                    start++;
+                }
+            }
+            java.sql.Date day = java.sql.Date.valueOf(date);
+            for (int from = start; from < candidates.size() && page.size() < pageSize; from += SEATS_BATCH) {
+                List<GymSlotSearchIndex.Entry> batch = candidates.subList(from, Math.min(candidates.size(), from + SEATS_BATCH));
+                List<Integer> slotIds = new ArrayList<>(batch.size());
+                for (GymSlotSearchIndex.Entry entry : batch) {
+                    slotIds.add(entry.slotId);
+                }
+                Map<Integer, Integer> seats = slotDAO.getNumAvailableSeats(slotIds, day);
+                for (GymSlotSearchIndex.Entry entry : batch) {
+                    Integer available = seats.get(entry.slotId);  // Missing if the slot was deleted since it was indexed
+                    if (available != null && available > 0) {
+                        page.add(entry.on(date, available));
+                        if (page.size() == pageSize) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Return the page of available slots
+        return page;
+    }
+
+    // Whether an indexed slot comes after the cursor's slot on the same day
+    private static boolean isAfter(GymSlotSearchIndex.Entry entry, LocalTime startTime, int slotId) {
+        int byTime = entry.startTime.compareTo(startTime);
+        return byTime > 0 || (byTime == 0 && entry.slotId > slotId);
+    }
 }
@@ -8,6 +8,8 @@ import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceNotFoundException;
 import com.flipfit.exceptions.UnauthorisedAccessException;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.*;
 
 public interface GymCustomerDAO {
@@ -15,6 +17,9 @@ public interface GymCustomerDAO {
     // Method to create a new customer profile
     public boolean createProfile(GymCustomer customer) throws InvalidCredentialsException, DataEntryFailedException;
 
+    // Method to create many customer profiles in one transaction; returns the number created
+    public int createProfiles(List<GymCustomer> customers) throws InvalidCredentialsException, DataEntryFailedException;
+
     // Method to edit an existing customer profile
     public boolean editProfile(GymCustomer customer) throws DataEntryFailedException;
 
@@ -24,9 +29,38 @@ public interface GymCustomerDAO {
     // Method to create a new booking for a customer
     public int createBooking(int customerID, int slotID, int centerId, Date date) throws ResourceNotFoundException;
 
+    // Method to add a customer to the waitlist of a sold-out slot; returns the waitlist ID
+    public int joinWaitlist(int customerID, int slotID, int centerId, Date date);
+
+    // Method to check whether a waitlist entry is still waiting for a seat
+    public boolean waitlistStatus(int waitlistId);
+
+    // Method to get the queue position of a waitlist entry (0 once it is no longer waiting)
+    public int waitlistPosition(int waitlistId) throws ResourceNotFoundException;
+
+    // Method to check whether a booking belongs to the customer
+    public boolean ownsBooking(int customerId, int bookingId);
+
+    // Method to check whether a waitlist entry belongs to the customer
+    public boolean ownsWaitlistEntry(int customerId, int waitlistId);
+
     // Method to cancel an existing booking made by a customer
     public boolean cancelBooking(int customerId, int bookingID) throws InvalidCredentialsException, UnauthorisedAccessException;
 
+    // Method to cancel every booking of a slot on a date as one set-based operation; returns the number cancelled or -1
+    public int cancelAll(int slotId, Date date);
+
+    // Method to cancel every booking of a center on a date, e.g. when it closes for the day; returns the number cancelled or -1
+    public int cancelAllAtCenter(int centerId, Date date);
+
+    // Method to cancel the upcoming bookings and waitlist entries of slots that are being deleted, inside the caller's
+    // transaction; the returned task notifies the customers and has to run once that transaction has committed
+    public Runnable cancelForDeletion(Connection conn, Collection<Integer> slotIds, String reason) throws SQLException;
+
+    // Method to move a booking to another slot and/or date, transferring its seat in one transaction
+    public int modifyBooking(int bookingID, int customerID, int centerID, int slotID, Date date)
+            throws ResourceNotFoundException, UnauthorisedAccessException;
+
     // Method to process a payment for a booking
     public int makepayment(GymPayment paymentData) throws DataEntryFailedException;
 
@@ -1,27 +1,102 @@
 package com.flipfit.dao;
 
 import com.flipfit.bean.GymSlots;
-import com.flipfit.business.GymSlotsBusiness;
-import com.flipfit.business.GymSlotsBusinessImpl;
 import com.flipfit.exceptions.*;
-import com.flipfit.exception.DBconnectionException;
-import com.flipfit.exception.InvalidInputException;
-import com.flipfit.exception.ResourceNotFoundException;
-import com.flipfit.exception.UnauthorisedAccessException;
+import com.flipfit.utils.CredentialCache;
 import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.NotificationDispatcher;
+import com.flipfit.utils.PasswordHasher;
 import com.flipfit.bean.GymBooking;
+import com.flipfit.bean.GymBookingEvent;
+import com.flipfit.bean.GymCenter;
 import com.flipfit.bean.GymCustomer;
 import com.flipfit.bean.GymPayment;
+import com.flipfit.bean.GymWaitlistEntry;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class GymCustomerDAOImpl implements GymCustomerDAO {
-    private Connection conn = null;
-    private PreparedStatement statement = null;
+
+    // Existence checks
+    private static final String BOOKING_EXISTS_SQL = "SELECT 1 FROM CustomerBooking WHERE BookingId = ?";
+    private static final String CUSTOMER_EXISTS_SQL = "SELECT 1 FROM Customer WHERE CustId = ?";
+    private static final String OWN_BOOKING_SQL = "SELECT 1 FROM CustomerBooking WHERE BookingId = ? AND CustId = ?";
+    private static final String OWN_WAITLIST_ENTRY_SQL = "SELECT 1 FROM waitlist WHERE WaitlistId = ? AND CustId = ?";
+    // Profile updates
+    // A null email or password keeps the stored one
+    private static final String UPDATE_CUSTOMER_SQL = "UPDATE Customer SET Name = ?, Email = COALESCE(?, Email), Address = ?, "
+            + "PhoneNumber = ?, Password = COALESCE(?, Password) WHERE CustId = ?";
+    private static final String UPDATE_USER_SQL = "UPDATE User SET Name = ?, Email = COALESCE(?, Email), Address = ?, PhoneNumber = ? WHERE UserId = ?";
+    private static final String UPDATE_REGISTRATION_SQL =
+            "UPDATE Registration SET EmailAddress = COALESCE(?, EmailAddress), Password = COALESCE(?, Password) WHERE UserId = ?";
+    // Bookings and waitlist
+    // Center name and location come from the center cache, so the bookings are only joined with their slots
+    private static final String BOOKINGS_OF_CUSTOMER_SQL = "SELECT b.BookingId, b.centerId, s.StartTime, s.EndTime, b.Date "
+            + "FROM CustomerBooking b JOIN Slots s ON s.slotsId = b.slotId WHERE b.CustId = ? ORDER BY b.BookingId";
+    private static final String WAITLIST_STATUS_SQL = "SELECT Status FROM waitlist WHERE WaitlistId = ?";
+    private static final String LOCK_OWN_BOOKING_SQL = "SELECT slotId, Date FROM CustomerBooking WHERE BookingId = ? AND CustId = ? FOR UPDATE";
+    private static final String DELETE_BOOKING_SQL = "DELETE FROM CustomerBooking WHERE BookingId = ?";
+    private static final String INSERT_BOOKING_SQL = "INSERT INTO CustomerBooking (CustId, centerId, slotId, Date) VALUES (?, ?, ?, ?)";
+    // Bulk cancellation of a slot or a whole center on one date
+    private static final String LOCK_SLOT_DAY_SQL = "SELECT BookingId, CustId, slotId, Date FROM CustomerBooking WHERE slotId = ? AND Date = ? FOR UPDATE";
+    private static final String LOCK_CENTER_DAY_SQL = "SELECT BookingId, CustId, slotId, Date FROM CustomerBooking WHERE centerId = ? AND Date = ? FOR UPDATE";
+    // Upcoming bookings of slots that are being deleted; the slot IN list is appended
+    private static final String LOCK_UPCOMING_SQL = "SELECT BookingId, CustId, slotId, Date FROM CustomerBooking WHERE Date >= ? AND slotId IN ";
+    private static final String DELETE_BOOKINGS_SQL = "DELETE FROM CustomerBooking WHERE BookingId IN ";
+    private static final String MOVE_BOOKING_SQL = "UPDATE CustomerBooking SET centerId = ?, slotId = ?, Date = ? WHERE BookingId = ?";
+    // Payments
+    private static final String SLOT_OF_BOOKING_SQL = "SELECT slotId FROM CustomerBooking WHERE BookingId = ?";
+    private static final String INSERT_PAYMENT_SQL = "INSERT INTO payment (BookingId, Mode, Amount) VALUES (?, ?, ?)";
+    // Password updates
+    private static final String USER_ID_SQL = "SELECT UserId FROM Registration WHERE EmailAddress = ? AND Role = ?";
+    private static final String UPDATE_REGISTRATION_PASSWORD_SQL = "UPDATE Registration SET Password = ? WHERE UserId = ?";
+    private static final String UPDATE_CUSTOMER_PASSWORD_SQL = "UPDATE Customer SET Password = ? WHERE CustId = ?";
+
+    // Takes and returns seats atomically inside the booking transactions
+    private final GymSeatReservationDAO seatReservationDAO;
+    // FIFO waitlists of sold-out slots
+    private final GymWaitlistDAO waitlistDAO;
+    // In-memory seat counts, updated write-through once a booking transaction has committed
+    private final GymSeatInventoryCache seatInventory;
+    // Tells promoted waitlist customers about their booking, off the cancelling thread
+    private final NotificationDispatcher notifications;
+    // Records the booking events in the same transaction as the change
+    private final GymOutboxDAO outboxDAO;
+    // Names and locations of the booked centers
+    private final GymCenterCache centerCache;
+    // Cost of the booked slots
+    private final GymSlotCatalog slotCatalog;
+
+    // Without the registry's shared inventory the counts go to a private one that nothing reads
+    public GymCustomerDAOImpl() {
+        this(new GymSeatReservationDAOImpl(), new GymWaitlistDAOImpl(), new GymSeatInventoryCache(new GymSlotDAOImpl()),
+                NotificationDispatcher.getInstance(), new GymOutboxDAOImpl(), GymCenterCache.getInstance(), GymSlotCatalog.getInstance());
+    }
+
+    // All collaborators are stateless or thread-safe, so one instance can be shared by every thread
+    public GymCustomerDAOImpl(GymSeatReservationDAO seatReservationDAO, GymWaitlistDAO waitlistDAO, GymSeatInventoryCache seatInventory,
+                              NotificationDispatcher notifications, GymOutboxDAO outboxDAO, GymCenterCache centerCache,
+                              GymSlotCatalog slotCatalog) {
+        this.seatReservationDAO = seatReservationDAO;
+        this.waitlistDAO = waitlistDAO;
+        this.seatInventory = seatInventory;
+        this.notifications = notifications;
+        this.outboxDAO = outboxDAO;
+        this.centerCache = centerCache;
+        this.slotCatalog = slotCatalog;
+    }
 
     /**
      * This method checks if a booking with the given bookingID exists in the database.
@@ -29,16 +104,13 @@ public class GymCustomerDAOImpl implements GymCustomerDAO {
      * @return boolean indicating if the booking exists.
      */
     public boolean IfBoookingExists(int bookingID) {
-        try {
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("select * from bookings where BookingId = ?");
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(BOOKING_EXISTS_SQL)) {
             statement.setInt(1, bookingID);  // Set the bookingID parameter
-            ResultSet resultSet = statement.executeQuery();
-            if (!resultSet.next()) {
-                return false;  // No booking found
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();   // Returns true if the booking exists
             }
-            return true;   // Booking found
-        } catch (SQLException| DBconnectionException e) {
+        } catch (SQLException | DBConnectionException e) {
             throw new RuntimeException(e);
         }
     }
@@ -49,188 +121,366 @@ public class GymCustomerDAOImpl implements GymCustomerDAO {
      * @return boolean indicating if the customer exists.
      */
     public boolean IfCustomerExists(int customerID) {
-        try {
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("select * from Customer where CustId = ?");
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(CUSTOMER_EXISTS_SQL)) {
             statement.setInt(1, customerID);  // Set the customerID parameter
-            ResultSet resultSet = statement.executeQuery();
-            return resultSet.next();   // Returns true if customer exists
-        } catch (SQLException| DBconnectionException e) {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();   // Returns true if customer exists
+            }
+        } catch (SQLException | DBConnectionException e) {
             throw new RuntimeException(e);
         }
     }
 
+    // Statements of the profile transaction; each is prepared once per transaction and run as a batch
+    private static final String EXISTING_EMAILS_SQL = "SELECT EmailAddress FROM Registration WHERE EmailAddress IN ";
+    private static final String INSERT_USER_SQL = "INSERT INTO User (Name, Email, PhoneNumber, Role, Address) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CUSTOMER_SQL = "INSERT INTO Customer (CustId, Name, Email, Address, PhoneNumber, Password) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_REGISTRATION_SQL = "INSERT INTO Registration (UserId, EmailAddress, Password, Role) VALUES (?, ?, ?, ?)";
+
     /**
      * This method is used to create a new gym customer profile in the database.
+     * The User, Customer and Registration rows are written in one transaction, so a failure
+     * never leaves a half-created profile behind.
      * @param customer The customer data to be added to the database.
      * @return boolean indicating whether the profile was created successfully.
      */
     @Override
     public boolean createProfile(GymCustomer customer) throws InvalidCredentialsException, DataEntryFailedException {
-        try {
-            // check whether user with the mail id exists
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("Select * From Registration where EmailAddress = ?");
-            statement.setString(1, customer.getCustomerEmailAddress());
-            ResultSet rs = statement.executeQuery();
-            if (rs.next()) {
-                throw new InvalidCredentialsException("User already exists with this email address");
+        return createProfiles(Collections.singletonList(customer)) == 1;
+    }
+
+    /**
+     * This method creates many gym customer profiles at once, e.g. for corporate onboarding imports.
+     * All profiles are written in a single transaction: one duplicate check for all email addresses,
+     * then one batched insert each into User, Customer and Registration. Either every profile is
+     * created or none is. The generated customer IDs are set on the given objects.
+     * @param customers The customers to be added to the database.
+     * @return the number of profiles created, or 0 if the batch failed.
+     * @throws InvalidCredentialsException if any of the email addresses is already registered or repeated.
+     * @throws DataEntryFailedException if the user rows could not be added.
+     */
+    @Override
+    public int createProfiles(List<GymCustomer> customers) throws InvalidCredentialsException, DataEntryFailedException {
+        if (customers.isEmpty()) {
+            return 0;
+        }
+
+        // Reject email addresses repeated within the batch
+        Set<String> emails = new HashSet<>();
+        for (GymCustomer customer : customers) {
+            if (!emails.add(customer.getCustomerEmailAddress())) {
+                throw new InvalidCredentialsException("User already exists with this email address: " + customer.getCustomerEmailAddress());
             }
+        }
+
+        // Hash the passwords before a connection is taken; the key derivation is slow on purpose and
+        // must not hold a pooled connection and an open transaction while it runs
+        String[] passwordHashes = new String[customers.size()];
+        for (int i = 0; i < customers.size(); i++) {
+            passwordHashes[i] = PasswordHasher.hash(customers.get(i).getPassword());
+        }
 
-            // adds the user data into user table
-            System.out.println("Adding User Profile");
-            statement = conn.prepareStatement("insert into User(`Name`,`Email`,`PhoneNumber`,`Role`,`Address`) values (?,?,?,?,?)", PreparedStatement.RETURN_GENERATED_KEYS);
-            statement.setString(1, customer.getCustomerName());
-            statement.setString(2, customer.getCustomerEmailAddress());
-            statement.setString(3, customer.getCustomerPhone());
-            statement.setString(4, "gymcustomer");
-            statement.setString(5, customer.getCustomerAddress());
-            int rowsAffected = statement.executeUpdate();
-            int customerId = 0;
-            if (rowsAffected > 0) {
-                // Retrieve the generated customerId
-                ResultSet generatedKeys = statement.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    customerId = generatedKeys.getInt(1);
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+            try {
+                // check whether users with these mail ids exist
+                try (PreparedStatement check = conn.prepareStatement(EXISTING_EMAILS_SQL
+                        + "(" + String.join(",", Collections.nCopies(customers.size(), "?")) + ")")) {
+                    for (int i = 0; i < customers.size(); i++) {
+                        check.setString(i + 1, customers.get(i).getCustomerEmailAddress());
+                    }
+                    try (ResultSet rs = check.executeQuery()) {
+                        if (rs.next()) {
+                            conn.rollback();
+                            throw new InvalidCredentialsException("User already exists with this email address: " + rs.getString("EmailAddress"));
+                        }
+                    }
                 }
-            } else {
-                throw new DataEntryFailedException("Failed Adding User Details to User Database");
-            }
 
-            // adds the data into customer table
-            statement = conn.prepareStatement("insert into Customer values (?,?,?,?,?,?)");
-            statement.setInt(1, customerId);
-            statement.setString(2, customer.getCustomerName());
-            statement.setString(3, customer.getCustomerEmailAddress());
-            statement.setString(4, customer.getCustomerAddress());
-            statement.setString(5, customer.getCustomerPhone());
-            statement.setString(6, customer.getPassword());
-            statement.executeUpdate();
+                // adds the user data into user table
+                try (PreparedStatement insertUser = conn.prepareStatement(INSERT_USER_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    for (GymCustomer customer : customers) {
+                        insertUser.setString(1, customer.getCustomerName());
+                        insertUser.setString(2, customer.getCustomerEmailAddress());
+                        insertUser.setString(3, customer.getCustomerPhone());
+                        insertUser.setString(4, "gymcustomer");
+                        insertUser.setString(5, customer.getCustomerAddress());
+                        insertUser.addBatch();
+                    }
+                    insertUser.executeBatch();
+
+                    // Retrieve the generated customerIds, in insertion order
+                    try (ResultSet generatedKeys = insertUser.getGeneratedKeys()) {
+                        for (GymCustomer customer : customers) {
+                            if (!generatedKeys.next()) {
+                                conn.rollback();
+                                throw new DataEntryFailedException("Failed Adding User Details to User Database");
+                            }
+                            customer.setCustomerId(generatedKeys.getInt(1));
+                        }
+                    }
+                }
 
-            // adds the emailId, userId and password to registration table
-            statement = conn.prepareStatement("insert into Registration values (?,?,?,?)");
-            statement.setInt(1, customerId);
-            statement.setString(2, customer.getCustomerEmailAddress());
-            statement.setString(3, customer.getPassword());
-            statement.setString(4, "gymcustomer");
-            statement.executeUpdate();
-            return true;
+                // adds the data into customer table and the emailId, userId and password to registration table
+                try (PreparedStatement insertCustomer = conn.prepareStatement(INSERT_CUSTOMER_SQL);
+                     PreparedStatement insertRegistration = conn.prepareStatement(INSERT_REGISTRATION_SQL)) {
+                    for (int i = 0; i < customers.size(); i++) {
+                        GymCustomer customer = customers.get(i);
+                        String passwordHash = passwordHashes[i];  // Only the salted hash is stored
+                        insertCustomer.setInt(1, customer.getCustomerId());
+                        insertCustomer.setString(2, customer.getCustomerName());
+                        insertCustomer.setString(3, customer.getCustomerEmailAddress());
+                        insertCustomer.setString(4, customer.getCustomerAddress());
+                        insertCustomer.setString(5, customer.getCustomerPhone());
+                        insertCustomer.setString(6, passwordHash);
+                        insertCustomer.addBatch();
+
+                        insertRegistration.setInt(1, customer.getCustomerId());
+                        insertRegistration.setString(2, customer.getCustomerEmailAddress());
+                        insertRegistration.setString(3, passwordHash);
+                        insertRegistration.setString(4, "gymcustomer");
+                        insertRegistration.addBatch();
+                    }
+                    insertCustomer.executeBatch();
+                    insertRegistration.executeBatch();
+                }
+
+                conn.commit();
+                return customers.size();
+            } catch (SQLException se) {
+                conn.rollback();  // Never leave orphan User rows behind
+                throw se;
+            }
         } catch (SQLException se) {
             se.printStackTrace();
         } catch (DBConnectionException e) {
             System.out.println(e);
         }
-        return false;
+        return 0;
     }
 
     /**
      * This method allows a gym customer to edit their profile details in the database.
-     * @param customer The customer data to be updated in the database.
+     * @param customer The customer data to be updated in the database; a null email or password is left unchanged.
      * @return boolean indicating whether the profile was updated successfully.
      */
     @Override
     public boolean editProfile(GymCustomer customer) throws DataEntryFailedException {
-        String sql = "UPDATE Customer SET Name = ?, Email = ?, Address = ?, PhoneNumber = ?, Password=? WHERE CustId = ?";
-
-        try {
-            conn = DBConnection.connect();
+        String passwordHash = customer.getPassword() != null ? PasswordHasher.hash(customer.getPassword()) : null;  // Only the salted hash is stored
+        try (Connection conn = DBConnection.connect()) {
             // update the user details in customer table
-            PreparedStatement statement = conn.prepareStatement(sql);
-            statement.setString(1, customer.getCustomerName());
-            statement.setString(2, customer.getCustomerEmailAddress());
-            statement.setString(3, customer.getCustomerAddress());
-            statement.setString(4, customer.getCustomerPhone());
-            statement.setString(5, customer.getPassword());
-            statement.setInt(6, customer.getCustomerId());
-            int rowsUpdated = statement.executeUpdate();
-            if (rowsUpdated <= 0) {
-                throw new DataEntryFailedException("Failed to update profile in Customer Database");
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_CUSTOMER_SQL)) {
+                statement.setString(1, customer.getCustomerName());
+                statement.setString(2, customer.getCustomerEmailAddress());
+                statement.setString(3, customer.getCustomerAddress());
+                statement.setString(4, customer.getCustomerPhone());
+                statement.setString(5, passwordHash);
+                statement.setInt(6, customer.getCustomerId());
+                int rowsUpdated = statement.executeUpdate();
+                if (rowsUpdated <= 0) {
+                    throw new DataEntryFailedException("Failed to update profile in Customer Database");
+                }
             }
 
             // update the user details in user table
-            statement = conn.prepareStatement("UPDATE User SET Name = ?, Email = ?, Address = ?, PhoneNumber = ? WHERE UserId = ?");
-            statement.setString(1, customer.getCustomerName());
-            statement.setString(2, customer.getCustomerEmailAddress());
-            statement.setString(3, customer.getCustomerAddress());
-            statement.setString(4, customer.getCustomerPhone());
-            statement.setInt(5, customer.getCustomerId());
-            statement.executeUpdate();
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_USER_SQL)) {
+                statement.setString(1, customer.getCustomerName());
+                statement.setString(2, customer.getCustomerEmailAddress());
+                statement.setString(3, customer.getCustomerAddress());
+                statement.setString(4, customer.getCustomerPhone());
+                statement.setInt(5, customer.getCustomerId());
+                statement.executeUpdate();
+            }
 
             // update the user details in registration table
-            statement = conn.prepareStatement("UPDATE Registration SET EmailAddress = ?, Password = ? WHERE UserId = ?");
-            statement.setString(1, customer.getCustomerEmailAddress());
-            statement.setString(2, customer.getPassword());
-            statement.setInt(3, customer.getCustomerId());
-            statement.executeUpdate();
-        } catch (SQLException | InvalidInputException | DBconnectionException se ) {
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_REGISTRATION_SQL)) {
+                statement.setString(1, customer.getCustomerEmailAddress());
+                statement.setString(2, passwordHash);
+                statement.setInt(3, customer.getCustomerId());
+                statement.executeUpdate();
+            }
+            CredentialCache.getInstance().invalidateUser(customer.getCustomerId());  // Email or password may have changed
+            return true;
+        } catch (SQLException | DBConnectionException se) {
             se.printStackTrace();
         }
         return false;
     }
 
     /**
-     * This method retrieves and displays the bookings made by a specific customer.
+     * This method retrieves the bookings made by a specific customer, in booking ID order.
+     * The bookings are read together with their slot times in one query; the center name and location
+     * are taken from the center cache. Bookings of centers that no longer exist are left out.
      * @param customerId The ID of the customer whose bookings are to be retrieved.
+     * @return the customer's bookings.
+     * @throws ResourceNotFoundException if the customer has no bookings.
      */
     @Override
-    public void viewBookings(int customerId) {
-        try {
-            conn = DBConnection.connect();
-            System.out.println("Adding User Profile");
-            statement = conn.prepareStatement("select * from bookings where CustomerId = ?");
+    public List<GymBooking> viewBookings(int customerId) throws ResourceNotFoundException {
+        List<GymBooking> bookings = new ArrayList<>();
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(BOOKINGS_OF_CUSTOMER_SQL)) {
             statement.setInt(1, customerId);
-            statement.executeQuery();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    GymCenter center = centerCache.get(resultSet.getInt("centerId"));
+                    if (center == null) {
+                        continue;  // The center was deleted
+                    }
+                    bookings.add(new GymBooking(
+                            resultSet.getInt("BookingId"),
+                            center.getGymName(),
+                            center.getGymLocation(),
+                            resultSet.getTime("StartTime").toLocalTime(),
+                            resultSet.getTime("EndTime").toLocalTime(),
+                            resultSet.getDate("Date")));
+                }
+            }
         } catch (SQLException se) {
             se.printStackTrace();
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+
+        if (bookings.isEmpty()) {
+            throw new ResourceNotFoundException("No bookings found");
         }
+        return bookings;
     }
 
     /**
-     * This method checks whether a booking is on the waitlist.
-     * @param bookingID The ID of the booking to check.
-     * @return boolean indicating whether the booking is on the waitlist.
+     * This method checks whether a waitlist entry is still waiting for a seat.
+     * @param waitlistId The ID of the waitlist entry to check.
+     * @return boolean indicating whether the entry is still on the waitlist.
      */
     @Override
-    public boolean waitlistStatus(int bookingID) {
-        try {
-            if(!IfBoookingExists(bookingID))
-                throw new ResourceNotFoundException("Booking ID already exists");
-
-            conn = DBConnection.connect();
+    public boolean waitlistStatus(int waitlistId) {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(WAITLIST_STATUS_SQL)) {
             System.out.println("Checking Waitlisted");
-            statement = conn.prepareStatement("select * from waitlist where BookingID = ?");
-            statement.setInt(1, bookingID);
-            ResultSet resultSet = statement.executeQuery();
+            statement.setInt(1, waitlistId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && GymWaitlistDAOImpl.WAITING.equals(resultSet.getString("Status"));
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return false;
+    }
+
+    /**
+     * This method puts a customer on the waitlist of a sold-out slot.
+     * @param customerID The ID of the waiting customer.
+     * @param slotID The ID of the slot.
+     * @param centerId The ID of the center of the slot.
+     * @param date The date the customer wants to book.
+     * @return The waitlist ID, or -1 if the slot is not at the given center or the customer could not be added.
+     */
+    @Override
+    public int joinWaitlist(int customerID, int slotID, int centerId, Date date) {
+        GymSlotCatalog.Slot slot = slotCatalog.get(slotID);
+        if (slot == null || slot.centerId != centerId) {
+            return -1;
+        }
+        return waitlistDAO.joinWaitlist(customerID, slotID, centerId, date);
+    }
 
-            return resultSet.getInt("Status") > 0;
+    /**
+     * This method returns the queue position of a waitlist entry.
+     * @param waitlistId The ID of the waitlist entry.
+     * @return The 1-based position while waiting, otherwise 0.
+     * @throws ResourceNotFoundException if there is no such entry.
+     */
+    @Override
+    public int waitlistPosition(int waitlistId) throws ResourceNotFoundException {
+        return waitlistDAO.getPosition(waitlistId);
+    }
 
+    /**
+     * This method checks whether a booking belongs to the customer.
+     * @param customerId The ID of the customer.
+     * @param bookingId The ID of the booking.
+     * @return true if the booking exists and is the customer's.
+     */
+    @Override
+    public boolean ownsBooking(int customerId, int bookingId) {
+        return exists(OWN_BOOKING_SQL, bookingId, customerId);
+    }
+
+    /**
+     * This method checks whether a waitlist entry belongs to the customer.
+     * @param customerId The ID of the customer.
+     * @param waitlistId The ID of the waitlist entry.
+     * @return true if the entry exists and is the customer's.
+     */
+    @Override
+    public boolean ownsWaitlistEntry(int customerId, int waitlistId) {
+        return exists(OWN_WAITLIST_ENTRY_SQL, waitlistId, customerId);
+    }
+
+    // Runs an existence query with two integer parameters
+    private boolean exists(String sql, int first, int second) {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setInt(1, first);
+            statement.setInt(2, second);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
         } catch (SQLException se) {
             se.printStackTrace();
-            return false;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
+        } catch (DBConnectionException e) {
+            System.out.println(e);
         }
+        return false;
     }
 
     /**
      * This method cancels a specific booking made by a customer.
-     * @param bookingID The ID of the booking to be cancelled.
+     * The booking is looked up and locked together with the ownership check, removed, and its seat
+     * is handed to the head of the slot's waitlist or, if nobody is waiting, given back to the slot,
+     * all in one transaction.
      * @param customerID The ID of the customer cancelling the booking.
+     * @param bookingID The ID of the booking to be cancelled.
      * @return boolean indicating whether the booking was successfully cancelled.
+     * @throws UnauthorisedAccessException if the booking does not belong to the customer.
      */
     @Override
-    public boolean cancelBooking(int bookingID , int customerID ) {
-        try {
-            if(!IfCustomerExists(customerID))
-                throw new UnauthorisedAccessException("UnAutherised Access!");
-            conn = DBConnection.connect();
+    public boolean cancelBooking(int customerID, int bookingID) throws UnauthorisedAccessException {
+        try (Connection conn = DBConnection.connect()) {
             System.out.println("Cancel Booking...");
-            statement = conn.prepareStatement("DELETE FROM Bookings where BookingID=?");
-            statement.setInt(1, bookingID);
-            statement.executeQuery();
+            conn.setAutoCommit(false);
+
+            // Lock the booking; it must exist and belong to this customer
+            int slotID;
+            Date date;
+            try (PreparedStatement statement = conn.prepareStatement(LOCK_OWN_BOOKING_SQL)) {
+                statement.setInt(1, bookingID);
+                statement.setInt(2, customerID);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        conn.rollback();
+                        throw new UnauthorisedAccessException("UnAutherised Access!");
+                    }
+                    slotID = resultSet.getInt("slotId");
+                    date = resultSet.getDate("Date");
+                }
+            }
+
+            try (PreparedStatement statement = conn.prepareStatement(DELETE_BOOKING_SQL)) {
+                statement.setInt(1, bookingID);
+                statement.executeUpdate();
+            }
+            outboxDAO.append(conn, new GymBookingEvent(GymOutboxDAO.BOOKING_CANCELLED, bookingID, slotID, date, 1,
+                    "customer=" + customerID));
+
+            GymWaitlistEntry promoted = releaseOrPromote(conn, slotID, date);
+            conn.commit();
+
+            afterSeatReleased(slotID, date, promoted);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -240,83 +490,224 @@ public class GymCustomerDAOImpl implements GymCustomerDAO {
         return false;
     }
 
+    /**
+     * Cancels every booking of a slot on a date, e.g. when the owner closes the slot for the day.
+     * @param slotId The ID of the slot.
+     * @param date The date whose bookings are cancelled.
+     * @return The number of bookings cancelled, or -1 if the cancellation failed.
+     */
+    @Override
+    public int cancelAll(int slotId, Date date) {
+        return cancelAll(LOCK_SLOT_DAY_SQL, slotId, date, "slot " + slotId + " is closed");
+    }
 
+    /**
+     * Cancels every booking of all slots of a center on a date, e.g. when the center closes for the day.
+     * @param centerId The ID of the center.
+     * @param date The date whose bookings are cancelled.
+     * @return The number of bookings cancelled, or -1 if the cancellation failed.
+     */
+    @Override
+    public int cancelAllAtCenter(int centerId, Date date) {
+        return cancelAll(LOCK_CENTER_DAY_SQL, centerId, date, "center " + centerId + " is closed");
+    }
 
+    /**
+     * Cancels the bookings selected by a locking query as one set: a single delete removes them, one
+     * batched update gives the seats of every slot back, and one update cancels the waitlists of the
+     * slots, since nobody should be promoted into a closed slot. Only the locked bookings are deleted,
+     * so a booking made while the cancellation runs keeps its seat. The customers of the bookings and of
+     * the waitlist entries are notified once the transaction has committed.
+     */
+    private int cancelAll(String lockSql, int id, Date date, String reason) {
+        java.sql.Date sqlDate = new java.sql.Date(date.getTime());
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+
+            Cancellation cancellation = lockBookings(conn, lockSql, id, sqlDate);
+            if (cancellation.bookingIds.isEmpty()) {
+                conn.rollback();
+                return 0;
+            }
+            deleteBookings(conn, cancellation.bookingIds);
+            seatReservationDAO.releaseSeats(conn, cancellation.seatsBySlot, sqlDate);
+            cancellation.waitlist = waitlistDAO.cancelWaiting(conn, cancellation.seatsBySlot.keySet(), sqlDate);
+            outboxDAO.appendAll(conn, cancellation.events);
+            conn.commit();
+
+            for (int slotID : cancellation.seatsBySlot.keySet()) {
+                seatInventory.invalidate(slotID, sqlDate);  // Re-read on next use instead of adding up the releases
+            }
+            notifyCancelled(cancellation, reason);
+            return cancellation.bookingIds.size();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return -1;
+    }
 
+    /**
+     * Cancels the bookings of today and later of slots that are being deleted, removes their seat rows
+     * and cancels their waitlist entries, inside the caller's transaction. Past bookings are kept as
+     * history.
+     * @param conn The connection (and transaction) to use.
+     * @param slotIds The IDs of the slots.
+     * @param reason Why the slots are deleted, for the notifications.
+     * @return Notifies the customers and drops the cached seat counts; run it once the transaction has committed.
+     */
     @Override
-/**
- * Creates a booking for a customer for a specific slot and date.
- * This method checks if a booking already exists for the slot and date.
- * If no booking exists, it creates a new entry in the `AvailableSeats` table and updates the seat count.
- * If a booking already exists and seats are available, it updates the available seats and creates a new booking.
- * @param customerID The ID of the customer making the booking.
- * @param slotID The ID of the slot being booked.
- * @param centerId The ID of the center where the booking is made.
- * @param date The date for the booking.
- * @return The booking ID if the booking is successfully created, otherwise -1.
- * @throws ResourceNotFoundException if no seats are available for the selected slot and date.
- */
-    public int createBooking(int customerID, int slotID, int centerId, Date date) throws ResourceNotFoundException {
-        try {
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("select * from AvailableSeats where slotId=? and Date=?");
-            statement.setInt(1, slotID);
-            statement.setDate(2, new java.sql.Date(date.getTime()));
-            ResultSet resultSet = statement.executeQuery();
-            int bookingID = 0;
-
-            if (resultSet.next() && resultSet.getInt(3) > 0) {
-                int numSeats = resultSet.getInt(3);
-                statement = conn.prepareStatement("update AvailableSeats set NumSeats = ? where slotId=? and Date=?");
-                statement.setInt(1, numSeats - 1);
-                statement.setInt(2, slotID);
-                statement.setDate(3, new java.sql.Date(date.getTime()));
-                statement.executeUpdate();
+    public Runnable cancelForDeletion(Connection conn, Collection<Integer> slotIds, String reason) throws SQLException {
+        if (slotIds.isEmpty()) {
+            return () -> { };
+        }
+        java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
+        List<Object> binds = new ArrayList<>(slotIds.size() + 1);
+        binds.add(today);
+        binds.addAll(slotIds);
+        Cancellation cancellation = lockBookings(conn, LOCK_UPCOMING_SQL
+                + "(" + String.join(",", Collections.nCopies(slotIds.size(), "?")) + ") FOR UPDATE", binds.toArray());
+        if (!cancellation.bookingIds.isEmpty()) {
+            deleteBookings(conn, cancellation.bookingIds);
+        }
+        seatReservationDAO.deleteSeats(conn, slotIds);
+        cancellation.waitlist = waitlistDAO.cancelWaitingFrom(conn, slotIds, today);
+        outboxDAO.appendAll(conn, cancellation.events);
+
+        List<Integer> deletedSlots = new ArrayList<>(slotIds);
+        return () -> {
+            for (int slotID : deletedSlots) {
+                seatInventory.invalidateSlot(slotID);
+            }
+            notifyCancelled(cancellation, reason);
+        };
+    }
 
-                statement = conn.prepareStatement("insert into CustomerBooking(`CustId`,`centerId`,`slotId`,`Date`) values (?,?,?,?)", PreparedStatement.RETURN_GENERATED_KEYS);
-                statement.setInt(1, customerID);
-                statement.setInt(2, centerId);
-                statement.setInt(3, slotID);
-                statement.setDate(4, new java.sql.Date(date.getTime()));
-                int rowsAffected = statement.executeUpdate();
+    // Bookings and waitlist entries cancelled as one set
+    private static final class Cancellation {
+        final List<Integer> bookingIds = new ArrayList<>();
+        final List<Integer> customerIds = new ArrayList<>();
+        final List<Date> dates = new ArrayList<>();
+        final Map<Integer, Integer> seatsBySlot = new TreeMap<>();  // Seat rows are locked in slot order, as modifyBooking does
+        final List<GymBookingEvent> events = new ArrayList<>();
+        List<GymWaitlistEntry> waitlist = Collections.emptyList();
+    }
 
-                if (rowsAffected > 0) {
-                    ResultSet generatedKeys = statement.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        bookingID = generatedKeys.getInt(1);
-                    }
-                }
-            } else if (!resultSet.next()) {
-                statement = conn.prepareStatement("select * from slots where slotsId = ?");
-                statement.setInt(1, slotID);
-                resultSet = statement.executeQuery();
-                if (!resultSet.next()) {
-                    System.out.println("Something went wrong");
+    // Locks the bookings selected by a query, binding the given values in order
+    private Cancellation lockBookings(Connection conn, String lockSql, Object... binds) throws SQLException {
+        Cancellation cancellation = new Cancellation();
+        try (PreparedStatement statement = conn.prepareStatement(lockSql)) {
+            for (int i = 0; i < binds.length; i++) {
+                statement.setObject(i + 1, binds[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    int bookingID = resultSet.getInt("BookingId");
+                    int slotID = resultSet.getInt("slotId");
+                    java.sql.Date date = resultSet.getDate("Date");
+                    cancellation.bookingIds.add(bookingID);
+                    cancellation.customerIds.add(resultSet.getInt("CustId"));
+                    cancellation.dates.add(date);
+                    cancellation.seatsBySlot.merge(slotID, 1, Integer::sum);
+                    cancellation.events.add(new GymBookingEvent(GymOutboxDAO.BOOKING_CANCELLED, bookingID, slotID, date, 1,
+                            "customer=" + resultSet.getInt("CustId") + ",bulk"));
                 }
-                int TotalSeats = resultSet.getInt(5);
-                statement = conn.prepareStatement("insert into AvailableSeats(`slotId`,`Date`,`NumSeats`) values (?,?,?)");
-                statement.setInt(1, slotID);
-                statement.setDate(2, new java.sql.Date(date.getTime()));
-                statement.setInt(3, TotalSeats - 1);
-                statement.executeUpdate();
+            }
+        }
+        return cancellation;
+    }
 
-                statement = conn.prepareStatement("insert into CustomerBooking(`CustId`,`centerId`,`slotId`,`Date`) values (?,?,?,?)", PreparedStatement.RETURN_GENERATED_KEYS);
-                statement.setInt(1, customerID);
-                statement.setInt(2, centerId);
-                statement.setInt(3, slotID);
-                statement.setDate(4, new java.sql.Date(date.getTime()));
-                int rowsAffected = statement.executeUpdate();
+    // Deletes the given bookings with one statement
+    private static void deleteBookings(Connection conn, List<Integer> bookingIds) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(DELETE_BOOKINGS_SQL
+                + "(" + String.join(",", Collections.nCopies(bookingIds.size(), "?")) + ")")) {
+            for (int i = 0; i < bookingIds.size(); i++) {
+                statement.setInt(i + 1, bookingIds.get(i));
+            }
+            statement.executeUpdate();
+        }
+    }
 
-                if (rowsAffected > 0) {
-                    ResultSet generatedKeys = statement.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        bookingID = generatedKeys.getInt(1);
-                    }
+    // Tells the customers of cancelled bookings and waitlist entries; runs after the commit
+    private void notifyCancelled(Cancellation cancellation, String reason) {
+        for (int i = 0; i < cancellation.bookingIds.size(); i++) {
+            notifications.publish(cancellation.customerIds.get(i), cancellation.bookingIds.get(i), NotificationDispatcher.CANCELLATION,
+                    "Booking " + cancellation.bookingIds.get(i) + " on " + cancellation.dates.get(i) + " was cancelled because " + reason);
+        }
+        for (GymWaitlistEntry entry : cancellation.waitlist) {
+            notifications.publish(entry.getCustomerId(), 0, NotificationDispatcher.WAITLIST_CANCELLATION,
+                    "Waitlist entry " + entry.getWaitlistId() + " on " + entry.getDate() + " was cancelled because " + reason);
+        }
+    }
+
+    /**
+     * Hands a freed seat to the customer at the head of the slot's waitlist, or gives it back to the slot.
+     * The seat count does not change when a waiting customer is promoted, so this costs one indexed
+     * lookup of the queue head plus one booking insert, regardless of how long the queue is.
+     * Must run inside the caller's transaction.
+     * @return the promoted waitlist entry (with its new booking ID), or null if nobody was waiting.
+     */
+    private GymWaitlistEntry releaseOrPromote(Connection conn, int slotID, Date date) throws SQLException {
+        GymWaitlistEntry head = waitlistDAO.lockHead(conn, slotID, date);
+        if (head == null) {
+            seatReservationDAO.releaseSeat(conn, slotID, date);
+            return null;
+        }
+        int bookingID = insertBooking(conn, head.getCustomerId(), slotID, head.getCenterId(), date);
+        waitlistDAO.markPromoted(conn, head.getWaitlistId(), bookingID);
+        outboxDAO.append(conn, new GymBookingEvent(GymOutboxDAO.WAITLIST_PROMOTED, bookingID, slotID, date, -1,
+                "customer=" + head.getCustomerId() + ",center=" + head.getCenterId() + ",waitlist=" + head.getWaitlistId()));
+        head.setStatus(GymWaitlistDAOImpl.PROMOTED);
+        head.setBookingId(bookingID);
+        return head;
+    }
+
+    // Runs once the releasing transaction has committed: updates the seat inventory or notifies the promoted customer
+    private void afterSeatReleased(int slotID, Date date, GymWaitlistEntry promoted) {
+        if (promoted == null) {
+            seatInventory.onSeatReleased(slotID, date);
+        } else {
+            notifications.publish(promoted.getCustomerId(), promoted.getBookingId(), NotificationDispatcher.WAITLIST_PROMOTION,
+                    "A seat became free: your waitlist entry " + promoted.getWaitlistId() + " is now booking " + promoted.getBookingId()
+                            + " for slot " + slotID + " on " + new java.sql.Date(date.getTime()));
+        }
+    }
+
+    /**
+     * Creates a booking for a customer for a specific slot and date.
+     * The seat is taken with a conditional update and the booking is inserted in the same transaction,
+     * so concurrent bookings of the last seat cannot both succeed and a failed insert gives the seat back.
+     * The `AvailableSeats` row for the date is created lazily the first time the slot is booked on it.
+     * @param customerID The ID of the customer making the booking.
+     * @param slotID The ID of the slot being booked.
+     * @param centerId The ID of the center where the booking is made.
+     * @param date The date for the booking.
+     * @return The booking ID if the booking is successfully created, otherwise -1.
+     * @throws ResourceNotFoundException if the slot is not at the given center or no seats are available for it on the date.
+     */
+    @Override
+    public int createBooking(int customerID, int slotID, int centerId, Date date) throws ResourceNotFoundException {
+        requireSlotAt(slotID, centerId);
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+            try {
+                // Take a seat; the slot is sold out if no seat is left
+                if (!seatReservationDAO.reserveSeat(conn, slotID, date)) {
+                    conn.rollback();
+                    throw new ResourceNotFoundException("No Seats Available for the slot on that date");
                 }
-            } else {
-                throw new ResourceNotFoundException("No Seats Available for the slot on that date");
+
+                int bookingID = insertBooking(conn, customerID, slotID, centerId, date);
+                outboxDAO.append(conn, new GymBookingEvent(GymOutboxDAO.BOOKING_CREATED, bookingID, slotID, date, -1,
+                        "customer=" + customerID + ",center=" + centerId));
+                conn.commit();
+                seatInventory.onSeatTaken(slotID, date);  // Keep the in-memory inventory in step with the database
+                return bookingID;
+            } catch (SQLException se) {
+                conn.rollback();  // Give the seat back if the booking could not be stored
+                throw se;
             }
-            return bookingID;
         } catch (SQLException se) {
             se.printStackTrace();
             return -1;
@@ -326,46 +717,78 @@ public class GymCustomerDAOImpl implements GymCustomerDAO {
         }
     }
 
+    // The center ID comes from the client, so it must be the center the slot really belongs to
+    private void requireSlotAt(int slotID, int centerId) throws ResourceNotFoundException {
+        GymSlotCatalog.Slot slot = slotCatalog.get(slotID);
+        if (slot == null || slot.centerId != centerId) {
+            throw new ResourceNotFoundException("No such slot at this center");
+        }
+    }
+
+    // Inserts a row into CustomerBooking and returns the generated booking ID
+    private int insertBooking(Connection conn, int customerID, int slotID, int centerId, Date date) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_BOOKING_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            insert.setInt(1, customerID);
+            insert.setInt(2, centerId);
+            insert.setInt(3, slotID);
+            insert.setDate(4, new java.sql.Date(date.getTime()));
+            insert.executeUpdate();
+
+            try (ResultSet generatedKeys = insert.getGeneratedKeys()) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Booking was not created, no ID obtained");
+                }
+                return generatedKeys.getInt(1);
+            }
+        }
+    }
+
     /**
      * Makes a payment for a specific booking.
-     * This method verifies that the booking exists, retrieves the cost associated with the booking,
-     * and processes the payment by adding an entry into the `payment` table.
+     * This method verifies that the booking exists, takes the cost of its slot from the slot catalog,
+     * and processes the payment by adding an entry into the `payment` table together with its outbox event.
      * @param paymentData The payment data including booking ID, mode, and amount.
      * @return The payment ID if the payment is successfully processed, otherwise -1.
      * @throws DataEntryFailedException if there is an issue inserting the payment data into the database.
      */
     @Override
     public int makepayment(GymPayment paymentData) throws DataEntryFailedException {
-        try {
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("Select * from CustomerBooking where BookingId = ?");
-            statement.setInt(1, paymentData.getBookingID());
-            ResultSet resultSet = statement.executeQuery();
-            resultSet.next();
-
-            int slotId = resultSet.getInt(4);
-            statement = conn.prepareStatement("SELECT * from Slots where slotsId = ?");
-            statement.setInt(1, slotId);
-            resultSet = statement.executeQuery();
-            resultSet.next();
-            int cost = resultSet.getInt(6);
-
-            statement = conn.prepareStatement("insert into payment(`BookingId`, `Mode`, `Amount`) values (?,?,?)", PreparedStatement.RETURN_GENERATED_KEYS);
-            statement.setInt(1, paymentData.getBookingID());
-            statement.setString(2, paymentData.getMode());
-            statement.setInt(3, cost);
-            int rowsAffected = statement.executeUpdate();
-            int paymentId = 0;
-
-            if (rowsAffected > 0) {
-                ResultSet generatedKeys = statement.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    paymentId = generatedKeys.getInt(1);
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+            int cost;
+            try (PreparedStatement statement = conn.prepareStatement(SLOT_OF_BOOKING_SQL)) {
+                statement.setInt(1, paymentData.getBookingID());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    GymSlotCatalog.Slot slot = resultSet.next() ? slotCatalog.get(resultSet.getInt("slotId")) : null;
+                    if (slot == null) {
+                        return -1;  // No such booking, or its slot was deleted
+                    }
+                    cost = slot.cost;
                 }
-            } else {
-                throw new DataEntryFailedException("Data Entry Failed into the Payments Database");
             }
-            return paymentId;
+
+            try (PreparedStatement statement = conn.prepareStatement(INSERT_PAYMENT_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                statement.setInt(1, paymentData.getBookingID());
+                statement.setString(2, paymentData.getMode());
+                statement.setInt(3, cost);
+                int rowsAffected = statement.executeUpdate();
+                int paymentId = 0;
+
+                if (rowsAffected > 0) {
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            paymentId = generatedKeys.getInt(1);
+                        }
+                    }
+                } else {
+                    conn.rollback();
+                    throw new DataEntryFailedException("Data Entry Failed into the Payments Database");
+                }
+                outboxDAO.append(conn, new GymBookingEvent(GymOutboxDAO.PAYMENT_RECEIVED, paymentId,
+                        "booking=" + paymentData.getBookingID() + ",amount=" + cost + ",mode=" + paymentData.getMode()));
+                conn.commit();
+                return paymentId;
+            }
         } catch (SQLException se) {
             se.printStackTrace();
             return -1;
@@ -376,23 +799,92 @@ public class GymCustomerDAOImpl implements GymCustomerDAO {
     }
 
     /**
-     * Modifies an existing booking by canceling the previous booking and creating a new one.
+     * Moves an existing booking to another slot and/or date by transferring its seat in one transaction.
+     * The booking row is locked with the ownership check, a seat of the new slot is taken, the old seat is
+     * handed to the old slot's waitlist or given back, and the booking row is updated in place, so the
+     * booking keeps its ID and payments. If the new slot is sold out nothing changes and the customer
+     * keeps the old seat.
+     * The two AvailableSeats rows are always locked in (slot, date) order, so two customers swapping
+     * seats in opposite directions cannot deadlock, and both are only held until the commit.
      * @param bookingID The ID of the booking to be modified.
      * @param customerID The ID of the customer modifying the booking.
-     * @param centerID The ID of the center where the new booking will be made.
-     * @param slotID The ID of the slot for the new booking.
-     * @return The ID of the new booking if successfully created, otherwise -1.
+     * @param centerID The ID of the center of the new slot.
+     * @param slotID The ID of the new slot.
+     * @param date The new date.
+     * @return The ID of the booking if it was moved, otherwise -1.
+     * @throws ResourceNotFoundException if the slot is not at the given center or no seats are available for it on the date.
+     * @throws UnauthorisedAccessException if the booking does not belong to the customer.
      */
     @Override
-    public int modifyBooking(int bookingID, int customerID, int centerID, int slotID) {
-        try {
-            cancelBooking(bookingID, customerID);
-            int newBookingID = createBooking(customerID, centerID, slotID);
-            return newBookingID;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return -1;
+    public int modifyBooking(int bookingID, int customerID, int centerID, int slotID, Date date)
+            throws ResourceNotFoundException, UnauthorisedAccessException {
+        requireSlotAt(slotID, centerID);
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+
+            // Lock the booking; it must exist and belong to this customer
+            int oldSlotID;
+            java.sql.Date oldDate;
+            try (PreparedStatement statement = conn.prepareStatement(LOCK_OWN_BOOKING_SQL)) {
+                statement.setInt(1, bookingID);
+                statement.setInt(2, customerID);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        conn.rollback();
+                        throw new UnauthorisedAccessException("UnAutherised Access!");
+                    }
+                    oldSlotID = resultSet.getInt("slotId");
+                    oldDate = resultSet.getDate("Date");
+                }
+            }
+            java.sql.Date newDate = java.sql.Date.valueOf(new java.sql.Date(date.getTime()).toLocalDate());
+            int order = slotID != oldSlotID ? Integer.compare(slotID, oldSlotID) : newDate.toLocalDate().compareTo(oldDate.toLocalDate());
+            if (order == 0) {
+                conn.rollback();
+                return bookingID;  // Nothing to move
+            }
+
+            // Take the new seat and give the old one back, locking the seat rows in a fixed order
+            GymWaitlistEntry promoted = null;
+            boolean reserved;
+            if (order < 0) {
+                reserved = seatReservationDAO.reserveSeat(conn, slotID, newDate);
+                if (reserved) {
+                    promoted = releaseOrPromote(conn, oldSlotID, oldDate);
+                }
+            } else {
+                promoted = releaseOrPromote(conn, oldSlotID, oldDate);
+                reserved = seatReservationDAO.reserveSeat(conn, slotID, newDate);
+            }
+            if (!reserved) {
+                conn.rollback();  // The customer keeps the old seat
+                throw new ResourceNotFoundException("No Seats Available for the slot on that date");
+            }
+
+            try (PreparedStatement statement = conn.prepareStatement(MOVE_BOOKING_SQL)) {
+                statement.setInt(1, centerID);
+                statement.setInt(2, slotID);
+                statement.setDate(3, newDate);
+                statement.setInt(4, bookingID);
+                statement.executeUpdate();
+            }
+            // One event per seat row, so the log accounts for both sides of the transfer
+            outboxDAO.appendAll(conn, Arrays.asList(
+                    new GymBookingEvent(GymOutboxDAO.BOOKING_MODIFIED, bookingID, oldSlotID, oldDate, 1,
+                            "customer=" + customerID + ",to=" + slotID + "@" + newDate),
+                    new GymBookingEvent(GymOutboxDAO.BOOKING_MODIFIED, bookingID, slotID, newDate, -1,
+                            "customer=" + customerID + ",center=" + centerID + ",from=" + oldSlotID + "@" + oldDate)));
+            conn.commit();
+
+            seatInventory.onSeatTaken(slotID, newDate);
+            afterSeatReleased(oldSlotID, oldDate, promoted);
+            return bookingID;
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
         }
+        return -1;
     }
 
     /**
@@ -407,30 +899,33 @@ public class GymCustomerDAOImpl implements GymCustomerDAO {
      */
     @Override
     public boolean updatepwd(String email, String password, String role) throws InvalidCredentialsException {
-        try {
-            if (!IfCustomerExists(CustomerID))
-                throw new UnauthorisedAccessException("UnAutherised Access!");
-
-            conn = DBConnection.connect();
-            statement = conn.prepareStatement("Select * from Registration where EmailAddress=? and role=?");
-            statement.setString(1, email);
-            statement.setString(2, role);
-            ResultSet resultSet = statement.executeQuery();
-            if (!resultSet.next()) {
-                throw new InvalidCredentialsException("You are not registered for this role yet!!");
-            } else {
-                int id = resultSet.getInt(1);
-                statement = conn.prepareStatement("update Registration set Password=? where UserId=?");
-                statement.setString(1, password);
+        String passwordHash = PasswordHasher.hash(password);  // Only the salted hash is stored
+        try (Connection conn = DBConnection.connect()) {
+            int id;
+            try (PreparedStatement statement = conn.prepareStatement(USER_ID_SQL)) {
+                statement.setString(1, email);
+                statement.setString(2, role);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new InvalidCredentialsException("You are not registered for this role yet!!");
+                    }
+                    id = resultSet.getInt("UserId");
+                }
+            }
+
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_REGISTRATION_PASSWORD_SQL)) {
+                statement.setString(1, passwordHash);
                 statement.setInt(2, id);
                 statement.executeUpdate();
+            }
 
-                statement = conn.prepareStatement("update Customer set Password=? where CustId=?");
-                statement.setString(1, password);
+            try (PreparedStatement statement = conn.prepareStatement(UPDATE_CUSTOMER_PASSWORD_SQL)) {
+                statement.setString(1, passwordHash);
                 statement.setInt(2, id);
                 statement.executeUpdate();
-                return true;
             }
+            CredentialCache.getInstance().invalidate(email, role);  // The cached hash is stale now
+            return true;
         } catch (SQLException se) {
             se.printStackTrace();
         } catch (DBConnectionException e) {
@@ -438,4 +933,4 @@ public class GymCustomerDAOImpl implements GymCustomerDAO {
         }
         return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymBookingEvent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+public interface GymOutboxDAO {
+
+    // Event types
+    public static final String BOOKING_CREATED = "booking-created";
+    public static final String BOOKING_CANCELLED = "booking-cancelled";
+    public static final String BOOKING_MODIFIED = "booking-modified";
+    public static final String WAITLIST_PROMOTED = "waitlist-promoted";
+    public static final String PAYMENT_RECEIVED = "payment-received";
+    public static final String OWNER_REQUEST_DECIDED = "owner-request-decided";
+
+    /**
+     * Adds an event to the outbox inside the caller's transaction, so the event exists if and only if
+     * the change it describes was committed.
+     *
+     * @param conn the connection (and transaction) of the change.
+     * @param event the event to add.
+     * @throws SQLException if the insert fails.
+     */
+    public void append(Connection conn, GymBookingEvent event) throws SQLException;
+
+    /**
+     * Adds many events to the outbox inside the caller's transaction with one JDBC batch.
+     *
+     * @param conn the connection (and transaction) of the change.
+     * @param events the events to add.
+     * @throws SQLException if the insert fails.
+     */
+    public void appendAll(Connection conn, List<GymBookingEvent> events) throws SQLException;
+
+    /**
+     * Reads the oldest events that have not been relayed yet.
+     *
+     * @param max the maximum number of events to read.
+     * @return the events in increasing event ID order.
+     */
+    public List<GymBookingEvent> fetchPending(int max);
+
+    /**
+     * Removes relayed events from the outbox.
+     *
+     * @param eventIds the IDs of the relayed events.
+     * @return true if the events were removed.
+     */
+    public boolean delete(List<Long> eventIds);
+}
@@ -0,0 +1,123 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymBookingEvent;
+import com.flipfit.exceptions.DBConnectionException;
+import com.flipfit.utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class GymOutboxDAOImpl implements GymOutboxDAO {
+
+    private static final String INSERT_EVENT_SQL = "INSERT INTO booking_outbox "
+            + "(EventType, AggregateId, slotId, `Date`, SeatDelta, Detail, CreatedAt) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String PENDING_EVENTS_SQL = "SELECT EventId, EventType, AggregateId, slotId, `Date`, SeatDelta, Detail, CreatedAt "
+            + "FROM booking_outbox ORDER BY EventId LIMIT ?";
+    private static final String DELETE_EVENTS_SQL = "DELETE FROM booking_outbox WHERE EventId IN ";
+
+    /**
+     * Adds an event to the outbox inside the caller's transaction.
+     * @param conn the connection (and transaction) of the change.
+     * @param event the event to add.
+     * @throws SQLException if the insert fails.
+     */
+    @Override
+    public void append(Connection conn, GymBookingEvent event) throws SQLException {
+        appendAll(conn, Collections.singletonList(event));
+    }
+
+    /**
+     * Adds many events to the outbox inside the caller's transaction with one JDBC batch.
+     * @param conn the connection (and transaction) of the change.
+     * @param events the events to add.
+     * @throws SQLException if the insert fails.
+     */
+    @Override
+    public void appendAll(Connection conn, List<GymBookingEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_EVENT_SQL)) {
+            for (GymBookingEvent event : events) {
+                insert.setString(1, event.getType());
+                insert.setInt(2, event.getAggregateId());
+                insert.setInt(3, event.getSlotId());
+                if (event.getDate() != null) {
+                    insert.setDate(4, new java.sql.Date(event.getDate().getTime()));
+                } else {
+                    insert.setNull(4, Types.DATE);
+                }
+                insert.setInt(5, event.getSeatDelta());
+                insert.setString(6, event.getDetail());
+                insert.setLong(7, event.getCreatedAt());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Reads the oldest events that have not been relayed yet.
+     * @param max the maximum number of events to read.
+     * @return the events in increasing event ID order, empty if there are none or the read failed.
+     */
+    @Override
+    public List<GymBookingEvent> fetchPending(int max) {
+        List<GymBookingEvent> events = new ArrayList<>();
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(PENDING_EVENTS_SQL)) {
+            statement.setInt(1, max);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    GymBookingEvent event = new GymBookingEvent();
+                    event.setEventId(resultSet.getLong("EventId"));
+                    event.setType(resultSet.getString("EventType"));
+                    event.setAggregateId(resultSet.getInt("AggregateId"));
+                    event.setSlotId(resultSet.getInt("slotId"));
+                    event.setDate(resultSet.getDate("Date"));
+                    event.setSeatDelta(resultSet.getInt("SeatDelta"));
+                    event.setDetail(resultSet.getString("Detail"));
+                    event.setCreatedAt(resultSet.getLong("CreatedAt"));
+                    events.add(event);
+                }
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return events;
+    }
+
+    /**
+     * Removes relayed events from the outbox.
+     * @param eventIds the IDs of the relayed events.
+     * @return true if the events were removed.
+     */
+    @Override
+    public boolean delete(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return true;
+        }
+        String sql = DELETE_EVENTS_SQL + "(" + String.join(",", Collections.nCopies(eventIds.size(), "?")) + ")";
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            for (int i = 0; i < eventIds.size(); i++) {
+                statement.setLong(i + 1, eventIds.get(i));
+            }
+            statement.executeUpdate();
+            return true;
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return false;
+    }
+}
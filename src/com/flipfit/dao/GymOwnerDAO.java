@@ -7,6 +7,7 @@ import com.flipfit.exceptions.DataEntryFailedException;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceAlreadyExistsException;
 import java.time.LocalTime;
+import java.util.List;
 
 public interface GymOwnerDAO {
 
@@ -19,12 +20,21 @@ public interface GymOwnerDAO {
     // Adds new slots to an existing gym center
     public boolean addSlots(int centerID, GymSlots slot) throws ResourceAlreadyExistsException, DataEntryFailedException;
 
+    // Adds many slots (each with its own center ID) in one transaction; returns the number added
+    public int addSlots(List<GymSlots> slots) throws ResourceAlreadyExistsException, DataEntryFailedException;
+
     // Deletes a specific gym slot from a gym center
     public boolean deleteSlot(int centerID, LocalTime starttime) throws DataEntryFailedException;
 
     // Deletes a gym center
     public boolean deleteCenter(int centerId) throws DataEntryFailedException;
 
+    // Checks whether a center belongs to the owner
+    public boolean ownsCenter(int ownerId, int centerId);
+
+    // Checks whether a slot belongs to one of the owner's centers
+    public boolean ownsSlot(int ownerId, int slotId);
+
     // Edits an existing gym owner profile
     public boolean editProfile(GymOwner gymOwner) throws DataEntryFailedException;
 
@@ -1,26 +1,70 @@
 package com.flipfit.dao;
 
+import com.flipfit.bean.GymCenter;
 import com.flipfit.bean.GymOwner;
 import com.flipfit.bean.GymSlots;
 import com.flipfit.exceptions.DBConnectionException;
 import com.flipfit.exceptions.DataEntryFailedException;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceAlreadyExistsException;
+import com.flipfit.utils.CredentialCache;
 import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.PasswordHasher;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class GymOwnerDAOImpl implements GymOwnerDAO {
-    private Connection connection = null; // Connection object to interact with the database
-    private PreparedStatement statement = null; // PreparedStatement for executing SQL queries
+
+    // Profile statements
+    private static final String USER_ID_BY_EMAIL_SQL = "SELECT UserId FROM Registration WHERE EmailAddress = ?";
+    private static final String USER_ID_SQL = "SELECT UserId FROM Registration WHERE EmailAddress = ? AND Role = ?";
+    private static final String INSERT_USER_SQL = "INSERT INTO User (Name, Email, PhoneNumber, Role, Address) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_OWNER_SQL = "INSERT INTO OwnerInfo (OwnerId, OwnerName, OwnerEmail, OwnerAddress, OwnerPhone, Password) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_REGISTRATION_SQL = "INSERT INTO Registration (UserId, EmailAddress, Password, Role) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_OWNER_SQL = "UPDATE OwnerInfo SET OwnerName = ?, OwnerAddress = ?, OwnerPhone = ? WHERE OwnerId = ?";
+    private static final String UPDATE_REGISTRATION_PASSWORD_SQL = "UPDATE Registration SET Password = ? WHERE UserId = ?";
+    private static final String UPDATE_OWNER_PASSWORD_SQL = "UPDATE OwnerInfo SET Password = ? WHERE OwnerId = ?";
+    // Center and slot statements
+    private static final String INSERT_REQUEST_SQL = "INSERT INTO OwnerRequest (OwnerId, CenterName, CenterLocation, NumOfSlots) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_SLOT_SQL = "INSERT INTO Slots (centerId, StartTime, EndTime, NumOfSeats, Cost) VALUES (?, ?, ?, ?, ?)";
+    private static final String SLOTS_OF_CENTERS_SQL = "SELECT centerId, StartTime, EndTime FROM Slots WHERE centerId IN ";
+    private static final String COUNT_SLOTS_SQL = "SELECT COUNT(*) AS SlotCount FROM Slots WHERE centerId = ? AND StartTime = ? AND EndTime = ?";
+    private static final String LOCK_SLOT_SQL = "SELECT slotsId FROM Slots WHERE centerId = ? AND StartTime = ? FOR UPDATE";
+    private static final String LOCK_SLOTS_OF_CENTER_SQL = "SELECT slotsId FROM Slots WHERE centerId = ? FOR UPDATE";
+    private static final String DELETE_SLOT_SQL = "DELETE FROM Slots WHERE centerId = ? AND StartTime = ?";
+    private static final String DELETE_SLOTS_OF_CENTER_SQL = "DELETE FROM Slots WHERE centerId = ?";
+    private static final String DELETE_CENTER_SQL = "DELETE FROM GymCenters WHERE centerId = ?";
+    // Ownership checks; the owner of a center comes from the center cache
+    private static final String OWNS_SLOT_SQL = "SELECT 1 FROM Slots s JOIN GymCenters c ON c.centerId = s.centerId "
+            + "WHERE s.slotsId = ? AND c.OwnerId = ?";
+
+    // Cached center metadata; invalidated when a center is deleted
+    private final GymCenterCache centerCache = GymCenterCache.getInstance();
+    // Cached slot definitions; updated write-through when slots are added or deleted
+    private final GymSlotCatalog slotCatalog = GymSlotCatalog.getInstance();
+    // Cancels the bookings and waitlist entries of deleted slots, in the same transaction as the delete
+    private final GymCustomerDAO customerDAO;
+
+    public GymOwnerDAOImpl() {
+        this(new GymCustomerDAOImpl());
+    }
+
+    public GymOwnerDAOImpl(GymCustomerDAO customerDAO) {
+        this.customerDAO = customerDAO;
+    }
 
     /**
      * Creates a profile for the gym owner.
      * It checks if the gym owner's email address already exists,
      * and if not, adds the owner's details to the `User`, `OwnerInfo`,
-     * and `Registration` tables.
+     * and `Registration` tables in one transaction, so a failure never leaves a half-created profile.
      * @param gymOwner The GymOwner object containing the gym owner's details.
      * @return boolean indicating success or failure of profile creation.
      * @throws InvalidCredentialsException If the user already exists with the given email address.
@@ -28,56 +72,68 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
      */
     @Override
     public boolean createProfile(GymOwner gymOwner) throws InvalidCredentialsException, DataEntryFailedException {
-        try {
-            // Establishing database connection
-            connection = DBConnection.connect();
-
-            // Checking if the user already exists with the given email address
-            statement = connection.prepareStatement("SELECT * from Registration where EmailAddress = ?");
-            statement.setString(1, gymOwner.getOwnerEmailAddress());
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                throw new InvalidCredentialsException("User already exists with this email address");
-            }
+        String passwordHash = PasswordHasher.hash(gymOwner.getPassword());  // Only the salted hash is stored
+        try (Connection connection = DBConnection.connect()) {
+            connection.setAutoCommit(false);
+            try {
+                // Checking if the user already exists with the given email address
+                try (PreparedStatement statement = connection.prepareStatement(USER_ID_BY_EMAIL_SQL)) {
+                    statement.setString(1, gymOwner.getOwnerEmailAddress());
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (resultSet.next()) {
+                            connection.rollback();
+                            throw new InvalidCredentialsException("User already exists with this email address");
+                        }
+                    }
+                }
 
-            // Adding user profile to the database
-            System.out.println("Adding User Profile");
-            statement = connection.prepareStatement("insert into User(`Name`,`Email`,`PhoneNumber`,`Role`,`Address`) values (?,?,?,?,?)", PreparedStatement.RETURN_GENERATED_KEYS);
-            statement.setString(1, gymOwner.getOwnerName());
-            statement.setString(2, gymOwner.getOwnerEmailAddress());
-            statement.setString(3, gymOwner.getOwnerPhone());
-            statement.setString(4, "gymowner");
-            statement.setString(5, gymOwner.getOwnerAddress());
-            int rowsAffected = statement.executeUpdate();
-            int ownerId = 0;
-            if (rowsAffected > 0) {
-                // Retrieve the generated ownerId if the profile insertion is successful
-                ResultSet generatedKeys = statement.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    ownerId = generatedKeys.getInt(1);
+                // Adding user profile to the database
+                int ownerId;
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_USER_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    statement.setString(1, gymOwner.getOwnerName());
+                    statement.setString(2, gymOwner.getOwnerEmailAddress());
+                    statement.setString(3, gymOwner.getOwnerPhone());
+                    statement.setString(4, "gymowner");
+                    statement.setString(5, gymOwner.getOwnerAddress());
+                    statement.executeUpdate();
+
+                    // Retrieve the generated ownerId
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        if (!generatedKeys.next()) {
+                            connection.rollback();
+                            throw new DataEntryFailedException("Failed Adding User Details to User Database");
+                        }
+                        ownerId = generatedKeys.getInt(1);
+                    }
                 }
-            } else {
-                throw new DataEntryFailedException("Failed Adding User Details to User Database");
-            }
 
-            // Inserting gym owner information into the OwnerInfo table
-            statement = connection.prepareStatement("insert into OwnerInfo values (?,?,?,?,?,?)");
-            statement.setInt(1, ownerId);
-            statement.setString(2, gymOwner.getOwnerName());
-            statement.setString(3, gymOwner.getOwnerEmailAddress());
-            statement.setString(4, gymOwner.getOwnerAddress());
-            statement.setString(5, gymOwner.getOwnerPhone());
-            statement.setString(6, gymOwner.getPassword());
-            statement.executeUpdate();
-
-            // Inserting registration information into the Registration table
-            statement = connection.prepareStatement("insert into Registration values (?,?,?,?)");
-            statement.setInt(1, ownerId);
-            statement.setString(2, gymOwner.getOwnerEmailAddress());
-            statement.setString(3, gymOwner.getPassword());
-            statement.setString(4, "gymowner");
-            statement.executeUpdate();
-            return true;
+                // Inserting gym owner information into the OwnerInfo table
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_OWNER_SQL)) {
+                    statement.setInt(1, ownerId);
+                    statement.setString(2, gymOwner.getOwnerName());
+                    statement.setString(3, gymOwner.getOwnerEmailAddress());
+                    statement.setString(4, gymOwner.getOwnerAddress());
+                    statement.setString(5, gymOwner.getOwnerPhone());
+                    statement.setString(6, passwordHash);
+                    statement.executeUpdate();
+                }
+
+                // Inserting registration information into the Registration table
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_REGISTRATION_SQL)) {
+                    statement.setInt(1, ownerId);
+                    statement.setString(2, gymOwner.getOwnerEmailAddress());
+                    statement.setString(3, passwordHash);
+                    statement.setString(4, "gymowner");
+                    statement.executeUpdate();
+                }
+
+                connection.commit();
+                gymOwner.setOwnerId(ownerId);
+                return true;
+            } catch (SQLException se) {
+                connection.rollback();  // Never leave an orphan User row behind
+                throw se;
+            }
         } catch (SQLException se) {
             se.printStackTrace();
         } catch (DBConnectionException e) {
@@ -98,12 +154,9 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
      */
     @Override
     public boolean registerCenter(int ownerId, String centerName, String location, int slots) throws DataEntryFailedException {
-        try {
-            // Establishing database connection
-            connection = DBConnection.connect();
-
+        try (Connection connection = DBConnection.connect();
+             PreparedStatement statement = connection.prepareStatement(INSERT_REQUEST_SQL)) {
             // Inserting gym center registration request into OwnerRequest table
-            statement = connection.prepareStatement("insert into OwnerRequest(`OwnerId`,`CenterName`,`CenterLocation`,`NumOfSlots`) values (?,?,?,?)");
             statement.setInt(1, ownerId);
             statement.setString(2, centerName);
             statement.setString(3, location);
@@ -124,7 +177,8 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
 
     /**
      * Adds a new slot to a gym center.
-     * Checks if the slot already exists and inserts the slot into the `Slots` table.
+     * Checks if the slot already exists and inserts the slot into the `Slots` table together with the slot
+     * version stamp; the slot catalog is updated once this commits.
      * @param centerID The ID of the gym center.
      * @param slot The GymSlots object containing the slot details.
      * @return boolean indicating success or failure of slot addition.
@@ -138,33 +192,111 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
             throw new ResourceAlreadyExistsException("Slot already exists for the given GymCenter, and given timings.");
         }
 
-        // SQL query for adding a new slot
-        String sql = "INSERT INTO Slots(`CenterId`,`StartTime`,`EndTime`,`NumOfSeats`,`Cost`) VALUES (?,?,?,?,?)";
+        try (Connection connection = DBConnection.connect()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SLOT_SQL)) {
+                // Preparing and executing the SQL statement
+                statement.setInt(1, centerID); // Assuming slot.getSlotID() retrieves the slot ID
+                statement.setTime(2, Time.valueOf(slot.getStartTime())); // Assuming slot.getStarttime() returns LocalDateTime
+                statement.setTime(3, Time.valueOf(slot.getEndTime())); // Assuming slot.getEndTime() returns a LocalTime object
+                statement.setInt(4, slot.getTotalSeats());
+                statement.setInt(5, slot.getCost()); // Assuming gymCenter.getGymID() retrieves the gymID
 
-        try {
-            // Establishing database connection
-            connection = DBConnection.connect();
+                int rowsInserted = statement.executeUpdate();
+                if (rowsInserted <= 0) {
+                    connection.rollback();
+                    throw new DataEntryFailedException("Failed to add slot");
+                }
+            }
+            long stamped = slotCatalog.bumpVersion(connection);  // Other nodes reload their slot catalogs once this commits
+            connection.commit();
+            slotCatalog.reloadCenters(Collections.singletonList(centerID));  // Picks up the generated slot ID
+            slotCatalog.applied(stamped);
+            GymSlotSearchIndex.getInstance().refresh();  // Make the new slot searchable right away
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return false;
+    }
 
-            // Preparing and executing the SQL statement
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.setInt(1, centerID); // Assuming slot.getSlotID() retrieves the slot ID
-            statement.setTime(2, Time.valueOf(slot.getStartTime())); // Assuming slot.getStarttime() returns LocalDateTime
-            statement.setTime(3, Time.valueOf(slot.getEndTime())); // Assuming slot.getEndTime() returns a LocalTime object
-            statement.setInt(4, slot.getTotalSeats());
-            statement.setInt(5, slot.getCost()); // Assuming gymCenter.getGymID() retrieves the gymID
+    /**
+     * Adds many slots at once, e.g. when onboarding a partner chain.
+     * The existing slots of all affected centers are read with one query to reject duplicates,
+     * then every slot is inserted with one JDBC batch in a single transaction.
+     * Either all slots are added or none is. The slot catalog is updated once the batch commits.
+     * @param slots The slots to add; each carries its own center ID.
+     * @return the number of slots added, or 0 if the batch failed.
+     * @throws ResourceAlreadyExistsException If any slot already exists (or is repeated) for its center and timings.
+     * @throws DataEntryFailedException If the batch could not be inserted.
+     */
+    @Override
+    public int addSlots(List<GymSlots> slots) throws ResourceAlreadyExistsException, DataEntryFailedException {
+        if (slots.isEmpty()) {
+            return 0;
+        }
 
-            int rowsInserted = statement.executeUpdate();
-            if (rowsInserted <= 0) {
-                throw new DataEntryFailedException("Failed to add slot");
-            } else {
-                return true;
+        Set<Integer> centerIds = new HashSet<>();
+        for (GymSlots slot : slots) {
+            centerIds.add(slot.getCenterId());
+        }
+
+        try (Connection connection = DBConnection.connect()) {
+            connection.setAutoCommit(false);
+            try {
+                // Read the timings already taken at the affected centers
+                Set<String> taken = new HashSet<>();
+                try (PreparedStatement existing = connection.prepareStatement(SLOTS_OF_CENTERS_SQL
+                        + "(" + String.join(",", Collections.nCopies(centerIds.size(), "?")) + ")")) {
+                    int index = 1;
+                    for (int centerId : centerIds) {
+                        existing.setInt(index++, centerId);
+                    }
+                    try (ResultSet resultSet = existing.executeQuery()) {
+                        while (resultSet.next()) {
+                            taken.add(slotKey(resultSet.getInt("centerId"), resultSet.getTime("StartTime").toLocalTime(), resultSet.getTime("EndTime").toLocalTime()));
+                        }
+                    }
+                }
+
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_SLOT_SQL)) {
+                    for (GymSlots slot : slots) {
+                        if (!taken.add(slotKey(slot.getCenterId(), slot.getStartTime(), slot.getEndTime()))) {
+                            connection.rollback();
+                            throw new ResourceAlreadyExistsException("Slot already exists for GymCenter " + slot.getCenterId() + " at " + slot.getStartTime() + "-" + slot.getEndTime());
+                        }
+                        insert.setInt(1, slot.getCenterId());
+                        insert.setTime(2, Time.valueOf(slot.getStartTime()));
+                        insert.setTime(3, Time.valueOf(slot.getEndTime()));
+                        insert.setInt(4, slot.getTotalSeats());
+                        insert.setInt(5, slot.getCost());
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                long stamped = slotCatalog.bumpVersion(connection);  // Other nodes reload their slot catalogs once this commits
+                connection.commit();
+                slotCatalog.reloadCenters(centerIds);  // Picks up the generated slot IDs
+                slotCatalog.applied(stamped);
+                GymSlotSearchIndex.getInstance().refresh();  // Make the new slots searchable right away
+                return slots.size();
+            } catch (SQLException se) {
+                connection.rollback();
+                throw new DataEntryFailedException("Failed to add slots: " + se.getMessage(), se);
             }
         } catch (SQLException e) {
             e.printStackTrace();
         } catch (DBConnectionException e) {
             System.out.println(e);
         }
-        return false;
+        return 0;
+    }
+
+    // Identifies a slot by its center and timings
+    private static String slotKey(int centerId, LocalTime startTime, LocalTime endTime) {
+        return centerId + "|" + startTime + "|" + endTime;
     }
 
     /**
@@ -174,19 +306,16 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
      * @return boolean indicating whether the slot exists or not.
      */
     public boolean isSlotExists(int centerID, GymSlots slot) {
-        // SQL query to check if the slot already exists in the Slots table
-        String sql = "SELECT COUNT(*) AS count FROM Slots WHERE centerID = ? AND starttime = ? AND endtime = ?";
-        try {
-            connection = DBConnection.connect();
-            PreparedStatement statement = connection.prepareStatement(sql);
+        try (Connection connection = DBConnection.connect();
+             PreparedStatement statement = connection.prepareStatement(COUNT_SLOTS_SQL)) {
             statement.setInt(1, centerID);
-            statement.setTime(2, Time.valueOf(slot.getStartTime())); // Assuming slot.getStarttime() returns LocalDateTime
-            statement.setTime(3, Time.valueOf(slot.getEndTime())); //
+            statement.setTime(2, Time.valueOf(slot.getStartTime()));
+            statement.setTime(3, Time.valueOf(slot.getEndTime()));
 
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                int count = resultSet.getInt("count");
-                return count > 0;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt("SlotCount") > 0;
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -198,6 +327,9 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
 
     /**
      * Deletes a slot from the gym center by its start time.
+     * The upcoming bookings, seat counts and waitlist entries of the slot are cancelled in the same
+     * transaction as the delete and the slot version stamp; once it commits, the slot is dropped from the
+     * slot catalog and the customers are notified.
      * @param centerID The ID of the gym center.
      * @param starttime The start time of the slot to be deleted.
      * @return boolean indicating success or failure of the slot deletion.
@@ -205,24 +337,29 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
      */
     @Override
     public boolean deleteSlot(int centerID, LocalTime starttime) throws DataEntryFailedException {
-        // SQL query to delete a slot from the Slots table
-        String sql = "DELETE FROM Slots WHERE centerID = ? AND starttime = ?";
-
-        try {
-            // Establishing database connection
-            connection = DBConnection.connect();
-
-            // Preparing and executing the SQL statement
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.setInt(1, centerID);
-            statement.setTime(2, Time.valueOf(starttime));
-            int rowsAffected = statement.executeUpdate();
+        try (Connection connection = DBConnection.connect()) {
+            connection.setAutoCommit(false);
+            List<Integer> slotIds = lockSlots(connection, LOCK_SLOT_SQL, centerID, Time.valueOf(starttime));
+            Runnable afterCommit = customerDAO.cancelForDeletion(connection, slotIds,
+                    "the " + starttime + " slot of center " + centerID + " was removed");
+            try (PreparedStatement statement = connection.prepareStatement(DELETE_SLOT_SQL)) {
+                // Preparing and executing the SQL statement
+                statement.setInt(1, centerID);
+                statement.setTime(2, Time.valueOf(starttime));
+                int rowsAffected = statement.executeUpdate();
 
-            if (rowsAffected <= 0) {
-                throw new DataEntryFailedException("Failed to delete the slot");
-            } else {
-                return true;
+                if (rowsAffected <= 0) {
+                    connection.rollback();
+                    throw new DataEntryFailedException("Failed to delete the slot");
+                }
             }
+            long stamped = slotCatalog.bumpVersion(connection);  // Other nodes reload their slot catalogs once this commits
+            connection.commit();
+            slotCatalog.remove(centerID, starttime);
+            slotCatalog.applied(stamped);
+            GymSlotSearchIndex.getInstance().refresh();  // Drop the slot from search results
+            afterCommit.run();
+            return true;
         } catch (SQLException se) {
             se.printStackTrace();
         } catch (DBConnectionException e) {
@@ -232,23 +369,39 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
     }
 
     /**
-     * Deletes a gym center from the system based on its ID.
+     * Deletes a gym center from the system based on its ID, together with its slots.
+     * The upcoming bookings, seat counts and waitlist entries of the slots are cancelled in the same
+     * transaction as the deletes and the version stamps; once it commits, the caches drop the center and
+     * its slots and the customers are notified.
      * @param centerID The ID of the gym center to be deleted.
      * @return boolean indicating success or failure of the deletion.
      * @throws DataEntryFailedException If the gym center cannot be deleted.
      */
     @Override
     public boolean deleteCenter(int centerID) throws DataEntryFailedException {
-        try {
-            // SQL query to delete a gym center from the GymCenters table
-            String sql = "DELETE FROM GymCenters WHERE CenterID = ?";
-            connection = DBConnection.connect();
-            statement = connection.prepareStatement(sql);
-            statement.setInt(1, centerID);
-            int rowsAffected = statement.executeUpdate();
-            if (rowsAffected <= 0) {
-                throw new DataEntryFailedException("Failed to delete the gym center");
+        try (Connection connection = DBConnection.connect()) {
+            connection.setAutoCommit(false);
+            List<Integer> slotIds = lockSlots(connection, LOCK_SLOTS_OF_CENTER_SQL, centerID);
+            Runnable afterCommit = customerDAO.cancelForDeletion(connection, slotIds, "center " + centerID + " was removed");
+            try (PreparedStatement statement = connection.prepareStatement(DELETE_CENTER_SQL)) {
+                statement.setInt(1, centerID);
+                if (statement.executeUpdate() <= 0) {
+                    connection.rollback();
+                    throw new DataEntryFailedException("Failed to delete the gym center");
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(DELETE_SLOTS_OF_CENTER_SQL)) {
+                statement.setInt(1, centerID);
+                statement.executeUpdate();
             }
+            centerCache.bumpVersion(connection);  // Other nodes drop their cached centers once this commits
+            long stamped = slotCatalog.bumpVersion(connection);
+            connection.commit();
+            centerCache.invalidate(centerID);
+            slotCatalog.reloadCenters(Collections.singletonList(centerID));
+            slotCatalog.applied(stamped);
+            GymSlotSearchIndex.getInstance().refresh();  // Drop the center's slots from search results
+            afterCommit.run();
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -258,6 +411,62 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
         return false;
     }
 
+    // Locks the slots selected by a query and returns their IDs
+    private static List<Integer> lockSlots(Connection connection, String sql, Object... binds) throws SQLException {
+        List<Integer> slotIds = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < binds.length; i++) {
+                statement.setObject(i + 1, binds[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    slotIds.add(resultSet.getInt("slotsId"));
+                }
+            }
+        }
+        return slotIds;
+    }
+
+    /**
+     * Checks whether a gym center belongs to the given owner.
+     * @param ownerId The ID of the gym owner.
+     * @param centerId The ID of the gym center.
+     * @return true if the center exists and belongs to the owner.
+     */
+    @Override
+    public boolean ownsCenter(int ownerId, int centerId) {
+        GymCenter center = centerCache.get(centerId);
+        return center != null && center.getOwnerId() == ownerId;
+    }
+
+    /**
+     * Checks whether a slot belongs to one of the owner's gym centers.
+     * @param ownerId The ID of the gym owner.
+     * @param slotId The ID of the slot.
+     * @return true if the slot exists and its center belongs to the owner.
+     */
+    @Override
+    public boolean ownsSlot(int ownerId, int slotId) {
+        return exists(OWNS_SLOT_SQL, slotId, ownerId);
+    }
+
+    // Runs an existence query with two integer parameters
+    private boolean exists(String sql, int first, int second) {
+        try (Connection connection = DBConnection.connect();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, first);
+            statement.setInt(2, second);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return false;
+    }
+
     /**
      * Edits the profile of a gym owner.
      * Updates the owner information in the `OwnerInfo` table.
@@ -266,12 +475,9 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
      */
     @Override
     public boolean editProfile(GymOwner gymOwner) throws DataEntryFailedException {
-        try {
-            // Establishing database connection
-            connection = DBConnection.connect();
-
-            // SQL query to update the owner's profile in the OwnerInfo table
-            statement = connection.prepareStatement("UPDATE OwnerInfo SET OwnerName = ?, OwnerAddress = ?, OwnerPhone = ? WHERE OwnerId = ?");
+        try (Connection connection = DBConnection.connect();
+             PreparedStatement statement = connection.prepareStatement(UPDATE_OWNER_SQL)) {
+            // Update the owner's profile in the OwnerInfo table
             statement.setString(1, gymOwner.getOwnerName());
             statement.setString(2, gymOwner.getOwnerAddress());
             statement.setString(3, gymOwner.getOwnerPhone());
@@ -291,33 +497,48 @@ public class GymOwnerDAOImpl implements GymOwnerDAO {
     }
 
     /**
-     * Books a slot for a customer at a gym center.
-     * This function records the booking in the `SlotBookings` table.
-     * @param centerID The ID of the gym center.
-     * @param slotID The ID of the slot being booked.
-     * @param userID The ID of the user making the booking.
-     * @return boolean indicating success or failure of the booking.
-     * @throws DataEntryFailedException If the booking fails.
+     * Updates the password of a gym owner identified by email and role.
+     * The salted hash is written to both the Registration and OwnerInfo tables,
+     * and the cached login credential is dropped.
+     * @param email The email address of the gym owner.
+     * @param password The new password.
+     * @param role The role of the user.
+     * @return boolean indicating success or failure of the update.
+     * @throws InvalidCredentialsException If no user is registered with the email for this role.
      */
     @Override
-    public boolean bookSlot(int centerID, int slotID, int userID) throws DataEntryFailedException {
-        try {
-            // SQL query to book the slot for the user
-            String sql = "INSERT INTO SlotBookings(`UserId`, `CenterId`, `SlotId`) VALUES (?, ?, ?)";
-            connection = DBConnection.connect();
-            statement = connection.prepareStatement(sql);
-            statement.setInt(1, userID);
-            statement.setInt(2, centerID);
-            statement.setInt(3, slotID);
-
-            int rowsInserted = statement.executeUpdate();
-            if (rowsInserted <= 0) {
-                throw new DataEntryFailedException("Failed to book the slot");
-            } else {
-                return true;
+    public boolean updatepwd(String email, String password, String role) throws InvalidCredentialsException {
+        String passwordHash = PasswordHasher.hash(password);  // Only the salted hash is stored
+        try (Connection connection = DBConnection.connect()) {
+            // Check if the user exists with the provided email and role
+            int id;
+            try (PreparedStatement statement = connection.prepareStatement(USER_ID_SQL)) {
+                statement.setString(1, email);
+                statement.setString(2, role);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new InvalidCredentialsException("You are not registered for this role yet!!");
+                    }
+                    id = resultSet.getInt("UserId");
+                }
             }
-        } catch (SQLException se) {
-            se.printStackTrace();
+
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_REGISTRATION_PASSWORD_SQL)) {
+                statement.setString(1, passwordHash);
+                statement.setInt(2, id);
+                statement.executeUpdate();
+            }
+
+            // Also update the password in the OwnerInfo table
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_OWNER_PASSWORD_SQL)) {
+                statement.setString(1, passwordHash);
+                statement.setInt(2, id);
+                statement.executeUpdate();
+            }
+            CredentialCache.getInstance().invalidate(email, role);  // The cached hash is stale now
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
         } catch (DBConnectionException e) {
             System.out.println(e);
         }
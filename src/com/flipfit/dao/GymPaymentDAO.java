@@ -0,0 +1,32 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymPayment;
+
+import java.util.List;
+
+public interface GymPaymentDAO {
+
+    /**
+     * Stores many payments with one transaction: existing payments are looked up by idempotency key,
+     * the booking of every remaining payment is read with one query and its cost taken from the slot catalog, and the new payments and
+     * their outbox events are written with one JDBC batch each.
+     * On return every payment carries its payment ID and amount; payments that were newly written also
+     * carry the customer ID of their booking. A payment whose idempotency key was
+     * seen before gets the ID of the original payment and nothing is written for it, unless the key was used
+     * for another booking or amount, which gets the payment ID -1. A payment for an unknown booking, or one
+     * the database rejects on its own (e.g. a mode too long for its column), also gets -1 without failing
+     * the rest of the batch.
+     *
+     * @param payments the payments to store.
+     * @return the number of payments that were newly written.
+     */
+    public int savePayments(List<GymPayment> payments);
+
+    /**
+     * Looks up the payment stored under an idempotency key.
+     *
+     * @param idempotencyKey the key the payment was submitted with.
+     * @return the payment ID, or 0 if there is no payment with this key.
+     */
+    public int findByIdempotencyKey(String idempotencyKey);
+}
@@ -0,0 +1,297 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymBookingEvent;
+import com.flipfit.bean.GymPayment;
+import com.flipfit.exceptions.DBConnectionException;
+import com.flipfit.utils.DBConnection;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class GymPaymentDAOImpl implements GymPaymentDAO {
+
+    // Payments already stored under some of the submitted keys
+    private static final String PAYMENTS_BY_KEY_SQL = "SELECT PaymentId, BookingId, IdempotencyKey, Amount FROM payment WHERE IdempotencyKey IN ";
+    // Customer and slot of every booking; the cost of the slot comes from the slot catalog
+    private static final String BOOKING_SLOT_SQL = "SELECT BookingId, CustId, slotId FROM CustomerBooking WHERE BookingId IN ";
+    private static final String INSERT_PAYMENT_SQL = "INSERT INTO payment (BookingId, Mode, Amount, IdempotencyKey) VALUES (?, ?, ?, ?)";
+    private static final String PAYMENT_BY_KEY_SQL = "SELECT PaymentId FROM payment WHERE IdempotencyKey = ?";
+
+    // Records a payment-received event for every written payment, in the same transaction
+    private final GymOutboxDAO outboxDAO;
+    // Cost of the booked slots
+    private final GymSlotCatalog slotCatalog = GymSlotCatalog.getInstance();
+
+    public GymPaymentDAOImpl() {
+        this(new GymOutboxDAOImpl());
+    }
+
+    public GymPaymentDAOImpl(GymOutboxDAO outboxDAO) {
+        this.outboxDAO = outboxDAO;
+    }
+
+    /**
+     * Stores many payments with one transaction, see {@link GymPaymentDAO#savePayments(List)}.
+     * When the insert batch fails, the transaction is rolled back and the rows the driver reports as failed
+     * are looked at: a row without a key is bad in itself (e.g. a mode too long for its column) and gets the
+     * payment ID -1, a row with a key may have lost a race with another node committing the same key and is
+     * retried once, which finds the other node's payment. The remaining payments are then written again.
+     * @param payments the payments to store.
+     * @return the number of payments that were newly written.
+     */
+    @Override
+    public int savePayments(List<GymPayment> payments) {
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        List<GymPayment> remaining = new ArrayList<>(payments);
+        Map<GymPayment, Boolean> retried = new IdentityHashMap<>();
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+            while (true) {
+                try {
+                    int written = savePayments(conn, remaining);
+                    conn.commit();
+                    return written;
+                } catch (FailedRows failed) {
+                    conn.rollback();
+                    System.out.println(failed.getCause());
+                    for (GymPayment payment : failed.payments) {
+                        if (payment.getIdempotencyKey() == null || retried.put(payment, Boolean.TRUE) != null) {
+                            remaining.remove(payment);
+                            payment.setPaymentID(-1);  // Fails on its own
+                            payment.setCustomerID(0);
+                        }
+                    }
+                } catch (SQLException se) {
+                    conn.rollback();
+                    throw se;
+                }
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        for (GymPayment payment : payments) {
+            payment.setPaymentID(-1);  // Nothing of the batch was stored
+            payment.setCustomerID(0);
+        }
+        return 0;
+    }
+
+    // Runs one attempt of savePayments inside the caller's transaction
+    private int savePayments(Connection conn, List<GymPayment> payments) throws SQLException {
+        // 1. Payments already stored under the submitted keys are answered from the database
+        Set<String> keys = new LinkedHashSet<>();
+        for (GymPayment payment : payments) {
+            payment.setCustomerID(0);  // Only set again for payments this attempt writes
+            if (payment.getIdempotencyKey() != null) {
+                keys.add(payment.getIdempotencyKey());
+            }
+        }
+        Map<String, GymPayment> stored = new HashMap<>();
+        if (!keys.isEmpty()) {
+            try (PreparedStatement statement = conn.prepareStatement(PAYMENTS_BY_KEY_SQL + placeholders(keys.size()))) {
+                int index = 1;
+                for (String key : keys) {
+                    statement.setString(index++, key);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        GymPayment original = new GymPayment(resultSet.getInt("BookingId"), null, resultSet.getString("IdempotencyKey"));
+                        original.setPaymentID(resultSet.getInt("PaymentId"));
+                        original.setAmount(resultSet.getInt("Amount"));
+                        stored.put(original.getIdempotencyKey(), original);
+                    }
+                }
+            }
+        }
+
+        // 2. Everything else is new, except repeats of a key within the batch;
+        //    a key reused for another booking or amount is rejected
+        List<GymPayment> fresh = new ArrayList<>();
+        Map<String, GymPayment> firstOfKey = new HashMap<>();
+        List<GymPayment> repeats = new ArrayList<>();
+        Set<Integer> bookingIds = new LinkedHashSet<>();
+        for (GymPayment payment : payments) {
+            String key = payment.getIdempotencyKey();
+            GymPayment original = key == null ? null : stored.get(key);
+            if (original != null) {
+                if (isRetryOf(payment, original)) {
+                    payment.setPaymentID(original.getPaymentID());
+                    payment.setAmount(original.getAmount());
+                } else {
+                    payment.setPaymentID(-1);
+                }
+            } else if (key != null && firstOfKey.containsKey(key)) {
+                repeats.add(payment);
+            } else {
+                if (key != null) {
+                    firstOfKey.put(key, payment);
+                }
+                fresh.add(payment);
+                bookingIds.add(payment.getBookingID());
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        // 3. One query reads the booked slots, whose cost comes from the slot catalog
+        Map<Integer, int[]> costs = bookingCosts(conn, bookingIds);
+
+        // 4. One batch writes all payments of known bookings
+        List<GymPayment> inserted = new ArrayList<>();
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_PAYMENT_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            for (GymPayment payment : fresh) {
+                int[] booking = costs.get(payment.getBookingID());
+                if (booking == null) {
+                    payment.setPaymentID(-1);  // No such booking
+                    continue;
+                }
+                payment.setCustomerID(booking[0]);
+                payment.setAmount(booking[1]);
+                insert.setInt(1, payment.getBookingID());
+                insert.setString(2, payment.getMode());
+                insert.setInt(3, payment.getAmount());
+                insert.setString(4, payment.getIdempotencyKey());
+                insert.addBatch();
+                inserted.add(payment);
+            }
+            if (!inserted.isEmpty()) {
+                try {
+                    insert.executeBatch();
+                } catch (BatchUpdateException e) {
+                    throw new FailedRows(e, failedRows(e, inserted));
+                }
+                try (ResultSet generatedKeys = insert.getGeneratedKeys()) {
+                    for (GymPayment payment : inserted) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Payment was not created, no ID obtained");
+                        }
+                        payment.setPaymentID(generatedKeys.getInt(1));
+                    }
+                }
+            }
+        }
+
+        List<GymBookingEvent> events = new ArrayList<>(inserted.size());
+        for (GymPayment payment : inserted) {
+            events.add(new GymBookingEvent(GymOutboxDAO.PAYMENT_RECEIVED, payment.getPaymentID(), "booking=" + payment.getBookingID()
+                    + ",amount=" + payment.getAmount() + ",mode=" + payment.getMode()));
+        }
+        outboxDAO.appendAll(conn, events);
+
+        for (GymPayment repeat : repeats) {
+            GymPayment original = firstOfKey.get(repeat.getIdempotencyKey());
+            if (isRetryOf(repeat, original)) {
+                repeat.setPaymentID(original.getPaymentID());
+                repeat.setAmount(original.getAmount());
+            } else {
+                repeat.setPaymentID(-1);
+            }
+        }
+        return inserted.size();
+    }
+
+    // Whether a payment submitted under the key of another one is a retry of it: same booking and,
+    // if the payment carries an amount, the same amount
+    private static boolean isRetryOf(GymPayment payment, GymPayment original) {
+        return original.getPaymentID() > 0 && payment.getBookingID() == original.getBookingID()
+                && (payment.getAmount() == 0 || payment.getAmount() == original.getAmount());
+    }
+
+    /**
+     * Picks the rows of a failed batch from the driver's update counts. Drivers that carry on after an
+     * error mark every failed row with EXECUTE_FAILED; drivers that stop return the counts of the rows
+     * before the failed one. If the counts tell nothing, every row is treated as failed.
+     */
+    private static List<GymPayment> failedRows(BatchUpdateException e, List<GymPayment> rows) {
+        int[] counts = e.getUpdateCounts();
+        List<GymPayment> failed = new ArrayList<>();
+        if (counts == null) {
+            return rows;
+        }
+        for (int i = 0; i < counts.length && i < rows.size(); i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                failed.add(rows.get(i));
+            }
+        }
+        if (failed.isEmpty() && counts.length < rows.size()) {
+            failed.add(rows.get(counts.length));
+        }
+        return failed.isEmpty() ? rows : failed;
+    }
+
+    // The rows of a failed insert batch; the whole transaction has to be rolled back
+    private static final class FailedRows extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<GymPayment> payments;
+
+        FailedRows(BatchUpdateException cause, List<GymPayment> payments) {
+            super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+            this.payments = payments;
+        }
+    }
+
+    // Reads the customer and slot cost of every given booking, as {customerId, cost} by booking ID
+    private Map<Integer, int[]> bookingCosts(Connection conn, Collection<Integer> bookingIds) throws SQLException {
+        Map<Integer, int[]> costs = new HashMap<>();
+        try (PreparedStatement statement = conn.prepareStatement(BOOKING_SLOT_SQL + placeholders(bookingIds.size()))) {
+            int index = 1;
+            for (int bookingId : bookingIds) {
+                statement.setInt(index++, bookingId);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    GymSlotCatalog.Slot slot = slotCatalog.get(resultSet.getInt("slotId"));
+                    if (slot != null) {  // A booking of a deleted slot is treated as unknown
+                        costs.put(resultSet.getInt("BookingId"), new int[]{resultSet.getInt("CustId"), slot.cost});
+                    }
+                }
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Looks up the payment stored under an idempotency key.
+     * @param idempotencyKey the key the payment was submitted with.
+     * @return the payment ID, or 0 if there is no payment with this key.
+     */
+    @Override
+    public int findByIdempotencyKey(String idempotencyKey) {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(PAYMENT_BY_KEY_SQL)) {
+            statement.setString(1, idempotencyKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt("PaymentId") : 0;
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return 0;
+    }
+
+    // "(?,?,...)" with one placeholder per value of an IN list
+    private static String placeholders(int count) {
+        return "(" + String.join(",", Collections.nCopies(count, "?")) + ")";
+    }
+}
@@ -0,0 +1,215 @@
+package com.flipfit.dao;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * In-process copy of the remaining seats per (slot, date).
+ * Every key has its own atomic cell, so concurrent readers and writers of different slots never contend.
+ * The database stays the source of truth: entries are loaded from AvailableSeats/Slots on first read,
+ * adjusted write-through after a booking transaction commits, and periodically reconciled with the
+ * database to repair any drift (for example from bookings made by another node).
+ *
+ * A cell holds the seat count together with a version that every write-through moves. A count read from
+ * the database is only stored if the version did not move while it was read, so a load never overwrites
+ * a change it may have missed; the cell then stays unknown and is read again. A write-through to a key
+ * that is not cached leaves an unknown cell behind for the same reason. A load that lands between a
+ * commit and its write-through can still be off by that change until the next reconciliation.
+ */
+public class GymSeatInventoryCache {
+
+    private static final long RECONCILE_INTERVAL_SECONDS = 30;  // How often cached counts are re-read from the database
+
+    private static final int UNKNOWN = -1;  // Seats of a cell whose count has not been loaded
+
+    // Cells keyed by slotId (high 32 bits) and epoch day of the date (low 32 bits); a cell holds the
+    // version (high 32 bits) and the remaining seats (low 32 bits)
+    private final ConcurrentHashMap<Long, AtomicLong> seats = new ConcurrentHashMap<>();
+    private final GymSlotDAOImpl slotDAO;  // Used to load seat counts straight from the database
+    private ScheduledExecutorService reconciler;  // Started by start(), null before
+
+    /**
+     * Creates an empty inventory; nothing is loaded and no thread is started until start() is called.
+     * @param slotDAO A slot DAO without an inventory of its own, so its counts come from the database.
+     */
+    public GymSeatInventoryCache(GymSlotDAOImpl slotDAO) {
+        this.slotDAO = slotDAO;
+    }
+
+    /**
+     * Starts the background thread that warms today's inventory and then keeps reconciling it with the
+     * database. Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (reconciler != null) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-seat-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.schedule(() -> warm(new Date()), 0, TimeUnit.SECONDS);
+        reconciler.scheduleWithFixedDelay(this::reconcile, RECONCILE_INTERVAL_SECONDS, RECONCILE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the cached number of seats left, or null if the slot and date have not been loaded yet.
+     * @param slotId The ID of the slot.
+     * @param date The date of interest.
+     * @return the remaining seats, or null on a cache miss.
+     */
+    public Integer get(int slotId, Date date) {
+        AtomicLong cell = seats.get(key(slotId, date));
+        int available = cell == null ? UNKNOWN : seatsOf(cell.get());
+        return available == UNKNOWN ? null : available;
+    }
+
+    /**
+     * Remembers the state of a key before its seat count is read from the database.
+     * @param slotId The ID of the slot.
+     * @param date The date of interest.
+     * @return the state to pass to loaded() with the count that was read.
+     */
+    public Load beforeLoad(int slotId, Date date) {
+        return beforeLoad(key(slotId, date));
+    }
+
+    /**
+     * Stores a seat count read from the database unless the key was written to since beforeLoad().
+     * @param load The state returned by beforeLoad() before the count was read.
+     * @param availableSeats The seat count read from the database.
+     */
+    public void loaded(Load load, int availableSeats) {
+        if (load.cell == null) {
+            seats.putIfAbsent(load.key, new AtomicLong(pack(0, availableSeats)));
+        } else {
+            load.cell.compareAndSet(load.seen, pack(versionOf(load.seen) + 1, availableSeats));
+        }
+    }
+
+    // Called after a booking transaction has committed
+    public void onSeatTaken(int slotId, Date date) {
+        change(key(slotId, date), n -> n > 0 ? n - 1 : 0);
+    }
+
+    // Called after a cancellation transaction has committed
+    public void onSeatReleased(int slotId, Date date) {
+        change(key(slotId, date), n -> n + 1);
+    }
+
+    // Forgets a count, e.g. after it was set directly in the database; a load already running cannot store it
+    public void invalidate(int slotId, Date date) {
+        seats.put(key(slotId, date), new AtomicLong(pack(0, UNKNOWN)));
+    }
+
+    // Drops the cached entries of every date of a slot, once the slot has been deleted
+    public void invalidateSlot(int slotId) {
+        seats.keySet().removeIf(key -> (int) (key >>> 32) == slotId);
+    }
+
+    /**
+     * Loads the seat counts of every slot for a date into the cache.
+     * @param date The date to warm.
+     */
+    public void warm(Date date) {
+        long epochDay = epochDay(date);
+        Map<Integer, Load> loads = new HashMap<>();
+        for (Long key : seats.keySet()) {
+            if ((int) (key & 0xffffffffL) == (int) epochDay) {
+                loads.put((int) (key >>> 32), beforeLoad(key));
+            }
+        }
+        Map<Integer, Integer> loaded = slotDAO.loadAllAvailableSeats(date);
+        for (Map.Entry<Integer, Integer> entry : loaded.entrySet()) {
+            Load load = loads.get(entry.getKey());
+            loaded(load != null ? load : new Load(key(entry.getKey(), date), null, 0), entry.getValue());
+        }
+    }
+
+    /**
+     * Re-reads every cached key from the database (one query per cached date) and overwrites
+     * the cached counts that no write-through changed meanwhile. Entries for dates in the past are dropped.
+     */
+    public void reconcile() {
+        long today = LocalDate.now().toEpochDay();
+        Map<Long, Map<Integer, Load>> loadsByDay = new HashMap<>();
+        for (Long key : seats.keySet()) {
+            long epochDay = (int) (key & 0xffffffffL);
+            if (epochDay < today) {
+                seats.remove(key);
+            } else {
+                loadsByDay.computeIfAbsent(epochDay, d -> new HashMap<>()).put((int) (key >>> 32), beforeLoad(key));
+            }
+        }
+
+        for (Map.Entry<Long, Map<Integer, Load>> day : loadsByDay.entrySet()) {
+            Date date = java.sql.Date.valueOf(LocalDate.ofEpochDay(day.getKey()));
+            Map<Integer, Load> loads = day.getValue();
+            Map<Integer, Integer> fresh = slotDAO.loadNumAvailableSeats(new ArrayList<>(loads.keySet()), date);
+            for (Map.Entry<Integer, Integer> entry : fresh.entrySet()) {
+                Load load = loads.get(entry.getKey());
+                if (load.cell != null) {
+                    loaded(load, entry.getValue());
+                }
+            }
+        }
+    }
+
+    // The state of a key before a load: its cell and the value it held, or no cell if the key was not cached
+    public static final class Load {
+        private final long key;
+        private final AtomicLong cell;
+        private final long seen;
+
+        private Load(long key, AtomicLong cell, long seen) {
+            this.key = key;
+            this.cell = cell;
+            this.seen = seen;
+        }
+    }
+
+    private Load beforeLoad(long key) {
+        AtomicLong cell = seats.get(key);
+        return new Load(key, cell, cell == null ? 0 : cell.get());
+    }
+
+    // Applies a write-through and moves the version; an unknown count stays unknown
+    private void change(long key, IntUnaryOperator seatChange) {
+        AtomicLong cell = seats.computeIfAbsent(key, k -> new AtomicLong(pack(0, UNKNOWN)));
+        cell.updateAndGet(value -> {
+            int available = seatsOf(value);
+            return pack(versionOf(value) + 1, available == UNKNOWN ? UNKNOWN : seatChange.applyAsInt(available));
+        });
+    }
+
+    private static long pack(int version, int available) {
+        return ((long) version << 32) | (available & 0xffffffffL);
+    }
+
+    private static int versionOf(long value) {
+        return (int) (value >>> 32);
+    }
+
+    private static int seatsOf(long value) {
+        return (int) value;
+    }
+
+    // Packs slot ID and calendar day into one map key
+    private static long key(int slotId, Date date) {
+        return ((long) slotId << 32) | (epochDay(date) & 0xffffffffL);
+    }
+
+    private static long epochDay(Date date) {
+        return new java.sql.Date(date.getTime()).toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,52 @@
+package com.flipfit.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+public interface GymSeatReservationDAO {
+
+    /**
+     * Atomically takes one seat of a slot on a date.
+     * The AvailableSeats row is created from the slot's capacity the first time the date is booked.
+     * Runs on the caller's connection so it joins the caller's transaction.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param slotId the ID of the slot.
+     * @param date the date of the booking.
+     * @return true if a seat was taken, false if the slot is sold out or does not exist.
+     * @throws SQLException if the database update fails.
+     */
+    public boolean reserveSeat(Connection conn, int slotId, Date date) throws SQLException;
+
+    /**
+     * Gives one seat of a slot on a date back.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param slotId the ID of the slot.
+     * @param date the date of the booking.
+     * @throws SQLException if the database update fails.
+     */
+    public void releaseSeat(Connection conn, int slotId, Date date) throws SQLException;
+
+    /**
+     * Gives many seats of several slots on one date back with one batched update.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param seatsBySlot the number of seats to give back, keyed by slot ID.
+     * @param date the date of the bookings.
+     * @throws SQLException if the database update fails.
+     */
+    public void releaseSeats(Connection conn, Map<Integer, Integer> seatsBySlot, Date date) throws SQLException;
+
+    /**
+     * Removes the seat counts of every date of some slots, e.g. when the slots are deleted.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param slotIds the IDs of the slots.
+     * @throws SQLException if the database update fails.
+     */
+    public void deleteSeats(Connection conn, Collection<Integer> slotIds) throws SQLException;
+}
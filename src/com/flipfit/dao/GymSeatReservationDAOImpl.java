@@ -0,0 +1,127 @@
+package com.flipfit.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+public class GymSeatReservationDAOImpl implements GymSeatReservationDAO {
+
+    // Takes a seat only while one is left; the row lock held by the update serialises concurrent bookings
+    private static final String TAKE_SEAT_SQL =
+            "UPDATE AvailableSeats SET NumSeats = NumSeats - 1 WHERE slotId = ? AND Date = ? AND NumSeats > 0";
+    // Creates the seat row for a date with the slot capacity; a row created concurrently is left untouched
+    private static final String CREATE_SEATS_SQL =
+            "INSERT INTO AvailableSeats(`slotId`,`Date`,`NumSeats`) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE NumSeats = NumSeats";
+    // Gives a seat back
+    private static final String RETURN_SEAT_SQL =
+            "UPDATE AvailableSeats SET NumSeats = NumSeats + 1 WHERE slotId = ? AND Date = ?";
+    // Gives several seats back at once
+    private static final String RETURN_SEATS_SQL =
+            "UPDATE AvailableSeats SET NumSeats = NumSeats + ? WHERE slotId = ? AND Date = ?";
+    // Drops the seat rows of deleted slots
+    private static final String DELETE_SEATS_SQL = "DELETE FROM AvailableSeats WHERE slotId IN ";
+
+    // Capacity of the slots whose seat row has to be created
+    private final GymSlotCatalog slotCatalog = GymSlotCatalog.getInstance();
+
+    /**
+     * Takes one seat with a conditional update, so two concurrent bookings can never both take the last seat.
+     * Only when the date has not been booked before is the AvailableSeats row created and the update retried,
+     * which keeps the common path to a single statement. The capacity of the new row comes from the slot catalog.
+     * @param conn The connection (and transaction) to use.
+     * @param slotId The ID of the slot.
+     * @param date The date of the booking.
+     * @return true if a seat was taken, false if the slot is sold out or does not exist.
+     */
+    @Override
+    public boolean reserveSeat(Connection conn, int slotId, Date date) throws SQLException {
+        java.sql.Date sqlDate = new java.sql.Date(date.getTime());
+        if (takeSeat(conn, slotId, sqlDate)) {
+            return true;
+        }
+
+        // Either the date has no seat row yet or the slot is sold out; create the row if it is missing
+        GymSlotCatalog.Slot slot = slotCatalog.get(slotId);
+        if (slot == null) {
+            return false;  // No such slot
+        }
+        try (PreparedStatement statement = conn.prepareStatement(CREATE_SEATS_SQL)) {
+            statement.setInt(1, slotId);
+            statement.setDate(2, sqlDate);
+            statement.setInt(3, slot.seats);
+            statement.executeUpdate();
+        }
+        return takeSeat(conn, slotId, sqlDate);
+    }
+
+    /**
+     * Gives one seat back to the slot on the given date.
+     * @param conn The connection (and transaction) to use.
+     * @param slotId The ID of the slot.
+     * @param date The date of the booking.
+     */
+    @Override
+    public void releaseSeat(Connection conn, int slotId, Date date) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(RETURN_SEAT_SQL)) {
+            statement.setInt(1, slotId);
+            statement.setDate(2, new java.sql.Date(date.getTime()));
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Gives seats of several slots back on the given date, one batched update for all slots.
+     * @param conn The connection (and transaction) to use.
+     * @param seatsBySlot The number of seats to give back, keyed by slot ID.
+     * @param date The date of the bookings.
+     */
+    @Override
+    public void releaseSeats(Connection conn, Map<Integer, Integer> seatsBySlot, Date date) throws SQLException {
+        if (seatsBySlot.isEmpty()) {
+            return;
+        }
+        java.sql.Date sqlDate = new java.sql.Date(date.getTime());
+        try (PreparedStatement statement = conn.prepareStatement(RETURN_SEATS_SQL)) {
+            for (Map.Entry<Integer, Integer> entry : seatsBySlot.entrySet()) {
+                statement.setInt(1, entry.getValue());
+                statement.setInt(2, entry.getKey());
+                statement.setDate(3, sqlDate);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Removes the seat rows of every date of some slots with one delete.
+     * @param conn The connection (and transaction) to use.
+     * @param slotIds The IDs of the slots.
+     */
+    @Override
+    public void deleteSeats(Connection conn, Collection<Integer> slotIds) throws SQLException {
+        if (slotIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = conn.prepareStatement(DELETE_SEATS_SQL
+                + "(" + String.join(",", Collections.nCopies(slotIds.size(), "?")) + ")")) {
+            int index = 1;
+            for (int slotId : slotIds) {
+                statement.setInt(index++, slotId);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    // Runs the conditional decrement; returns true if a seat was taken
+    private boolean takeSeat(Connection conn, int slotId, java.sql.Date date) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(TAKE_SEAT_SQL)) {
+            statement.setInt(1, slotId);
+            statement.setDate(2, date);
+            return statement.executeUpdate() > 0;
+        }
+    }
+}
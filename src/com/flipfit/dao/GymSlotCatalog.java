@@ -0,0 +1,405 @@
+package com.flipfit.dao;
+
+import com.flipfit.exceptions.DBConnectionException;
+import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.IntObjectMap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory catalog of every slot definition (center, start and end time, seats and cost), indexed by
+ * slot ID and by center ID in int-keyed maps. Slots change far less often than they are read, so the
+ * booking and payment paths take the cost and capacity of a slot from here instead of re-reading Slots.
+ *
+ * Readers use an immutable snapshot published through a volatile field and never lock. A change builds
+ * a new snapshot: the owner write paths update it write-through once their transaction has committed,
+ * and a slot or center that is not in the catalog is read through from the database. The write paths
+ * also bump the "Slots" version in the cache_version table; every node polls that version in the
+ * background and reloads the catalog when another node changed the slots.
+ */
+public class GymSlotCatalog {
+
+    private static final long CHECK_SECONDS = Long.getLong("flipfit.slot.catalog.check.seconds", 5);  // How often the version is polled
+
+    private static final String VERSION_NAME = "Slots";  // Row of cache_version stamped by the slot write paths
+    private static final String SLOT_COLUMNS = "SELECT slotsId, centerId, StartTime, EndTime, NumOfSeats, Cost FROM Slots";
+    private static final String ALL_SLOTS_SQL = SLOT_COLUMNS;
+    private static final String SLOTS_OF_CENTERS_SQL = SLOT_COLUMNS + " WHERE centerId IN ";
+    private static final String CENTER_OF_SLOT_SQL = "SELECT centerId FROM Slots WHERE slotsId = ?";
+    private static final String VERSION_SQL = "SELECT Version FROM cache_version WHERE Name = ?";
+    private static final String BUMP_VERSION_SQL = "UPDATE cache_version SET Version = Version + 1 WHERE Name = ?";
+
+    private static final GymSlotCatalog INSTANCE = new GymSlotCatalog();
+
+    // One slot definition; never changed once created, so readers need no lock
+    static final class Slot {
+        final int slotId;
+        final int centerId;
+        final int startSecond;  // Start time as second of the day
+        final int endSecond;  // End time as second of the day
+        final int seats;  // Total seats of the slot
+        final int cost;
+
+        Slot(int slotId, int centerId, LocalTime startTime, LocalTime endTime, int seats, int cost) {
+            this.slotId = slotId;
+            this.centerId = centerId;
+            this.startSecond = startTime.toSecondOfDay();
+            this.endSecond = endTime.toSecondOfDay();
+            this.seats = seats;
+            this.cost = cost;
+        }
+
+        LocalTime startTime() {
+            return LocalTime.ofSecondOfDay(startSecond);
+        }
+
+        LocalTime endTime() {
+            return LocalTime.ofSecondOfDay(endSecond);
+        }
+    }
+
+    // Orders the slots of a center the way they are listed
+    private static final Comparator<Slot> BY_START_TIME = Comparator.<Slot>comparingInt(s -> s.startSecond).thenComparingInt(s -> s.slotId);
+
+    // Both indexes of one state of the catalog; never changed once published
+    private static final class Snapshot {
+        final IntObjectMap<Slot> bySlot;
+        final IntObjectMap<Slot[]> byCenter;  // Slots of every center ordered by start time
+
+        Snapshot(IntObjectMap<Slot> bySlot, IntObjectMap<Slot[]> byCenter) {
+            this.bySlot = bySlot;
+            this.byCenter = byCenter;
+        }
+    }
+
+    private volatile Snapshot snapshot;  // Null until loaded
+    private volatile long version = -1;  // Version of cache_version last seen, -1 before the first check
+
+    // Catalog statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    private GymSlotCatalog() {
+        // Background thread that picks up slot changes made by other nodes
+        ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-slot-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkVersion, CHECK_SECONDS, CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Returns the shared catalog
+    public static GymSlotCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a slot, reading its center's slots from the database if the slot is not in the catalog.
+     * @param slotId The ID of the slot.
+     * @return the slot, or null if it does not exist.
+     */
+    Slot get(int slotId) {
+        Slot slot = loaded().bySlot.get(slotId);
+        if (slot != null) {
+            hits.increment();
+            return slot;
+        }
+        misses.increment();
+        int centerId = centerOf(slotId);
+        if (centerId < 0) {
+            return null;
+        }
+        reloadCenters(Collections.singletonList(centerId));
+        Snapshot current = snapshot;
+        return current == null ? null : current.bySlot.get(slotId);
+    }
+
+    /**
+     * Returns the slots of a center ordered by start time, reading them from the database if the center
+     * has no slots in the catalog.
+     * @param centerId The ID of the gym center.
+     * @return the slots of the center, empty if it has none.
+     */
+    List<Slot> ofCenter(int centerId) {
+        Slot[] slots = loaded().byCenter.get(centerId);
+        if (slots == null) {
+            misses.increment();
+            reloadCenters(Collections.singletonList(centerId));
+            Snapshot current = snapshot;
+            slots = current == null ? null : current.byCenter.get(centerId);
+            if (slots == null) {
+                return Collections.emptyList();
+            }
+        } else {
+            hits.increment();
+        }
+        return Collections.unmodifiableList(Arrays.asList(slots));
+    }
+
+    /**
+     * Replaces the slots of some centers with their rows in the database; called once a transaction that
+     * added slots has committed, so the generated slot IDs are picked up.
+     * @param centerIds The IDs of the centers whose slots changed.
+     */
+    public synchronized void reloadCenters(Collection<Integer> centerIds) {
+        if (centerIds.isEmpty() || snapshot == null) {
+            return;  // Nothing loaded yet; the first read loads everything
+        }
+        List<Slot> rows;
+        String sql = SLOTS_OF_CENTERS_SQL + "(" + String.join(",", Collections.nCopies(centerIds.size(), "?")) + ")";
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (int centerId : centerIds) {
+                statement.setInt(index++, centerId);
+            }
+            rows = readSlots(statement);
+        } catch (SQLException se) {
+            se.printStackTrace();
+            return;
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+            return;
+        }
+
+        Snapshot current = snapshot;
+        if (rows.isEmpty() && !containsAny(current, centerIds)) {
+            return;  // Centers without slots; nothing to change
+        }
+        IntObjectMap<Slot> bySlot = new IntObjectMap<>(current.bySlot);
+        IntObjectMap<Slot[]> byCenter = new IntObjectMap<>(current.byCenter);
+        for (int centerId : centerIds) {
+            Slot[] old = byCenter.remove(centerId);
+            if (old != null) {
+                for (Slot slot : old) {
+                    bySlot.remove(slot.slotId);
+                }
+            }
+        }
+        add(bySlot, byCenter, rows);
+        snapshot = new Snapshot(bySlot, byCenter);
+    }
+
+    /**
+     * Drops the slot of a center that starts at the given time; called once its delete has committed.
+     * @param centerId The ID of the gym center.
+     * @param startTime The start time of the deleted slot.
+     */
+    public synchronized void remove(int centerId, LocalTime startTime) {
+        Snapshot current = snapshot;
+        Slot[] slots = current == null ? null : current.byCenter.get(centerId);
+        if (slots == null) {
+            return;
+        }
+        int startSecond = startTime.toSecondOfDay();
+        List<Slot> kept = new ArrayList<>(slots.length);
+        IntObjectMap<Slot> bySlot = new IntObjectMap<>(current.bySlot);
+        for (Slot slot : slots) {
+            if (slot.startSecond == startSecond) {
+                bySlot.remove(slot.slotId);
+            } else {
+                kept.add(slot);
+            }
+        }
+        IntObjectMap<Slot[]> byCenter = new IntObjectMap<>(current.byCenter);
+        if (kept.isEmpty()) {
+            byCenter.remove(centerId);
+        } else {
+            byCenter.put(centerId, kept.toArray(new Slot[0]));
+        }
+        snapshot = new Snapshot(bySlot, byCenter);
+    }
+
+    /**
+     * Reads every slot from the database and replaces the catalog.
+     */
+    public synchronized void reload() {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(ALL_SLOTS_SQL)) {
+            long loadedVersion = readVersion(conn);  // Read first, so a change made during the load is reloaded again
+            List<Slot> rows = readSlots(statement);
+            IntObjectMap<Slot> bySlot = new IntObjectMap<>(rows.size());
+            IntObjectMap<Slot[]> byCenter = new IntObjectMap<>();
+            add(bySlot, byCenter, rows);
+            snapshot = new Snapshot(bySlot, byCenter);
+            version = loadedVersion;
+            reloads.increment();
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * Bumps the slot version inside the caller's transaction, so other nodes reload their catalogs once it commits.
+     * @param conn The connection of the transaction that changes Slots.
+     * @return the new version.
+     * @throws SQLException if the version cannot be updated.
+     */
+    public long bumpVersion(Connection conn) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(BUMP_VERSION_SQL)) {
+            statement.setString(1, VERSION_NAME);
+            statement.executeUpdate();
+        }
+        return readVersion(conn);
+    }
+
+    /**
+     * Records that this node's catalog already reflects a version it stamped itself, so the next check does
+     * not reload the catalog for it. Call after the write-through update of a committed change.
+     * @param stamped The version returned by bumpVersion.
+     */
+    public synchronized void applied(long stamped) {
+        if (version == stamped - 1) {
+            version = stamped;  // No other node changed the slots in between
+        }
+    }
+
+    /**
+     * Reads the slot version and reloads the catalog if another node changed the slots since the last check.
+     * Runs periodically in the background; call it to pick up such changes right away.
+     */
+    public void checkVersion() {
+        try (Connection conn = DBConnection.connect()) {
+            long current = readVersion(conn);
+            synchronized (this) {
+                if (version != -1 && current != version && snapshot != null) {
+                    reload();
+                } else {
+                    version = current;
+                }
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+    }
+
+    // Getter for the number of lookups served from memory
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // Getter for the number of lookups that went to the database
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Getter for the number of full reloads, the first load included
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    // Getter for the number of slots in the catalog
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.bySlot.size();
+    }
+
+    // Returns the current snapshot, loading the catalog on first use
+    private Snapshot loaded() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+            if (current == null) {
+                return new Snapshot(new IntObjectMap<>(), new IntObjectMap<>());  // The database could not be read
+            }
+        }
+        return current;
+    }
+
+    // Whether any of the centers has slots in the snapshot
+    private static boolean containsAny(Snapshot snapshot, Collection<Integer> centerIds) {
+        for (int centerId : centerIds) {
+            if (snapshot.byCenter.containsKey(centerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Adds slots to both indexes, keeping the slots of every center ordered by start time
+    private static void add(IntObjectMap<Slot> bySlot, IntObjectMap<Slot[]> byCenter, List<Slot> rows) {
+        IntObjectMap<List<Slot>> grouped = new IntObjectMap<>();
+        for (Slot slot : rows) {
+            bySlot.put(slot.slotId, slot);
+            List<Slot> slots = grouped.get(slot.centerId);
+            if (slots == null) {
+                slots = new ArrayList<>();
+                grouped.put(slot.centerId, slots);
+            }
+            slots.add(slot);
+        }
+        grouped.forEach((centerId, slots) -> {
+            slots.sort(BY_START_TIME);
+            byCenter.put(centerId, slots.toArray(new Slot[0]));
+        });
+    }
+
+    // Returns the center of a slot in the database, or -1 if the slot does not exist
+    private static int centerOf(int slotId) {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(CENTER_OF_SLOT_SQL)) {
+            statement.setInt(1, slotId);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getInt("centerId") : -1;
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return -1;
+    }
+
+    private static List<Slot> readSlots(PreparedStatement statement) throws SQLException {
+        List<Slot> rows = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                Time start = rs.getTime("StartTime");
+                Time end = rs.getTime("EndTime");
+                rows.add(new Slot(rs.getInt("slotsId"), rs.getInt("centerId"), start.toLocalTime(), end.toLocalTime(),
+                        rs.getInt("NumOfSeats"), rs.getInt("Cost")));
+            }
+        }
+        return rows;
+    }
+
+    private static long readVersion(Connection conn) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(VERSION_SQL)) {
+            statement.setString(1, VERSION_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong("Version") : 0;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GymSlotCatalog{size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", reloads=" + getReloads() + "}";
+    }
+}
@@ -1,7 +1,19 @@
 package com.flipfit.dao;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 public interface GymSlotDAO {
     public int getNumAvailableSeats(int slotId, Date date, int TotalSeats);
+
+    // Returns the remaining seats of every given slot on the given date in one query, keyed by slotId.
+    // Slots that have no AvailableSeats row for the date yet report their full capacity.
+    public Map<Integer, Integer> getNumAvailableSeats(List<Integer> slotIds, Date date);
+
+    // Returns the total seats (NumOfSeats) of every given slot, keyed by slotId.
+    public Map<Integer, Integer> getCapacities(List<Integer> slotIds);
+
+    // Overwrites the remaining seats of a slot on a date, e.g. when repairing counts from the event log.
+    public boolean setNumAvailableSeats(int slotId, Date date, int seats);
 }
@@ -7,14 +7,37 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class GymSlotDAOImpl implements GymSlotDAO {
-    private Connection conn = null;  // Connection object for interacting with the database
-    private PreparedStatement statement = null;  // PreparedStatement object for executing SQL queries
+
+    // Seats left of one slot on one date
+    private static final String SEATS_OF_SLOT_SQL = "SELECT NumSeats FROM AvailableSeats WHERE slotId = ? AND Date = ?";
+    // Seat counts of slots joined with their AvailableSeats row for one date
+    private static final String SEATS_SQL = "SELECT s.slotsId, COALESCE(a.NumSeats, s.NumOfSeats) AS AvailableSeats "
+            + "FROM Slots s LEFT JOIN AvailableSeats a ON a.slotId = s.slotsId AND a.Date = ? ";
+    // Writes the seats left of one slot on one date, creating the row if the date was never booked
+    private static final String SET_SEATS_SQL = "INSERT INTO AvailableSeats(`slotId`,`Date`,`NumSeats`) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE NumSeats = VALUES(NumSeats)";
+
+    private final GymSeatInventoryCache inventory;  // In-memory seat counts, null to always read the database
+
+    public GymSlotDAOImpl() {
+        this(null);
+    }
+
+    public GymSlotDAOImpl(GymSeatInventoryCache inventory) {
+        this.inventory = inventory;
+    }
 
     /**
      * Retrieves the number of available seats for a given slot on a specific date.
+     * The count is served from the in-memory seat inventory; the database is only read on a cache miss.
      * If no available seats are found in the database, it returns the total number of seats.
      * @param slotId The ID of the slot.
      * @param date The date for which the seat availability is being checked.
@@ -23,25 +46,30 @@ public class GymSlotDAOImpl implements GymSlotDAO {
      */
     @Override
     public int getNumAvailableSeats(int slotId, Date date, int TotalSeats) {
-        int NumSeatsAvailable = 0;  // Variable to hold the number of available seats
+        Integer cached = inventory == null ? null : inventory.get(slotId, date);
+        if (cached != null) {
+            return cached;  // Served from memory
+        }
 
-        try {
-            // Establishing a connection to the database
-            conn = DBConnection.connect();
+        int NumSeatsAvailable = 0;  // Variable to hold the number of available seats
+        GymSeatInventoryCache.Load load = inventory == null ? null : inventory.beforeLoad(slotId, date);
 
-            // SQL query to fetch the available seats for the given slotId and date
-            statement = conn.prepareStatement("select * from AvailableSeats where slotId = ? and Date = ?");
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(SEATS_OF_SLOT_SQL)) {
             statement.setInt(1, slotId);  // Setting the slotId in the query
             statement.setDate(2, new java.sql.Date(date.getTime()));  // Setting the date in the query
 
             // Executing the query and getting the result
-            ResultSet resultSet1 = statement.executeQuery();
-
-            // If a result is found, fetch the available seats, else assume all seats are available
-            if(resultSet1.next()) {
-                NumSeatsAvailable = resultSet1.getInt(3);  // Retrieve the available seats from the result set
-            } else {
-                NumSeatsAvailable = TotalSeats;  // If no result found, all seats are available
+            try (ResultSet resultSet1 = statement.executeQuery()) {
+                // If a result is found, fetch the available seats, else assume all seats are available
+                if (resultSet1.next()) {
+                    NumSeatsAvailable = resultSet1.getInt("NumSeats");  // Retrieve the available seats from the result set
+                } else {
+                    NumSeatsAvailable = TotalSeats;  // If no result found, all seats are available
+                }
+            }
+            if (load != null) {
+                inventory.loaded(load, NumSeatsAvailable);  // Remember the count for later reads
             }
         } catch (SQLException e) {
             // Catch and print any SQL exceptions
@@ -54,4 +82,140 @@ public class GymSlotDAOImpl implements GymSlotDAO {
         // Return the number of available seats
         return NumSeatsAvailable;
     }
+
+    /**
+     * Retrieves the number of available seats for many slots on a specific date.
+     * Counts already in the in-memory seat inventory are served from there; all remaining slots
+     * are resolved with a single query and added to the inventory.
+     * @param slotIds The IDs of the slots.
+     * @param date The date for which the seat availability is being checked.
+     * @return A map from slot ID to the number of available seats.
+     */
+    @Override
+    public Map<Integer, Integer> getNumAvailableSeats(List<Integer> slotIds, Date date) {
+        Map<Integer, Integer> availableSeats = new HashMap<>();  // Map to hold the available seats per slot
+        List<Integer> misses = new ArrayList<>();  // Slots that still have to be read from the database
+        Map<Integer, GymSeatInventoryCache.Load> loads = new HashMap<>();  // Their inventory state before the read
+
+        for (int slotId : slotIds) {
+            Integer cached = inventory == null ? null : inventory.get(slotId, date);
+            if (cached != null) {
+                availableSeats.put(slotId, cached);
+            } else {
+                misses.add(slotId);
+                if (inventory != null) {
+                    loads.put(slotId, inventory.beforeLoad(slotId, date));
+                }
+            }
+        }
+
+        Map<Integer, Integer> loaded = loadNumAvailableSeats(misses, date);
+        for (Map.Entry<Integer, Integer> entry : loaded.entrySet()) {
+            if (inventory != null) {
+                inventory.loaded(loads.get(entry.getKey()), entry.getValue());
+            }
+            availableSeats.put(entry.getKey(), entry.getValue());
+        }
+
+        // Return the available seats of all requested slots
+        return availableSeats;
+    }
+
+    /**
+     * Reads the number of available seats for many slots on a specific date with a single query,
+     * bypassing the in-memory inventory.
+     * Slots without an AvailableSeats row for the date have not been booked yet and report their total seats.
+     * @param slotIds The IDs of the slots.
+     * @param date The date for which the seat availability is being checked.
+     * @return A map from slot ID to the number of available seats.
+     */
+    Map<Integer, Integer> loadNumAvailableSeats(List<Integer> slotIds, Date date) {
+        if (slotIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        // One placeholder per slot ID in the IN list
+        String sql = SEATS_SQL + "WHERE s.slotsId IN (" + String.join(",", Collections.nCopies(slotIds.size(), "?")) + ")";
+        return querySeats(sql, slotIds, date);
+    }
+
+    /**
+     * Reads the number of available seats of every slot on a specific date, bypassing the in-memory inventory.
+     * @param date The date for which the seat availability is being checked.
+     * @return A map from slot ID to the number of available seats.
+     */
+    Map<Integer, Integer> loadAllAvailableSeats(Date date) {
+        return querySeats(SEATS_SQL, Collections.emptyList(), date);
+    }
+
+    /**
+     * Retrieves the total number of seats of many slots from the slot catalog.
+     * @param slotIds The IDs of the slots.
+     * @return A map from slot ID to the total number of seats; unknown slots are left out.
+     */
+    @Override
+    public Map<Integer, Integer> getCapacities(List<Integer> slotIds) {
+        Map<Integer, Integer> capacities = new HashMap<>();
+        GymSlotCatalog slotCatalog = GymSlotCatalog.getInstance();
+        for (int slotId : slotIds) {
+            GymSlotCatalog.Slot slot = slotCatalog.get(slotId);
+            if (slot != null) {
+                capacities.put(slotId, slot.seats);
+            }
+        }
+        return capacities;
+    }
+
+    /**
+     * Overwrites the number of available seats of a slot on a specific date and drops the count from
+     * the in-memory seat inventory, so the next read sees the new value.
+     * @param slotId The ID of the slot.
+     * @param date The date of the seats.
+     * @param seats The number of seats left.
+     * @return true if the count was written.
+     */
+    @Override
+    public boolean setNumAvailableSeats(int slotId, Date date, int seats) {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(SET_SEATS_SQL)) {
+            statement.setInt(1, slotId);
+            statement.setDate(2, new java.sql.Date(date.getTime()));
+            statement.setInt(3, seats);
+            statement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        } finally {
+            if (inventory != null) {
+                inventory.invalidate(slotId, date);
+            }
+        }
+        return false;
+    }
+
+    // Runs a seat query with the date as first parameter followed by the given slot IDs
+    private Map<Integer, Integer> querySeats(String sql, List<Integer> slotIds, Date date) {
+        Map<Integer, Integer> availableSeats = new HashMap<>();
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setDate(1, new java.sql.Date(date.getTime()));  // Setting the date in the join condition
+            for (int i = 0; i < slotIds.size(); i++) {
+                statement.setInt(i + 2, slotIds.get(i));  // Setting every slotId in the IN list
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    availableSeats.put(resultSet.getInt("slotsId"), resultSet.getInt("AvailableSeats"));
+                }
+            }
+        } catch (SQLException e) {
+            // Catch and print any SQL exceptions
+            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            // Catch and print any DB connection exceptions
+            System.out.println(e);
+        }
+        return availableSeats;
+    }
 }
@@ -0,0 +1,198 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymSlotAvailability;
+import com.flipfit.exceptions.DBConnectionException;
+import com.flipfit.utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process index of every slot by center location and start time, used to search slots across centers.
+ * For every location (compared case-insensitively) the slots are kept in a sorted map keyed by start
+ * time and slot ID, so the slots of a time-of-day window are one range lookup.
+ *
+ * The index is refreshed incrementally: slots with a higher ID than any indexed slot are added with one
+ * query on the primary key, and only when the number of slots in the database no longer matches the index
+ * (a slot or center was deleted) is the index rebuilt. Owners' changes refresh it right away; changes by
+ * other nodes are picked up by a background refresh every flipfit.search.refresh.seconds.
+ */
+public class GymSlotSearchIndex {
+
+    private static final long REFRESH_INTERVAL_SECONDS = Long.getLong("flipfit.search.refresh.seconds", 30);  // Background refresh period
+
+    // Slots of existing centers with what a search result shows
+    private static final String SLOTS_SQL = "SELECT s.slotsId, s.centerId, s.StartTime, s.EndTime, s.Cost, c.CenterName, c.Location "
+            + "FROM Slots s JOIN GymCenters c ON c.centerId = s.centerId ";
+    private static final String NEW_SLOTS_SQL = SLOTS_SQL + "WHERE s.slotsId > ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) AS SlotCount, COALESCE(MAX(s.slotsId), 0) AS MaxSlotId "
+            + "FROM Slots s JOIN GymCenters c ON c.centerId = s.centerId";
+
+    private static final GymSlotSearchIndex INSTANCE = new GymSlotSearchIndex();
+
+    // One indexed slot; never changed once indexed, so readers need no lock
+    static final class Entry {
+        final int slotId;
+        final int centerId;
+        final String centerName;
+        final String location;
+        final LocalTime startTime;
+        final LocalTime endTime;
+        final int cost;
+
+        Entry(int slotId, int centerId, String centerName, String location, LocalTime startTime, LocalTime endTime, int cost) {
+            this.slotId = slotId;
+            this.centerId = centerId;
+            this.centerName = centerName;
+            this.location = location;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.cost = cost;
+        }
+
+        // The search result of this slot on a date
+        GymSlotAvailability on(LocalDate date, int availableSeats) {
+            return new GymSlotAvailability(slotId, centerId, centerName, location, java.sql.Date.valueOf(date),
+                    startTime, endTime, cost, availableSeats);
+        }
+    }
+
+    // Orders entries the way search results are listed
+    static final Comparator<Entry> BY_START_TIME = Comparator.<Entry, LocalTime>comparing(e -> e.startTime).thenComparingInt(e -> e.slotId);
+
+    // Slots by lower-case location, each sorted by start time (high 32 bits of the key) and slot ID (low 32 bits)
+    private volatile Map<String, ConcurrentSkipListMap<Long, Entry>> byLocation = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile int maxSlotId;
+    private volatile boolean loaded;
+
+    private GymSlotSearchIndex() {
+        // Background thread that picks up slots added or removed by other nodes
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-slot-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, REFRESH_INTERVAL_SECONDS, REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Returns the shared index
+    public static GymSlotSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the indexed slots of a location whose start time lies in a window, ordered by start time.
+     * The index is loaded on first use.
+     * @param location The location of the centers; null or blank for every location.
+     * @param fromTime The earliest start time, inclusive.
+     * @param toTime The latest start time, inclusive.
+     * @return the matching slots ordered by start time and slot ID.
+     */
+    List<Entry> find(String location, LocalTime fromTime, LocalTime toTime) {
+        if (!loaded) {
+            refresh();
+        }
+        long fromKey = (long) fromTime.toSecondOfDay() << 32;
+        long toKey = ((long) toTime.toSecondOfDay() << 32) | 0xffffffffL;
+        List<Entry> entries = new ArrayList<>();
+        if (location == null || location.trim().isEmpty()) {
+            for (ConcurrentSkipListMap<Long, Entry> slots : byLocation.values()) {
+                entries.addAll(slots.subMap(fromKey, true, toKey, true).values());
+            }
+            entries.sort(BY_START_TIME);
+        } else {
+            ConcurrentSkipListMap<Long, Entry> slots = byLocation.get(normalise(location));
+            if (slots != null) {
+                entries.addAll(slots.subMap(fromKey, true, toKey, true).values());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Brings the index up to date: adds slots created since the last refresh and rebuilds the index if
+     * slots were removed. Costs one small aggregate query when nothing changed.
+     */
+    public synchronized void refresh() {
+        try (Connection conn = DBConnection.connect()) {
+            int count;
+            int max;
+            try (PreparedStatement statement = conn.prepareStatement(COUNT_SQL);
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                count = resultSet.getInt("SlotCount");
+                max = resultSet.getInt("MaxSlotId");
+            }
+
+            if (max > maxSlotId) {
+                addNewSlots(conn, byLocation, maxSlotId);
+            }
+            if (count != size.get()) {
+                // Slots were removed; build a fresh index and swap it in, readers keep using the old one meanwhile
+                Map<String, ConcurrentSkipListMap<Long, Entry>> rebuilt = new ConcurrentHashMap<>();
+                size.set(0);
+                addNewSlots(conn, rebuilt, 0);
+                byLocation = rebuilt;
+            }
+            loaded = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+    }
+
+    // Adds the slots with an ID above the given one to an index
+    private void addNewSlots(Connection conn, Map<String, ConcurrentSkipListMap<Long, Entry>> index, int afterSlotId) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(NEW_SLOTS_SQL)) {
+            statement.setInt(1, afterSlotId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Entry entry = new Entry(resultSet.getInt("slotsId"), resultSet.getInt("centerId"), resultSet.getString("CenterName"),
+                            resultSet.getString("Location"), resultSet.getTime("StartTime").toLocalTime(),
+                            resultSet.getTime("EndTime").toLocalTime(), resultSet.getInt("Cost"));
+                    long key = ((long) entry.startTime.toSecondOfDay() << 32) | (entry.slotId & 0xffffffffL);
+                    if (index.computeIfAbsent(normalise(entry.location), l -> new ConcurrentSkipListMap<>()).put(key, entry) == null) {
+                        size.incrementAndGet();
+                    }
+                    maxSlotId = Math.max(maxSlotId, entry.slotId);
+                }
+            }
+        }
+    }
+
+    // Number of indexed slots
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Encodes the position of a search result, so the next page can continue after it.
+     * @param slot The last result of a page.
+     * @return the cursor, e.g. "2026-10-19,07:00,42".
+     */
+    public static String cursorOf(GymSlotAvailability slot) {
+        return new java.sql.Date(slot.getDate().getTime()).toLocalDate() + "," + slot.getStartTime() + "," + slot.getSlotId();
+    }
+
+    // Locations are matched regardless of case and surrounding blanks
+    private static String normalise(String location) {
+        return location.trim().toLowerCase(Locale.ROOT);
+    }
+}
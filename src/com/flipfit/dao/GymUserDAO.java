@@ -7,9 +7,21 @@ import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceNotFoundException;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface GymUserDAO {
     public List<GymCustomer> viewAllCustomers() throws ResourceNotFoundException;
     public List<GymOwner> viewAllGymOwners() throws ResourceNotFoundException;
+
+    // One page of customers ordered by CustId (keyset pagination), filtered by name prefix and email domain (null or blank for none)
+    public List<GymCustomer> viewCustomers(String namePrefix, String emailDomain, int afterCustomerId, int pageSize);
+    // All customers matching the filters in CustId order; the stream holds a connection and must be closed
+    public Stream<GymCustomer> streamCustomers(String namePrefix, String emailDomain);
+    // One page of gym owners ordered by OwnerId (keyset pagination), filtered by name prefix and email domain (null or blank for none)
+    public List<GymOwner> viewGymOwners(String namePrefix, String emailDomain, int afterOwnerId, int pageSize);
+    // All gym owners matching the filters in OwnerId order; the stream holds a connection and must be closed
+    public Stream<GymOwner> streamGymOwners(String namePrefix, String emailDomain);
+
     public int login(String email, String password, String role) throws InvalidCredentialsException, DBConnectionException;
+    public String loginStats();
 }
@@ -5,7 +5,11 @@ import com.flipfit.bean.GymOwner;
 import com.flipfit.exceptions.DBConnectionException;
 import com.flipfit.exceptions.InvalidCredentialsException;
 import com.flipfit.exceptions.ResourceNotFoundException;
+import com.flipfit.utils.CredentialCache;
 import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.LatencyHistogram;
+import com.flipfit.utils.PasswordHasher;
+import com.flipfit.utils.ResultSetStream;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -13,47 +17,40 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class GymUserDAOImpl implements GymUserDAO {
 
-    private Connection conn = null;  // Connection object to interact with the database
-    private PreparedStatement statement = null;  // PreparedStatement object to execute SQL queries
+    // Listings never read the password column; filters and keyset conditions are appended by listingSql
+    private static final String CUSTOMER_COLUMNS = "SELECT CustId, Name, Email, Address, PhoneNumber FROM Customer";
+    private static final String OWNER_COLUMNS = "SELECT OwnerId, OwnerName, OwnerEmail, OwnerAddress, OwnerPhone FROM OwnerInfo";
+    private static final String CREDENTIAL_SQL = "SELECT UserId, Password FROM Registration WHERE EmailAddress = ? AND Role = ?";
+    private static final String REHASH_SQL = "UPDATE Registration SET Password = ? WHERE UserId = ? AND Role = ?";
+
+    // Rows fetched per round trip when streaming listings; customer and owner rows are small
+    private static final int LISTING_FETCH_SIZE = 1000;
+
+    private static final LatencyHistogram LOGIN_LATENCY = new LatencyHistogram();  // Time taken by login calls
+    private final CredentialCache credentials = CredentialCache.getInstance();  // Cached (email, role) -> user ID and password hash
 
     /**
      * Retrieves a list of all gym customers from the database.
      * If no customers are found, it throws a ResourceNotFoundException.
+     * Prefer {@link #viewCustomers(String, String, int, int)} or {@link #streamCustomers(String, String)} for large tables.
      * @return A list of GymCustomer objects.
      * @throws ResourceNotFoundException if no customers are found in the database.
      */
     @Override
     public List<GymCustomer> viewAllCustomers() throws ResourceNotFoundException {
-        List<GymCustomer> customers = new ArrayList<>();  // List to hold all customers
-        try {
-            // Establishing a connection to the database
-            conn = DBConnection.connect();
-
-            // Preparing the SQL query to select all customers
-            statement = conn.prepareStatement("Select * from Customer");
-            ResultSet rs = statement.executeQuery();  // Executing the query and storing the result
-
-            // Looping through the result set and adding each customer to the list
-            while (rs.next()) {
-                customers.add(new GymCustomer(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6)));
-                // Uncomment the line below to print customer details (for debugging)
-                // System.out.println(rs.getInt(1) + " " + rs.getString(2) + " " + rs.getString(3) + " " + rs.getString(4) + " " + rs.getString(5) + " " + rs.getString(6));
-            }
-
-            // If the list is empty, throw ResourceNotFoundException
-            if (customers.isEmpty()) {
-                throw new ResourceNotFoundException("No customers found");
-            }
+        List<GymCustomer> customers;  // List to hold all customers
+        try (Stream<GymCustomer> stream = streamCustomers(null, null)) {
+            customers = stream.collect(Collectors.toList());
+        }
 
-        } catch (SQLException se) {
-            // Catching and printing SQL exceptions
-            se.printStackTrace();
-        } catch (Exception e) {
-            // Catching and printing any other exceptions
-            e.printStackTrace();
+        // If the list is empty, throw ResourceNotFoundException
+        if (customers.isEmpty()) {
+            throw new ResourceNotFoundException("No customers found");
         }
         return customers;  // Returning the list of customers
     }
@@ -61,44 +58,196 @@ public class GymUserDAOImpl implements GymUserDAO {
     /**
      * Retrieves a list of all gym owners from the database.
      * If no gym owners are found, it throws a ResourceNotFoundException.
+     * Prefer {@link #viewGymOwners(String, String, int, int)} or {@link #streamGymOwners(String, String)} for large tables.
      * @return A list of GymOwner objects.
      * @throws ResourceNotFoundException if no gym owners are found in the database.
      */
     @Override
     public List<GymOwner> viewAllGymOwners() throws ResourceNotFoundException {
-        List<GymOwner> owners = new ArrayList<>();  // List to hold all gym owners
-        try {
-            // Establishing a connection to the database
-            conn = DBConnection.connect();
-
-            // Preparing the SQL query to select all gym owners
-            statement = conn.prepareStatement("Select * from OwnerInfo");
-            ResultSet rs = statement.executeQuery();  // Executing the query and storing the result
-
-            // Looping through the result set and adding each gym owner to the list
-            while (rs.next()) {
-                owners.add(new GymOwner(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(5), rs.getString(4), rs.getString(6)));
-                // Uncomment the line below to print owner details (for debugging)
-                // System.out.println(rs.getInt(1) + " " + rs.getString(2) + " " + rs.getString(3) + " " + rs.getString(4) + " " + rs.getString(5) + " " + rs.getString(6));
+        List<GymOwner> owners;  // List to hold all gym owners
+        try (Stream<GymOwner> stream = streamGymOwners(null, null)) {
+            owners = stream.collect(Collectors.toList());
+        }
+
+        // If the list is empty, throw ResourceNotFoundException
+        if (owners.isEmpty()) {
+            throw new ResourceNotFoundException("No owner found");
+        }
+        return owners;  // Returning the list of gym owners
+    }
+
+    /**
+     * Retrieves one page of customers using keyset pagination on CustId, so every page is one range scan
+     * of the primary key however deep the admin pages. The name prefix can use idx_customer_name; the
+     * email domain is a suffix match and is checked on the rows the scan reads.
+     * @param namePrefix start of the customer name, or null/blank for any name
+     * @param emailDomain domain of the email address (e.g. "gmail.com"), or null/blank for any domain
+     * @param afterCustomerId the last CustId of the previous page, or 0 for the first page
+     * @param pageSize the maximum number of customers to return
+     * @return the customers of the page, empty once there are no more customers
+     */
+    @Override
+    public List<GymCustomer> viewCustomers(String namePrefix, String emailDomain, int afterCustomerId, int pageSize) {
+        List<GymCustomer> customers = new ArrayList<>();
+        String sql = listingSql(CUSTOMER_COLUMNS, "CustId", "Name", "Email", namePrefix, emailDomain, true);
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            bindListing(statement, namePrefix, emailDomain, afterCustomerId, pageSize);
+
+            // Store the customers of the page in the list
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    customers.add(mapCustomer(rs));
+                }
             }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return customers;
+    }
+
+    /**
+     * Streams every customer matching the filters with a single query in CustId order.
+     * Rows are fetched in chunks of LISTING_FETCH_SIZE and mapped lazily, so memory use stays flat.
+     * @param namePrefix start of the customer name, or null/blank for any name
+     * @param emailDomain domain of the email address, or null/blank for any domain
+     * @return the customers, or an empty stream if the query fails; must be closed by the caller
+     */
+    @Override
+    public Stream<GymCustomer> streamCustomers(String namePrefix, String emailDomain) {
+        return streamListing(listingSql(CUSTOMER_COLUMNS, "CustId", "Name", "Email", namePrefix, emailDomain, false),
+                namePrefix, emailDomain, GymUserDAOImpl::mapCustomer);
+    }
 
-            // If the list is empty, throw ResourceNotFoundException
-            if (owners.isEmpty()) {
-                throw new ResourceNotFoundException("No owner found");
+    /**
+     * Retrieves one page of gym owners using keyset pagination on OwnerId.
+     * The name prefix can use idx_owner_name; the email domain is checked on the rows the scan reads.
+     * @param namePrefix start of the owner name, or null/blank for any name
+     * @param emailDomain domain of the email address, or null/blank for any domain
+     * @param afterOwnerId the last OwnerId of the previous page, or 0 for the first page
+     * @param pageSize the maximum number of owners to return
+     * @return the owners of the page, empty once there are no more owners
+     */
+    @Override
+    public List<GymOwner> viewGymOwners(String namePrefix, String emailDomain, int afterOwnerId, int pageSize) {
+        List<GymOwner> owners = new ArrayList<>();
+        String sql = listingSql(OWNER_COLUMNS, "OwnerId", "OwnerName", "OwnerEmail", namePrefix, emailDomain, true);
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            bindListing(statement, namePrefix, emailDomain, afterOwnerId, pageSize);
+
+            // Store the owners of the page in the list
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    owners.add(mapOwner(rs));
+                }
             }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return owners;
+    }
+
+    /**
+     * Streams every gym owner matching the filters with a single query in OwnerId order.
+     * @param namePrefix start of the owner name, or null/blank for any name
+     * @param emailDomain domain of the email address, or null/blank for any domain
+     * @return the owners, or an empty stream if the query fails; must be closed by the caller
+     */
+    @Override
+    public Stream<GymOwner> streamGymOwners(String namePrefix, String emailDomain) {
+        return streamListing(listingSql(OWNER_COLUMNS, "OwnerId", "OwnerName", "OwnerEmail", namePrefix, emailDomain, false),
+                namePrefix, emailDomain, GymUserDAOImpl::mapOwner);
+    }
+
+    // Builds a listing query: the keyset condition and LIMIT of a page, then the filters that are set
+    private static String listingSql(String columns, String idColumn, String nameColumn, String emailColumn,
+                                     String namePrefix, String emailDomain, boolean page) {
+        List<String> conditions = new ArrayList<>();
+        if (page) {
+            conditions.add(idColumn + " > ?");
+        }
+        if (!isBlank(namePrefix)) {
+            conditions.add(nameColumn + " LIKE ? ESCAPE '!'");
+        }
+        if (!isBlank(emailDomain)) {
+            conditions.add(emailColumn + " LIKE ? ESCAPE '!'");
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return columns + where + " ORDER BY " + idColumn + (page ? " LIMIT ?" : "");
+    }
+
+    // Sets the parameters of a listing query in the order listingSql wrote them; afterId < 0 means no keyset condition
+    private static void bindListing(PreparedStatement statement, String namePrefix, String emailDomain, int afterId, int pageSize)
+            throws SQLException {
+        int index = 1;
+        if (afterId >= 0) {
+            statement.setInt(index++, afterId);
+        }
+        if (!isBlank(namePrefix)) {
+            statement.setString(index++, escapeLike(namePrefix.trim()) + "%");
+        }
+        if (!isBlank(emailDomain)) {
+            String domain = emailDomain.trim();
+            statement.setString(index++, "%@" + escapeLike(domain.startsWith("@") ? domain.substring(1) : domain));
+        }
+        if (afterId >= 0) {
+            statement.setInt(index, pageSize);
+        }
+    }
 
+    // Runs a listing query as a stream that owns its connection
+    private static <T> Stream<T> streamListing(String sql, String namePrefix, String emailDomain, ResultSetStream.RowMapper<T> mapper) {
+        try {
+            Connection conn = DBConnection.connect();
+            PreparedStatement statement;
+            try {
+                statement = conn.prepareStatement(sql);
+                bindListing(statement, namePrefix, emailDomain, -1, 0);
+            } catch (SQLException se) {
+                conn.close();
+                throw se;
+            }
+            return ResultSetStream.of(conn, statement, mapper, LISTING_FETCH_SIZE);
         } catch (SQLException se) {
-            // Catching and printing SQL exceptions
             se.printStackTrace();
-        } catch (Exception e) {
-            // Catching and printing any other exceptions
-            e.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
         }
-        return owners;  // Returning the list of gym owners
+        return Stream.empty();
+    }
+
+    // Escapes the LIKE wildcards of a user supplied filter with the ! escape character
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    // Maps one row of a customer listing; the password is never read
+    private static GymCustomer mapCustomer(ResultSet rs) throws SQLException {
+        return new GymCustomer(rs.getInt("CustId"), rs.getString("Name"), rs.getString("Address"),
+                rs.getString("Email"), rs.getString("PhoneNumber"), null);
+    }
+
+    // Maps one row of an owner listing; the password is never read
+    private static GymOwner mapOwner(ResultSet rs) throws SQLException {
+        return new GymOwner(rs.getInt("OwnerId"), rs.getString("OwnerName"), rs.getString("OwnerEmail"),
+                rs.getString("OwnerPhone"), rs.getString("OwnerAddress"), null);
     }
 
     /**
      * Validates the login credentials for a user and returns the user ID if the credentials are correct.
+     * The (email, role) pair is first looked up in the credential cache; on a miss the user ID and
+     * password hash are read from the Registration table and cached. The password is always verified
+     * in memory against the salted hash, so repeated logins need no database round trip.
+     * Legacy plaintext passwords are accepted once and replaced by a hash.
      * If the credentials are invalid, it throws an InvalidCredentialsException.
      * @param email The user's email address.
      * @param password The user's password.
@@ -109,30 +258,76 @@ public class GymUserDAOImpl implements GymUserDAO {
      */
     @Override
     public int login(String email, String password, String role) throws InvalidCredentialsException, DBConnectionException {
+        long start = System.nanoTime();
         try {
-            // Establishing a connection to the database
-            conn = DBConnection.connect();
-
-            // Preparing the SQL query to validate login credentials
-            statement = conn.prepareStatement("select * from registration where EmailAddress = ? and Password = ? and Role = ?");
-            statement.setString(1, email);  // Setting the email in the query
-            statement.setString(2, password);  // Setting the password in the query
-            statement.setString(3, role);  // Setting the role in the query
-
-            // Executing the query and checking if a matching result is found
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                // If credentials are valid, return the user ID
-                return resultSet.getInt("UserId");
-            } else {
-                // If credentials are invalid, throw InvalidCredentialsException
+            CredentialCache.Entry cached = credentials.get(email, role);
+            if (cached != null) {
+                if (!PasswordHasher.verify(password, cached.getPasswordHash())) {
+                    throw new InvalidCredentialsException("Login Failed, Check your Credentials Again !!");
+                }
+                return cached.getUserId();
+            }
+
+            int userId;
+            String stored;
+            try (Connection conn = DBConnection.connect();
+                 PreparedStatement statement = conn.prepareStatement(CREDENTIAL_SQL)) {
+                statement.setString(1, email);  // Setting the email in the query
+                statement.setString(2, role);  // Setting the role in the query
+
+                // Executing the query and checking if a matching result is found
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new InvalidCredentialsException("Login Failed, Check your Credentials Again !!");
+                    }
+                    userId = resultSet.getInt("UserId");
+                    stored = resultSet.getString("Password");
+                }
+            } catch (SQLException se) {
+                // Catching and printing SQL exceptions
+                se.printStackTrace();
+                return -1;  // Returning -1 if login failed
+            }
+
+            // The slow hash is checked after the connection went back to the pool
+            boolean valid = PasswordHasher.verify(password, stored);
+            if (valid && PasswordHasher.needsRehash(stored)) {
+                // Replace legacy plaintext (or weaker) hashes once the user has proven the password
+                stored = rehash(userId, role, password);
+            }
+            credentials.put(email, role, userId, stored);  // Later logins are verified from memory
+
+            if (!valid) {
                 throw new InvalidCredentialsException("Login Failed, Check your Credentials Again !!");
             }
+            return userId;
+        } finally {
+            LOGIN_LATENCY.record(System.nanoTime() - start);
+        }
+    }
 
+    // Stores a fresh hash of a verified password and returns it
+    private String rehash(int userId, String role, String password) throws DBConnectionException {
+        String hash = PasswordHasher.hash(password);
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(REHASH_SQL)) {
+            statement.setString(1, hash);
+            statement.setInt(2, userId);
+            statement.setString(3, role);
+            statement.executeUpdate();
         } catch (SQLException se) {
-            // Catching and printing SQL exceptions
             se.printStackTrace();
         }
-        return -1;  // Returning -1 if login failed
+        return hash;
+    }
+
+    /**
+     * Reports the login cache hit/miss counters and the login latency percentiles.
+     * @return a one-line summary of the login statistics.
+     */
+    @Override
+    public String loginStats() {
+        return "hits=" + credentials.getHits() + " misses=" + credentials.getMisses()
+                + " cached=" + credentials.size() + " " + LOGIN_LATENCY;
     }
 }
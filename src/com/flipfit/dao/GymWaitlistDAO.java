@@ -0,0 +1,89 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymWaitlistEntry;
+import com.flipfit.exceptions.ResourceNotFoundException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface GymWaitlistDAO {
+
+    /**
+     * Adds a customer to the end of the waitlist of a slot on a date.
+     * Only a sold-out slot can be waited for, and only once by a customer who has not booked it.
+     *
+     * @param customerId the ID of the waiting customer.
+     * @param slotId the ID of the slot.
+     * @param centerId the ID of the gym center of the slot.
+     * @param date the date the customer wants to book.
+     * @return the waitlist ID of the new entry, or -1 if the slot has seats left, the customer already
+     * booked or waits for it, or the entry could not be stored.
+     */
+    public int joinWaitlist(int customerId, int slotId, int centerId, Date date);
+
+    /**
+     * Returns the 1-based queue position of a waiting entry.
+     *
+     * @param waitlistId the ID of the waitlist entry.
+     * @return the position in the queue, or 0 if the entry is no longer waiting.
+     * @throws ResourceNotFoundException if the entry does not exist.
+     */
+    public int getPosition(int waitlistId) throws ResourceNotFoundException;
+
+    /**
+     * Removes a waiting entry of a customer from the waitlist.
+     *
+     * @param waitlistId the ID of the waitlist entry.
+     * @param customerId the ID of the customer owning the entry.
+     * @return true if the entry was waiting and has been cancelled.
+     */
+    public boolean leaveWaitlist(int waitlistId, int customerId);
+
+    /**
+     * Locks and returns the oldest waiting entry of a slot on a date, inside the caller's transaction.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param slotId the ID of the slot.
+     * @param date the date.
+     * @return the head of the queue, or null if nobody is waiting.
+     * @throws SQLException if the query fails.
+     */
+    public GymWaitlistEntry lockHead(Connection conn, int slotId, Date date) throws SQLException;
+
+    /**
+     * Marks a waiting entry as promoted to a booking, inside the caller's transaction.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param waitlistId the ID of the waitlist entry.
+     * @param bookingId the booking created for the customer.
+     * @throws SQLException if the update fails.
+     */
+    public void markPromoted(Connection conn, int waitlistId, int bookingId) throws SQLException;
+
+    /**
+     * Cancels every waiting entry of the given slots on a date, inside the caller's transaction,
+     * e.g. when the slots are closed for the day.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param slotIds the IDs of the slots.
+     * @param date the date.
+     * @return the cancelled entries, so that their customers can be told.
+     * @throws SQLException if the update fails.
+     */
+    public List<GymWaitlistEntry> cancelWaiting(Connection conn, Collection<Integer> slotIds, Date date) throws SQLException;
+
+    /**
+     * Cancels every waiting entry of the given slots on or after a date, inside the caller's transaction,
+     * e.g. when the slots are deleted.
+     *
+     * @param conn the connection (and transaction) to use.
+     * @param slotIds the IDs of the slots.
+     * @param from the first date whose entries are cancelled.
+     * @return the cancelled entries, so that their customers can be told.
+     * @throws SQLException if the update fails.
+     */
+    public List<GymWaitlistEntry> cancelWaitingFrom(Connection conn, Collection<Integer> slotIds, Date from) throws SQLException;
+}
@@ -0,0 +1,270 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymWaitlistEntry;
+import com.flipfit.exceptions.DBConnectionException;
+import com.flipfit.exceptions.ResourceNotFoundException;
+import com.flipfit.utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class GymWaitlistDAOImpl implements GymWaitlistDAO {
+
+    // Entry statuses stored in the waitlist table
+    public static final String WAITING = "waiting";
+    public static final String PROMOTED = "promoted";
+    public static final String CANCELLED = "cancelled";
+
+    // Seats left for the slot on the date; the row lock makes concurrent joins, bookings and promotions of the slot wait
+    private static final String LOCK_SEATS_SQL = "SELECT NumSeats FROM AvailableSeats WHERE slotId = ? AND Date = ? FOR UPDATE";
+    // Whether the customer already holds a booking or a waiting entry for the slot and date
+    private static final String ALREADY_IN_SQL =
+            "SELECT 1 FROM CustomerBooking WHERE CustId = ? AND slotId = ? AND Date = ? "
+            + "UNION ALL SELECT 1 FROM waitlist WHERE CustId = ? AND slotId = ? AND Date = ? AND Status = '" + WAITING + "'";
+    private static final String JOIN_SQL =
+            "INSERT INTO waitlist (CustId, centerId, slotId, Date, Status) VALUES (?, ?, ?, ?, '" + WAITING + "')";
+    // Position = number of waiting entries of the same slot and date that joined no later than this one
+    private static final String POSITION_SQL =
+            "SELECT w.Status, (SELECT COUNT(*) FROM waitlist q WHERE q.slotId = w.slotId AND q.Date = w.Date "
+            + "AND q.Status = '" + WAITING + "' AND q.WaitlistId <= w.WaitlistId) AS Position "
+            + "FROM waitlist w WHERE w.WaitlistId = ?";
+    private static final String LEAVE_SQL =
+            "UPDATE waitlist SET Status = '" + CANCELLED + "' WHERE WaitlistId = ? AND CustId = ? AND Status = '" + WAITING + "'";
+    // Head of the FIFO queue: a single seek on the (slotId, Date, Status, WaitlistId) index
+    private static final String HEAD_SQL =
+            "SELECT WaitlistId, CustId, centerId, slotId, Date FROM waitlist "
+            + "WHERE slotId = ? AND Date = ? AND Status = '" + WAITING + "' ORDER BY WaitlistId LIMIT 1 FOR UPDATE";
+    private static final String PROMOTE_SQL =
+            "UPDATE waitlist SET Status = '" + PROMOTED + "', BookingID = ? WHERE WaitlistId = ?";
+    // Waiting entries of some slots, locked before they are cancelled; the date condition is appended
+    private static final String LOCK_WAITING_SQL =
+            "SELECT WaitlistId, CustId, centerId, slotId, Date FROM waitlist WHERE Status = '" + WAITING + "' AND slotId IN ";
+    private static final String CANCEL_SQL =
+            "UPDATE waitlist SET Status = '" + CANCELLED + "' WHERE WaitlistId IN ";
+
+    /**
+     * Adds a customer to the end of the waitlist of a slot on a date.
+     * The generated, ever-increasing waitlist ID defines the customer's place in the FIFO queue.
+     * The slot's seat row is locked first, so the slot is still sold out and the customer neither holds a
+     * booking nor waits for it when the entry is inserted; the unique index on waiting entries backs this up.
+     * @param customerId The ID of the waiting customer.
+     * @param slotId The ID of the slot.
+     * @param centerId The ID of the gym center of the slot.
+     * @param date The date the customer wants to book.
+     * @return The waitlist ID of the new entry, or -1 if the slot has seats left, the customer already
+     * booked or waits for it, or the entry could not be stored.
+     */
+    @Override
+    public int joinWaitlist(int customerId, int slotId, int centerId, Date date) {
+        java.sql.Date sqlDate = new java.sql.Date(date.getTime());
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);
+            try {
+                int waitlistId = -1;
+                if (isSoldOut(conn, slotId, sqlDate) && !isAlreadyIn(conn, customerId, slotId, sqlDate)) {
+                    waitlistId = insertEntry(conn, customerId, slotId, centerId, sqlDate);
+                }
+                conn.commit();
+                return waitlistId;
+            } catch (SQLException se) {
+                conn.rollback();
+                throw se;
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return -1;
+    }
+
+    // A slot nobody booked on the date has no seat row yet and is therefore not sold out
+    private static boolean isSoldOut(Connection conn, int slotId, java.sql.Date date) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(LOCK_SEATS_SQL)) {
+            statement.setInt(1, slotId);
+            statement.setDate(2, date);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt("NumSeats") <= 0;
+            }
+        }
+    }
+
+    private static boolean isAlreadyIn(Connection conn, int customerId, int slotId, java.sql.Date date) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(ALREADY_IN_SQL)) {
+            for (int offset = 0; offset <= 3; offset += 3) {
+                statement.setInt(offset + 1, customerId);
+                statement.setInt(offset + 2, slotId);
+                statement.setDate(offset + 3, date);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static int insertEntry(Connection conn, int customerId, int slotId, int centerId, java.sql.Date date)
+            throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(JOIN_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            statement.setInt(1, customerId);
+            statement.setInt(2, centerId);
+            statement.setInt(3, slotId);
+            statement.setDate(4, date);
+            statement.executeUpdate();
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                return generatedKeys.next() ? generatedKeys.getInt(1) : -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the queue position of a waitlist entry.
+     * @param waitlistId The ID of the waitlist entry.
+     * @return The 1-based position while the entry is waiting, otherwise 0.
+     * @throws ResourceNotFoundException if there is no such entry.
+     */
+    @Override
+    public int getPosition(int waitlistId) throws ResourceNotFoundException {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(POSITION_SQL)) {
+            statement.setInt(1, waitlistId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new ResourceNotFoundException("No waitlist entry with this ID");
+                }
+                return WAITING.equals(resultSet.getString("Status")) ? resultSet.getInt("Position") : 0;
+            }
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return 0;
+    }
+
+    /**
+     * Cancels a waiting entry; entries that were already promoted or cancelled are left alone.
+     * @param waitlistId The ID of the waitlist entry.
+     * @param customerId The ID of the customer owning the entry.
+     * @return true if the entry has been cancelled.
+     */
+    @Override
+    public boolean leaveWaitlist(int waitlistId, int customerId) {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(LEAVE_SQL)) {
+            statement.setInt(1, waitlistId);
+            statement.setInt(2, customerId);
+            return statement.executeUpdate() > 0;
+        } catch (SQLException se) {
+            se.printStackTrace();
+        } catch (DBConnectionException e) {
+            System.out.println(e);
+        }
+        return false;
+    }
+
+    /**
+     * Locks the oldest waiting entry of a slot on a date so that concurrent cancellations
+     * cannot promote the same customer twice.
+     * @param conn The connection (and transaction) to use.
+     * @param slotId The ID of the slot.
+     * @param date The date.
+     * @return The head of the queue, or null if nobody is waiting.
+     */
+    @Override
+    public GymWaitlistEntry lockHead(Connection conn, int slotId, Date date) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(HEAD_SQL)) {
+            statement.setInt(1, slotId);
+            statement.setDate(2, new java.sql.Date(date.getTime()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return new GymWaitlistEntry(resultSet.getInt("WaitlistId"), resultSet.getInt("CustId"),
+                        resultSet.getInt("centerId"), resultSet.getInt("slotId"), resultSet.getDate("Date"), WAITING, 0);
+            }
+        }
+    }
+
+    /**
+     * Marks a waiting entry as promoted and links it to the booking created for it.
+     * @param conn The connection (and transaction) to use.
+     * @param waitlistId The ID of the waitlist entry.
+     * @param bookingId The booking created for the customer.
+     */
+    @Override
+    public void markPromoted(Connection conn, int waitlistId, int bookingId) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(PROMOTE_SQL)) {
+            statement.setInt(1, bookingId);
+            statement.setInt(2, waitlistId);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Cancels every waiting entry of the given slots on a date: one query locks them, one update cancels them.
+     * @param conn The connection (and transaction) to use.
+     * @param slotIds The IDs of the slots.
+     * @param date The date.
+     * @return The cancelled entries.
+     */
+    @Override
+    public List<GymWaitlistEntry> cancelWaiting(Connection conn, Collection<Integer> slotIds, Date date) throws SQLException {
+        return cancelWaiting(conn, slotIds, " AND Date = ?", date);
+    }
+
+    /**
+     * Cancels every waiting entry of the given slots on or after a date.
+     * @param conn The connection (and transaction) to use.
+     * @param slotIds The IDs of the slots.
+     * @param from The first date whose entries are cancelled.
+     * @return The cancelled entries.
+     */
+    @Override
+    public List<GymWaitlistEntry> cancelWaitingFrom(Connection conn, Collection<Integer> slotIds, Date from) throws SQLException {
+        return cancelWaiting(conn, slotIds, " AND Date >= ?", from);
+    }
+
+    private List<GymWaitlistEntry> cancelWaiting(Connection conn, Collection<Integer> slotIds, String dateCondition, Date date)
+            throws SQLException {
+        List<GymWaitlistEntry> cancelled = new ArrayList<>();
+        if (slotIds.isEmpty()) {
+            return cancelled;
+        }
+        try (PreparedStatement statement = conn.prepareStatement(LOCK_WAITING_SQL + placeholders(slotIds.size()) + dateCondition
+                + " FOR UPDATE")) {
+            int index = 1;
+            for (int slotId : slotIds) {
+                statement.setInt(index++, slotId);
+            }
+            statement.setDate(index, new java.sql.Date(date.getTime()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    cancelled.add(new GymWaitlistEntry(resultSet.getInt("WaitlistId"), resultSet.getInt("CustId"),
+                            resultSet.getInt("centerId"), resultSet.getInt("slotId"), resultSet.getDate("Date"), CANCELLED, 0));
+                }
+            }
+        }
+        if (cancelled.isEmpty()) {
+            return cancelled;
+        }
+        try (PreparedStatement statement = conn.prepareStatement(CANCEL_SQL + placeholders(cancelled.size()))) {
+            for (int i = 0; i < cancelled.size(); i++) {
+                statement.setInt(i + 1, cancelled.get(i).getWaitlistId());
+            }
+            statement.executeUpdate();
+        }
+        return cancelled;
+    }
+
+    // "(?,?,...)" with one placeholder per value of an IN list
+    private static String placeholders(int count) {
+        return "(" + String.join(",", Collections.nCopies(count, "?")) + ")";
+    }
+}
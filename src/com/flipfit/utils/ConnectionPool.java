@@ -0,0 +1,579 @@
+package com.flipfit.utils;
+
+import com.flipfit.exceptions.DBConnectionException;  // Importing custom exception for DB connection errors
+
+import java.lang.reflect.InvocationHandler;  // Importing InvocationHandler to intercept calls on leased connections
+import java.lang.reflect.InvocationTargetException;  // Importing InvocationTargetException to unwrap driver errors
+import java.lang.reflect.Method;  // Importing Method to identify the intercepted call
+import java.lang.reflect.Proxy;  // Importing Proxy to hand out lease objects implementing Connection
+import java.sql.Connection;  // Importing SQL Connection class for database connection
+import java.sql.DriverManager;  // Importing DriverManager class to open physical connections
+import java.sql.PreparedStatement;  // Importing PreparedStatement to cache statements per connection
+import java.sql.ResultSet;  // Importing ResultSet to close results of released statements
+import java.sql.SQLException;  // Importing SQLException class for handling SQL errors
+import java.sql.Statement;  // Importing Statement to track statements opened on a lease
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of physical JDBC connections.
+ * Callers borrow a lease through {@link #borrow()} and give it back by calling close() on it,
+ * which makes the pool usable from try-with-resources blocks in the DAO layer.
+ * Idle connections are validated before they are handed out again and are evicted
+ * by a background thread once they have been unused for longer than the idle timeout.
+ *
+ * Every physical connection keeps an LRU cache of its prepared statements, keyed by SQL text.
+ * prepareStatement(sql) on a lease returns the cached statement when it is free, so a DAO can simply
+ * prepare its SQL constants on every call; closing the statement (or the lease) clears its parameters,
+ * closes its open result set and makes it available again instead of closing it.
+ */
+public class ConnectionPool {
+
+    private final String url;  // JDBC URL of the database
+    private final String user;  // Database user name
+    private final String password;  // Database password
+    private final int maxSize;  // Maximum number of physical connections (leased + idle)
+    private final int minIdle;  // Number of idle connections the evictor always keeps
+    private final long maxWaitMillis;  // Maximum time a caller waits for a free connection
+    private final long idleTimeoutMillis;  // Idle time after which a connection is evicted
+    private final long validationBypassMillis;  // Connections used more recently than this skip validation
+    private final int validationTimeoutSeconds;  // Timeout passed to Connection.isValid
+    private final int statementCacheSize;  // Prepared statements cached per physical connection
+
+    // One permit per connection that may be leased; waiting callers queue on this semaphore
+    private final Semaphore permits;
+    // Idle connections, most recently returned first so that hot connections stay warm
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    // Pool metrics
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder exhaustedCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LatencyHistogram borrowWait = new LatencyHistogram();  // Time callers waited for a free connection
+    private volatile StatementTimer statementTimer;  // Times the statements of every lease; null when off
+
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long maxWaitMillis, long idleTimeoutMillis, long evictionIntervalMillis, int statementCacheSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationBypassMillis = 500;
+        this.validationTimeoutSeconds = 2;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        // Background thread that closes connections which have been idle for too long
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, evictionIntervalMillis, evictionIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting at most the configured max-wait time.
+     * The returned connection must be closed by the caller to give it back to the pool.
+     * @return a leased connection
+     * @throws DBConnectionException if the pool is exhausted or a new connection cannot be opened
+     */
+    public Connection borrow() throws DBConnectionException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBConnectionException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        borrowWait.record(waited);
+        if (!acquired) {
+            exhaustedCount.increment();
+            throw new DBConnectionException("Connection pool exhausted: no connection available within " + maxWaitMillis + " ms");
+        }
+
+        try {
+            // Reuse an idle connection if a valid one is available
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return lease(entry);
+                }
+                validationFailures.increment();
+                discard(entry);
+            }
+            // Otherwise open a new physical connection
+            return lease(open());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw new DBConnectionException("Failed to connect to the database: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the evictor. Leased connections are closed when returned.
+     */
+    public void shutdown() {
+        evictor.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    // Opens a new physical connection
+    private PooledEntry open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        createdCount.increment();
+        return new PooledEntry(physical, statementCacheSize);
+    }
+
+    // Validates an idle connection before handing it out; recently used connections skip the round trip
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            if (entry.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - entry.lastUsed < validationBypassMillis) {
+                return true;
+            }
+            return entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Wraps the physical connection in a lease whose close() hands it back to the pool
+    private Connection lease(PooledEntry entry) {
+        borrowCount.increment();
+        activeConnections.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Lease(entry));
+    }
+
+    // Called when a lease is closed
+    private void giveBack(PooledEntry entry) {
+        activeConnections.decrementAndGet();
+        try {
+            // Never hand out a connection with an open transaction or a changed commit mode
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (entry.physical.isClosed()) {
+                discard(entry);
+            } else {
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            }
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Closes a physical connection that is no longer part of the pool
+    private void discard(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        for (CachedStatement cached : entry.statements.values()) {
+            cached.closePhysical();
+        }
+        entry.statements.clear();
+        try {
+            entry.physical.close();
+        } catch (SQLException ignored) {
+            // The connection is being thrown away anyway
+        }
+    }
+
+    // Evicts connections that have been idle longer than the idle timeout, keeping minIdle of them
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<PooledEntry> it = idle.descendingIterator();  // Oldest entries sit at the tail
+        while (it.hasNext() && idle.size() > minIdle) {
+            PooledEntry entry = it.next();
+            if (entry.lastUsed < cutoff && idle.removeLastOccurrence(entry)) {
+                evictedCount.increment();
+                discard(entry);
+            }
+        }
+    }
+
+    // Getter for the number of physical connections currently open
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    // Getter for the number of connections currently leased
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    // Getter for the number of idle connections
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    // Getter for the number of threads waiting for a connection
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    // Getter for the configured maximum pool size
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    // Getter for the total number of successful borrows
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    // Getter for the number of borrows that timed out because the pool was exhausted
+    public long getExhaustedCount() {
+        return exhaustedCount.sum();
+    }
+
+    // Getter for the number of physical connections opened so far
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    // Getter for the number of connections closed by the idle evictor
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    // Getter for the number of idle connections that failed validation on borrow
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    // Getter for the total time callers spent waiting for a connection, in milliseconds
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    // Getter for the number of prepareStatement calls served from the statement cache
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    // Getter for the number of prepareStatement calls that had to prepare a new statement
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Exports the pool statistics; the values are read whenever the metrics are exported.
+     * @param metrics the registry to export to
+     */
+    public void exportTo(MetricsRegistry metrics) {
+        metrics.register("flipfit_pool_connections_active", "gauge", "Connections leased right now", this::getActiveConnections);
+        metrics.register("flipfit_pool_connections_idle", "gauge", "Idle connections in the pool", this::getIdleConnections);
+        metrics.register("flipfit_pool_connections_max", "gauge", "Maximum size of the pool", this::getMaxSize);
+        metrics.register("flipfit_pool_waiting_threads", "gauge", "Threads waiting for a connection", this::getWaitingThreads);
+        metrics.register("flipfit_pool_borrowed_total", "counter", "Connections borrowed", this::getBorrowCount);
+        metrics.register("flipfit_pool_exhausted_total", "counter", "Borrows that timed out", this::getExhaustedCount);
+        metrics.register("flipfit_pool_statement_cache_hits_total", "counter", "Prepared statements served from the cache",
+                this::getStatementCacheHits);
+        metrics.register("flipfit_pool_statement_cache_misses_total", "counter", "Prepared statements that had to be prepared",
+                this::getStatementCacheMisses);
+        metrics.describe("flipfit_pool_wait_seconds", "Time spent waiting for a free connection");
+        metrics.register("flipfit_pool_wait_seconds", "borrow", borrowWait);
+    }
+
+    /**
+     * Times every statement of the leases handed out from now on.
+     * @param statementTimer the timer, or null to stop timing
+     */
+    public void setStatementTimer(StatementTimer statementTimer) {
+        this.statementTimer = statementTimer;
+    }
+
+    // Getter for the statement timer, null when statements are not timed
+    public StatementTimer getStatementTimer() {
+        return statementTimer;
+    }
+
+    // Getter for the distribution of the time callers waited for a connection
+    public LatencyHistogram getBorrowWait() {
+        return borrowWait;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{total=" + getTotalConnections() + ", active=" + getActiveConnections()
+                + ", idle=" + getIdleConnections() + ", waiting=" + getWaitingThreads()
+                + ", borrowed=" + getBorrowCount() + ", exhausted=" + getExhaustedCount()
+                + ", created=" + getCreatedCount() + ", evicted=" + getEvictedCount()
+                + ", validationFailures=" + getValidationFailures() + ", waitMillis=" + getTotalWaitMillis()
+                + ", statementCacheHits=" + getStatementCacheHits() + ", statementCacheMisses=" + getStatementCacheMisses() + "}";
+    }
+
+    // A physical connection together with the time it was last returned to the pool and its statement cache
+    private static final class PooledEntry {
+        final Connection physical;
+        volatile long lastUsed;
+        // Prepared statements keyed by SQL (and generated-keys flag), least recently used first.
+        // Only the thread holding the lease touches the cache, so it needs no locking.
+        final LinkedHashMap<String, CachedStatement> statements;
+
+        PooledEntry(Connection physical, int statementCacheSize) {
+            this.physical = physical;
+            this.lastUsed = System.currentTimeMillis();
+            this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+                    if (eldest.getValue().inUse) {
+                        eldest.getValue().evicted = true;  // Closed for good once released
+                    } else {
+                        eldest.getValue().closePhysical();
+                    }
+                    return true;
+                }
+            };
+        }
+    }
+
+    // A cached physical statement and whether a caller currently holds it
+    private static final class CachedStatement {
+        final PreparedStatement physical;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        // Makes the statement reusable: drops its result set, parameters and batch
+        void release() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            if (evicted) {
+                closePhysical();
+                return;
+            }
+            try {
+                ResultSet open = physical.getResultSet();
+                if (open != null) {
+                    open.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;  // A statement that cannot be reset is not reused
+                closePhysical();
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // The statement is being thrown away anyway
+            }
+        }
+    }
+
+    // Handler behind a statement handed out from the cache: close() releases it back to the cache
+    private static final class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection lease;
+        private boolean closed = false;
+
+        StatementHandle(CachedStatement cached, Connection lease) {
+            this.cached = cached;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.physical.isClosed();
+                case "getConnection":
+                    return lease;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(cached.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Handler behind every leased connection: close() returns the connection, prepareStatement is served from the
+    // statement cache, everything else is forwarded. Statements still open when the lease is returned are released
+    // (cached ones) or closed (all others) so they do not pile up on the physical connection.
+    private final class Lease implements InvocationHandler {
+        private final PooledEntry entry;
+        private final List<Statement> openStatements = new ArrayList<>();
+        private final List<CachedStatement> leasedStatements = new ArrayList<>();
+        private boolean returned = false;
+
+        Lease(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!returned) {
+                    returned = true;
+                    closeStatements();
+                    giveBack(entry);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned || entry.physical.isClosed();
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("toString")) {
+                return "PooledConnection[" + entry.physical + "]";
+            }
+            if (returned) {
+                throw new SQLException("Connection lease has already been returned to the pool");
+            }
+            if (name.equals("prepareStatement") && statementCacheSize > 0) {
+                String key = cacheKey(args);
+                if (key != null) {
+                    return prepareCached(proxy, method, args, key);
+                }
+            }
+            try {
+                Object result = method.invoke(entry.physical, args);
+                if (result instanceof Statement) {
+                    openStatements.add((Statement) result);
+                    return timed((Statement) result, name.startsWith("prepare") ? (String) args[0] : null);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Returns a cached statement for the SQL, preparing (and caching) it on a miss
+        private Object prepareCached(Object proxy, Method method, Object[] args, String key) throws Throwable {
+            CachedStatement cached = entry.statements.get(key);
+            if (cached != null && cached.inUse) {
+                // The same SQL is already open on this lease; hand out a plain statement instead
+                statementCacheMisses.increment();
+                try {
+                    Statement statement = (Statement) method.invoke(entry.physical, args);
+                    openStatements.add(statement);
+                    return timed(statement, (String) args[0]);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            if (cached == null) {
+                statementCacheMisses.increment();
+                try {
+                    cached = new CachedStatement((PreparedStatement) method.invoke(entry.physical, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                entry.statements.put(key, cached);
+            } else {
+                statementCacheHits.increment();
+            }
+            cached.inUse = true;
+            leasedStatements.add(cached);
+            return timed((Statement) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementHandle(cached, (Connection) proxy)), (String) args[0]);
+        }
+
+        // Wraps a statement handed to the caller in the statement timer, if one is set
+        private Statement timed(Statement statement, String sql) {
+            StatementTimer timer = statementTimer;
+            return timer == null ? statement : timer.wrap(statement, sql);
+        }
+
+        // Closes every statement (and with it every result set) created through this lease
+        private void closeStatements() {
+            for (CachedStatement cached : leasedStatements) {
+                cached.release();
+            }
+            leasedStatements.clear();
+            for (Statement statement : openStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // Closing is best effort; the connection itself is still returned
+                }
+            }
+            openStatements.clear();
+        }
+    }
+
+    // Cache key of a prepareStatement call, or null if the variant is not cached (result set type, column names, ...)
+    private static String cacheKey(Object[] args) {
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        if (args.length == 2 && args[1] instanceof Integer) {
+            return args[1] + "|" + args[0];  // Generated-keys flag and SQL
+        }
+        return null;
+    }
+}
@@ -0,0 +1,151 @@
+package com.flipfit.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of login credentials keyed by (email, role).
+ * Each entry holds the user ID and the salted password hash, so repeated logins are verified in memory
+ * without a database round trip. Entries expire after a fixed time-to-live, and the least recently used
+ * entry is dropped when the cache is full. Any code that changes a password or an email address
+ * must invalidate the affected entries.
+ */
+public final class CredentialCache {
+
+    private static final int MAX_ENTRIES = Integer.getInteger("flipfit.login.cache.size", 10_000);  // Upper bound on cached logins
+    private static final long TTL_MILLIS = Long.getLong("flipfit.login.cache.ttl.ms", 10 * 60_000L);  // Time an entry stays valid
+
+    private static final CredentialCache INSTANCE = new CredentialCache(MAX_ENTRIES, TTL_MILLIS);
+
+    // A cached credential
+    public static final class Entry {
+        private final int userId;
+        private final String passwordHash;
+        private final long expiresAt;
+
+        Entry(int userId, String passwordHash, long expiresAt) {
+            this.userId = userId;
+            this.passwordHash = passwordHash;
+            this.expiresAt = expiresAt;
+        }
+
+        // Getter for the user ID
+        public int getUserId() {
+            return userId;
+        }
+
+        // Getter for the stored password hash
+        public String getPasswordHash() {
+            return passwordHash;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries;  // Access ordered, so the eldest entry is the least recently used
+
+    // Cache statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CredentialCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CredentialCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the shared cache
+    public static CredentialCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Looks up a credential; expired entries are removed and reported as a miss.
+     * @param email the login email address
+     * @param role the login role
+     * @return the cached entry, or null
+     */
+    public synchronized Entry get(String email, String role) {
+        String key = key(email, role);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            evictions.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    // Caches a credential read from the database
+    public synchronized void put(String email, String role, int userId, String passwordHash) {
+        entries.put(key(email, role), new Entry(userId, passwordHash, System.currentTimeMillis() + ttlMillis));
+    }
+
+    // Drops the credential of one email address and role
+    public synchronized void invalidate(String email, String role) {
+        entries.remove(key(email, role));
+    }
+
+    // Drops every credential of a user, e.g. after the user changed the email address
+    public synchronized void invalidateUser(int userId) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().userId == userId) {
+                it.remove();
+            }
+        }
+    }
+
+    // Drops every cached credential
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    // Getter for the number of lookups served from the cache
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // Getter for the number of lookups that had to go to the database
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Getter for the number of entries dropped because they expired or the cache was full
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Getter for the number of cached entries
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Emails are case insensitive
+    private static String key(String email, String role) {
+        return email.toLowerCase() + "|" + role;
+    }
+
+    @Override
+    public String toString() {
+        return "CredentialCache{size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "}";
+    }
+}
@@ -4,36 +4,70 @@ import com.flipfit.exceptions.DBConnectionException;  // Importing custom except
 // import com.flipfit.exception.DBconnectionException;  // Alternative import for DBConnectionException (from a different package)
 
 import java.sql.Connection;  // Importing SQL Connection class for database connection
-import java.sql.DriverManager;  // Importing DriverManager class to manage database drivers
 import java.sql.SQLException;  // Importing SQLException class for handling SQL errors
 
 public class DBConnection {
 
-    // Method to establish a connection to the database
-    public static Connection connect() throws SQLException, DBConnectionException {  // Throws SQLException and custom DBConnectionException
+    // Holder idiom: the configuration, the pool (and the driver) are initialised once, on first use
+    private static final class PoolHolder {
+        private static final DataSourceConfig CONFIG = DataSourceConfig.load();
+        private static final ConnectionPool POOL = createPool(CONFIG);
+    }
 
+    private static ConnectionPool createPool(DataSourceConfig config) {
         try {
-            // Loading the MySQL JDBC driver class
-            Class.forName("com.mysql.cj.jdbc.Driver");
-
-            // Database connection credentials
-            String password = "Password123";  // Enter your password here
-
-            // Establishing the connection to the database
-            Connection con = DriverManager.getConnection(
-                    "jdbc:mysql://localhost:3306/GymCustomer",  // Database URL
-                    "root",  // Username
-                    "sd@2801$");  // Password
-
-            System.out.println("Database Connected");  // Successful connection message
-            return con;  // Returning the connection object
+            // Loading the JDBC driver class of the configured backend
+            Class.forName(config.getDriver());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("JDBC driver " + config.getDriver() + " not found on the classpath", e);
+        }
+        ConnectionPool pool = new ConnectionPool(config.getUrl(), config.getUser(), config.getPassword(),
+                config.getMaxPoolSize(), config.getMinIdle(), config.getMaxWaitMillis(),
+                config.getIdleTimeoutMillis(), config.getEvictionIntervalMillis(), config.getStatementCacheSize());
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "flipfit-pool-shutdown"));
+        pool.exportTo(MetricsRegistry.getInstance());
 
-        } catch (Exception e) {  // Catching any exceptions that occur during the connection process
+        if (config.isMigrate()) {
+            // Bring the schema up to date before the first caller gets a connection
+            try (Connection conn = pool.borrow()) {
+                SchemaMigrator.migrate(conn);
+            } catch (SQLException | DBConnectionException e) {
+                pool.shutdown();
+                throw new IllegalStateException("Schema migration failed: " + e.getMessage(), e);
+            }
+        }
+        if (config.isTiming()) {
+            // Time every statement and log the slow ones; the migrations above are not timed
+            pool.setStatementTimer(new StatementTimer(config.getSlowQueryMillis(), config.getSlowQueryRows(),
+                    config.getSlowQueryFile(), config.getSlowQuerySample(), MetricsRegistry.getInstance()));
+        }
+        return pool;
+    }
 
-            // If an exception occurs, print a failure message and throw a custom DBConnectionException
+    /**
+     * Borrows a connection from the shared pool.
+     * The connection must be closed by the caller (preferably with try-with-resources),
+     * which returns it to the pool instead of closing the socket.
+     * @return a pooled connection
+     * @throws DBConnectionException if no connection could be obtained within the max-wait time
+     */
+    public static Connection connect() throws SQLException, DBConnectionException {  // Throws SQLException and custom DBConnectionException
+        try {
+            return PoolHolder.POOL.borrow();  // Returning the leased connection object
+        } catch (IllegalStateException | ExceptionInInitializerError | NoClassDefFoundError e) {
+            // If the pool could not be set up, print a failure message and throw a custom DBConnectionException
             System.out.println("Database Not Connected");
-            throw new DBConnectionException("Failed to connect to the database: " + e.getMessage());  // Throwing the custom exception with the error message
-
+            throw new DBConnectionException("Failed to connect to the database: " + e.getMessage(), e);
         }
     }
+
+    // Gives access to the shared pool, e.g. for pool metrics
+    public static ConnectionPool pool() {
+        return PoolHolder.POOL;
+    }
+
+    // Gives access to the effective database configuration
+    public static DataSourceConfig config() {
+        return PoolHolder.CONFIG;
+    }
 }
@@ -0,0 +1,242 @@
+package com.flipfit.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Selects and configures the database backend.
+ * Settings are read from (lowest to highest precedence):
+ * the built-in defaults of the chosen backend, a properties file ("flipfit-db.properties" on the classpath or in the
+ * working directory, or the file named by -Dflipfit.db.config), environment variables (FLIPFIT_DB_URL, ...) and
+ * system properties (-Dflipfit.db.url, ...).
+ *
+ * Supported backends:
+ *   mysql    - the MySQL server used in production (default)
+ *   embedded - an in-process H2 database in MySQL compatibility mode, kept in memory or, when
+ *              flipfit.db.embedded.path is set, in a local file; the schema is migrated on start.
+ *              Needs H2 2.3 or newer on the classpath (2.2 hands out duplicate AUTO_INCREMENT keys
+ *              under concurrent inserts in MySQL mode)
+ *
+ * Keys: backend, url, user, password, driver, migrate, embedded.path,
+ *       pool.maxSize, pool.minIdle, pool.maxWaitMillis, pool.idleTimeoutMillis, pool.evictionIntervalMillis,
+ *       pool.statementCacheSize (prepared statements cached per connection, 0 disables the cache),
+ *       timing (time every statement, default true), slowQuery.millis, slowQuery.rows (statements slower or
+ *       returning more rows than this go to the slow-query log), slowQuery.file (empty for standard output),
+ *       slowQuery.sample (rows and bytes of queries are counted on one execution in this many, default 10)
+ */
+public final class DataSourceConfig {
+
+    private static final String PREFIX = "flipfit.db.";
+    private static final String DEFAULT_FILE = "flipfit-db.properties";
+
+    public static final String MYSQL = "mysql";
+    public static final String EMBEDDED = "embedded";
+
+    // H2 settings that make it accept the MySQL dialect and the unquoted identifiers used by the DAOs
+    private static final String H2_OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=USER,VALUE";
+
+    private final String backend;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final String driver;
+    private final boolean migrate;
+    private final int maxPoolSize;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long evictionIntervalMillis;
+    private final int statementCacheSize;
+    private final boolean timing;
+    private final long slowQueryMillis;
+    private final long slowQueryRows;
+    private final String slowQueryFile;
+    private final int slowQuerySample;
+
+    private DataSourceConfig(Properties settings) {
+        this.backend = settings.getProperty("backend", MYSQL).toLowerCase(Locale.ROOT);
+        boolean embedded = backend.equals(EMBEDDED);
+        if (!embedded && !backend.equals(MYSQL)) {
+            throw new IllegalArgumentException("Unknown database backend '" + backend + "', expected " + MYSQL + " or " + EMBEDDED);
+        }
+
+        String path = settings.getProperty("embedded.path");
+        String embeddedUrl = path == null
+                ? "jdbc:h2:mem:GymCustomer;DB_CLOSE_DELAY=-1" + H2_OPTIONS
+                : "jdbc:h2:file:" + path + H2_OPTIONS;
+
+        this.url = settings.getProperty("url", embedded ? embeddedUrl
+                : "jdbc:mysql://localhost:3306/GymCustomer?useCursorFetch=true&rewriteBatchedStatements=true");
+        this.user = settings.getProperty("user", embedded ? "sa" : "root");
+        this.password = settings.getProperty("password", embedded ? "" : "sd@2801$");
+        this.driver = settings.getProperty("driver", embedded ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver");
+        this.migrate = Boolean.parseBoolean(settings.getProperty("migrate", String.valueOf(embedded)));
+        this.maxPoolSize = Integer.parseInt(settings.getProperty("pool.maxSize", "20"));
+        this.minIdle = Integer.parseInt(settings.getProperty("pool.minIdle", "2"));
+        this.maxWaitMillis = Long.parseLong(settings.getProperty("pool.maxWaitMillis", "5000"));
+        this.idleTimeoutMillis = Long.parseLong(settings.getProperty("pool.idleTimeoutMillis", "300000"));
+        this.evictionIntervalMillis = Long.parseLong(settings.getProperty("pool.evictionIntervalMillis", "30000"));
+        this.statementCacheSize = Integer.parseInt(settings.getProperty("pool.statementCacheSize", "64"));
+        this.timing = Boolean.parseBoolean(settings.getProperty("timing", "true"));
+        this.slowQueryMillis = Long.parseLong(settings.getProperty("slowQuery.millis", "200"));
+        this.slowQueryRows = Long.parseLong(settings.getProperty("slowQuery.rows", "1000"));
+        this.slowQueryFile = settings.getProperty("slowQuery.file", "flipfit-slow-queries.log");
+        this.slowQuerySample = Math.max(1, Integer.parseInt(settings.getProperty("slowQuery.sample", "10")));
+    }
+
+    /**
+     * Reads the configuration from the properties file, the environment and the system properties.
+     * @return the effective configuration
+     */
+    public static DataSourceConfig load() {
+        Properties settings = new Properties();
+        loadFile(settings);
+
+        // Environment variables, e.g. FLIPFIT_DB_POOL_MAXSIZE for pool.maxSize
+        for (String key : new String[]{"backend", "url", "user", "password", "driver", "migrate", "embedded.path",
+                "pool.maxSize", "pool.minIdle", "pool.maxWaitMillis", "pool.idleTimeoutMillis", "pool.evictionIntervalMillis",
+                "pool.statementCacheSize", "timing", "slowQuery.millis", "slowQuery.rows", "slowQuery.file",
+                "slowQuery.sample"}) {
+            String env = System.getenv(("FLIPFIT_DB_" + key.replace('.', '_')).toUpperCase(Locale.ROOT));
+            if (env != null) {
+                settings.setProperty(key, env);
+            }
+        }
+
+        // System properties win
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(PREFIX) && !name.equals(PREFIX + "config")) {
+                settings.setProperty(name.substring(PREFIX.length()), System.getProperty(name));
+            }
+        }
+        return new DataSourceConfig(settings);
+    }
+
+    // Reads the properties file, if there is one; keys may be written with or without the flipfit.db. prefix
+    private static void loadFile(Properties settings) {
+        Properties file = new Properties();
+        String configured = System.getProperty(PREFIX + "config");
+        try {
+            if (configured != null) {
+                try (InputStream in = Files.newInputStream(Paths.get(configured))) {
+                    file.load(in);
+                }
+            } else {
+                Path local = Paths.get(DEFAULT_FILE);
+                if (Files.exists(local)) {
+                    try (InputStream in = Files.newInputStream(local)) {
+                        file.load(in);
+                    }
+                } else {
+                    try (InputStream in = DataSourceConfig.class.getClassLoader().getResourceAsStream(DEFAULT_FILE)) {
+                        if (in != null) {
+                            file.load(in);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read database configuration: " + e.getMessage(), e);
+        }
+        for (String name : file.stringPropertyNames()) {
+            String key = name.startsWith(PREFIX) ? name.substring(PREFIX.length()) : name;
+            settings.setProperty(key, file.getProperty(name));
+        }
+    }
+
+    // Getter for the backend name (mysql or embedded)
+    public String getBackend() {
+        return backend;
+    }
+
+    // Getter for the JDBC URL
+    public String getUrl() {
+        return url;
+    }
+
+    // Getter for the database user
+    public String getUser() {
+        return user;
+    }
+
+    // Getter for the database password
+    public String getPassword() {
+        return password;
+    }
+
+    // Getter for the JDBC driver class
+    public String getDriver() {
+        return driver;
+    }
+
+    // Whether pending schema migrations are applied when the pool starts
+    public boolean isMigrate() {
+        return migrate;
+    }
+
+    // Getter for the maximum number of pooled connections
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    // Getter for the number of idle connections kept warm
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    // Getter for how long a caller waits for a free connection
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    // Getter for the idle time before a connection is evicted
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    // Getter for how often the evictor runs
+    public long getEvictionIntervalMillis() {
+        return evictionIntervalMillis;
+    }
+
+    // Getter for the number of prepared statements cached per connection
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    // Getter for whether every statement is timed
+    public boolean isTiming() {
+        return timing;
+    }
+
+    // Getter for the duration from which a statement is written to the slow-query log
+    public long getSlowQueryMillis() {
+        return slowQueryMillis;
+    }
+
+    // Getter for the number of rows from which a query is written to the slow-query log
+    public long getSlowQueryRows() {
+        return slowQueryRows;
+    }
+
+    // Getter for the slow-query log file, empty for standard output
+    public String getSlowQueryFile() {
+        return slowQueryFile;
+    }
+
+    // Getter for the number of query executions per one whose rows and bytes are counted
+    public int getSlowQuerySample() {
+        return slowQuerySample;
+    }
+
+    @Override
+    public String toString() {
+        return "DataSourceConfig{backend=" + backend + ", url=" + url + ", user=" + user + ", migrate=" + migrate
+                + ", maxPoolSize=" + maxPoolSize + "}";  // The password is never printed
+    }
+}
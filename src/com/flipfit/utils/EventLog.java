@@ -0,0 +1,406 @@
+package com.flipfit.utils;
+
+import com.flipfit.bean.GymBookingEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of booking events, stored in memory-mapped segment files.
+ * Events are numbered 1, 2, 3, ... in append order. A segment is a fixed-size file named after the
+ * sequence of its first event; records are appended to the newest segment one after the other, and a
+ * new segment is started when the next record does not fit.
+ *
+ * Record layout: int length, then length bytes of body followed by a CRC32 of the body. A length of 0
+ * marks the end of the written data and -1 the end of a full segment. On open the newest segment is
+ * scanned and a torn record at its end (length or CRC not matching) is ignored and overwritten.
+ *
+ * Readers tail the log from any sequence and only see events whose append has completed, so consumers
+ * can follow the log incrementally while it is being written. One process should write a log directory
+ * at a time; other processes can open it read-only to replay it.
+ */
+public final class EventLog implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{20})\\.log");
+    private static final int END_OF_SEGMENT = -1;
+    private static final int MAX_TEXT_BYTES = Short.MAX_VALUE;  // Type and detail are stored with a short length
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    // One segment file and its mapping
+    private static final class Segment {
+        final long firstSequence;
+        final MappedByteBuffer buffer;
+
+        Segment(long firstSequence, MappedByteBuffer buffer) {
+            this.firstSequence = firstSequence;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean readOnly;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final CRC32 crc = new CRC32();  // Only used by the appending thread, under the log's lock
+
+    private int position;  // Write position in the newest segment
+    private volatile long lastSequence;  // Sequence of the last complete record; publishes the record to readers
+    private boolean dirty;  // Whether appended records have not been forced to disk yet
+
+    private EventLog(Path directory, int segmentBytes, boolean readOnly) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Opens the log in a directory for appending, creating the directory and the first segment if needed.
+     * @param directory the directory holding the segment files
+     * @param segmentBytes the size of new segment files
+     * @return the opened log, positioned after its last complete record
+     * @throws IOException if the segments cannot be created or mapped
+     */
+    public static EventLog open(Path directory, int segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        EventLog log = new EventLog(directory, segmentBytes, false);
+        log.recover();
+        return log;
+    }
+
+    /**
+     * Opens an existing log for reading only, for example to replay it while another process writes it.
+     * Events appended after opening are not seen.
+     * @param directory the directory holding the segment files
+     * @return the opened log
+     * @throws IOException if the segments cannot be mapped
+     */
+    public static EventLog openReadOnly(Path directory) throws IOException {
+        EventLog log = new EventLog(directory, 0, true);
+        log.recover();
+        return log;
+    }
+
+    // Maps the existing segments and finds the end of the newest one
+    private void recover() throws IOException {
+        List<Long> firstSequences = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.log")) {
+                for (Path file : files) {
+                    Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        firstSequences.add(Long.parseLong(matcher.group(1)));
+                    }
+                }
+            }
+        }
+        firstSequences.sort(null);
+        for (long firstSequence : firstSequences) {
+            segments.add(map(firstSequence));
+        }
+        if (segments.isEmpty()) {
+            if (readOnly) {
+                lastSequence = 0;
+                return;
+            }
+            segments.add(map(1));
+        }
+
+        // Count the complete records of the newest segment
+        Segment newest = segments.get(segments.size() - 1);
+        ByteBuffer buffer = view(newest);
+        long sequence = newest.firstSequence - 1;
+        int end = 0;
+        while (true) {
+            buffer.position(end);
+            GymBookingEvent event = readRecord(buffer);
+            if (event == null || event.getSequence() != sequence + 1) {
+                break;
+            }
+            sequence++;
+            end = buffer.position();
+        }
+        position = end;
+        lastSequence = sequence;
+    }
+
+    // Maps a segment file, creating it at full size when the log is writable
+    private Segment map(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("segment-%020d.log", firstSequence));
+        if (readOnly) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return new Segment(firstSequence, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentBytes);
+            return new Segment(firstSequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    /**
+     * Appends events in order and makes them visible to readers; the events get their sequence numbers.
+     * The records are in the page cache when this returns; call {@link #force()} to put them on disk.
+     * If appending fails part way, the events appended so far keep their sequence numbers and stay in the log.
+     * @param events the events to append
+     * @return the sequence of the last appended event
+     * @throws IOException if a new segment cannot be created
+     */
+    public synchronized long append(List<GymBookingEvent> events) throws IOException {
+        if (readOnly) {
+            throw new IOException("Event log " + directory + " is open read-only");
+        }
+        long sequence = lastSequence;
+        try {
+            for (GymBookingEvent event : events) {
+                byte[] body = encode(sequence + 1, event);
+                int recordBytes = 4 + body.length + 4;
+                if (recordBytes + 4 > segmentBytes) {
+                    throw new IOException("Event of " + recordBytes + " bytes does not fit into a segment");
+                }
+                Segment segment = segments.get(segments.size() - 1);
+                if (position + recordBytes + 4 > segment.buffer.capacity()) {
+                    // Close the full segment and continue in a new one
+                    segment.buffer.putInt(position, END_OF_SEGMENT);
+                    segment.buffer.force();
+                    segments.add(map(sequence + 1));
+                    segment = segments.get(segments.size() - 1);
+                    position = 0;
+                }
+
+                crc.reset();
+                crc.update(body);
+                ByteBuffer buffer = segment.buffer;
+                // Body and checksum first, the length last, so a torn record is never mistaken for a complete one
+                buffer.position(position + 4);
+                buffer.put(body);
+                buffer.putInt((int) crc.getValue());
+                buffer.putInt(position, body.length);
+                position += recordBytes;
+                sequence++;
+                event.setSequence(sequence);
+            }
+        } finally {
+            if (sequence > lastSequence) {
+                dirty = true;
+                lastSequence = sequence;  // Publish the records to readers
+                notifyAll();
+            }
+        }
+        return sequence;
+    }
+
+    // Flushes the appended records of the newest segment to disk
+    public synchronized void force() {
+        if (dirty) {
+            segments.get(segments.size() - 1).buffer.force();
+            dirty = false;
+        }
+    }
+
+    // Sequence of the last appended event, 0 if the log is empty
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Waits until an event after the given sequence has been appended.
+     * @param sequence the last sequence the caller has seen
+     * @param timeoutMillis the longest time to wait
+     * @return true if a newer event exists
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean awaitAppend(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (lastSequence <= sequence) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Creates a reader positioned at an event.
+     * @param fromSequence the sequence of the first event to read; 1 reads the whole log
+     * @return a reader; each reader must only be used by one thread at a time
+     */
+    public Reader reader(long fromSequence) {
+        return new Reader(Math.max(1, fromSequence));
+    }
+
+    // Path of the log directory
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        if (!readOnly) {
+            force();
+        }
+    }
+
+    /**
+     * Reads events incrementally: every poll returns the events appended since the previous one.
+     */
+    public final class Reader {
+        private long nextSequence;
+        private int segmentIndex = -1;
+        private ByteBuffer buffer;
+
+        private Reader(long nextSequence) {
+            this.nextSequence = nextSequence;
+        }
+
+        /**
+         * Returns the next events that have been appended, without waiting.
+         * @param max the maximum number of events to return
+         * @return the events in sequence order, empty if the reader is at the end of the log
+         */
+        public List<GymBookingEvent> poll(int max) {
+            List<GymBookingEvent> events = new ArrayList<>();
+            long last = lastSequence;  // Only records up to here are complete and visible
+            if (nextSequence > last) {
+                return events;
+            }
+            if (buffer == null) {
+                seek();
+            }
+            while (events.size() < max && nextSequence <= last) {
+                GymBookingEvent event = readRecord(buffer);
+                if (event == null) {
+                    // End of this segment; the next record is at the start of the following one
+                    segmentIndex++;
+                    buffer = view(segments.get(segmentIndex));
+                    continue;
+                }
+                if (event.getSequence() >= nextSequence) {
+                    events.add(event);
+                    nextSequence = event.getSequence() + 1;
+                }
+            }
+            return events;
+        }
+
+        // Sequence of the next event this reader returns
+        public long getNextSequence() {
+            return nextSequence;
+        }
+
+        // Positions the reader at the segment holding nextSequence; poll skips the earlier records of it
+        private void seek() {
+            segmentIndex = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                if (segments.get(i).firstSequence <= nextSequence) {
+                    segmentIndex = i;
+                }
+            }
+            buffer = view(segments.get(segmentIndex));
+        }
+    }
+
+    // A private view of a whole segment, so readers never disturb the writer's buffer position
+    private static ByteBuffer view(Segment segment) {
+        ByteBuffer view = segment.buffer.duplicate();
+        view.position(0);
+        return view;
+    }
+
+    // Serialises the body of a record
+    private static byte[] encode(long sequence, GymBookingEvent event) {
+        byte[] type = text(event.getType());
+        byte[] detail = text(event.getDetail());
+        ByteBuffer body = ByteBuffer.allocate(8 + 8 + 8 + 4 + 4 + 8 + 4 + 2 + type.length + 2 + detail.length);
+        body.putLong(sequence);
+        body.putLong(event.getEventId());
+        body.putLong(event.getCreatedAt());
+        body.putInt(event.getAggregateId());
+        body.putInt(event.getSlotId());
+        body.putLong(event.getDate() == null ? NO_DATE : toLocalDate(event.getDate()).toEpochDay());
+        body.putInt(event.getSeatDelta());
+        body.putShort((short) type.length).put(type);
+        body.putShort((short) detail.length).put(detail);
+        return body.array();
+    }
+
+    /**
+     * Reads the record at the buffer's position and moves past it.
+     * @return the event, or null at the end of the written data, at the end of a segment or at a torn record
+     */
+    private static GymBookingEvent readRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length <= 0 || length + 4 > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+        byte[] body = new byte[length];
+        buffer.get(body);
+        int checksum = buffer.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+            buffer.position(start);
+            return null;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(body);
+        GymBookingEvent event = new GymBookingEvent();
+        event.setSequence(in.getLong());
+        event.setEventId(in.getLong());
+        event.setCreatedAt(in.getLong());
+        event.setAggregateId(in.getInt());
+        event.setSlotId(in.getInt());
+        long epochDay = in.getLong();
+        event.setDate(epochDay == NO_DATE ? null : java.sql.Date.valueOf(LocalDate.ofEpochDay(epochDay)));
+        event.setSeatDelta(in.getInt());
+        event.setType(readText(in));
+        event.setDetail(readText(in));
+        return event;
+    }
+
+    private static byte[] text(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("Event text longer than " + MAX_TEXT_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String readText(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // java.sql.Date throws on toInstant, so it is converted directly
+    private static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
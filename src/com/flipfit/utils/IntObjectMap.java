@@ -0,0 +1,179 @@
+package com.flipfit.utils;
+
+/**
+ * Map from int keys to objects without boxing: keys and values live in two parallel arrays and collisions
+ * are resolved by linear probing, so a lookup is a hash and usually one or two array reads.
+ * Null values are not allowed; a null value marks a free cell. Not thread-safe: share a map between
+ * threads only after it is no longer changed, e.g. by publishing it through a volatile field.
+ */
+public class IntObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates a map that holds the given number of entries without growing.
+     * @param expectedSize the number of entries expected
+     */
+    public IntObjectMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {  // At most half full
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    // Copy constructor; the values themselves are shared
+    public IntObjectMap(IntObjectMap<V> other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+    }
+
+    /**
+     * Returns the value of a key.
+     * @param key the key
+     * @return the value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    // Whether the key is in the map
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Stores a value under a key, replacing the previous one.
+     * @param key the key
+     * @param value the value, not null
+     * @return the previous value, or null if the key was new
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntObjectMap does not store null values");
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes a key. The entries that follow it in its probe run are shifted back, so no tombstones are left.
+     * @param key the key
+     * @return the removed value, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (values[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == null) {
+            return null;
+        }
+        V removed = (V) values[i];
+        // Move every later entry of the run into the gap unless its home cell lies cyclically after the gap
+        int gap = i;
+        for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = index(keys[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    // Getter for the number of entries
+    public int size() {
+        return size;
+    }
+
+    // Whether the map has no entries
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calls the visitor for every entry, in no particular order.
+     * @param visitor the visitor
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super V> visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                visitor.visit(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    // Receives the entries of forEach
+    public interface Visitor<V> {
+        void visit(int key, V value);
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = index(oldKeys[j], mask);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    // Spreads sequential keys such as auto-increment IDs over the table
+    private static int index(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        forEach((key, value) -> text.append(text.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return text.append('}').toString();
+    }
+}
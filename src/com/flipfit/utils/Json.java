@@ -0,0 +1,192 @@
+package com.flipfit.utils;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the bulk importer and the HTTP API: parses flat objects and writes
+ * maps, iterables, strings, numbers, booleans and dates. No external JSON library is needed.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Writes a value as JSON text.
+     * Maps become objects, iterables and arrays of objects become arrays, dates and times are written as strings.
+     * @param value the value to write
+     * @return the JSON text
+     */
+    public static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(out, value);
+        return out.toString();
+    }
+
+    private static void write(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                quote(out, String.valueOf(entry.getKey()));
+                out.append(':');
+                write(out, entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof Iterable || value instanceof Object[]) {
+            Iterable<?> items = value instanceof Iterable ? (Iterable<?>) value : Arrays.asList((Object[]) value);
+            out.append('[');
+            boolean first = true;
+            for (Object item : items) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(out, item);
+            }
+            out.append(']');
+        } else if (value instanceof java.sql.Date || value instanceof TemporalAccessor) {
+            quote(out, value.toString());  // ISO-8601, e.g. 2024-05-01 or 07:30
+        } else if (value instanceof Date) {
+            quote(out, new java.sql.Date(((Date) value).getTime()).toString());
+        } else {
+            quote(out, value.toString());
+        }
+    }
+
+    // Appends a JSON string literal
+    private static void quote(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Parses one flat JSON object into its fields; numbers, booleans and null are returned as text
+     * (null as a null value). Nested objects and arrays are not supported.
+     * @param line the JSON text
+     * @return the fields in document order
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    public static Map<String, String> parseObject(String line) {
+        Map<String, String> record = new LinkedHashMap<>();
+        int[] pos = {skipSpaces(line, 0)};
+        expect(line, pos, '{');
+        if (peek(line, pos) == '}') {
+            return record;
+        }
+        while (true) {
+            String key = jsonString(line, pos);
+            expect(line, pos, ':');
+            String value;
+            char c = peek(line, pos);
+            if (c == '"') {
+                value = jsonString(line, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < line.length() && ",} \t".indexOf(line.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = line.substring(start, pos[0]);
+                if (value.equals("null")) {
+                    value = null;
+                } else if (value.isEmpty() || value.equals("{") || value.equals("[")) {
+                    throw new IllegalArgumentException("unsupported JSON value for " + key);
+                }
+            }
+            record.put(key, value);
+            c = peek(line, pos);
+            pos[0]++;
+            if (c == '}') {
+                return record;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("malformed JSON at column " + pos[0]);
+            }
+        }
+    }
+
+    // Reads a JSON string literal starting at the current position
+    private static String jsonString(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < line.length()) {
+            char c = line.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\' && pos[0] < line.length()) {
+                char escaped = line.charAt(pos[0]++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 't': value.append('\t'); break;
+                    case 'r': value.append('\r'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (pos[0] + 4 > line.length()) {
+                            throw new IllegalArgumentException("malformed unicode escape");
+                        }
+                        value.append((char) Integer.parseInt(line.substring(pos[0], pos[0] + 4), 16));
+                        pos[0] += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        throw new IllegalArgumentException("unterminated JSON string");
+    }
+
+    // Consumes the expected character after optional whitespace
+    private static void expect(String line, int[] pos, char expected) {
+        if (peek(line, pos) != expected) {
+            throw new IllegalArgumentException("malformed JSON: expected '" + expected + "' at column " + (pos[0] + 1));
+        }
+        pos[0]++;
+    }
+
+    // Skips whitespace and returns the next character without consuming it
+    private static char peek(String line, int[] pos) {
+        pos[0] = skipSpaces(line, pos[0]);
+        if (pos[0] >= line.length()) {
+            throw new IllegalArgumentException("malformed JSON: unexpected end of line");
+        }
+        return line.charAt(pos[0]);
+    }
+
+    private static int skipSpaces(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,103 @@
+package com.flipfit.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram for percentiles such as p99.
+ * Samples are counted in buckets whose width grows geometrically (about 10% per bucket),
+ * covering 1 microsecond up to roughly an hour, so a percentile is accurate to within one bucket.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;  // Ratio between neighbouring bucket bounds
+    private static final int BUCKETS = 240;  // 1.1^240 microseconds is more than an hour
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Records one sample.
+     * @param nanos the measured duration in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    // Getter for the number of recorded samples
+    public long getCount() {
+        return count.sum();
+    }
+
+    // Getter for the sum of all samples, in nanoseconds
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    // Getter for the mean of all samples, in milliseconds
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (double) n / 1e6;
+    }
+
+    /**
+     * Returns the value below which the given share of samples fall, as the upper bound of its bucket.
+     * @param percentile the percentile between 0 and 100, e.g. 99
+     * @return the percentile in milliseconds, or 0 if nothing was recorded
+     */
+    public double getPercentileMillis(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundMicros(i) / 1000.0;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) / 1000.0;
+    }
+
+    // Clears all samples
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+    }
+
+    // Maps a duration to its bucket
+    private static int bucket(long nanos) {
+        double micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+        if (micros <= 1) {
+            return 0;
+        }
+        int index = (int) Math.ceil(Math.log(micros) / LOG_GROWTH);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    // Upper bound of a bucket in microseconds
+    private static double upperBoundMicros(int bucket) {
+        return Math.pow(GROWTH, bucket);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.2fms p50=%.2fms p99=%.2fms",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(99));
+    }
+}
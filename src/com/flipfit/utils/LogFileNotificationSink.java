@@ -0,0 +1,44 @@
+package com.flipfit.utils;
+
+import com.flipfit.bean.GymNotification;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Appends every notification as one tab separated line to a log file:
+ * time, type, recipient user ID, booking ID and message.
+ * A batch is written with one open, write and flush of the file.
+ */
+public class LogFileNotificationSink implements NotificationSink {
+
+    private final Path file;
+
+    public LogFileNotificationSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void deliver(List<GymNotification> notifications) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (GymNotification notification : notifications) {
+                writer.write(Instant.ofEpochMilli(notification.getCreatedAt()) + "\t" + notification.getType()
+                        + "\t" + notification.getUserId() + "\t" + notification.getBookingId()
+                        + "\t" + notification.getMsg().replace('\n', ' '));
+                writer.newLine();
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+}
@@ -0,0 +1,54 @@
+package com.flipfit.utils;
+
+import com.flipfit.bean.GymNotification;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for an SMTP relay.
+ * Every notification becomes one RFC 822 message file (.eml) in a drop directory, addressed to the
+ * recipient's user ID, exactly as it would be handed to a mail server. Tests and developers can read
+ * the directory instead of running a real relay.
+ */
+public class MailDropNotificationSink implements NotificationSink {
+
+    private static final String SENDER = "notifications@flipfit.local";
+
+    private final Path directory;
+    private final AtomicLong sequence = new AtomicLong();  // Keeps file names unique within one millisecond
+
+    public MailDropNotificationSink(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public void deliver(List<GymNotification> notifications) throws IOException {
+        for (GymNotification notification : notifications) {
+            String message = "From: " + SENDER + "\r\n"
+                    + "To: user-" + notification.getUserId() + "@flipfit.local\r\n"
+                    + "Date: " + DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                            ZonedDateTime.ofInstant(Instant.ofEpochMilli(notification.getCreatedAt()), ZoneOffset.UTC)) + "\r\n"
+                    + "Subject: FlipFit " + notification.getType()
+                    + (notification.getBookingId() > 0 ? " for booking " + notification.getBookingId() : "") + "\r\n"
+                    + "Content-Type: text/plain; charset=UTF-8\r\n"
+                    + "\r\n"
+                    + notification.getMsg() + "\r\n";
+            Path file = directory.resolve(notification.getCreatedAt() + "-" + sequence.incrementAndGet() + ".eml");
+            Files.write(file, message.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "maildrop";
+    }
+}
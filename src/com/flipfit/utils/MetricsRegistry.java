@@ -0,0 +1,205 @@
+package com.flipfit.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Application-wide timers, counters and gauges.
+ * A timer is a {@link LatencyHistogram} and a counter a LongAdder, both looked up once by metric name and
+ * operation and then kept by the caller, so recording a sample is a few atomic adds and allocates nothing.
+ * Gauges are read from a supplier only when the metrics are exported.
+ *
+ * The metrics can be scraped in the Prometheus text format ({@link #scrape()}, served by FlipfitServer on
+ * /metrics) and written to standard output as periodic snapshots ({@link #startLogging(long)}).
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};  // Percentiles exported for every timer
+
+    // A gauge or counter whose value is read from elsewhere, e.g. from the pool statistics
+    private static final class Sampled {
+        final String type;
+        final String help;
+        final DoubleSupplier value;
+
+        Sampled(String type, String help, DoubleSupplier value) {
+            this.type = type;
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    // Metric name -> operation -> series; sorted so exports are stable
+    private final ConcurrentMap<String, ConcurrentSkipListMap<String, LatencyHistogram>> timers = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, ConcurrentSkipListMap<String, LongAdder>> counters = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Sampled> sampled = new ConcurrentSkipListMap<>();
+    private final Map<String, String> help = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService logger;
+
+    private MetricsRegistry() {
+    }
+
+    // Returns the shared registry
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the timer of an operation, creating it on first use. Keep the returned histogram instead of
+     * looking it up on every call.
+     * @param name the metric name, e.g. flipfit_dao_seconds
+     * @param operation the operation label, e.g. GymCustomerDAO.createBooking
+     * @return the histogram to record the durations of the operation in
+     */
+    public LatencyHistogram timer(String name, String operation) {
+        return timers.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>()).computeIfAbsent(operation, o -> new LatencyHistogram());
+    }
+
+    /**
+     * Exports a histogram that is kept elsewhere under a metric name and operation.
+     * @param name the metric name
+     * @param operation the operation label
+     * @param histogram the histogram to export
+     */
+    public void register(String name, String operation, LatencyHistogram histogram) {
+        timers.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>()).put(operation, histogram);
+    }
+
+    /**
+     * Returns the counter of an operation, creating it on first use.
+     * @param name the metric name, ending in _total
+     * @param operation the operation label
+     * @return the counter to increment
+     */
+    public LongAdder counter(String name, String operation) {
+        return counters.computeIfAbsent(name, n -> new ConcurrentSkipListMap<>()).computeIfAbsent(operation, o -> new LongAdder());
+    }
+
+    /**
+     * Exports a value that is read whenever the metrics are exported.
+     * @param name the metric name
+     * @param type "gauge" for a value that goes up and down, "counter" for one that only grows
+     * @param help one line describing the value
+     * @param value reads the current value
+     */
+    public void register(String name, String type, String help, DoubleSupplier value) {
+        sampled.put(name, new Sampled(type, help, value));
+    }
+
+    /**
+     * Sets the description exported with a timer or counter.
+     * @param name the metric name
+     * @param help one line describing the metric
+     */
+    public void describe(String name, String help) {
+        this.help.put(name, help);
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format (version 0.0.4). Timers are exported as
+     * summaries in seconds with their p50, p99 and p999.
+     * @return the metrics text
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, ConcurrentSkipListMap<String, LatencyHistogram>> timer : timers.entrySet()) {
+            String name = timer.getKey();
+            header(out, name, "summary", help.getOrDefault(name, name));
+            for (Map.Entry<String, LatencyHistogram> series : timer.getValue().entrySet()) {
+                String operation = escape(series.getKey());
+                LatencyHistogram histogram = series.getValue();
+                for (double quantile : QUANTILES) {
+                    out.append(name).append("{operation=\"").append(operation).append("\",quantile=\"").append(quantile).append("\"} ")
+                            .append(histogram.getPercentileMillis(quantile * 100) / 1000).append('\n');
+                }
+                out.append(name).append("_sum{operation=\"").append(operation).append("\"} ")
+                        .append(histogram.getTotalNanos() / 1e9).append('\n');
+                out.append(name).append("_count{operation=\"").append(operation).append("\"} ")
+                        .append(histogram.getCount()).append('\n');
+            }
+        }
+        for (Map.Entry<String, ConcurrentSkipListMap<String, LongAdder>> counter : counters.entrySet()) {
+            String name = counter.getKey();
+            header(out, name, "counter", help.getOrDefault(name, name));
+            for (Map.Entry<String, LongAdder> series : counter.getValue().entrySet()) {
+                out.append(name).append("{operation=\"").append(escape(series.getKey())).append("\"} ")
+                        .append(series.getValue().sum()).append('\n');
+            }
+        }
+        for (Map.Entry<String, Sampled> entry : sampled.entrySet()) {
+            Sampled metric = entry.getValue();
+            header(out, entry.getKey(), metric.type, metric.help);
+            out.append(entry.getKey()).append(' ').append(metric.value.getAsDouble()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Summarises the metrics in a few human readable lines: every timer that recorded anything with its
+     * count and percentiles in milliseconds, every non-zero counter and every sampled value.
+     * @return the snapshot
+     */
+    public String snapshot() {
+        StringBuilder out = new StringBuilder(2048);
+        for (Map.Entry<String, ConcurrentSkipListMap<String, LatencyHistogram>> timer : timers.entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> series : timer.getValue().entrySet()) {
+                LatencyHistogram histogram = series.getValue();
+                if (histogram.getCount() > 0) {
+                    out.append(String.format("%s %s count=%d mean=%.3fms p50=%.3fms p99=%.3fms p999=%.3fms%n", timer.getKey(),
+                            series.getKey(), histogram.getCount(), histogram.getMeanMillis(), histogram.getPercentileMillis(50),
+                            histogram.getPercentileMillis(99), histogram.getPercentileMillis(99.9)));
+                }
+            }
+        }
+        for (Map.Entry<String, ConcurrentSkipListMap<String, LongAdder>> counter : counters.entrySet()) {
+            for (Map.Entry<String, LongAdder> series : counter.getValue().entrySet()) {
+                long value = series.getValue().sum();
+                if (value > 0) {
+                    out.append(counter.getKey()).append(' ').append(series.getKey()).append(' ').append(value).append(System.lineSeparator());
+                }
+            }
+        }
+        for (Map.Entry<String, Sampled> entry : sampled.entrySet()) {
+            out.append(entry.getKey()).append(' ').append(entry.getValue().value.getAsDouble()).append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes a snapshot to standard output at a fixed period from a daemon thread. Calling it again has no effect.
+     * @param periodSeconds seconds between two snapshots
+     */
+    public synchronized void startLogging(long periodSeconds) {
+        if (logger != null || periodSeconds <= 0) {
+            return;
+        }
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flipfit-metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> System.out.print("# Metrics snapshot" + System.lineSeparator() + snapshot()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    // Writes the HELP and TYPE lines of a metric
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    // Escapes a label value
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
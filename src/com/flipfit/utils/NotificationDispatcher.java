@@ -0,0 +1,221 @@
+package com.flipfit.utils;
+
+import com.flipfit.bean.GymNotification;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends notifications off the request path.
+ * Producers put notifications on a bounded in-process queue and return immediately; worker threads take
+ * them in batches, coalesce identical notifications (e.g. from a retried request) and hand every batch to
+ * each configured sink. A slow or failing sink therefore never adds latency to a booking or an approval.
+ *
+ * Backpressure: {@link #publish(GymNotification)} never waits and drops the notification when the queue
+ * is full; producers that can afford to wait, such as bulk jobs, use
+ * {@link #publish(GymNotification, long)} and are slowed down to the pace of the sinks instead.
+ *
+ * Settings (system properties): flipfit.notify.sinks (comma separated: log, maildrop; "none" disables
+ * delivery), flipfit.notify.log.file, flipfit.notify.maildrop.dir, flipfit.notify.queue.capacity,
+ * flipfit.notify.workers and flipfit.notify.batch.size.
+ */
+public class NotificationDispatcher {
+
+    // Notification types
+    public static final String BOOKING = "booking";
+    public static final String CANCELLATION = "cancellation";
+    public static final String PAYMENT = "payment";
+    public static final String WAITLIST_PROMOTION = "waitlist-promotion";
+    public static final String WAITLIST_CANCELLATION = "waitlist-cancellation";
+    public static final String OWNER_APPROVAL = "owner-approval";
+
+    private static final String SINKS = System.getProperty("flipfit.notify.sinks", "log");  // Sinks every batch goes to
+    private static final String LOG_FILE = System.getProperty("flipfit.notify.log.file", "flipfit-notifications.log");
+    private static final String MAILDROP_DIR = System.getProperty("flipfit.notify.maildrop.dir", "maildrop");
+    private static final int QUEUE_CAPACITY = Integer.getInteger("flipfit.notify.queue.capacity", 10_000);  // Notifications waiting for a worker
+    private static final int WORKERS = Integer.getInteger("flipfit.notify.workers", 1);  // Threads delivering to the sinks
+    private static final int BATCH_SIZE = Integer.getInteger("flipfit.notify.batch.size", 100);  // Notifications per delivery
+
+    // Holder idiom: the shared dispatcher is built on first use, once
+    private static final class Holder {
+        private static final NotificationDispatcher INSTANCE = fromSystemProperties();
+    }
+
+    private final List<NotificationSink> sinks;
+    private final BlockingQueue<GymNotification> queue;
+    private final int batchSize;
+
+    // Dispatcher statistics
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();  // Failed batches by sink name
+    private final AtomicInteger peakQueued = new AtomicInteger();
+
+    public NotificationDispatcher(List<NotificationSink> sinks, int queueCapacity, int workers, int batchSize) {
+        this.sinks = new ArrayList<>(sinks);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+
+        // Background threads that deliver the queued notifications
+        for (int w = 1; w <= Math.max(1, workers); w++) {
+            Thread worker = new Thread(this::deliverLoop, "flipfit-notifier-" + w);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    // Returns the application-wide dispatcher, configured by the flipfit.notify.* system properties
+    public static NotificationDispatcher getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Creates the dispatcher configured by the flipfit.notify.* system properties.
+     * Sinks that cannot be set up are reported and left out, so notifications never keep the application from starting.
+     * @return the configured dispatcher
+     */
+    public static NotificationDispatcher fromSystemProperties() {
+        List<NotificationSink> sinks = new ArrayList<>();
+        for (String name : SINKS.split(",")) {
+            try {
+                switch (name.trim()) {
+                    case "log":
+                        sinks.add(new LogFileNotificationSink(Paths.get(LOG_FILE)));
+                        break;
+                    case "maildrop":
+                        sinks.add(new MailDropNotificationSink(Paths.get(MAILDROP_DIR)));
+                        break;
+                    case "none":
+                    case "":
+                        break;
+                    default:
+                        System.out.println("Unknown notification sink: " + name);
+                }
+            } catch (IOException e) {
+                System.out.println("Notification sink " + name + " is not available: " + e);
+            }
+        }
+        return new NotificationDispatcher(sinks, QUEUE_CAPACITY, WORKERS, BATCH_SIZE);
+    }
+
+    /**
+     * Queues a notification without ever waiting.
+     * @param notification the notification to send.
+     * @return true if it was queued, false if the queue was full and the notification was dropped.
+     */
+    public boolean publish(GymNotification notification) {
+        if (sinks.isEmpty()) {
+            return true;  // Nothing would receive it
+        }
+        published.increment();
+        if (!queue.offer(notification)) {
+            dropped.increment();
+            return false;
+        }
+        peakQueued.accumulateAndGet(queue.size(), Math::max);
+        return true;
+    }
+
+    /**
+     * Queues a notification, waiting up to the given time for room in the queue.
+     * @param notification the notification to send.
+     * @param timeoutMillis the longest time to wait for room.
+     * @return true if it was queued, false if it was dropped after the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean publish(GymNotification notification, long timeoutMillis) throws InterruptedException {
+        if (sinks.isEmpty()) {
+            return true;
+        }
+        published.increment();
+        if (!queue.offer(notification, timeoutMillis, TimeUnit.MILLISECONDS)) {
+            dropped.increment();
+            return false;
+        }
+        peakQueued.accumulateAndGet(queue.size(), Math::max);
+        return true;
+    }
+
+    // Shorthand for publishing a new notification without waiting
+    public boolean publish(int userId, int bookingId, String type, String msg) {
+        return publish(new GymNotification(userId, bookingId, type, msg));
+    }
+
+    // Takes whatever is queued, up to one batch, and hands it to every sink
+    private void deliverLoop() {
+        List<GymNotification> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                deliver(coalesce(batch));
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();  // Keep the worker alive
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Collapses identical notifications of one batch into the first of them
+    private List<GymNotification> coalesce(List<GymNotification> batch) {
+        Map<String, GymNotification> unique = new LinkedHashMap<>();
+        for (GymNotification notification : batch) {
+            String key = notification.getType() + '\u0000' + notification.getUserId() + '\u0000'
+                    + notification.getBookingId() + '\u0000' + notification.getMsg();
+            if (unique.putIfAbsent(key, notification) != null) {
+                coalesced.increment();
+            }
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private void deliver(List<GymNotification> notifications) {
+        batches.increment();
+        for (NotificationSink sink : sinks) {
+            try {
+                sink.deliver(notifications);
+            } catch (IOException | RuntimeException e) {
+                failures.computeIfAbsent(sink.getName(), name -> new LongAdder()).increment();
+                System.out.println("Notification sink " + sink.getName() + " failed: " + e);
+            }
+        }
+        delivered.add(notifications.size());
+    }
+
+    // Number of notifications waiting for a worker
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    // Number of notifications handed to the sinks so far
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    @Override
+    public String toString() {
+        List<String> sinkNames = new ArrayList<>();
+        for (NotificationSink sink : sinks) {
+            sinkNames.add(sink.getName());
+        }
+        return "NotificationDispatcher{sinks=" + sinkNames + ", published=" + published.sum() + ", dropped=" + dropped.sum()
+                + ", coalesced=" + coalesced.sum() + ", delivered=" + delivered.sum() + ", batches=" + batches.sum()
+                + ", failures=" + failures + ", queued=" + queue.size() + ", peakQueued=" + peakQueued.get() + "}";
+    }
+}
@@ -0,0 +1,24 @@
+package com.flipfit.utils;
+
+import com.flipfit.bean.GymNotification;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of notifications, such as a log file or a mail relay.
+ * Sinks are called by the dispatcher's worker threads, never by the thread that caused the event.
+ */
+public interface NotificationSink {
+
+    /**
+     * Delivers one batch of notifications.
+     *
+     * @param notifications the notifications, oldest first.
+     * @throws IOException if the batch could not be delivered.
+     */
+    public void deliver(List<GymNotification> notifications) throws IOException;
+
+    // Short name of the sink, used in the dispatcher's statistics
+    public String getName();
+}
@@ -0,0 +1,101 @@
+package com.flipfit.utils;
+
+import javax.crypto.SecretKeyFactory;  // Importing SecretKeyFactory for PBKDF2 key derivation
+import javax.crypto.spec.PBEKeySpec;  // Importing PBEKeySpec to describe password, salt and cost
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;  // Importing MessageDigest for constant-time comparison
+import java.security.SecureRandom;  // Importing SecureRandom to generate salts
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Salted, slow password hashing with PBKDF2-HMAC-SHA256.
+ * Hashes are stored as "pbkdf2$iterations$salt$hash" (salt and hash Base64 encoded), so the cost
+ * can be raised later without invalidating existing passwords.
+ * The cost is tunable through the system property "flipfit.password.iterations".
+ * Values without the "pbkdf2$" prefix are legacy plaintext passwords and are still accepted by verify.
+ */
+public final class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int ITERATIONS = Integer.getInteger("flipfit.password.iterations", 100_000);  // Hashing cost
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Hashes a password with a fresh random salt and the configured cost.
+     * @param password the plaintext password
+     * @return the encoded hash to be stored
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, ITERATIONS);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + ITERATIONS + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a stored value, using the cost recorded in the stored hash.
+     * @param password the plaintext password entered by the user
+     * @param stored the stored hash, or a legacy plaintext password
+     * @return true if the password matches
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            // Legacy rows still hold the plaintext password
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false;  // Corrupt stored value
+        }
+    }
+
+    // Whether a stored value is a hash produced by this class
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    // Whether a stored value should be re-hashed: legacy plaintext or a cost below the current setting
+    public static boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < ITERATIONS;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // Derives the hash bytes
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
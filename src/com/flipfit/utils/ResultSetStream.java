@@ -0,0 +1,98 @@
+package com.flipfit.utils;
+
+import java.sql.Connection;  // Importing SQL Connection class; the stream owns the connection until closed
+import java.sql.PreparedStatement;  // Importing PreparedStatement class for the query being streamed
+import java.sql.ResultSet;  // Importing ResultSet class for reading rows one at a time
+import java.sql.SQLException;  // Importing SQLException class for handling SQL errors
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Turns an open ResultSet into a lazily evaluated Stream.
+ * Rows are mapped one at a time as the stream is consumed, so large tables are never held in memory.
+ * The stream owns the connection, statement and result set and closes all three when it is closed,
+ * so callers must consume it inside a try-with-resources block.
+ */
+public final class ResultSetStream {
+
+    // Rows fetched per round trip when the driver supports cursor fetching
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    // Maps the current row of a result set to an object
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet resultSet) throws SQLException;
+    }
+
+    private ResultSetStream() {
+    }
+
+    /**
+     * Executes the prepared statement and streams its rows.
+     * @param conn the connection the statement was prepared on; returned to the pool when the stream is closed
+     * @param statement the prepared statement with all parameters set
+     * @param mapper maps each row to an object
+     * @return a stream of mapped rows that must be closed by the caller
+     * @throws SQLException if the query cannot be executed; the connection is closed in that case
+     */
+    public static <T> Stream<T> of(Connection conn, PreparedStatement statement, RowMapper<T> mapper) throws SQLException {
+        return of(conn, statement, mapper, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Executes the prepared statement and streams its rows, fetching the given number of rows per round trip.
+     * @param conn the connection the statement was prepared on; returned to the pool when the stream is closed
+     * @param statement the prepared statement with all parameters set
+     * @param mapper maps each row to an object
+     * @param fetchSize rows fetched per round trip; larger for small rows, smaller for wide ones
+     * @return a stream of mapped rows that must be closed by the caller
+     * @throws SQLException if the query cannot be executed; the connection is closed in that case
+     */
+    public static <T> Stream<T> of(Connection conn, PreparedStatement statement, RowMapper<T> mapper, int fetchSize) throws SQLException {
+        ResultSet resultSet;
+        try {
+            statement.setFetchSize(fetchSize);  // Fetch rows in chunks instead of buffering the whole result
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                resultSet.close();
+                statement.close();
+            } catch (SQLException ignored) {
+                // The connection below closes anything left open
+            }
+            closeQuietly(conn);
+        });
+    }
+
+    // Closes (or returns to the pool) a connection, ignoring errors
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // Nothing more can be done with a broken connection
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.flipfit.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies versioned SQL scripts to the database.
+ * Scripts live in the classpath directory "db/migration" and are named V&lt;version&gt;__&lt;description&gt;.sql.
+ * Applied versions are recorded in the schema_version table; pending scripts run in version order,
+ * each in its own transaction where the database supports transactional DDL.
+ * Statements in a script are separated by a semicolon at the end of a line; lines starting with "--" are comments.
+ */
+public final class SchemaMigrator {
+
+    private static final String LOCATION = "db/migration";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String CREATE_HISTORY_SQL = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "Version INT PRIMARY KEY, Description VARCHAR(200) NOT NULL, InstalledOn TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String APPLIED_SQL = "SELECT Version FROM schema_version";
+    private static final String RECORD_SQL = "INSERT INTO schema_version(Version, Description) VALUES (?,?)";
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Brings the schema up to date.
+     * @param conn the connection to migrate with; its auto-commit mode is restored afterwards
+     * @return the number of scripts applied
+     * @throws SQLException if a script fails; that script is rolled back and later scripts are not run
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        TreeMap<Integer, String> scripts = findScripts();
+
+        try (Statement statement = conn.createStatement()) {
+            statement.execute(CREATE_HISTORY_SQL);
+        }
+        Set<Integer> applied = new HashSet<>();
+        try (Statement statement = conn.createStatement(); ResultSet rs = statement.executeQuery(APPLIED_SQL)) {
+            while (rs.next()) {
+                applied.add(rs.getInt("Version"));
+            }
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        int count = 0;
+        try {
+            conn.setAutoCommit(false);
+            for (Integer version : scripts.keySet()) {
+                if (applied.contains(version)) {
+                    continue;
+                }
+                String name = scripts.get(version);
+                try (Statement statement = conn.createStatement()) {
+                    for (String sql : statements(read(LOCATION + "/" + name))) {
+                        statement.execute(sql);
+                    }
+                    try (PreparedStatement record = conn.prepareStatement(RECORD_SQL)) {
+                        record.setInt(1, version);
+                        record.setString(2, name);
+                        record.executeUpdate();
+                    }
+                    conn.commit();
+                    count++;
+                    System.out.println("Applied migration " + name);
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw new SQLException("Migration " + name + " failed: " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return count;
+    }
+
+    // Finds all migration scripts on the classpath, keyed by version
+    private static TreeMap<Integer, String> findScripts() throws SQLException {
+        TreeMap<Integer, String> scripts = new TreeMap<>();
+        try {
+            Enumeration<URL> locations = SchemaMigrator.class.getClassLoader().getResources(LOCATION);
+            while (locations.hasMoreElements()) {
+                for (String name : list(locations.nextElement())) {
+                    Matcher matcher = SCRIPT_NAME.matcher(name);
+                    if (matcher.matches()) {
+                        String previous = scripts.put(Integer.parseInt(matcher.group(1)), name);
+                        if (previous != null && !previous.equals(name)) {
+                            throw new SQLException("Two migrations with version " + matcher.group(1) + ": " + previous + ", " + name);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new SQLException("Cannot list migration scripts: " + e.getMessage(), e);
+        }
+        return scripts;
+    }
+
+    // Lists the file names in a classpath directory, which may be a folder or inside a jar
+    private static List<String> list(URL directory) throws IOException, URISyntaxException {
+        List<String> names = new ArrayList<>();
+        if (directory.getProtocol().equals("jar")) {
+            JarURLConnection connection = (JarURLConnection) directory.openConnection();
+            try (JarFile jar = connection.getJarFile()) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String entry = entries.nextElement().getName();
+                    if (entry.startsWith(LOCATION + "/") && entry.indexOf('/', LOCATION.length() + 1) < 0) {
+                        names.add(entry.substring(LOCATION.length() + 1));
+                    }
+                }
+            }
+        } else {
+            try (java.util.stream.Stream<Path> files = Files.list(Paths.get(directory.toURI()))) {
+                files.forEach(file -> names.add(file.getFileName().toString()));
+            }
+        }
+        return names;
+    }
+
+    // Reads a script from the classpath
+    private static String read(String resource) {
+        InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Migration script not found: " + resource);
+        }
+        StringBuilder script = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().startsWith("--")) {
+                    script.append(line).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read migration script " + resource, e);
+        }
+        return script.toString();
+    }
+
+    // Splits a script into statements at semicolons that end a line
+    private static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        for (String part : script.split(";\\s*\n")) {
+            String sql = part.trim();
+            if (sql.endsWith(";")) {
+                sql = sql.substring(0, sql.length() - 1);
+            }
+            if (!sql.isEmpty()) {
+                statements.add(sql);
+            }
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,401 @@
+package com.flipfit.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Times every SQL statement run through the pool and counts the rows and bytes it returned.
+ * The pool wraps each statement it hands out; a query is measured from its execution until its result set
+ * (or the statement) is closed, so the time spent fetching rows is included. The figures are exported per
+ * SQL text as flipfit_sql_seconds, flipfit_sql_rows_total and flipfit_sql_bytes_total, with IN lists
+ * collapsed so that "IN (?,?,?)" and "IN (?,?)" share one series.
+ *
+ * Counting rows and bytes means proxying the result set, which costs a reflective call per getter and
+ * roughly halved the throughput of short queries. Every execution is therefore timed, but the rows and
+ * bytes of a query are only counted on a random one in {@code sample} executions and added to the
+ * counters multiplied by {@code sample}. Update counts are always exact.
+ *
+ * Statements slower than the threshold, and counted queries that return more rows than the scan limit,
+ * are written to the slow-query log together with the types and lengths of their bind parameters; the
+ * values themselves are never logged. Queries without a WHERE clause are marked as full scans there.
+ * Bytes are estimated from the values the DAO reads: the length of strings and byte arrays, 8 for
+ * everything else.
+ */
+public final class StatementTimer {
+
+    private static final Pattern IN_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");  // Placeholders of an IN list
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern WHERE = Pattern.compile("\\bWHERE\\b", Pattern.CASE_INSENSITIVE);
+
+    // Proxy constructors looked up once; Proxy.newProxyInstance resolves them again on every call
+    private static final Constructor<?> STATEMENT = proxyConstructor(Statement.class);
+    private static final Constructor<?> PREPARED = proxyConstructor(PreparedStatement.class);
+    private static final Constructor<?> CALLABLE = proxyConstructor(CallableStatement.class);
+    private static final Constructor<?> RESULT = proxyConstructor(ResultSet.class);
+
+    // Figures of one SQL text
+    private static final class SqlStats {
+        final String sql;  // SQL with IN lists collapsed
+        final boolean fullScan;  // A SELECT without any WHERE clause
+        final LatencyHistogram latency;
+        final LongAdder rows;
+        final LongAdder bytes;
+        final LongAdder slow;
+
+        SqlStats(String sql, MetricsRegistry metrics) {
+            this.sql = sql;
+            String upper = sql.trim().toUpperCase(Locale.ROOT);
+            this.fullScan = upper.startsWith("SELECT") && !WHERE.matcher(upper).find();
+            this.latency = metrics.timer("flipfit_sql_seconds", sql);
+            this.rows = metrics.counter("flipfit_sql_rows_total", sql);
+            this.bytes = metrics.counter("flipfit_sql_bytes_total", sql);
+            this.slow = metrics.counter("flipfit_sql_slow_total", sql);
+        }
+    }
+
+    private final long slowNanos;
+    private final long scanRows;
+    private final String logFile;
+    private final int sample;
+    private final MetricsRegistry metrics;
+    private final Map<String, SqlStats> stats = new ConcurrentHashMap<>();
+    private final LongAdder logged = new LongAdder();
+    private BufferedWriter log;  // Opened on the first slow query
+
+    /**
+     * Creates a timer.
+     * @param slowMillis statements taking at least this long are logged
+     * @param scanRows queries returning at least this many rows are logged however fast they were
+     * @param logFile the slow-query log; an empty name writes to standard output
+     * @param sample the rows and bytes of a query are counted on one execution in this many; 1 counts every execution
+     * @param metrics the registry the figures are exported to
+     */
+    public StatementTimer(long slowMillis, long scanRows, String logFile, int sample, MetricsRegistry metrics) {
+        this.slowNanos = slowMillis * 1_000_000L;
+        this.scanRows = scanRows;
+        this.logFile = logFile;
+        this.sample = Math.max(1, sample);
+        this.metrics = metrics;
+        metrics.describe("flipfit_sql_seconds", "Duration of SQL statements including fetching their rows");
+        metrics.describe("flipfit_sql_rows_total", "Rows returned or changed by SQL statements");
+        metrics.describe("flipfit_sql_bytes_total", "Estimated bytes read from the rows of SQL queries");
+        metrics.describe("flipfit_sql_slow_total", "Statements written to the slow-query log");
+    }
+
+    /**
+     * Wraps a statement so that its executions are timed.
+     * @param statement the statement handed out by the pool
+     * @param sql the SQL it was prepared with, or null for a plain statement (the SQL then comes with each execute call)
+     * @return a proxy implementing the same JDBC interface
+     */
+    Statement wrap(Statement statement, String sql) {
+        Constructor<?> type = statement instanceof CallableStatement ? CALLABLE
+                : statement instanceof PreparedStatement ? PREPARED : STATEMENT;
+        return (Statement) newProxy(type, new TimedStatement(statement, sql == null ? null : stats(sql)));
+    }
+
+    // Number of statements written to the slow-query log
+    public long getLoggedCount() {
+        return logged.sum();
+    }
+
+    // The constructor of the proxy class implementing a JDBC interface
+    private static Constructor<?> proxyConstructor(Class<?> type) {
+        try {
+            return Proxy.newProxyInstance(StatementTimer.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> null)
+                    .getClass().getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object newProxy(Constructor<?> constructor, InvocationHandler handler) {
+        try {
+            return constructor.newInstance(handler);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The figures of an SQL text, created on its first execution
+    private SqlStats stats(String sql) {
+        SqlStats found = stats.get(sql);
+        return found != null ? found : stats.computeIfAbsent(sql, s -> new SqlStats(normalise(s), metrics));
+    }
+
+    // One line of SQL with IN lists collapsed
+    private static String normalise(String sql) {
+        return IN_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("?...");
+    }
+
+    /**
+     * Records one finished statement and logs it if it was slow or returned too many rows.
+     * @param weight executions the rows and bytes stand for: 1 for exact counts, sample for a counted query, 0 when not counted
+     * @param query whether the rows were read from a result set rather than being an update count
+     */
+    private void record(SqlStats sql, long nanos, long rows, long bytes, long weight, boolean query, Object[] binds, int bindCount) {
+        sql.latency.record(nanos);
+        if (weight > 0) {
+            sql.rows.add(rows * weight);
+            sql.bytes.add(bytes * weight);
+        }
+        boolean largeResult = query && weight > 0 && rows >= scanRows;
+        if (nanos < slowNanos && !largeResult) {
+            return;
+        }
+        sql.slow.increment();
+        logged.increment();
+        String counts = weight > 0 ? "rows=" + rows + " bytes=" + bytes : "rows=? bytes=?";
+        String line = String.format(Locale.ROOT, "%s %.1fms %s%s%s sql=\"%s\" binds=%s", Instant.now(), nanos / 1e6, counts,
+                largeResult ? " large-result" : "", sql.fullScan ? " full-scan" : "", sql.sql, redact(binds, bindCount));
+        write(line);
+    }
+
+    // Appends a line to the slow-query log
+    private synchronized void write(String line) {
+        if (logFile.isEmpty()) {
+            System.out.println("Slow query: " + line);
+            return;
+        }
+        try {
+            if (log == null) {
+                log = Files.newBufferedWriter(Paths.get(logFile), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            log.write(line);
+            log.newLine();
+            log.flush();
+        } catch (IOException e) {
+            System.out.println("Slow query log " + logFile + " is not writable: " + e + System.lineSeparator() + "Slow query: " + line);
+        }
+    }
+
+    // Describes bind parameters by type and length only, e.g. [String(24), Integer, null, 40 x Long]
+    static String redact(Object[] binds, int bindCount) {
+        StringBuilder out = new StringBuilder("[");
+        String previous = null;
+        int repeats = 0;
+        for (int i = 1; i <= bindCount + 1; i++) {
+            String current = i <= bindCount ? describe(binds[i]) : null;
+            if (current != null && current.equals(previous)) {
+                repeats++;  // Runs of equal descriptions, e.g. an IN list, are written once
+                continue;
+            }
+            if (previous != null) {
+                out.append(out.length() > 1 ? ", " : "").append(repeats > 1 ? repeats + " x " : "").append(previous);
+            }
+            previous = current;
+            repeats = 1;
+        }
+        return out.append(']').toString();
+    }
+
+    // Type and length of one bind value
+    private static String describe(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence) {
+            return "String(" + ((CharSequence) value).length() + ")";
+        }
+        if (value instanceof byte[]) {
+            return "bytes(" + ((byte[]) value).length + ")";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    // Estimated size of a value read from a result set
+    private static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        return 8;
+    }
+
+    // Handler behind a timed statement; only the thread holding the lease uses it
+    private final class TimedStatement implements InvocationHandler {
+        private final Statement target;
+        private SqlStats sql;
+        private Object[] binds;  // Bind values by parameter index; index 0 is unused
+        private int bindCount;  // Highest parameter index bound
+        private boolean pending;  // An execution whose result set is still open
+        private boolean query;  // The running execution returned a result set
+        private long weight;  // Executions its rows and bytes stand for, 0 when they are not counted
+        private long start;
+        private long rows;
+        private long bytes;
+
+        TimedStatement(Statement target, SqlStats sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery":
+                    begin(args);
+                    return wrapResult((ResultSet) forward(method, args));
+                case "execute":
+                    begin(args);
+                    if ((Boolean) forward(method, args)) {
+                        return true;  // Finished when its result set is closed
+                    }
+                    rows = Math.max(0, target.getUpdateCount());
+                    finish();
+                    return false;
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    begin(args);
+                    Object count = forward(method, args);
+                    rows = ((Number) count).longValue();
+                    finish();
+                    return count;
+                case "executeBatch":
+                case "executeLargeBatch":
+                    begin(args);
+                    Object counts = forward(method, args);
+                    rows = counts instanceof int[] ? Arrays.stream((int[]) counts).filter(c -> c > 0).sum()
+                            : Arrays.stream((long[]) counts).filter(c -> c > 0).sum();
+                    finish();
+                    return counts;
+                case "getResultSet":
+                    return wrapResult((ResultSet) forward(method, args));
+                case "clearParameters":
+                    binds = null;
+                    bindCount = 0;
+                    return forward(method, args);
+                case "close":
+                    finish();
+                    return forward(method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    }
+                    return forward(method, args);
+            }
+        }
+
+        // Remembers a bind value so the slow-query log can describe it
+        private void bind(int index, Object value) {
+            if (binds == null || binds.length <= index) {
+                binds = Arrays.copyOf(binds == null ? new Object[0] : binds, Math.max(index + 1, 8));
+            }
+            binds[index] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        // Starts timing an execution; an execute(sql) call on a plain statement names its SQL
+        private void begin(Object[] args) {
+            finish();
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = stats((String) args[0]);
+            }
+            pending = sql != null;
+            query = false;
+            weight = 1;
+            rows = 0;
+            bytes = 0;
+            start = System.nanoTime();
+        }
+
+        // Records the running execution, if any
+        void finish() {
+            if (pending) {
+                pending = false;
+                record(sql, System.nanoTime() - start, rows, bytes, weight, query, binds, bindCount);
+            }
+        }
+
+        private ResultSet wrapResult(ResultSet resultSet) {
+            if (resultSet == null || !pending) {
+                return resultSet;
+            }
+            query = true;
+            if (sample > 1 && ThreadLocalRandom.current().nextInt(sample) != 0) {
+                weight = 0;  // Timed until the statement is closed, rows not counted
+                return resultSet;
+            }
+            weight = sample;
+            return (ResultSet) newProxy(RESULT, new TimedResult(resultSet, this));
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                finish();
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Handler behind the result set of a timed query: counts rows and bytes and ends the timing on close
+    private static final class TimedResult implements InvocationHandler {
+        private final ResultSet target;
+        private final TimedStatement statement;
+
+        TimedResult(ResultSet target, TimedStatement statement) {
+            this.target = target;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (name.equals("next")) {
+                if ((Boolean) result) {
+                    statement.rows++;
+                }
+            } else if (name.startsWith("get") && args != null && args.length > 0) {
+                statement.bytes += sizeOf(result);
+            } else if (name.equals("close")) {
+                statement.finish();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.flipfit.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every call of an interface, e.g. of a DAO or a business service.
+ * The proxy records the duration of each interface method in a timer named after the interface and method
+ * (GymCustomerDAO.createBooking) and counts the calls that threw. Timers and counters are looked up once
+ * when the proxy is created, so recording a call only reads the clock twice and updates the histogram,
+ * which allocates nothing. The reflective dispatch itself does allocate: every call gets a new argument
+ * array, and int or boolean arguments and results outside the small boxed-value caches are boxed.
+ */
+public final class TimedProxy implements InvocationHandler {
+
+    private final Object target;
+    private final Map<Method, LatencyHistogram> timers = new HashMap<>();
+    private final Map<Method, LongAdder> errors = new HashMap<>();
+
+    private TimedProxy(Object target, Class<?> type, String layer, MetricsRegistry metrics) {
+        this.target = target;
+        for (Method method : type.getMethods()) {
+            String operation = type.getSimpleName() + "." + method.getName();  // Overloads share one timer
+            timers.put(method, metrics.timer("flipfit_" + layer + "_seconds", operation));
+            errors.put(method, metrics.counter("flipfit_" + layer + "_errors_total", operation));
+        }
+        metrics.describe("flipfit_" + layer + "_seconds", "Duration of " + layer + " calls");
+        metrics.describe("flipfit_" + layer + "_errors_total", layer + " calls that threw an exception");
+    }
+
+    /**
+     * Wraps an implementation so that every call through the interface is timed.
+     * @param type the interface to time
+     * @param target the implementation the calls are forwarded to
+     * @param layer the layer of the interface, used in the metric names (business, dao)
+     * @return a proxy implementing the interface
+     */
+    public static <T> T wrap(Class<T> type, T target, String layer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                new TimedProxy(target, type, layer, MetricsRegistry.getInstance())));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        LatencyHistogram timer = timers.get(method);
+        if (timer == null) {
+            // equals, hashCode and toString are not timed
+            return method.getName().equals("equals") ? proxy == args[0] : method.invoke(target, args);
+        }
+        long start = System.nanoTime();
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            errors.get(method).increment();
+            throw e.getCause();
+        } finally {
+            timer.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+-- FlipFit schema, written in the MySQL dialect (also accepted by H2 in MySQL mode).
+-- Tables use IF NOT EXISTS so the script can be run once against a database created by hand;
+-- in that case make sure the indexes below do not exist yet.
+
+CREATE TABLE IF NOT EXISTS User (
+    UserId      INT AUTO_INCREMENT PRIMARY KEY,
+    Name        VARCHAR(100) NOT NULL,
+    Email       VARCHAR(100) NOT NULL,
+    PhoneNumber VARCHAR(20),
+    Role        VARCHAR(20)  NOT NULL,
+    Address     VARCHAR(255)
+);
+
+-- Login credentials; Password holds a PBKDF2 hash
+CREATE TABLE IF NOT EXISTS Registration (
+    UserId       INT          NOT NULL PRIMARY KEY,
+    EmailAddress VARCHAR(100) NOT NULL,
+    Password     VARCHAR(255) NOT NULL,
+    Role         VARCHAR(20)  NOT NULL
+);
+-- Login and duplicate checks look users up by email (and role)
+CREATE UNIQUE INDEX uk_registration_email ON Registration (EmailAddress, Role);
+
+CREATE TABLE IF NOT EXISTS Customer (
+    CustId      INT          NOT NULL PRIMARY KEY,
+    Name        VARCHAR(100) NOT NULL,
+    Email       VARCHAR(100) NOT NULL,
+    Address     VARCHAR(255),
+    PhoneNumber VARCHAR(20),
+    Password    VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS OwnerInfo (
+    OwnerId      INT          NOT NULL PRIMARY KEY,
+    OwnerName    VARCHAR(100) NOT NULL,
+    OwnerEmail   VARCHAR(100) NOT NULL,
+    OwnerAddress VARCHAR(255),
+    OwnerPhone   VARCHAR(20),
+    Password     VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS AdminInfo (
+    AdminId    INT          NOT NULL PRIMARY KEY,
+    AdminName  VARCHAR(100),
+    AdminEmail VARCHAR(100),
+    Password   VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS OwnerRequest (
+    RequestId      INT AUTO_INCREMENT PRIMARY KEY,
+    OwnerId        INT          NOT NULL,
+    Status         VARCHAR(20)  NOT NULL DEFAULT 'pending',
+    CenterName     VARCHAR(100) NOT NULL,
+    CenterLocation VARCHAR(100) NOT NULL,
+    NumOfSlots     INT          NOT NULL
+);
+CREATE INDEX idx_ownerrequest_status ON OwnerRequest (Status);
+
+CREATE TABLE IF NOT EXISTS GymCenters (
+    centerId   INT AUTO_INCREMENT PRIMARY KEY,
+    OwnerId    INT          NOT NULL,
+    CenterName VARCHAR(100) NOT NULL,
+    Location   VARCHAR(100) NOT NULL,
+    NumOfSlots INT          NOT NULL
+);
+CREATE INDEX idx_gymcenters_owner ON GymCenters (OwnerId);
+CREATE INDEX idx_gymcenters_location ON GymCenters (Location);
+
+CREATE TABLE IF NOT EXISTS Slots (
+    slotsId    INT AUTO_INCREMENT PRIMARY KEY,
+    centerId   INT  NOT NULL,
+    StartTime  TIME NOT NULL,
+    EndTime    TIME NOT NULL,
+    NumOfSeats INT  NOT NULL,
+    Cost       INT  NOT NULL
+);
+-- Slots of a center are listed by start time
+CREATE INDEX idx_slots_center_start ON Slots (centerId, StartTime);
+
+-- Seats left per slot and date; a row exists only once the date has been booked
+CREATE TABLE IF NOT EXISTS AvailableSeats (
+    slotId   INT  NOT NULL,
+    `Date`   DATE NOT NULL,
+    NumSeats INT  NOT NULL,
+    PRIMARY KEY (slotId, `Date`)
+);
+
+CREATE TABLE IF NOT EXISTS CustomerBooking (
+    BookingId INT AUTO_INCREMENT PRIMARY KEY,
+    CustId    INT  NOT NULL,
+    centerId  INT  NOT NULL,
+    slotId    INT  NOT NULL,
+    `Date`    DATE NOT NULL
+);
+CREATE INDEX idx_booking_customer ON CustomerBooking (CustId);
+CREATE INDEX idx_booking_slot_date ON CustomerBooking (slotId, `Date`);
+
+CREATE TABLE IF NOT EXISTS payment (
+    PaymentId INT AUTO_INCREMENT PRIMARY KEY,
+    BookingId INT         NOT NULL,
+    Mode      VARCHAR(20) NOT NULL,
+    Amount    INT         NOT NULL
+);
+CREATE INDEX idx_payment_booking ON payment (BookingId);
+
+CREATE TABLE IF NOT EXISTS waitlist (
+    WaitlistId INT AUTO_INCREMENT PRIMARY KEY,
+    CustId     INT         NOT NULL,
+    centerId   INT         NOT NULL,
+    slotId     INT         NOT NULL,
+    `Date`     DATE        NOT NULL,
+    Status     VARCHAR(20) NOT NULL DEFAULT 'waiting',
+    BookingID  INT
+);
+-- The head of a queue is the lowest waiting WaitlistId of a slot and date
+CREATE INDEX idx_waitlist_head ON waitlist (slotId, `Date`, Status, WaitlistId);
+CREATE INDEX idx_waitlist_customer ON waitlist (CustId);
@@ -0,0 +1,5 @@
+-- Client supplied idempotency keys: a retried payment with the same key is answered with the
+-- original payment instead of charging again. Payments without a key keep a NULL, which the
+-- unique index allows any number of times.
+ALTER TABLE payment ADD COLUMN IdempotencyKey VARCHAR(64) NULL;
+CREATE UNIQUE INDEX uk_payment_idempotency ON payment (IdempotencyKey);
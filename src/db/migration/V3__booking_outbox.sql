@@ -0,0 +1,14 @@
+-- Outbox of booking domain events.
+-- Every booking, cancellation, modification, payment and owner request decision inserts its event here in
+-- the same transaction as the change itself; the event relay moves the rows to the append-only event log
+-- in EventId order and then deletes them, so the table only holds events not yet relayed.
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    EventId     BIGINT AUTO_INCREMENT PRIMARY KEY,
+    EventType   VARCHAR(40)  NOT NULL,
+    AggregateId INT          NOT NULL,
+    slotId      INT          NOT NULL DEFAULT 0,
+    `Date`      DATE         NULL,
+    SeatDelta   INT          NOT NULL DEFAULT 0,
+    Detail      VARCHAR(255),
+    CreatedAt   BIGINT       NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Bookings of a whole center on one date are cancelled together when the center closes for the day.
+CREATE INDEX idx_booking_center_date ON CustomerBooking (centerId, `Date`);
@@ -0,0 +1,4 @@
+-- Admin listings filter customers and owners by name prefix (Name LIKE 'abc%'), which is a range scan of
+-- these indexes. Email domain filters are suffix matches and cannot use an index.
+CREATE INDEX idx_customer_name ON Customer (Name);
+CREATE INDEX idx_owner_name ON OwnerInfo (OwnerName);
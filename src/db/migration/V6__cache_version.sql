@@ -0,0 +1,7 @@
+-- Version stamps of cached tables. A transaction that changes GymCenters increments its row, and every node
+-- drops its in-memory center cache when it sees the version move.
+CREATE TABLE IF NOT EXISTS cache_version (
+    Name    VARCHAR(64) NOT NULL PRIMARY KEY,
+    Version BIGINT      NOT NULL
+);
+INSERT INTO cache_version (Name, Version) VALUES ('GymCenters', 0);
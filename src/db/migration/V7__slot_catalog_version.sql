@@ -0,0 +1,3 @@
+-- Version stamp of the in-memory slot catalog. A transaction that adds or deletes slots increments it, and
+-- every node reloads its catalog when it sees the version move.
+INSERT INTO cache_version (Name, Version) VALUES ('Slots', 0);
@@ -0,0 +1,13 @@
+-- A customer waits at most once for a slot on a date. Waiting is 1 for waiting entries and NULL for
+-- promoted or cancelled ones, which the unique index allows any number of times, so the history stays.
+-- Duplicates that are already waiting are cancelled first, keeping the customer's oldest place in the queue.
+UPDATE waitlist SET Status = 'cancelled' WHERE Status = 'waiting' AND WaitlistId IN (
+    SELECT WaitlistId FROM (
+        SELECT later.WaitlistId FROM waitlist later JOIN waitlist earlier
+            ON earlier.CustId = later.CustId AND earlier.slotId = later.slotId AND earlier.`Date` = later.`Date`
+            AND earlier.Status = 'waiting' AND earlier.WaitlistId < later.WaitlistId
+        WHERE later.Status = 'waiting'
+    ) duplicates
+);
+ALTER TABLE waitlist ADD COLUMN Waiting TINYINT GENERATED ALWAYS AS (CASE WHEN Status = 'waiting' THEN 1 END);
+CREATE UNIQUE INDEX uk_waitlist_waiting ON waitlist (CustId, slotId, `Date`, Waiting);
@@ -0,0 +1,147 @@
+package com.flipfit.Application;
+
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.utils.Json;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlipfitServerTest {
+
+    private static FlipfitServer server;
+    private static HttpClient client;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        SeededDatabase.get();
+        server = new FlipfitServer(new InetSocketAddress("127.0.0.1", 0), 64, GymServiceRegistry.getInstance());
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    /**
+     * A password can only be changed by its own signed-in user who knows the current one; changing it signs
+     * out the user's other sessions.
+     */
+    @Test
+    void passwordChangeNeedsSessionAndCurrentPassword() throws Exception {
+        String email = "password" + System.nanoTime() + "@flipfit.test";
+        assertEquals(200, send("POST", "/api/customers", null,
+                "name", "Password Tester", "email", email, "password", "old-secret").statusCode());
+        String token = login(email, "old-secret", FlipfitServer.CUSTOMER);
+        String otherToken = login(email, "old-secret", FlipfitServer.CUSTOMER);
+
+        assertEquals(401, send("POST", "/api/password", null,
+                "email", email, "currentPassword", "old-secret", "password", "taken").statusCode());
+        assertEquals(403, send("POST", "/api/password", token,
+                "email", SeededDatabase.email(1), "currentPassword", "old-secret", "password", "taken").statusCode());
+        assertEquals(403, send("POST", "/api/password", token,
+                "currentPassword", "wrong", "password", "taken").statusCode());
+        assertEquals(200, send("POST", "/api/password", token,
+                "currentPassword", "old-secret", "password", "new-secret").statusCode());
+
+        login(email, "new-secret", FlipfitServer.CUSTOMER);
+        assertEquals(401, send("GET", "/api/bookings", otherToken).statusCode());
+        assertEquals(200, send("GET", "/api/bookings", token).statusCode());
+    }
+
+    /**
+     * Editing the profile keeps the email and password, even if the request sends new ones.
+     */
+    @Test
+    void profileEditKeepsCredentials() throws Exception {
+        String email = "profile" + System.nanoTime() + "@flipfit.test";
+        assertEquals(200, send("POST", "/api/customers", null,
+                "name", "Profile Tester", "email", email, "password", "secret").statusCode());
+        String token = login(email, "secret", FlipfitServer.CUSTOMER);
+
+        assertEquals(200, send("PUT", "/api/customers/me", token, "name", "Renamed Tester", "address", "Indiranagar",
+                "email", "taken" + email, "password", "taken").statusCode());
+
+        login(email, "secret", FlipfitServer.CUSTOMER);
+        assertEquals(401, send("POST", "/api/login", null,
+                "email", "taken" + email, "password", "taken", "role", FlipfitServer.CUSTOMER).statusCode());
+    }
+
+    /**
+     * Customers and owners get 403 for bookings, waitlist entries, centers and slots that are not theirs.
+     */
+    @Test
+    void othersResourcesAreForbidden() throws Exception {
+        int customerId = 7;
+        String customer = login(SeededDatabase.email(customerId), SeededDatabase.PASSWORD, FlipfitServer.CUSTOMER);
+        int foreignBooking = SeededDatabase.queryInt("SELECT MIN(BookingId) FROM CustomerBooking WHERE CustId <> ?", customerId);
+        assertEquals(403, send("POST", "/api/bookings/" + foreignBooking + "/payment", customer, "mode", "card").statusCode());
+        assertEquals(403, send("GET", "/api/waitlist/" + Integer.MAX_VALUE, customer).statusCode());
+
+        String email = "owner" + System.nanoTime() + "@flipfit.test";
+        assertEquals(200, send("POST", "/api/owners", null,
+                "name", "Owner Tester", "email", email, "password", "secret").statusCode());
+        String owner = login(email, "secret", FlipfitServer.OWNER);
+        assertEquals(403, send("DELETE", "/api/centers/1", owner).statusCode());
+        assertEquals(403, send("POST", "/api/centers/1/slots", owner,
+                "startTime", "23:00", "endTime", "23:30", "totalSeats", "5", "cost", "100").statusCode());
+        assertEquals(403, send("DELETE", "/api/centers/1/slots/06:00", owner).statusCode());
+        assertEquals(403, send("DELETE", "/api/centers/1/bookings?date=2000-01-01", owner).statusCode());
+        assertEquals(403, send("DELETE", "/api/slots/1/bookings?date=2000-01-01", owner).statusCode());
+    }
+
+    // A page must hold at least one row
+    @Test
+    void emptyPagesAreRejected() throws Exception {
+        String token = login(SeededDatabase.email(9), SeededDatabase.PASSWORD, FlipfitServer.CUSTOMER);
+        assertEquals(400, send("GET", "/api/slots?fromDate=2000-01-01&size=0", token).statusCode());
+        assertEquals(400, send("GET", "/api/slots?fromDate=2000-01-01&size=-1", token).statusCode());
+        assertEquals(200, send("GET", "/api/slots?fromDate=2000-01-01&size=1", token).statusCode());
+    }
+
+    // Sessions idle for longer than the limit are swept even if their token is never presented again
+    @Test
+    void idleSessionsAreSwept() throws Exception {
+        String token = login(SeededDatabase.email(8), SeededDatabase.PASSWORD, FlipfitServer.CUSTOMER);
+        server.sweepSessions(System.currentTimeMillis());
+        assertEquals(200, send("GET", "/api/bookings", token).statusCode());
+
+        server.sweepSessions(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(31));
+        assertEquals(0, server.getSessionCount());
+        assertEquals(401, send("GET", "/api/bookings", token).statusCode());
+    }
+
+    private static String login(String email, String password, String role) throws Exception {
+        HttpResponse<String> response = send("POST", "/api/login", null, "email", email, "password", password, "role", role);
+        assertEquals(200, response.statusCode(), response.body());
+        return Json.parseObject(response.body()).get("token");
+    }
+
+    // Sends a request with the given body fields (name, value, ...) and the session token, if any
+    private static HttpResponse<String> send(String method, String path, String token, String... fields) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            body.put(fields[i], fields[i + 1]);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(Json.write(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,102 @@
+package com.flipfit.business;
+
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.testing.Workers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GymCustomerBusinessImplTest {
+
+    private static SeededDatabase database;
+    private static GymCustomerBusiness customerBusiness;
+
+    @BeforeAll
+    static void seed() {
+        database = SeededDatabase.get();
+        customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
+    }
+
+    /**
+     * Lets every thread move its own booking back and forth between two slots, half of them in the opposite
+     * direction, and verifies that no move failed and that the moves neither lost nor duplicated a seat.
+     */
+    @Test
+    void movingBookingsKeepsSeatCounts() throws Exception {
+        int threads = 4;
+        int moves = 200;
+        Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(4));  // A date no other test touches
+        int[] slotOf = new int[threads];
+        int[] bookingOf = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            slotOf[t] = 1 + t % 2;
+            bookingOf[t] = customerBusiness.createBooking(1 + t, slotOf[t], 1, date);
+        }
+
+        AtomicInteger failed = new AtomicInteger();
+        Workers.runConcurrently(threads, thread -> {
+            for (int m = 0; m < moves; m++) {
+                int target = 3 - slotOf[thread];
+                if (customerBusiness.modifyBooking(1 + thread, bookingOf[thread], target, 1, date) == bookingOf[thread]) {
+                    slotOf[thread] = target;
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, failed.get(), "failed moves");
+        assertEquals(threads, SeededDatabase.queryInt("SELECT COUNT(*) FROM CustomerBooking WHERE slotId IN (1, 2) AND Date = ?", date));
+        assertEquals(2 * database.seatsPerSlot - threads,
+                SeededDatabase.queryInt("SELECT SUM(NumSeats) FROM AvailableSeats WHERE slotId IN (1, 2) AND Date = ?", date));
+    }
+
+    /**
+     * Fills every slot of one center on a date, cancels them all with one bulk cancellation and verifies
+     * that it removed every booking and gave every seat back.
+     */
+    @Test
+    void bulkCancellationFreesEverySeat() throws Exception {
+        int centerId = 2;
+        int firstSlot = database.slotsPerCenter + 1;
+        Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(5));  // A date no other test touches
+        for (int slot = firstSlot; slot < firstSlot + database.slotsPerCenter; slot++) {
+            for (int seat = 0; seat < database.seatsPerSlot; seat++) {
+                customerBusiness.createBooking(1 + (slot * database.seatsPerSlot + seat) % database.customers, slot, centerId, date);
+            }
+        }
+
+        int cancelled = GymServiceRegistry.getInstance().getCustomerDAO().cancelAllAtCenter(centerId, date);
+
+        int capacity = database.slotsPerCenter * database.seatsPerSlot;
+        assertEquals(capacity, cancelled, "bookings cancelled");
+        assertEquals(0, SeededDatabase.queryInt("SELECT COUNT(*) FROM CustomerBooking WHERE centerId = ? AND Date = ?", centerId, date));
+        assertEquals(capacity, SeededDatabase.queryInt("SELECT SUM(NumSeats) FROM AvailableSeats a "
+                + "JOIN Slots s ON s.slotsId = a.slotId WHERE s.centerId = ? AND a.Date = ?", centerId, date));
+    }
+
+    /**
+     * Books and moves bookings with a center that the slot does not belong to and verifies that nothing is
+     * stored under the wrong center.
+     */
+    @Test
+    void centerMustMatchTheSlot() throws Exception {
+        int centerId = 10;
+        int slotId = (centerId - 1) * database.slotsPerCenter + 1;
+        Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(10));  // A date no other test touches
+
+        assertEquals(-1, customerBusiness.createBooking(31, slotId, centerId + 1, date));
+        int bookingId = customerBusiness.createBooking(31, slotId, centerId, date);
+        assertEquals(-1, customerBusiness.modifyBooking(31, bookingId, slotId + 1, centerId + 1, date));
+
+        assertEquals(1, SeededDatabase.queryInt("SELECT COUNT(*) FROM CustomerBooking WHERE slotId IN (?, ?) AND Date = ?",
+                slotId, slotId + 1, date));
+        assertEquals(centerId, SeededDatabase.queryInt("SELECT centerId FROM CustomerBooking WHERE BookingId = ?", bookingId));
+        assertEquals(slotId, SeededDatabase.queryInt("SELECT slotId FROM CustomerBooking WHERE BookingId = ?", bookingId));
+    }
+}
@@ -0,0 +1,58 @@
+package com.flipfit.business;
+
+import com.flipfit.Application.FlipfitEventReplay;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.testing.Workers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class GymEventRelayTest {
+
+    /**
+     * Books and cancels seats from many threads while a consumer tails the event log, relays the outbox,
+     * then replays the whole log and verifies that every replayed seat count matches AvailableSeats and
+     * that the consumer saw every event.
+     */
+    @Test
+    void replayedSeatCountsMatchTheDatabase() throws Exception {
+        SeededDatabase database = SeededDatabase.get();
+        GymCustomerBusiness customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
+        GymEventRelay relay = GymServiceRegistry.getInstance().getEventRelay();
+        assertNotNull(relay, "the event log is not available");
+        AtomicLong consumed = new AtomicLong();
+        Thread consumer = relay.subscribe("test", 1, events -> consumed.addAndGet(events.size()));
+
+        Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(3));  // A date no other test touches
+        int slotsUsed = 4;
+        Workers.runConcurrently(16, thread -> {
+            for (int a = 0; a < database.seatsPerSlot; a++) {
+                int customerId = 1 + (thread * database.seatsPerSlot + a) % database.customers;
+                int slotId = 1 + (thread + a) % slotsUsed;
+                int bookingId = customerBusiness.createBooking(customerId, slotId, database.centerOf(slotId), date);
+                if (bookingId > 0 && a % 2 == 0) {
+                    customerBusiness.cancelBooking(customerId, bookingId);  // Give every other seat back
+                }
+            }
+        });
+
+        relay.relayAll();
+        long lastSequence = relay.getLog().getLastSequence();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (consumed.get() < lastSequence && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        consumer.interrupt();
+
+        FlipfitEventReplay replay = new FlipfitEventReplay();
+        replay.replay(relay.getLog());
+        assertEquals(0, replay.check(GymServiceRegistry.getInstance().getSlotDAO(), false), "seat counts that differ");
+        assertEquals(lastSequence, consumed.get(), "events consumed");
+        assertEquals(lastSequence, replay.getLastSequence(), "events replayed");
+    }
+}
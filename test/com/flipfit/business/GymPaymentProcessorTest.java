@@ -0,0 +1,46 @@
+package com.flipfit.business;
+
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.testing.Workers;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymPaymentProcessorTest {
+
+    /**
+     * Lets many threads submit the same payment with one idempotency key at the same time and verifies that
+     * every caller got the same payment ID and that exactly one payment was stored.
+     */
+    @Test
+    void duplicateSubmitsStoreOnePayment() throws Exception {
+        SeededDatabase.get();
+        GymCustomerBusiness customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
+        int threads = 16;
+        String key = "test-duplicate-" + System.nanoTime();
+        List<Integer> paymentIds = Collections.synchronizedList(new ArrayList<>());
+        Workers.runConcurrently(threads, thread -> paymentIds.add(customerBusiness.makepayment(1, "card", key)));
+
+        assertTrue(paymentIds.get(0) > 0, "the payment failed");
+        assertEquals(1, new TreeSet<>(paymentIds).size(), "payment IDs " + new TreeSet<>(paymentIds));
+        assertEquals(1, SeededDatabase.queryInt("SELECT COUNT(*) FROM payment WHERE IdempotencyKey = ?", key));
+    }
+
+    // A key that is reused for another booking is rejected instead of answered with the first payment
+    @Test
+    void keyReusedForAnotherBookingIsRejected() {
+        SeededDatabase.get();
+        GymCustomerBusiness customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
+        String key = "test-reused-" + System.nanoTime();
+        int paymentId = customerBusiness.makepayment(17, "card", key);
+        assertTrue(paymentId > 0, "the payment failed");
+        assertEquals(-1, customerBusiness.makepayment(18, "card", key));
+        assertEquals(paymentId, customerBusiness.makepayment(17, "card", key));
+    }
+}
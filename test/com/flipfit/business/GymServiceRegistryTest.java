@@ -0,0 +1,107 @@
+package com.flipfit.business;
+
+import com.flipfit.bean.GymBooking;
+import com.flipfit.bean.GymOwnerRequest;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.testing.Workers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymServiceRegistryTest {
+
+    private static final int THREADS_PER_ROLE = 4;
+    private static final int ITERATIONS = 50;
+
+    /**
+     * Lets customers, admins and owners work at the same time against the shared services of the registry,
+     * four threads per role, and verifies every answer each thread got as well as the state they left:
+     * customers see exactly the bookings they kept, logins resolve to the right customer, the admin's pages
+     * are in order, every owner request is pending and every seat count adds up with its bookings.
+     */
+    @Test
+    void allRolesWorkConcurrently() throws Exception {
+        SeededDatabase database = SeededDatabase.get();
+        GymServiceRegistry registry = GymServiceRegistry.getInstance();
+        GymCenterBusiness centerBusiness = registry.getCenterBusiness();
+        GymCustomerBusiness customerBusiness = registry.getCustomerBusiness();
+        GymUserBusiness userBusiness = registry.getUserBusiness();
+        GymAdminBusiness adminBusiness = registry.getAdminBusiness();
+        GymOwnerBusiness ownerBusiness = registry.getOwnerBusiness();
+        int centerId = 5;
+        int firstSlot = (centerId - 1) * database.slotsPerCenter + 1;
+        LocalDate day = LocalDate.now().plusYears(9);  // A date no other test touches
+        Date date = java.sql.Date.valueOf(day);
+        String centerName = "Roles Center " + System.nanoTime();
+        Map<Integer, Set<Integer>> keptBookings = new ConcurrentHashMap<>();
+
+        Workers.runConcurrently(4 * THREADS_PER_ROLE, thread -> {
+            int role = thread % 4;
+            int customerId = 100 + thread;
+            for (int i = 0; i < ITERATIONS; i++) {
+                switch (role) {
+                    case 0:  // Customer browses the center, books a slot and cancels every third booking
+                        assertEquals(database.slotsPerCenter, centerBusiness.viewSlots(centerId, date).size());
+                        int bookingId = customerBusiness.createBooking(customerId, firstSlot + i % database.slotsPerCenter, centerId, date);
+                        if (bookingId > 0) {
+                            if (i % 3 == 0) {
+                                assertTrue(customerBusiness.cancelBooking(customerId, bookingId), "cancel " + bookingId);
+                            } else {
+                                keptBookings.computeIfAbsent(customerId, id -> ConcurrentHashMap.newKeySet()).add(bookingId);
+                            }
+                        }
+                        break;
+                    case 1:  // Customer signs in, once with a wrong password
+                        assertEquals(customerId, userBusiness.login(SeededDatabase.email(customerId), SeededDatabase.PASSWORD, "gymcustomer"));
+                        assertNotEquals(customerId, userBusiness.login(SeededDatabase.email(customerId), "wrong-" + i, "gymcustomer"));
+                        break;
+                    case 2:  // Admin pages through bookings and lists the centers
+                        List<GymBooking> page = adminBusiness.viewBookings(i * 20, 20);
+                        for (int b = 1; b < page.size(); b++) {
+                            assertTrue(page.get(b - 1).getBookingId() < page.get(b).getBookingId(), "bookings out of order");
+                        }
+                        assertTrue(adminBusiness.viewCenter().size() >= database.centers);
+                        break;
+                    default:  // Owner asks for a new center
+                        assertTrue(ownerBusiness.registerCenter(1 + thread, centerName, "Roles Location", 4));
+                        break;
+                }
+            }
+        });
+
+        for (Map.Entry<Integer, Set<Integer>> kept : keptBookings.entrySet()) {
+            Set<Integer> listed = new HashSet<>();
+            for (GymBooking booking : customerBusiness.viewBookings(kept.getKey())) {
+                if (day.equals(new java.sql.Date(booking.getBookingDate().getTime()).toLocalDate())) {
+                    listed.add(booking.getBookingId());
+                }
+            }
+            assertEquals(kept.getValue(), listed, "bookings of customer " + kept.getKey());
+        }
+        assertFalse(keptBookings.isEmpty(), "no customer kept a booking");
+
+        List<GymOwnerRequest> requests = new ArrayList<>();
+        for (GymOwnerRequest request : adminBusiness.pendingRequests()) {
+            if (request.getCenterName().equals(centerName)) {
+                requests.add(request);
+            }
+        }
+        assertEquals(THREADS_PER_ROLE * ITERATIONS, requests.size(), "pending owner requests");
+
+        assertEquals(0, SeededDatabase.queryInt("SELECT COUNT(*) FROM AvailableSeats a WHERE a.Date = ? AND a.NumSeats + "
+                + "(SELECT COUNT(*) FROM CustomerBooking b WHERE b.slotId = a.slotId AND b.Date = a.Date) <> ?", date, database.seatsPerSlot),
+                "slots whose seats and bookings do not add up");
+    }
+}
@@ -0,0 +1,52 @@
+package com.flipfit.business;
+
+import com.flipfit.bean.GymCustomer;
+import com.flipfit.testing.SeededDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymUserBusinessImplTest {
+
+    /**
+     * Verifies that paging through the customers with a name prefix and email domain filter, and streaming them,
+     * both return exactly the customers the full listing holds for those filters, in ID order, and that LIKE
+     * wildcards in a filter are matched literally.
+     */
+    @Test
+    void pagedAndStreamedListingsMatchTheFullListing() {
+        SeededDatabase.get();
+        GymUserBusiness userBusiness = GymServiceRegistry.getInstance().getUserBusiness();
+        String prefix = "Customer 1";
+        String domain = "flipfit.test";
+        List<Integer> expected = new ArrayList<>();
+        for (GymCustomer customer : userBusiness.viewAllCustomers()) {
+            if (customer.getCustomerName().startsWith(prefix) && customer.getCustomerEmailAddress().endsWith("@" + domain)) {
+                expected.add(customer.getCustomerId());
+            }
+        }
+
+        List<Integer> paged = new ArrayList<>();
+        for (List<GymCustomer> page = userBusiness.viewCustomers(prefix, domain, 0, 7); !page.isEmpty();
+             page = userBusiness.viewCustomers(prefix, domain, paged.get(paged.size() - 1), 7)) {
+            page.forEach(customer -> paged.add(customer.getCustomerId()));
+        }
+        List<Integer> streamed;
+        try (Stream<GymCustomer> customers = userBusiness.streamCustomers(prefix, "@" + domain)) {
+            streamed = customers.map(GymCustomer::getCustomerId).collect(Collectors.toList());
+        }
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, paged);
+        assertEquals(expected, streamed);
+        assertTrue(userBusiness.viewCustomers("Customer_1", null, 0, 20).isEmpty(), "_ matched as a wildcard");
+        assertTrue(userBusiness.viewCustomers(null, "%", 0, 20).isEmpty(), "% matched as a wildcard");
+    }
+}
@@ -0,0 +1,112 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymCenter;
+import com.flipfit.bean.GymOwnerRequest;
+import com.flipfit.business.GymAdminBusiness;
+import com.flipfit.business.GymOwnerBusiness;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.utils.DBConnection;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GymCenterCacheTest {
+
+    private static GymAdminBusiness adminBusiness;
+    private static GymOwnerBusiness ownerBusiness;
+
+    @BeforeAll
+    static void seed() {
+        SeededDatabase.get();
+        adminBusiness = GymServiceRegistry.getInstance().getAdminBusiness();
+        ownerBusiness = GymServiceRegistry.getInstance().getOwnerBusiness();
+    }
+
+    /**
+     * Registers and approves a center, renames it behind the cache's back as another node would, then deletes it,
+     * and verifies that the cached center list follows each change: the approval and the delete at once, the
+     * rename once the version stamp is checked.
+     */
+    @Test
+    void centerListFollowsLocalAndRemoteChanges() throws Exception {
+        GymCenterCache cache = GymCenterCache.getInstance();
+        String name = "Cache Check " + System.nanoTime();
+        int before = adminBusiness.viewCenter().size();
+
+        ownerBusiness.registerCenter(1, name, "Cachetown", 3);
+        int requestId = -1;
+        for (GymOwnerRequest request : adminBusiness.pendingRequests()) {
+            if (request.getCenterName().equals(name)) {
+                requestId = request.getRequestId();
+            }
+        }
+        adminBusiness.approveOwnerRegistration(requestId, "approved");
+        cache.checkVersion();  // Takes in the version stamped by the approval itself
+        GymCenter added = findCenter(name);
+        assertNotNull(added, "the approved center is missing");
+        assertEquals(before + 1, adminBusiness.viewCenter().size());
+
+        // Another node renames the center and stamps the version
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement rename = conn.prepareStatement("UPDATE GymCenters SET CenterName = ? WHERE centerId = ?");
+             PreparedStatement stamp = conn.prepareStatement("UPDATE cache_version SET Version = Version + 1 WHERE Name = 'GymCenters'")) {
+            rename.setString(1, name + " renamed");
+            rename.setInt(2, added.getCenterId());
+            rename.executeUpdate();
+            stamp.executeUpdate();
+        }
+        cache.checkVersion();
+        assertNotNull(findCenter(name + " renamed"), "the remote rename is missing: " + cache);
+
+        ownerBusiness.deleteCenter(added.getCenterId());
+        assertEquals(before, adminBusiness.viewCenter().size());
+        assertNull(cache.get(added.getCenterId()), "the deleted center is still cached");
+    }
+
+    /**
+     * Another node renames a center after a fresh cache has loaded the list but before the cache checked the
+     * version for the first time; the first check must still drop the stale list.
+     */
+    @Test
+    void firstCheckCatchesChangesAfterTheFirstLoad() throws Exception {
+        GymCenterCache cache = new GymCenterCache(0);  // Checks only when told to
+        int centerId = 20;
+        String name = cache.get(centerId).getGymName();
+        assertEquals(name, cache.getAll().get(centerId - 1).getGymName());
+
+        renameRemotely(centerId, name + " moved");
+        cache.checkVersion();
+        assertEquals(name + " moved", cache.getAll().get(centerId - 1).getGymName());
+        assertEquals(name + " moved", cache.get(centerId).getGymName());
+        renameRemotely(centerId, name);
+    }
+
+    // Renames a center and stamps the version, as another node would
+    private static void renameRemotely(int centerId, String name) throws Exception {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement rename = conn.prepareStatement("UPDATE GymCenters SET CenterName = ? WHERE centerId = ?");
+             PreparedStatement stamp = conn.prepareStatement("UPDATE cache_version SET Version = Version + 1 WHERE Name = 'GymCenters'")) {
+            rename.setString(1, name);
+            rename.setInt(2, centerId);
+            rename.executeUpdate();
+            stamp.executeUpdate();
+        }
+    }
+
+    // The center with the given name in the admin's center list, or null
+    private static GymCenter findCenter(String name) {
+        for (GymCenter center : adminBusiness.viewCenter()) {
+            if (center.getGymName().equals(name)) {
+                return center;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymNotification;
+import com.flipfit.bean.GymSlots;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.utils.NotificationDispatcher;
+import com.flipfit.utils.NotificationSink;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymOwnerDAOImplTest {
+
+    private static final int CENTER_ID = 8;
+    private final Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(8));  // A date no other test touches
+    private final List<GymNotification> delivered = Collections.synchronizedList(new ArrayList<>());
+    private final GymCustomerDAO customerDAO = new GymCustomerDAOImpl(new GymSeatReservationDAOImpl(), new GymWaitlistDAOImpl(),
+            GymServiceRegistry.getInstance().getSeatInventory(), new NotificationDispatcher(Collections.singletonList(new NotificationSink() {
+                @Override
+                public void deliver(List<GymNotification> notifications) {
+                    delivered.addAll(notifications);
+                }
+
+                @Override
+                public String getName() {
+                    return "collect";
+                }
+            }), 1_000, 1, 100), new GymOutboxDAOImpl(), GymCenterCache.getInstance(), GymSlotCatalog.getInstance());
+    private final GymOwnerDAO ownerDAO = new GymOwnerDAOImpl(customerDAO);
+
+    /**
+     * Deletes a slot that has a booking and a waiting customer and verifies that the booking, the seat row and
+     * the waitlist entry go with it and that both customers are told.
+     */
+    @Test
+    void deleteSlotCancelsBookingsAndWaitlist() throws Exception {
+        SeededDatabase.get();
+        LocalTime startTime = LocalTime.of(23, 0);
+        int slotId = addSingleSeatSlot(startTime);
+        int bookingId = customerDAO.createBooking(21, slotId, CENTER_ID, date);
+        assertTrue(bookingId > 0, "booking " + bookingId);
+        int waitlistId = customerDAO.joinWaitlist(22, slotId, CENTER_ID, date);
+        assertTrue(waitlistId > 0, "waitlist " + waitlistId);
+
+        assertTrue(ownerDAO.deleteSlot(CENTER_ID, startTime));
+
+        assertEquals(0, SeededDatabase.queryInt("SELECT COUNT(*) FROM CustomerBooking WHERE slotId = ?", slotId));
+        assertEquals(0, SeededDatabase.queryInt("SELECT COUNT(*) FROM AvailableSeats WHERE slotId = ?", slotId));
+        assertEquals(0, SeededDatabase.queryInt("SELECT COUNT(*) FROM waitlist WHERE slotId = ? AND Status = 'waiting'", slotId));
+        awaitNotifications(21, 22);
+    }
+
+    /**
+     * Cancels every booking of a sold-out slot and verifies that the waiting customer is told as well.
+     */
+    @Test
+    void cancelAllNotifiesWaitingCustomers() throws Exception {
+        SeededDatabase.get();
+        LocalTime startTime = LocalTime.of(22, 30);
+        int slotId = addSingleSeatSlot(startTime);
+        assertTrue(customerDAO.createBooking(23, slotId, CENTER_ID, date) > 0);
+        assertTrue(customerDAO.joinWaitlist(24, slotId, CENTER_ID, date) > 0);
+
+        assertEquals(1, customerDAO.cancelAll(slotId, date));
+        awaitNotifications(23, 24);
+        assertTrue(ownerDAO.deleteSlot(CENTER_ID, startTime));
+    }
+
+    // Adds a slot with one seat to the test center and returns its ID
+    private int addSingleSeatSlot(LocalTime startTime) throws Exception {
+        assertTrue(ownerDAO.addSlots(CENTER_ID, new GymSlots(CENTER_ID, startTime, startTime.plusMinutes(30), 1, 100)));
+        return SeededDatabase.queryInt("SELECT slotsId FROM Slots WHERE centerId = ? AND StartTime = ?",
+                CENTER_ID, java.sql.Time.valueOf(startTime));
+    }
+
+    // Waits until every given customer has been sent a notification
+    private void awaitNotifications(int... customerIds) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        for (int customerId : customerIds) {
+            while (delivered.stream().noneMatch(n -> n.getUserId() == customerId)) {
+                assertTrue(System.currentTimeMillis() < deadline, "customer " + customerId + " was not notified: " + delivered);
+                Thread.sleep(10);
+            }
+        }
+    }
+}
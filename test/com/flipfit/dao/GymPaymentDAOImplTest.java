@@ -0,0 +1,62 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymPayment;
+import com.flipfit.testing.SeededDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymPaymentDAOImplTest {
+
+    private final GymPaymentDAO paymentDAO = new GymPaymentDAOImpl();
+
+    /**
+     * Writes a batch in which one payment is rejected by the database and verifies that only that payment
+     * fails while the rest of the batch is stored.
+     */
+    @Test
+    void badRowFailsAlone() throws Exception {
+        SeededDatabase.get();
+        String key = "test-bad-row-" + System.nanoTime();
+        GymPayment good = new GymPayment(11, "card", key + ":good");
+        GymPayment tooLong = new GymPayment(12, "a mode longer than twenty characters", key + ":long");
+        GymPayment unkeyed = new GymPayment(13, "upi");
+
+        assertEquals(2, paymentDAO.savePayments(Arrays.asList(good, tooLong, unkeyed)));
+        assertTrue(good.getPaymentID() > 0, "good payment " + good.getPaymentID());
+        assertTrue(unkeyed.getPaymentID() > 0, "unkeyed payment " + unkeyed.getPaymentID());
+        assertEquals(-1, tooLong.getPaymentID());
+        assertEquals(0, SeededDatabase.queryInt("SELECT COUNT(*) FROM payment WHERE IdempotencyKey = ?", key + ":long"));
+    }
+
+    /**
+     * Reuses an idempotency key for another booking, in the same batch and in a later one, and verifies that
+     * those payments are rejected while a true retry gets the original payment.
+     */
+    @Test
+    void keyReusedForAnotherBookingIsRejected() throws Exception {
+        SeededDatabase.get();
+        String key = "test-reused-" + System.nanoTime();
+        GymPayment original = new GymPayment(14, "card", key);
+        GymPayment otherInBatch = new GymPayment(15, "card", key);
+        assertEquals(1, paymentDAO.savePayments(Arrays.asList(original, otherInBatch)));
+        assertTrue(original.getPaymentID() > 0);
+        assertEquals(-1, otherInBatch.getPaymentID());
+
+        GymPayment retry = new GymPayment(14, "card", key);
+        GymPayment otherLater = new GymPayment(16, "card", key);
+        assertEquals(0, paymentDAO.savePayments(Arrays.asList(retry, otherLater)));
+        assertEquals(original.getPaymentID(), retry.getPaymentID());
+        assertEquals(-1, otherLater.getPaymentID());
+
+        GymPayment otherAmount = new GymPayment(14, "card", key);
+        otherAmount.setAmount(original.getAmount() + 1);
+        assertEquals(0, paymentDAO.savePayments(Collections.singletonList(otherAmount)));
+        assertEquals(-1, otherAmount.getPaymentID());
+        assertEquals(1, SeededDatabase.queryInt("SELECT COUNT(*) FROM payment WHERE IdempotencyKey = ?", key));
+    }
+}
@@ -0,0 +1,50 @@
+package com.flipfit.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GymSeatInventoryCacheTest {
+
+    private final GymSeatInventoryCache inventory = new GymSeatInventoryCache(new GymSlotDAOImpl());  // Never started
+    private final Date date = java.sql.Date.valueOf(LocalDate.now().plusDays(1));
+
+    /**
+     * A count read before a booking committed must not be stored once the booking's write-through has run,
+     * neither for a key that was not cached yet nor over a cached count.
+     */
+    @Test
+    void loadsDoNotOverwriteConcurrentBookings() {
+        GymSeatInventoryCache.Load miss = inventory.beforeLoad(1, date);
+        inventory.onSeatTaken(1, date);  // Committed while the count was being read
+        inventory.loaded(miss, 10);
+        assertNull(inventory.get(1, date), "a count that misses a booking was stored");
+
+        inventory.loaded(inventory.beforeLoad(1, date), 9);
+        assertEquals(9, inventory.get(1, date));
+
+        GymSeatInventoryCache.Load reconcile = inventory.beforeLoad(1, date);
+        inventory.onSeatTaken(1, date);
+        inventory.onSeatReleased(1, date);
+        inventory.onSeatTaken(1, date);
+        inventory.loaded(reconcile, 9);
+        assertEquals(8, inventory.get(1, date), "the reconciliation overwrote the bookings");
+    }
+
+    // A count that was set directly in the database cannot be overwritten by a load that started before
+    @Test
+    void invalidationDiscardsRunningLoads() {
+        inventory.loaded(inventory.beforeLoad(2, date), 5);
+        GymSeatInventoryCache.Load running = inventory.beforeLoad(2, date);
+        inventory.invalidate(2, date);
+        inventory.loaded(running, 5);
+        assertNull(inventory.get(2, date));
+
+        inventory.loaded(inventory.beforeLoad(2, date), 3);
+        assertEquals(3, inventory.get(2, date));
+    }
+}
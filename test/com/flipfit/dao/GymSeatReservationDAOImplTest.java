@@ -0,0 +1,83 @@
+package com.flipfit.dao;
+
+import com.flipfit.business.GymCustomerBusiness;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.testing.Workers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymSeatReservationDAOImplTest {
+
+    /**
+     * Fires thousands of bookings from many threads at the seats of one fresh slot on one date while another
+     * thread keeps reading the seat count, and verifies that exactly as many bookings as seats were accepted,
+     * both as reported to the callers and as stored, and that the seat count never went below zero.
+     */
+    @Test
+    void thousandsOfConcurrentBookingsNeverOversell() throws Exception {
+        SeededDatabase database = SeededDatabase.get();
+        GymCustomerBusiness customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
+        int threads = 64;
+        int attemptsPerThread = 64;  // 4096 bookings for the seats of one slot
+        int seats = database.seatsPerSlot;
+        int slotId = 2;
+        int centerId = database.centerOf(slotId);
+        Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(2));  // A date no other test touches
+
+        // Watches the stored and the cached seat count while the bookings run
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger lowestStored = new AtomicInteger(seats);
+        AtomicInteger lowestCached = new AtomicInteger(seats);
+        AtomicInteger samples = new AtomicInteger();
+        Thread watcher = new Thread(() -> {
+            while (running.get()) {
+                try {
+                    int stored = SeededDatabase.queryInt("SELECT NumSeats FROM AvailableSeats WHERE slotId = ? AND Date = ?", slotId, date);
+                    if (stored != -1 || !running.get()) {  // -1: the row is created by the first booking
+                        lowestStored.accumulateAndGet(stored, Math::min);
+                    }
+                    Integer cached = GymServiceRegistry.getInstance().getSeatInventory().get(slotId, date);
+                    if (cached != null) {
+                        lowestCached.accumulateAndGet(cached, Math::min);
+                    }
+                    samples.incrementAndGet();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }, "seat-watcher");
+        watcher.start();
+
+        AtomicInteger accepted = new AtomicInteger();
+        try {
+            Workers.runConcurrently(threads, thread -> {
+                for (int a = 0; a < attemptsPerThread; a++) {
+                    int customerId = 1 + (thread * attemptsPerThread + a) % database.customers;
+                    if (customerBusiness.createBooking(customerId, slotId, centerId, date) > 0) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        } finally {
+            running.set(false);
+            watcher.join();
+        }
+
+        assertEquals(seats, accepted.get(), "bookings accepted");
+        assertEquals(seats, SeededDatabase.queryInt("SELECT COUNT(*) FROM CustomerBooking WHERE slotId = ? AND Date = ?", slotId, date),
+                "bookings stored");
+        assertEquals(0, SeededDatabase.queryInt("SELECT NumSeats FROM AvailableSeats WHERE slotId = ? AND Date = ?", slotId, date),
+                "seats left");
+        assertTrue(samples.get() > 0, "the seat count was never read");
+        assertTrue(lowestStored.get() >= 0, "the stored seat count went down to " + lowestStored.get());
+        assertTrue(lowestCached.get() >= 0, "the cached seat count went down to " + lowestCached.get());
+    }
+}
@@ -0,0 +1,97 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymSlots;
+import com.flipfit.business.GymCenterBusiness;
+import com.flipfit.business.GymCustomerBusiness;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.utils.DBConnection;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymSlotCatalogTest {
+
+    private static GymCenterBusiness centerBusiness;
+    private static GymCustomerBusiness customerBusiness;
+    private static GymOwnerDAO ownerDAO;
+
+    @BeforeAll
+    static void seed() {
+        SeededDatabase.get();
+        centerBusiness = GymServiceRegistry.getInstance().getCenterBusiness();
+        customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
+        ownerDAO = GymServiceRegistry.getInstance().getOwnerDAO();
+    }
+
+    /**
+     * Adds a slot, books and pays it, adds another one behind the catalog's back as another node would, then
+     * deletes both, and verifies that the slot catalog follows each change: the owner's add and delete at once,
+     * the other node's add once the version stamp is checked, and that bookings and payments use the
+     * catalog's capacity and cost.
+     */
+    @Test
+    void catalogFollowsLocalAndRemoteChanges() throws Exception {
+        GymSlotCatalog catalog = GymSlotCatalog.getInstance();
+        int centerId = 2;
+        Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(7));  // A date no other test touches
+        LocalTime localStart = LocalTime.of(23, 10);
+        LocalTime remoteStart = LocalTime.of(23, 40);
+
+        ownerDAO.addSlots(centerId, new GymSlots(centerId, localStart, LocalTime.of(23, 30), 2, 777));
+        GymSlots added = findSlot(centerId, date, localStart);
+        assertNotNull(added, "the added slot is missing");
+        assertEquals(2, added.getCost());  // Slot listings carry the seats left for the date in the cost field
+
+        // Two seats are sold, the third booking is refused, and the payment is charged the slot's cost
+        int first = customerBusiness.createBooking(1, added.getSlotId(), centerId, date);
+        int second = customerBusiness.createBooking(2, added.getSlotId(), centerId, date);
+        assertTrue(first > 0 && second > 0, "the slot's two seats were not sold");
+        assertTrue(customerBusiness.createBooking(3, added.getSlotId(), centerId, date) <= 0, "a third seat was sold");
+        int paymentId = customerBusiness.makepayment(first, "UPI");
+        assertEquals(777, SeededDatabase.queryInt("SELECT Amount FROM payment WHERE PaymentId = ?", paymentId));
+        customerBusiness.cancelBooking(1, first);
+        customerBusiness.cancelBooking(2, second);
+
+        // Another node adds a slot and stamps the version
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO Slots (centerId, StartTime, EndTime, NumOfSeats, Cost) VALUES (?, ?, ?, 5, 50)");
+             PreparedStatement stamp = conn.prepareStatement("UPDATE cache_version SET Version = Version + 1 WHERE Name = 'Slots'")) {
+            insert.setInt(1, centerId);
+            insert.setTime(2, java.sql.Time.valueOf(remoteStart));
+            insert.setTime(3, java.sql.Time.valueOf(LocalTime.of(23, 59)));
+            insert.executeUpdate();
+            stamp.executeUpdate();
+        }
+        catalog.checkVersion();
+        GymSlots remote = findSlot(centerId, date, remoteStart);
+        assertNotNull(remote, "the remote add is missing: " + catalog);
+
+        ownerDAO.deleteSlot(centerId, localStart);
+        ownerDAO.deleteSlot(centerId, remoteStart);
+        assertNull(findSlot(centerId, date, localStart), "the deleted slot is still listed");
+        assertNull(findSlot(centerId, date, remoteStart), "the deleted remote slot is still listed");
+        assertTrue(customerBusiness.createBooking(4, remote.getSlotId(), centerId, date) <= 0, "a deleted slot was booked");
+    }
+
+    // The slot of a center starting at the given time in the center's slot listing, or null
+    private static GymSlots findSlot(int centerId, Date date, LocalTime startTime) {
+        for (GymSlots slot : centerBusiness.viewSlots(centerId, date)) {
+            if (slot.getStartTime().equals(startTime)) {
+                return slot;
+            }
+        }
+        return null;
+    }
+}
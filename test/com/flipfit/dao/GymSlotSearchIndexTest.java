@@ -0,0 +1,78 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymSlotAvailability;
+import com.flipfit.bean.GymSlots;
+import com.flipfit.business.GymCenterBusiness;
+import com.flipfit.business.GymCustomerBusiness;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class GymSlotSearchIndexTest {
+
+    /**
+     * Adds a slot, fills up another one and verifies that paging through a slot search returns exactly the
+     * free slots the per-center listing shows for the same location, window and dates, in the same order.
+     */
+    @Test
+    void searchMatchesThePerCenterListing() throws Exception {
+        SeededDatabase database = SeededDatabase.get();
+        GymCenterBusiness centerBusiness = GymServiceRegistry.getInstance().getCenterBusiness();
+        GymCustomerBusiness customerBusiness = GymServiceRegistry.getInstance().getCustomerBusiness();
+        int centerId = 3;
+        String location = SeededDatabase.location(centerId);
+        LocalTime fromTime = LocalTime.of(7, 0);
+        LocalTime toTime = LocalTime.of(12, 0);
+        LocalDate firstDate = LocalDate.now().plusYears(6);  // Dates no other test touches
+        LocalDate lastDate = firstDate.plusDays(2);
+
+        // A new slot must be found without waiting for the background refresh
+        GymServiceRegistry.getInstance().getOwnerDAO().addSlots(Collections.singletonList(
+                new GymSlots(centerId, LocalTime.of(11, 30), LocalTime.of(12, 30), database.seatsPerSlot, 300)));
+        // A full slot must not be found
+        int fullSlot = (centerId - 1) * database.slotsPerCenter + 2;  // Starts at 07:00
+        for (int seat = 0; seat < database.seatsPerSlot; seat++) {
+            customerBusiness.createBooking(1 + seat, fullSlot, centerId, java.sql.Date.valueOf(firstDate));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (LocalDate day = firstDate; !day.isAfter(lastDate); day = day.plusDays(1)) {
+            List<GymSlots> slots = new ArrayList<>();
+            for (List<GymSlots> ofCenter : centerBusiness.viewSlots(database.centersAt(location), java.sql.Date.valueOf(day)).values()) {
+                slots.addAll(ofCenter);
+            }
+            slots.sort(Comparator.comparing(GymSlots::getStartTime).thenComparingInt(GymSlots::getSlotId));
+            for (GymSlots slot : slots) {
+                // Slot listings carry the seats left for the date in the cost field
+                if (!slot.getStartTime().isBefore(fromTime) && !slot.getStartTime().isAfter(toTime) && slot.getCost() > 0) {
+                    expected.add(slot.getSlotId() + "@" + day + ":" + slot.getCost());
+                }
+            }
+        }
+
+        List<String> found = new ArrayList<>();
+        String after = null;
+        List<GymSlotAvailability> page;
+        do {
+            page = centerBusiness.searchSlots(location, fromTime, toTime, java.sql.Date.valueOf(firstDate),
+                    java.sql.Date.valueOf(lastDate), after, 7);
+            for (GymSlotAvailability slot : page) {
+                found.add(slot.getSlotId() + "@" + slot.getDate() + ":" + slot.getAvailableSeats());
+            }
+            after = page.isEmpty() ? null : GymSlotSearchIndex.cursorOf(page.get(page.size() - 1));
+        } while (page.size() == 7);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, found);
+    }
+}
@@ -0,0 +1,57 @@
+package com.flipfit.dao;
+
+import com.flipfit.bean.GymSlots;
+import com.flipfit.testing.SeededDatabase;
+import com.flipfit.testing.Workers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GymWaitlistDAOImplTest {
+
+    private static final int CENTER_ID = 12;
+    private final Date date = java.sql.Date.valueOf(LocalDate.now().plusYears(11));  // A date no other test touches
+    private final GymCustomerDAO customerDAO = new GymCustomerDAOImpl();
+    private final GymWaitlistDAO waitlistDAO = new GymWaitlistDAOImpl();
+    private final GymOwnerDAO ownerDAO = new GymOwnerDAOImpl(customerDAO);
+
+    /**
+     * Only a sold-out slot can be waited for, a customer holding its seat cannot wait for it, and a customer
+     * waits at most once, even when joining from many threads at the same time.
+     */
+    @Test
+    void joinsOnlySoldOutSlotsOnce() throws Exception {
+        SeededDatabase.get();
+        LocalTime startTime = LocalTime.of(23, 0);
+        assertTrue(ownerDAO.addSlots(CENTER_ID, new GymSlots(CENTER_ID, startTime, startTime.plusMinutes(30), 1, 100)));
+        int slotId = SeededDatabase.queryInt("SELECT slotsId FROM Slots WHERE centerId = ? AND StartTime = ?",
+                CENTER_ID, java.sql.Time.valueOf(startTime));
+
+        assertEquals(-1, waitlistDAO.joinWaitlist(41, slotId, CENTER_ID, date), "slot with seats left");
+        assertTrue(customerDAO.createBooking(41, slotId, CENTER_ID, date) > 0);
+        assertEquals(-1, waitlistDAO.joinWaitlist(41, slotId, CENTER_ID, date), "customer holding the seat");
+
+        int waitlistId = waitlistDAO.joinWaitlist(42, slotId, CENTER_ID, date);
+        assertTrue(waitlistId > 0);
+        assertEquals(-1, waitlistDAO.joinWaitlist(42, slotId, CENTER_ID, date), "customer already waiting");
+        assertTrue(waitlistDAO.leaveWaitlist(waitlistId, 42));
+        assertTrue(waitlistDAO.joinWaitlist(42, slotId, CENTER_ID, date) > 0, "customer who left joins again");
+
+        AtomicInteger joined = new AtomicInteger();
+        Workers.runConcurrently(8, thread -> {
+            if (waitlistDAO.joinWaitlist(43, slotId, CENTER_ID, date) > 0) {
+                joined.incrementAndGet();
+            }
+        });
+        assertEquals(1, joined.get(), "concurrent joins of one customer");
+        assertEquals(2, SeededDatabase.queryInt("SELECT COUNT(*) FROM waitlist WHERE slotId = ? AND Status = 'waiting'", slotId));
+
+        assertTrue(ownerDAO.deleteSlot(CENTER_ID, startTime));
+    }
+}
@@ -0,0 +1,53 @@
+package com.flipfit.utils;
+
+import com.flipfit.business.GymCenterBusiness;
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.testing.SeededDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    // Recording a timer sample allocates nothing; only the proxy's reflective dispatch does
+    @Test
+    void recordingASampleAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LatencyHistogram histogram = new LatencyHistogram();
+        int samples = 1_000_000;
+        for (int i = 0; i < samples; i++) {
+            histogram.record(i);  // Warm up so the measured loop runs compiled
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {  // The quietest round counts; JIT and TLAB refills add a few bytes now and then
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < samples; i++) {
+                histogram.record(i * 37L);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - allocatedBefore);
+        }
+
+        assertTrue(allocated < 1024, samples + " samples allocated " + allocated + " bytes");  // A few bytes of noise from the measurement itself
+    }
+
+    // The business, DAO and pool metrics show up in the Prometheus export
+    @Test
+    void serviceCallsAreExported() {
+        SeededDatabase.get();
+        GymCenterBusiness centerBusiness = GymServiceRegistry.getInstance().getCenterBusiness();
+        Date date = java.sql.Date.valueOf(LocalDate.now());
+        centerBusiness.searchSlots(null, LocalTime.NOON, LocalTime.MIDNIGHT, date, date, null, 1);
+        centerBusiness.viewSlots(1, date);
+
+        String scrape = MetricsRegistry.getInstance().scrape();
+        assertTrue(scrape.contains("flipfit_business_seconds_count{operation=\"GymCenterBusiness.searchSlots\"}"), scrape);
+        assertTrue(scrape.contains("flipfit_dao_seconds"), scrape);
+        assertTrue(scrape.contains("flipfit_pool_wait_seconds_count"), scrape);
+    }
+}
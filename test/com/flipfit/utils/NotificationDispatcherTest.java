@@ -0,0 +1,50 @@
+package com.flipfit.utils;
+
+import com.flipfit.bean.GymNotification;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationDispatcherTest {
+
+    /**
+     * Floods a dispatcher whose only sink is very slow and verifies that publishing never waits for it:
+     * the queue fills up, the overflow is dropped and counted, and no publish call takes long.
+     */
+    @Test
+    void publishDoesNotWaitForASlowSink() {
+        NotificationSink slowSink = new NotificationSink() {
+            @Override
+            public void deliver(List<GymNotification> notifications) throws IOException {
+                try {
+                    Thread.sleep(20);  // A mail relay that takes 20 ms per batch
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public String getName() {
+                return "slow";
+            }
+        };
+        NotificationDispatcher dispatcher = new NotificationDispatcher(Collections.singletonList(slowSink), 1_000, 1, 100);
+        int published = 20_000;
+        int accepted = 0;
+        long slowestNanos = 0;
+        for (int i = 1; i <= published; i++) {
+            long start = System.nanoTime();
+            if (dispatcher.publish(i, i, NotificationDispatcher.BOOKING, "Booking " + i + " confirmed")) {
+                accepted++;
+            }
+            slowestNanos = Math.max(slowestNanos, System.nanoTime() - start);
+        }
+
+        assertTrue(accepted < published, "the overflow must be dropped, queued " + accepted + ": " + dispatcher);
+        assertTrue(slowestNanos < 20_000_000L, "a publish call waited " + slowestNanos / 1e6 + " ms: " + dispatcher);
+    }
+}
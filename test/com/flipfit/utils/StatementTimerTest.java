@@ -0,0 +1,67 @@
+package com.flipfit.utils;
+
+import com.flipfit.business.GymServiceRegistry;
+import com.flipfit.dao.GymCenterCache;
+import com.flipfit.testing.SeededDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementTimerTest {
+
+    /**
+     * Lists all customers and all centers and runs a large query with a secret bind value, then verifies that
+     * the slow-query log flags both listings as full scans and describes the bind value without showing it.
+     */
+    @Test
+    void slowQueryLogFlagsFullScansAndRedactsBinds() throws Exception {
+        SeededDatabase.get();
+        DataSourceConfig config = DBConnection.config();
+        ConnectionPool pool = DBConnection.pool();
+        StatementTimer sampled = pool.getStatementTimer();
+        // Count the rows of every execution so the listings below are certain to be flagged
+        StatementTimer timer = new StatementTimer(config.getSlowQueryMillis(), config.getSlowQueryRows(), config.getSlowQueryFile(), 1,
+                MetricsRegistry.getInstance());
+        pool.setStatementTimer(timer);
+        String secret = "secret-" + System.nanoTime();
+        GymCenterCache.getInstance().invalidateAll();  // Make the center listing read the table
+        try {
+            GymServiceRegistry.getInstance().getUserBusiness().viewAllCustomers();
+            GymServiceRegistry.getInstance().getAdminBusiness().viewCenter();
+            try (Connection conn = DBConnection.connect();
+                 PreparedStatement statement = conn.prepareStatement("SELECT Email FROM Customer WHERE Email <> ?")) {
+                statement.setString(1, secret);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getString("Email");
+                    }
+                }
+            }
+        } finally {
+            pool.setStatementTimer(sampled);
+        }
+
+        String log = new String(Files.readAllBytes(Paths.get(config.getSlowQueryFile())), StandardCharsets.UTF_8);
+        boolean customerScan = false;
+        boolean centerScan = false;
+        boolean bindDescribed = false;
+        for (String line : log.split("\\R")) {
+            customerScan |= line.contains(" full-scan ") && line.contains("FROM Customer ORDER BY CustId\"");
+            centerScan |= line.contains(" full-scan ") && line.contains("FROM GymCenters ORDER BY centerId\"");
+            bindDescribed |= line.contains("Email <> ?") && line.contains("binds=[String(" + secret.length() + ")]");
+        }
+        assertTrue(timer.getLoggedCount() > 0, "nothing was logged");
+        assertTrue(customerScan, "the customer listing is not flagged as a full scan");
+        assertTrue(centerScan, "the center listing is not flagged as a full scan");
+        assertTrue(bindDescribed, "the bind value is not described");
+        assertFalse(log.contains(secret), "the bind value leaked into the log");
+    }
+}
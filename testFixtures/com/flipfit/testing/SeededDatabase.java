@@ -0,0 +1,238 @@
+package com.flipfit.testing;
+
+import com.flipfit.exceptions.DBConnectionException;
+import com.flipfit.utils.DBConnection;
+import com.flipfit.utils.DataSourceConfig;
+import com.flipfit.utils.PasswordHasher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The embedded database the tests and the benchmarks run against, filled with generated data; the schema
+ * comes from the regular migrations. Volumes are read from system properties so runs of different sizes
+ * can be compared: flipfit.bench.centers, flipfit.bench.slotsPerCenter, flipfit.bench.seatsPerSlot,
+ * flipfit.bench.customers and flipfit.bench.bookings.
+ *
+ * The database lives as long as the JVM and is seeded once, by the first caller of get(). Callers that
+ * change data should use their own dates or slots so they do not disturb each other.
+ */
+public final class SeededDatabase {
+
+    public static final String PASSWORD = "password";  // Password of every seeded customer
+    private static final String[] LOCATIONS = {"Bellandur", "Whitefield", "Koramangala", "Indiranagar", "HSR Layout", "Marathahalli"};
+
+    public final int centers = Integer.getInteger("flipfit.bench.centers", 50);
+    public final int slotsPerCenter = Integer.getInteger("flipfit.bench.slotsPerCenter", 12);
+    public final int seatsPerSlot = Integer.getInteger("flipfit.bench.seatsPerSlot", 50);
+    public final int customers = Integer.getInteger("flipfit.bench.customers", 5_000);
+    public final int bookings = Integer.getInteger("flipfit.bench.bookings", 50_000);
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static SeededDatabase instance;
+
+    private SeededDatabase() {
+    }
+
+    /**
+     * Returns the seeded database, seeding it on the first call.
+     * Unless another database is configured (see DataSourceConfig), the embedded backend is used, and the
+     * notification, slow-query and event logs go to temporary files.
+     */
+    public static synchronized SeededDatabase get() {
+        if (instance == null) {
+            try {
+                configure();
+                SeededDatabase database = new SeededDatabase();
+                database.seed();
+                instance = database;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create the temporary files of the test database", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the configured volumes without touching any database, e.g. to drive a server whose database
+     * was seeded by another JVM with the same flipfit.bench.* properties.
+     */
+    public static SeededDatabase volumes() {
+        return new SeededDatabase();
+    }
+
+    // Sets the defaults; must run before DBConnection and the service registry are first touched
+    private static void configure() throws IOException {
+        if (System.getProperty("flipfit.db.backend") == null && System.getProperty("flipfit.db.url") == null) {
+            System.setProperty("flipfit.db.backend", DataSourceConfig.EMBEDDED);
+        }
+        if (System.getProperty("flipfit.notify.log.file") == null) {
+            System.setProperty("flipfit.notify.log.file", Files.createTempFile("flipfit-notifications", ".log").toString());
+        }
+        if (System.getProperty("flipfit.db.slowQuery.file") == null) {
+            System.setProperty("flipfit.db.slowQuery.file", Files.createTempFile("flipfit-slow-queries", ".log").toString());
+        }
+        if (System.getProperty("flipfit.db.slowQuery.rows") == null) {
+            // Low enough that full scans of the small seeded tables (50 centers) reach the slow-query log
+            System.setProperty("flipfit.db.slowQuery.rows", "50");
+        }
+        if (System.getProperty("flipfit.events.dir") == null) {
+            // A fresh event log per JVM, so it only holds the events of this database
+            System.setProperty("flipfit.events.dir", Files.createTempDirectory("flipfit-events").toString());
+        }
+    }
+
+    /**
+     * Inserts all generated rows with JDBC batches.
+     * Bookings are spread over past dates so they do not consume seats of future dates.
+     */
+    private void seed() {
+        long start = System.nanoTime();
+        Random random = new Random(42);  // Fixed seed: every run sees the same data
+        try (Connection conn = DBConnection.connect()) {
+            conn.setAutoCommit(false);  // The schema itself is created by the migrations when the pool starts
+
+            try (PreparedStatement center = conn.prepareStatement(
+                    "INSERT INTO GymCenters(OwnerId, CenterName, Location, NumOfSlots) VALUES (?,?,?,?)")) {
+                for (int c = 1; c <= centers; c++) {
+                    center.setInt(1, 1 + c % 10);
+                    center.setString(2, "Center " + c);
+                    center.setString(3, location(c));
+                    center.setInt(4, slotsPerCenter);
+                    center.addBatch();
+                }
+                center.executeBatch();
+            }
+
+            try (PreparedStatement slot = conn.prepareStatement(
+                    "INSERT INTO Slots(centerId, StartTime, EndTime, NumOfSeats, Cost) VALUES (?,?,?,?,?)")) {
+                for (int c = 1; c <= centers; c++) {
+                    for (int s = 0; s < slotsPerCenter; s++) {
+                        LocalTime startTime = LocalTime.of(6 + s % 16, 0);
+                        slot.setInt(1, c);
+                        slot.setTime(2, Time.valueOf(startTime));
+                        slot.setTime(3, Time.valueOf(startTime.plusHours(1)));
+                        slot.setInt(4, seatsPerSlot);
+                        slot.setInt(5, 200 + 50 * (s % 4));
+                        slot.addBatch();
+                    }
+                }
+                slot.executeBatch();
+            }
+
+            // One hash for everybody keeps seeding fast; login cost is the same as with individual salts
+            String passwordHash = PasswordHasher.hash(PASSWORD);
+            try (PreparedStatement user = conn.prepareStatement(
+                    "INSERT INTO User(Name, Email, PhoneNumber, Role, Address) VALUES (?,?,?,?,?)");
+                 PreparedStatement customer = conn.prepareStatement("INSERT INTO Customer VALUES (?,?,?,?,?,?)");
+                 PreparedStatement registration = conn.prepareStatement("INSERT INTO Registration VALUES (?,?,?,?)")) {
+                for (int u = 1; u <= customers; u++) {
+                    user.setString(1, "Customer " + u);  // Generated IDs run from 1 in a fresh database
+                    user.setString(2, email(u));
+                    user.setString(3, "9000000000");
+                    user.setString(4, "gymcustomer");
+                    user.setString(5, "Bengaluru");
+                    user.addBatch();
+                    customer.setInt(1, u);
+                    customer.setString(2, "Customer " + u);
+                    customer.setString(3, email(u));
+                    customer.setString(4, "Bengaluru");
+                    customer.setString(5, "9000000000");
+                    customer.setString(6, passwordHash);
+                    customer.addBatch();
+                    registration.setInt(1, u);
+                    registration.setString(2, email(u));
+                    registration.setString(3, passwordHash);
+                    registration.setString(4, "gymcustomer");
+                    registration.addBatch();
+                    if (u % BATCH_SIZE == 0) {
+                        user.executeBatch();
+                        customer.executeBatch();
+                        registration.executeBatch();
+                    }
+                }
+                user.executeBatch();
+                customer.executeBatch();
+                registration.executeBatch();
+            }
+
+            LocalDate today = LocalDate.now();
+            int totalSlots = centers * slotsPerCenter;
+            try (PreparedStatement booking = conn.prepareStatement(
+                    "INSERT INTO CustomerBooking(CustId, centerId, slotId, Date) VALUES (?,?,?,?)")) {
+                for (int b = 1; b <= bookings; b++) {
+                    int slotId = 1 + random.nextInt(totalSlots);
+                    booking.setInt(1, 1 + random.nextInt(customers));
+                    booking.setInt(2, 1 + (slotId - 1) / slotsPerCenter);
+                    booking.setInt(3, slotId);
+                    booking.setDate(4, java.sql.Date.valueOf(today.minusDays(1 + random.nextInt(365))));
+                    booking.addBatch();
+                    if (b % BATCH_SIZE == 0) {
+                        booking.executeBatch();
+                    }
+                }
+                booking.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException | DBConnectionException e) {
+            throw new IllegalStateException("Seeding the database failed", e);
+        }
+        System.out.printf("# Seeded %d centers, %d slots, %d customers, %d bookings in %.1fs%n%n",
+                centers, centers * slotsPerCenter, customers, bookings, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Runs a query that returns one number, e.g. a COUNT or SUM.
+     * @param sql the query; its parameters are bound in order from binds
+     * @param binds Integer, String or java.sql.Date values
+     * @return the value of the first column of the first row, or -1 if there is no row
+     */
+    public static int queryInt(String sql, Object... binds) throws SQLException, DBConnectionException {
+        try (Connection conn = DBConnection.connect();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            for (int i = 0; i < binds.length; i++) {
+                statement.setObject(i + 1, binds[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    // Email address of a seeded customer
+    public static String email(int customerId) {
+        return "customer" + customerId + "@flipfit.test";
+    }
+
+    // Location of a seeded center
+    public static String location(int centerId) {
+        return LOCATIONS[centerId % LOCATIONS.length];
+    }
+
+    // Center of a seeded slot
+    public int centerOf(int slotId) {
+        return 1 + (slotId - 1) / slotsPerCenter;
+    }
+
+    // IDs of the seeded centers at a location
+    public List<Integer> centersAt(String location) {
+        List<Integer> centerIds = new ArrayList<>();
+        for (int c = 1; c <= centers; c++) {
+            if (location(c).equals(location)) {
+                centerIds.add(c);
+            }
+        }
+        return centerIds;
+    }
+}
@@ -0,0 +1,53 @@
+package com.flipfit.testing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the same work on many threads that all start at the same moment, to provoke races.
+ */
+public final class Workers {
+
+    // The work of one thread
+    @FunctionalInterface
+    public interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private Workers() {
+    }
+
+    /**
+     * Starts the workers together and waits for all of them.
+     * @param threads the number of threads
+     * @param worker the work, called once per thread with the thread's index
+     * @throws AssertionError carrying the first failure if any worker threw
+     */
+    public static void runConcurrently(int threads, Worker worker) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> running = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread runner = new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(thread);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }, "worker-" + t);
+            runner.start();
+            running.add(runner);
+        }
+        start.countDown();
+        for (Thread runner : running) {
+            runner.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.size() + " of " + threads + " workers failed", failures.get(0));
+        }
+    }
+}